@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import Services.AudioAnalysisService;
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The TarsosDSP pass behind song analysis (decode, FFT, onsets, beat tracking) on a generated
+ * click-track WAV. Decoding goes through ffmpeg as in the application, so ffmpeg must be on
+ * the PATH. Single-shot: one analysis per measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AudioAnalysisBenchmark {
+
+    @Param({"30", "180"})
+    int seconds;
+
+    private Path dir;
+    private File wav;
+    private AudioAnalysisService service;
+    private MethodHandle analyze;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        dir = Fixtures.tempDir("audio");
+        wav = dir.resolve("click-" + seconds + ".wav").toFile();
+        Fixtures.writeWav(wav.toPath(), seconds, 124.0);
+
+        service = new AudioAnalysisService();
+        // performAdvancedTarsosAnalysis is private; its result record is private too
+        Class<?> resultType = Class.forName("Services.AudioAnalysisService$AnalysisResult");
+        analyze = MethodHandles.privateLookupIn(AudioAnalysisService.class, MethodHandles.lookup())
+                .findVirtual(AudioAnalysisService.class, "performAdvancedTarsosAnalysis", MethodType.methodType(resultType, File.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Object performAdvancedTarsosAnalysis() throws Throwable {
+        return analyze.invoke(service, wav);
+    }
+}
@@ -0,0 +1,125 @@
+package Benchmarks;
+
+import Models.Song;
+import Models.SongAnalysis;
+import Services.AudioAnalysisService;
+import Services.DjTransitionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link DjTransitionService#calculateTransition} between two analyzed songs. The analyses
+ * are generated in the shape AudioAnalysisService stores (beat times, per-beat spectral
+ * features and beat metadata JSON) and served from memory instead of the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DjTransitionBenchmark {
+
+    // Song length in seconds; beat count grows with it
+    @Param({"180", "420"})
+    int durationSeconds;
+
+    private DjTransitionService service;
+    private Song current;
+    private Song next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        current = song(1L, durationSeconds);
+        next = song(2L, durationSeconds);
+        Map<Long, SongAnalysis> analyses = Map.of(
+                1L, analysis(durationSeconds, 124.0, 1),
+                2L, analysis(durationSeconds, 126.0, 2));
+
+        service = new DjTransitionService();
+        Fixtures.inject(service, "audioAnalysisService", new AudioAnalysisService() {
+            @Override
+            public SongAnalysis getAnalysis(Long songId) {
+                return analyses.get(songId);
+            }
+        });
+    }
+
+    @Benchmark
+    public DjTransitionService.DjTransition calculateTransition() {
+        return service.calculateTransition(current, next, 8);
+    }
+
+    private static Song song(long id, int durationSeconds) {
+        Song song = new Song();
+        song.id = id;
+        song.setTitle("Track " + id);
+        song.setDurationSeconds(durationSeconds);
+        return song;
+    }
+
+    private static SongAnalysis analysis(int durationSeconds, double bpm, long seed) throws Exception {
+        Random random = new Random(seed);
+        double interval = 60.0 / bpm;
+        List<Double> beatTimes = new ArrayList<>();
+        for (double time = 0.2; time < durationSeconds; time += interval) {
+            beatTimes.add(time);
+        }
+
+        List<Map<String, Object>> features = new ArrayList<>(beatTimes.size());
+        List<Map<String, Object>> metadata = new ArrayList<>(beatTimes.size());
+        int[][] similar = new int[beatTimes.size()][];
+        for (int i = 0; i < beatTimes.size(); i++) {
+            double[] spectral = new double[12];
+            for (int k = 0; k < spectral.length; k++) {
+                spectral[k] = random.nextDouble() * 100;
+            }
+            Map<String, Object> feature = new HashMap<>();
+            feature.put("time", beatTimes.get(i));
+            feature.put("index", i);
+            feature.put("spectral", spectral);
+            feature.put("strength", 0.4 + random.nextDouble() * 0.6);
+            features.add(feature);
+
+            Map<String, Object> beat = new HashMap<>();
+            beat.put("index", i);
+            beat.put("time", beatTimes.get(i));
+            beat.put("beatInBar", i % 4 + 1);
+            beat.put("barNumber", i / 4);
+            beat.put("strength", feature.get("strength"));
+            beat.put("relativePosition", beatTimes.get(i) / durationSeconds);
+            metadata.add(beat);
+
+            similar[i] = new int[] {(i + 16) % beatTimes.size(), (i + 32) % beatTimes.size()};
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        SongAnalysis analysis = new SongAnalysis();
+        analysis.setBeatTimes(beatTimes);
+        analysis.setBeatCount(beatTimes.size());
+        analysis.setAverageBpm(bpm);
+        analysis.setSegmentFeaturesJson(mapper.writeValueAsString(features));
+        analysis.setBeatMetadataJson(mapper.writeValueAsString(metadata));
+        analysis.setSimilarBeatsMatrix(similar, 10);
+        analysis.setStatus(SongAnalysis.AnalysisStatus.COMPLETED);
+        return analysis;
+    }
+}
@@ -0,0 +1,140 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic local inputs for the benchmarks. Everything is generated into a temp directory
+ * at setup, so runs need no media library, network or running application.
+ */
+final class Fixtures {
+
+    static final int SAMPLE_RATE = 44100;
+
+    private Fixtures() {
+    }
+
+    static Path tempDir(String name) throws IOException {
+        return Files.createTempDirectory("jmedia-bench-" + name);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 16-bit mono PCM WAV: a quiet 220 Hz tone with a decaying click and low thump on every
+     * beat, so onset detection and beat tracking settle on a steady tempo.
+     */
+    static void writeWav(Path file, int seconds, double bpm) throws IOException {
+        int samples = SAMPLE_RATE * seconds;
+        int beatSamples = (int) Math.round(SAMPLE_RATE * 60.0 / bpm);
+        ByteBuffer pcm = ByteBuffer.allocate(samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < samples; i++) {
+            double t = (double) i / SAMPLE_RATE;
+            double sinceBeat = (double) (i % beatSamples) / SAMPLE_RATE;
+            double envelope = Math.exp(-sinceBeat * 40);
+            double value = 0.08 * Math.sin(2 * Math.PI * 220 * t)
+                    + envelope * (0.5 * Math.sin(2 * Math.PI * 60 * sinceBeat) + 0.3 * Math.sin(2 * Math.PI * 1000 * sinceBeat));
+            pcm.putShort((short) Math.round(Math.max(-1, Math.min(1, value)) * Short.MAX_VALUE));
+        }
+        pcm.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(36 + pcm.remaining())
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+                .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+                .putShort((short) 1).putShort((short) 1)
+                .putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 2)
+                .putShort((short) 2).putShort((short) 16)
+                .put("data".getBytes(StandardCharsets.US_ASCII)).putInt(pcm.remaining());
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            channel.write(pcm);
+        }
+    }
+
+    static void writeSrt(Path file, int cues) throws IOException {
+        StringBuilder srt = new StringBuilder(cues * 80);
+        for (int i = 0; i < cues; i++) {
+            srt.append(i + 1).append('\n')
+                    .append(srtTime(i * 3000L)).append(" --> ").append(srtTime(i * 3000L + 2500)).append('\n')
+                    .append("Line ").append(i).append(" of the synthetic subtitle track,\n")
+                    .append("with a <i>second</i> row.\n\n");
+        }
+        Files.writeString(file, srt, StandardCharsets.UTF_8);
+    }
+
+    static void writeAss(Path file, int cues) throws IOException {
+        StringBuilder ass = new StringBuilder(cues * 120);
+        ass.append("[Script Info]\nScriptType: v4.00+\nPlayResX: 1920\nPlayResY: 1080\n\n")
+                .append("[V4+ Styles]\n")
+                .append("Format: Name, Fontname, Fontsize, PrimaryColour, Bold, Italic, Alignment, MarginL, MarginR, MarginV\n")
+                .append("Style: Default,Arial,48,&H00FFFFFF,0,0,2,10,10,10\n\n")
+                .append("[Events]\n")
+                .append("Format: Layer, Start, End, Style, Name, MarginL, MarginR, MarginV, Effect, Text\n");
+        for (int i = 0; i < cues; i++) {
+            ass.append("Dialogue: 0,").append(assTime(i * 3000L)).append(',').append(assTime(i * 3000L + 2500))
+                    .append(",Default,,0,0,0,,{\\i1}Line ").append(i).append("{\\i0} of the synthetic track\\Nwith a second row\n");
+        }
+        Files.writeString(file, ass, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Set a field that CDI would normally inject.
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // keep walking up
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot inject " + fieldName, e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass().getName());
+    }
+
+    /**
+     * Keep per-call log lines out of the measurement output; the cost of building them is
+     * still measured.
+     */
+    static void quietLogging() {
+        Logger.getLogger("").setLevel(Level.WARNING);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private static String srtTime(long millis) {
+        return String.format("%02d:%02d:%02d,%03d", millis / 3_600_000, millis / 60_000 % 60, millis / 1000 % 60, millis % 1000);
+    }
+
+    private static String assTime(long millis) {
+        return String.format("%d:%02d:%02d.%02d", millis / 3_600_000, millis / 60_000 % 60, millis / 1000 % 60, millis % 1000 / 10);
+    }
+}
@@ -0,0 +1,96 @@
+package Benchmarks;
+
+import Models.Song;
+import Models.SongAnalysis;
+import java.time.LocalDateTime;
+import java.util.Random;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+
+/**
+ * In-memory H2 library with the application's Song mapping, bootstrapped with plain
+ * Hibernate instead of Quarkus. Rows are inserted through a stateless session, so the
+ * entity listeners (which look up CDI beans) never run.
+ */
+final class LibraryDatabase implements AutoCloseable {
+
+    private static final String[] WORDS = {
+        "love", "night", "fire", "heart", "city", "dream", "light", "rain", "summer", "shadow",
+        "river", "gold", "ghost", "electric", "silver", "wild", "broken", "ocean", "midnight", "echo",
+        "velvet", "storm", "paper", "neon", "desert", "crystal", "highway", "satellite", "winter", "honey"
+    };
+    private static final String[] GENRES = {
+        "Rock", "Pop", "Electronic", "Hip-Hop", "Jazz", "Classical", "Metal", "Folk", "R&B", "Ambient"
+    };
+
+    private final SessionFactory sessionFactory;
+    private final Session session;
+
+    private LibraryDatabase(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.session = sessionFactory.openSession();
+    }
+
+    /**
+     * A fresh database holding {@code songs} generated songs; the same seed gives the same rows.
+     */
+    static LibraryDatabase seeded(int songs, long seed) {
+        SessionFactory sessionFactory = new Configuration()
+                .addAnnotatedClass(Song.class)
+                .addAnnotatedClass(SongAnalysis.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:jmedia-bench-" + seed + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "1000")
+                .buildSessionFactory();
+
+        Random random = new Random(seed);
+        LocalDateTime added = LocalDateTime.of(2020, 1, 1, 0, 0);
+        try (StatelessSession stateless = sessionFactory.openStatelessSession()) {
+            Transaction tx = stateless.beginTransaction();
+            for (int i = 0; i < songs; i++) {
+                Song song = new Song();
+                String artist = phrase(random, 2) + " " + (i % 4000);
+                song.setTitle(phrase(random, 1 + random.nextInt(3)));
+                song.setArtist(artist);
+                song.setAlbumArtist(artist);
+                song.setAlbum(phrase(random, 2));
+                song.setGenre(GENRES[random.nextInt(GENRES.length)]);
+                song.setDurationSeconds(120 + random.nextInt(300));
+                song.setBpm(70 + random.nextInt(110));
+                song.setTrackNumber(1 + random.nextInt(14));
+                song.setPath("Artists/" + artist + "/" + song.getAlbum() + "/" + i + ".mp3");
+                song.setDateAdded(added.plusMinutes(i));
+                stateless.insert(song);
+            }
+            tx.commit();
+        }
+        return new LibraryDatabase(sessionFactory);
+    }
+
+    Session session() {
+        return session;
+    }
+
+    @Override
+    public void close() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                phrase.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            phrase.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return phrase.toString();
+    }
+}
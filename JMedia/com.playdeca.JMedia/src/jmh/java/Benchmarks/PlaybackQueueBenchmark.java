@@ -0,0 +1,77 @@
+package Benchmarks;
+
+import Controllers.PlaybackQueueController;
+import Models.PlaybackState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PlaybackQueueController} shuffling, unshuffling and picking the next song on a
+ * primary queue. Smart shuffle is left out: it goes through the track catalog and song
+ * analysis services.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaybackQueueBenchmark {
+
+    private static final Long PROFILE_ID = 1L;
+
+    @Param({"1000", "20000"})
+    int queueSize;
+
+    private PlaybackQueueController controller;
+    private PlaybackState state;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        controller = new PlaybackQueueController();
+        List<Long> ids = new ArrayList<>(queueSize);
+        for (long id = 1; id <= queueSize; id++) {
+            ids.add(id);
+        }
+        state = new PlaybackState();
+        controller.populateCue(state, ids, PROFILE_ID);
+        state.setShuffleMode(PlaybackState.ShuffleMode.SHUFFLE);
+        state.setRepeatMode(PlaybackState.RepeatMode.ALL);
+    }
+
+    @Benchmark
+    public int shuffle() {
+        controller.initShuffle(state, PROFILE_ID);
+        return state.getCueIndex();
+    }
+
+    @Benchmark
+    public int shuffleThenRestore() {
+        controller.initShuffle(state, PROFILE_ID);
+        controller.clearShuffle(state, PROFILE_ID);
+        return state.getCueIndex();
+    }
+
+    @Benchmark
+    public Long next() {
+        return controller.advance(state, true, false, PROFILE_ID);
+    }
+
+    @Benchmark
+    public Long previous() {
+        return controller.advance(state, false, false, PROFILE_ID);
+    }
+}
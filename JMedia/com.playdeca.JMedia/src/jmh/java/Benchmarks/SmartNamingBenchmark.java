@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import Models.MediaFile;
+import Services.SmartNamingService;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link SmartNamingService#detectSmartNames} over a mix of episode, anime, special and movie
+ * paths in the naming styles the patterns are written for. Reported per path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmartNamingBenchmark {
+
+    private static final String[] PATHS = {
+        "Shows/Breaking Bad/Season 02/Breaking.Bad.S02E05.720p.BluRay.x264-DEMAND.mkv",
+        "Shows/The Office (US)/Season 3/The Office - 3x07 - Branch Closing.mkv",
+        "Shows/Doctor Who/Specials/Doctor Who - SP01 - The Next Doctor.mkv",
+        "Shows/Planet Earth/Series 1/Planet Earth Episode 04 - Caves.mp4",
+        "Anime/Frieren/[SubsPlease] Sousou no Frieren - 12 (1080p) [A1B2C3D4].mkv",
+        "Anime/Naruto/Naruto 153 - The Blue Beast.mkv",
+        "Anime/One Piece/Temporada 7/One.Piece.E202.1080p.WEB-DL.mkv",
+        "Anime/Dragon Ball/Libro 2/12.mkv",
+        "Movies/Blade Runner 2049 (2017)/Blade.Runner.2049.2017.2160p.UHD.BluRay.x265-TERMiNAL.mkv",
+        "Movies/Spirited Away (2001)/Spirited Away (2001) [1080p].mp4",
+        "Movies/Heat.1995.REMASTERED.1080p.BluRay.DTS.x264.mkv",
+        "Shows/Breaking Bad/Season 02/Extras/Behind the Scenes - Making the Pilot.mkv"
+    };
+
+    private SmartNamingService service;
+    private MediaFile[] mediaFiles;
+    private String[] filenames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.quietLogging();
+        service = new SmartNamingService();
+        mediaFiles = new MediaFile[PATHS.length];
+        filenames = new String[PATHS.length];
+        for (int i = 0; i < PATHS.length; i++) {
+            boolean movie = PATHS[i].startsWith("Movies/");
+            MediaFile file = new MediaFile();
+            file.path = "/library/" + PATHS[i];
+            file.type = "video";
+            file.durationSeconds = movie ? 7200 + i * 60 : 1380 + i * 30;
+            file.width = movie ? 3840 : 1920;
+            file.height = movie ? 1606 : 1080;
+            file.videoCodec = movie ? "hevc" : "h264";
+            file.audioChannels = movie ? 6 : 2;
+            mediaFiles[i] = file;
+            filenames[i] = Path.of(PATHS[i]).getFileName().toString();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(12)
+    public void detectSmartNames(Blackhole blackhole) {
+        for (int i = 0; i < PATHS.length; i++) {
+            blackhole.consume(service.detectSmartNames(mediaFiles[i], filenames[i], PATHS[i],
+                    null, null, null, null, null, null));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package Benchmarks;
+
+import Services.SongService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One page of the library song list ({@link SongService#findAll(int, int, String, String, String)}),
+ * which also counts the matches, against a seeded in-memory H2 library.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SongSearchBenchmark {
+
+    @Param({"100000"})
+    int songs;
+
+    // Empty is the unfiltered list; "love" matches many rows; "zzqx" matches none
+    @Param({"", "love", "zzqx"})
+    String search;
+
+    @Param({"title", "dateAdded"})
+    String sortBy;
+
+    private LibraryDatabase database;
+    private SongService songService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Fixtures.quietLogging();
+        database = LibraryDatabase.seeded(songs, 42);
+        songService = new SongService();
+        Fixtures.inject(songService, "em", database.session());
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearSession() {
+        database.session().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public SongService.PaginatedSongs firstPage() {
+        return songService.findAll(1, 50, search, sortBy, "asc");
+    }
+
+    @Benchmark
+    public SongService.PaginatedSongs deepPage() {
+        return songService.findAll(200, 50, search, sortBy, "asc");
+    }
+}
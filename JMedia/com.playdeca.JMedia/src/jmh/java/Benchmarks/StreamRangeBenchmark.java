@@ -0,0 +1,115 @@
+package Benchmarks;
+
+import API.Rest.StreamAPI;
+import Controllers.PlaybackController;
+import Models.Profile;
+import Models.Settings;
+import Models.SettingsSnapshot;
+import Models.Song;
+import Services.BackgroundWorkGovernor;
+import Services.MediaMetrics;
+import Services.SettingsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link StreamAPI#streamMusicById} from request to last byte: range parsing, path
+ * resolution and writing the body (with its metering and playback tracking) to a discarding
+ * stream. The song is a generated five-minute WAV (about 26 MB), so after the first pass
+ * this measures serving from the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamRangeBenchmark {
+
+    private static final Long PROFILE_ID = 1L;
+    private static final Long SONG_ID = 1L;
+
+    // Whole file, the first 1 MiB a player asks for, and a seek to the last 8 MiB
+    @Param({"none", "bytes=0-1048575", "bytes=-8388608"})
+    String range;
+
+    private Path dir;
+    private StreamAPI api;
+    private HttpHeaders headers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        dir = Fixtures.tempDir("stream");
+        Fixtures.writeWav(dir.resolve("song.wav"), 300, 124.0);
+
+        Song song = new Song();
+        song.id = SONG_ID;
+        song.setTitle("Stream fixture");
+        song.setPath("song.wav");
+        Settings settings = new Settings();
+        settings.setLibraryPath(dir.toString());
+        SettingsSnapshot snapshot = SettingsSnapshot.of(settings, 1);
+        Profile profile = new Profile();
+        profile.id = PROFILE_ID;
+
+        MediaMetrics metrics = new MediaMetrics();
+        Fixtures.inject(metrics, "registry", new SimpleMeterRegistry());
+
+        api = new StreamAPI();
+        Fixtures.inject(api, "settingsService", new SettingsService() {
+            @Override
+            public Profile getActiveProfileFromHeaders(HttpHeaders headers) {
+                return profile;
+            }
+
+            @Override
+            public SettingsSnapshot getSnapshot() {
+                return snapshot;
+            }
+        });
+        Fixtures.inject(api, "playbackController", new PlaybackController() {
+            @Override
+            public Song findSong(Long id) {
+                return SONG_ID.equals(id) ? song : null;
+            }
+        });
+        Fixtures.inject(api, "metrics", metrics);
+        Fixtures.inject(api, "governor", new BackgroundWorkGovernor());
+
+        headers = (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(), new Class<?>[] {HttpHeaders.class},
+                (proxy, method, args) -> "getHeaderString".equals(method.getName()) && "User-Agent".equals(args[0])
+                        ? "Mozilla/5.0 (X11; Linux x86_64)" : null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public int serve() throws Exception {
+        Response response = api.streamMusicById(PROFILE_ID, SONG_ID, "none".equals(range) ? null : range, headers);
+        ((StreamingOutput) response.getEntity()).write(OutputStream.nullOutputStream());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,86 @@
+package Benchmarks;
+
+import Models.SubtitleTrack;
+import Services.SubtitleFormatConverter;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SubtitleFormatConverter} reading generated SRT and ASS files into WebVTT, and
+ * shifting an already converted track.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubtitleConversionBenchmark {
+
+    // A feature film has roughly 1500 cues
+    @Param({"1500"})
+    int cues;
+
+    private Path dir;
+    private SubtitleFormatConverter converter;
+    private SubtitleTrack srt;
+    private SubtitleTrack ass;
+    private String vtt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixtures.quietLogging();
+        dir = Fixtures.tempDir("subtitles");
+        Path srtFile = dir.resolve("track.srt");
+        Path assFile = dir.resolve("track.ass");
+        Fixtures.writeSrt(srtFile, cues);
+        Fixtures.writeAss(assFile, cues);
+
+        converter = new SubtitleFormatConverter();
+        srt = track(srtFile, "srt");
+        ass = track(assFile, "ass");
+        vtt = converter.convertToWebVTT(srt);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Fixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String srtToWebVtt() throws Exception {
+        return converter.convertToWebVTT(srt);
+    }
+
+    @Benchmark
+    public String assToWebVtt() throws Exception {
+        return converter.convertToWebVTT(ass);
+    }
+
+    @Benchmark
+    public String applyOffset() {
+        return converter.applyOffset(vtt, 1.25);
+    }
+
+    private static SubtitleTrack track(Path file, String format) {
+        SubtitleTrack track = new SubtitleTrack();
+        track.filename = file.getFileName().toString();
+        track.fullPath = file.toString();
+        track.format = format;
+        track.encoding = "UTF-8";
+        return track;
+    }
+}
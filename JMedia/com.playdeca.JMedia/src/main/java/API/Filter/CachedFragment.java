@@ -0,0 +1,18 @@
+package API.Filter;
+
+import jakarta.ws.rs.NameBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint returning an HTML fragment as cacheable by {@link FragmentCacheFilter}.
+ * Only use it on fragments that depend on nothing but the request, the active profile, the
+ * library and that profile's playback state and playlist visibility.
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CachedFragment {
+}
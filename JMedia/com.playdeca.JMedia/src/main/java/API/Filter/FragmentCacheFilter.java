@@ -0,0 +1,159 @@
+package API.Filter;
+
+import Models.Profile;
+import Services.FragmentCacheService;
+import Services.SettingsService;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import java.util.List;
+import java.util.TreeMap;
+import org.jboss.logging.Logger;
+
+/**
+ * Serves {@link CachedFragment} endpoints from the {@link FragmentCacheService} and answers
+ * conditional GETs. Every response carries a strong ETag and {@code Cache-Control: no-cache},
+ * so the browser revalidates htmx requests and gets an empty 304 when the fragment is
+ * unchanged. Runs after {@link UserContextFilter} so the active profile is known.
+ *
+ * Entries are versioned on the profile the fragment is rendered for: the {@code profileId}
+ * path parameter when the endpoint has one, else the active profile. Only plain 200 renders
+ * are stored; endpoints flag error and fallback fragments through {@link FragmentRender}.
+ */
+@Provider
+@CachedFragment
+@Priority(Priorities.USER + 100)
+public class FragmentCacheFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(FragmentCacheFilter.class);
+
+    private static final String KEY_PROPERTY = "jmedia.fragment.key";
+    private static final String VERSIONS_PROPERTY = "jmedia.fragment.versions";
+    private static final String SERVED_PROPERTY = "jmedia.fragment.served";
+
+    @Inject
+    FragmentCacheService fragmentCache;
+
+    @Inject
+    SettingsService settingsService;
+
+    @Inject
+    FragmentRender fragmentRender;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+
+        Long profileId = profileId(requestContext);
+        String key = cacheKey(requestContext, profileId);
+        FragmentCacheService.Versions versions = fragmentCache.currentVersions(profileId);
+        requestContext.setProperty(KEY_PROPERTY, key);
+        requestContext.setProperty(VERSIONS_PROPERTY, versions);
+
+        FragmentCacheService.Fragment cached = fragmentCache.get(key, versions);
+        if (cached == null) {
+            return;
+        }
+        requestContext.setProperty(SERVED_PROPERTY, Boolean.TRUE);
+        if (matches(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            requestContext.abortWith(notModified(cached.etag()));
+        } else {
+            requestContext.abortWith(Response.ok(cached.html(), MediaType.TEXT_HTML_TYPE.withCharset("UTF-8"))
+                    .header(HttpHeaders.ETAG, cached.etag())
+                    .header(HttpHeaders.CACHE_CONTROL, "private, no-cache")
+                    .header(HttpHeaders.VARY, HttpHeaders.COOKIE)
+                    .build());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String key = (String) requestContext.getProperty(KEY_PROPERTY);
+        if (key == null || requestContext.getProperty(SERVED_PROPERTY) != null
+                || responseContext.getStatus() != Response.Status.OK.getStatusCode()
+                || !(responseContext.getEntity() instanceof String html)
+                || fragmentRender.isFailed()) {
+            return;
+        }
+
+        FragmentCacheService.Versions versions =
+                (FragmentCacheService.Versions) requestContext.getProperty(VERSIONS_PROPERTY);
+        FragmentCacheService.Fragment fragment = fragmentCache.put(key, html, versions);
+
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+        headers.putSingle(HttpHeaders.ETAG, fragment.etag());
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        headers.putSingle(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        if (matches(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH), fragment.etag())) {
+            // Re-rendered after an unrelated change but the HTML is the same
+            responseContext.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+            responseContext.setEntity(null);
+        }
+    }
+
+    private Long profileId(ContainerRequestContext requestContext) {
+        String fromPath = requestContext.getUriInfo().getPathParameters().getFirst("profileId");
+        if (fromPath != null) {
+            try {
+                return Long.valueOf(fromPath);
+            } catch (NumberFormatException e) {
+                // Fall back to the active profile; the endpoint rejects the id itself
+            }
+        }
+        return activeProfileId();
+    }
+
+    private Long activeProfileId() {
+        try {
+            Profile profile = settingsService.getActiveProfile();
+            return profile != null ? profile.id : null;
+        } catch (Exception e) {
+            LOG.debugv("Could not resolve active profile for fragment cache: {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Path plus query parameters in sorted order, so parameter order does not split entries.
+     */
+    private static String cacheKey(ContainerRequestContext requestContext, Long profileId) {
+        StringBuilder key = new StringBuilder();
+        key.append(profileId).append('|').append(requestContext.getUriInfo().getPath());
+        TreeMap<String, List<String>> query = new TreeMap<>(requestContext.getUriInfo().getQueryParameters());
+        query.forEach((name, values) -> key.append('|').append(name).append('=').append(String.join(",", values)));
+        return key.toString();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Response notModified(String etag) {
+        return Response.notModified()
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CACHE_CONTROL, "private, no-cache")
+                .header(HttpHeaders.VARY, HttpHeaders.COOKIE)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package API.Filter;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Lets a {@link CachedFragment} endpoint flag the current render as an error or fallback.
+ * Those fragments still go out with status 200 so htmx swaps them in, but
+ * {@link FragmentCacheFilter} does not cache them.
+ */
+@RequestScoped
+public class FragmentRender {
+
+    private boolean failed;
+
+    public void failed() {
+        failed = true;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+}
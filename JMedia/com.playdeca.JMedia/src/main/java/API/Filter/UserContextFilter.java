@@ -7,8 +7,10 @@ import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.ext.Provider;
-import Models.Session;
+import Models.Telemetry.Session;
+import Services.SessionService;
 import Services.SettingsService;
+import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
 @Provider
@@ -19,6 +21,9 @@ public class UserContextFilter implements ContainerRequestFilter, ContainerRespo
     @Context
     HttpHeaders headers;
 
+    @Inject
+    SessionService sessionService;
+
     @Override
     public void filter(ContainerRequestContext requestContext) {
         setCurrentUser();
@@ -33,7 +38,7 @@ public class UserContextFilter implements ContainerRequestFilter, ContainerRespo
         try {
             String sessionId = getSessionId();
             if (sessionId != null) {
-                Session session = Session.findBySessionId(sessionId);
+                Session session = sessionService.findActiveSession(sessionId);
                 if (session != null && session.active) {
                     try {
                         Long userId = Long.parseLong(session.userId);
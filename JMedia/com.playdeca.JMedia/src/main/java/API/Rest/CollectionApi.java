@@ -17,13 +17,16 @@ public class CollectionApi {
     @Inject
     CollectionService collectionService;
 
+    @Inject
+    Services.SessionService sessionService;
+
     private boolean checkAdmin(HttpHeaders headers) {
         String sessionId = null;
         if (headers.getCookies() != null && headers.getCookies().containsKey("JMEDIA_SESSION")) {
             sessionId = headers.getCookies().get("JMEDIA_SESSION").getValue();
         }
         if (sessionId == null) return false;
-        Models.Session session = Models.Session.findBySessionId(sessionId);
+        Models.Telemetry.Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) return false;
         Models.User user = Models.User.find("username", session.username).firstResult();
         return user != null && "admin".equals(user.getGroupName());
@@ -1,7 +1,7 @@
 package API.Rest;
 
 import API.ApiResponse;
-import Models.Session;
+import Models.Telemetry.Session;
 import Models.User;
 import Services.AuthService;
 import Services.SessionService;
@@ -157,7 +157,7 @@ public class EnhancedAuthAPI {
         String ipAddress = IpResolutionUtils.getClientIp(requestContext, vertxRequest);
         
         if (sessionService.validateSession(sessionId, ipAddress)) {
-            Session session = Session.findBySessionId(sessionId);
+            Session session = sessionService.findActiveSession(sessionId);
             return Response.ok()
                     .entity(ApiResponse.success(session))
                     .build();
@@ -182,7 +182,7 @@ public class EnhancedAuthAPI {
                     .build();
         }
         
-        Session session = Session.findBySessionId(sessionId);
+        Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) {
             return Response.ok()
                     .entity(ApiResponse.success(Map.of("loggedIn", false)))
@@ -223,7 +223,7 @@ public class EnhancedAuthAPI {
                     .build();
         }
         
-        Session session = Session.findBySessionId(sessionId);
+        Session session = sessionService.findActiveSession(sessionId);
         
         if (session == null || !session.active) {
             return Response.ok()
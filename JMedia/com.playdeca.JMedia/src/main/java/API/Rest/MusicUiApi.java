@@ -1,7 +1,9 @@
 package API.Rest;
 
+import API.Filter.CachedFragment;
+import API.Filter.FragmentRender;
 import Controllers.PlaybackController;
-import Models.PlaybackHistory;
+import Models.Telemetry.PlaybackHistory;
 import Models.Playlist;
 import Models.Profile;
 import Models.Song;
@@ -21,6 +23,7 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.core.Response;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +44,8 @@ import java.util.function.Function;
 @Produces(MediaType.TEXT_HTML)
 public class MusicUiApi {
 
+    private static final int QUEUE_PAGE_SIZE = 50;
+
     @Inject
     private PlaybackController playbackController;
 
@@ -147,6 +152,19 @@ public class MusicUiApi {
     @io.quarkus.qute.Location("mobilePlaylistItemsFragment.html")
     Template mobilePlaylistItemsFragment;
 
+    @Inject
+    FragmentRender fragmentRender;
+
+    /**
+     * The library defaults to title order; playlists default to their own play order.
+     */
+    private static String resolveSortBy(long playlistId, String sortBy) {
+        if (sortBy != null && !sortBy.isBlank()) {
+            return sortBy;
+        }
+        return playlistId == 0 ? "title" : "position";
+    }
+
     private String formatDate(Object date) {
         if (date == null) {
             return "Unknown";
@@ -225,44 +243,7 @@ public class MusicUiApi {
         Response apiResponse = queueAPI.queueAllSongs(profileId, id, headers);
 
         // Then return the updated queue fragment for HTMX
-        List<Song> updatedQueue = playbackController.getQueue(profileId);
-
-        // Create a list of SongWithIndex objects
-        List<SongWithIndex> queueWithIndex = new ArrayList<>();
-        for (int i = 0; i < updatedQueue.size(); i++) {
-            queueWithIndex.add(new SongWithIndex(updatedQueue.get(i), i));
-        }
-
-        int totalPages = (int) Math.ceil((double) updatedQueue.size() / 50); // Assuming limit is 50 for this context
-        int currentPage = 1; // After queueing all, we assume we are on the first page
-        List<Integer> pageNumbers = getPaginationNumbers(currentPage, totalPages);
-
-        String html = queueFragment
-                .data("queue", queueWithIndex)
-                .data("currentSong", playbackController.getCurrentSong(profileId))
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        String mobileHtml = mobileQueueFragment
-                .data("queue", queueWithIndex)
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        return new QueueFragmentResponse(html, mobileHtml, updatedQueue.size()); // Reverted to return DTO
+        return renderQueuePage(profileId, 1); // After queueing all, we assume we are on the first page
     }
 
     @POST
@@ -273,43 +254,8 @@ public class MusicUiApi {
     public QueueFragmentResponse skipToQueueIndexUi(@PathParam("profileId") Long profileId, @PathParam("index") int index, @Context HttpHeaders headers) { // Reverted return type
         queueAPI.skipToQueueIndex(profileId, index, headers);
 
-        List<Song> updatedQueue = playbackController.getQueue(profileId);
-        // Create a list of SongWithIndex objects
-        List<SongWithIndex> queueWithIndex = new ArrayList<>();
-        for (int i = 0; i < updatedQueue.size(); i++) {
-            queueWithIndex.add(new SongWithIndex(updatedQueue.get(i), i));
-        }
-
-        int totalPages = (int) Math.ceil((double) updatedQueue.size() / 50); // Assuming limit is 50 for this context
-        int currentPage = (index / 50) + 1; // Calculate current page based on skipped index
-        List<Integer> pageNumbers = getPaginationNumbers(currentPage, totalPages);
-
-        String html = queueFragment
-                .data("queue", queueWithIndex)
-                .data("currentSong", playbackController.getCurrentSong(profileId))
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        String mobileHtml = mobileQueueFragment
-                .data("queue", queueWithIndex)
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        return new QueueFragmentResponse(html, mobileHtml, updatedQueue.size()); // Reverted to return DTO
+        // Skipping drops everything before the chosen song, so it is now at the top of page 1
+        return renderQueuePage(profileId, 1);
     }
 
     @POST
@@ -320,48 +266,8 @@ public class MusicUiApi {
     public QueueFragmentResponse removeFromQueueUi(@PathParam("profileId") Long profileId, @PathParam("index") int index, @Context HttpHeaders headers) { // Reverted return type
         queueAPI.removeFromQueue(profileId, index, headers);
 
-        List<Song> updatedQueue = playbackController.getQueue(profileId);
-        // Create a list of SongWithIndex objects
-        List<SongWithIndex> queueWithIndex = new ArrayList<>();
-        for (int i = 0; i < updatedQueue.size(); i++) {
-            queueWithIndex.add(new SongWithIndex(updatedQueue.get(i), i));
-        }
-
-        int totalPages = (int) Math.ceil((double) updatedQueue.size() / 50); // Assuming limit is 50 for this context
-        int currentPage = (index / 50) + 1; // Calculate current page based on removed index (approximate)
-        if (currentPage > totalPages && totalPages > 0) {
-            currentPage = totalPages; // Adjust if removed from last page
-        } else if (totalPages == 0) {
-            currentPage = 1;
-        }
-        List<Integer> pageNumbers = getPaginationNumbers(currentPage, totalPages);
-
-        String html = queueFragment
-                .data("queue", queueWithIndex)
-                .data("currentSong", playbackController.getCurrentSong(profileId))
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        String mobileHtml = mobileQueueFragment
-                .data("queue", queueWithIndex)
-                .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
-                .data("artworkUrl", (Function<String, String>) this::artworkUrl)
-                .data("currentPage", currentPage)
-                .data("totalPages", totalPages)
-                .data("pageNumbers", pageNumbers)
-                .render();
-
-        return new QueueFragmentResponse(html, mobileHtml, updatedQueue.size()); // Reverted to return DTO
+        // Stay on the page the song was removed from (clamped if that page is now gone)
+        return renderQueuePage(profileId, (index / QUEUE_PAGE_SIZE) + 1);
     }
 
     @POST
@@ -372,24 +278,37 @@ public class MusicUiApi {
     public QueueFragmentResponse clearQueueUi(@PathParam("profileId") Long profileId, @Context HttpHeaders headers) { // Reverted return type
         queueAPI.clearQueue(profileId, headers);
 
-        List<Song> updatedQueue = playbackController.getQueue(profileId);
-        // Create a list of SongWithIndex objects
-        List<SongWithIndex> queueWithIndex = new ArrayList<>();
-        for (int i = 0; i < updatedQueue.size(); i++) {
-            queueWithIndex.add(new SongWithIndex(updatedQueue.get(i), i));
+        return renderQueuePage(profileId, 1); // After clearing, we are on the first page
+    }
+
+    /**
+     * Render one page of the queue for the desktop and mobile fragments. Only the songs on
+     * that page are loaded, so queue edits stay cheap no matter how long the queue is.
+     */
+    private QueueFragmentResponse renderQueuePage(Long profileId, int page) {
+        PlaybackController.PaginatedQueue paginatedQueue = playbackController.getQueuePage(page, QUEUE_PAGE_SIZE, profileId);
+        int totalQueueSize = paginatedQueue.totalSize();
+        int totalPages = (int) Math.ceil((double) totalQueueSize / QUEUE_PAGE_SIZE);
+        int currentPage = Math.max(1, Math.min(page, totalPages));
+        if (currentPage != page) {
+            paginatedQueue = playbackController.getQueuePage(currentPage, QUEUE_PAGE_SIZE, profileId);
         }
 
-        int totalPages = (int) Math.ceil((double) updatedQueue.size() / 50); // Assuming limit is 50 for this context
-        int currentPage = 1; // After clearing, we are on the first page
+        int offset = (currentPage - 1) * QUEUE_PAGE_SIZE;
+        List<Song> queuePage = paginatedQueue.songs();
+        List<SongWithIndex> queueWithIndex = new ArrayList<>();
+        for (int i = 0; i < queuePage.size(); i++) {
+            queueWithIndex.add(new SongWithIndex(queuePage.get(i), offset + i));
+        }
         List<Integer> pageNumbers = getPaginationNumbers(currentPage, totalPages);
 
         String html = queueFragment
                 .data("queue", queueWithIndex)
                 .data("currentSong", playbackController.getCurrentSong(profileId))
                 .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
+                .data("offset", offset)
+                .data("limit", QUEUE_PAGE_SIZE)
+                .data("totalQueueSize", totalQueueSize)
                 .data("artworkUrl", (Function<String, String>) this::artworkUrl)
                 .data("currentPage", currentPage)
                 .data("totalPages", totalPages)
@@ -399,16 +318,16 @@ public class MusicUiApi {
         String mobileHtml = mobileQueueFragment
                 .data("queue", queueWithIndex)
                 .data("profileId", profileId)
-                .data("offset", 0)
-                .data("limit", 50)
-                .data("totalQueueSize", updatedQueue.size())
+                .data("offset", offset)
+                .data("limit", QUEUE_PAGE_SIZE)
+                .data("totalQueueSize", totalQueueSize)
                 .data("artworkUrl", (Function<String, String>) this::artworkUrl)
                 .data("currentPage", currentPage)
                 .data("totalPages", totalPages)
                 .data("pageNumbers", pageNumbers)
                 .render();
 
-        return new QueueFragmentResponse(html, mobileHtml, updatedQueue.size()); // Reverted to return DTO
+        return new QueueFragmentResponse(html, mobileHtml, totalQueueSize);
     }
 
     // -------------------------
@@ -417,6 +336,7 @@ public class MusicUiApi {
     @GET
     @Path("/playlists-fragment/{profileId}")
     @Blocking
+    @CachedFragment
     public String playlistsFragment(@PathParam("profileId") Long profileId) {
         List<Playlist> playlists = getPlaylistsByProfileId(profileId);
         return playlistFragment
@@ -428,6 +348,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-playlists-fragment/{profileId}")
     @Blocking
+    @CachedFragment
     public String mobilePlaylistsFragment(@PathParam("profileId") Long profileId) {
         List<Playlist> playlists = getPlaylistsByProfileId(profileId);
         return mobilePlaylistFragment
@@ -439,16 +360,18 @@ public class MusicUiApi {
     @GET
     @Path("/playlist-view/{profileId}/{id}")
     @Blocking
+    @CachedFragment
     public String getPlaylistView(
             @PathParam("profileId") Long profileId,
             @PathParam("id") Long id,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
             @jakarta.ws.rs.QueryParam("limit") @jakarta.ws.rs.DefaultValue("12") int limit,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search,
-            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("title") String sortBy,
+            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("") String sortBy,
             @jakarta.ws.rs.QueryParam("sortDirection") @jakarta.ws.rs.DefaultValue("asc") String sortDirection) {
 
         long playlistId = id == null ? 0L : id;
+        sortBy = resolveSortBy(playlistId, sortBy);
 
         Playlist playlist = null;
         String name;
@@ -504,17 +427,19 @@ public class MusicUiApi {
     @GET
     @Path("/tbody/{profileId}/{id}")
     @Blocking
+    @CachedFragment
     public String getPlaylistTbody(
             @PathParam("profileId") Long profileId,
             @PathParam("id") Long id,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
             @jakarta.ws.rs.QueryParam("limit") @jakarta.ws.rs.DefaultValue("12") int limit,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search,
-            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("title") String sortBy,
+            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("") String sortBy,
             @jakarta.ws.rs.QueryParam("sortDirection") @jakarta.ws.rs.DefaultValue("asc") String sortDirection) {
 
         try {
             long playlistId = (id == null) ? 0L : id;
+            sortBy = resolveSortBy(playlistId, sortBy);
 
             List<Song> paginatedSongs;
             long totalSongs;
@@ -556,6 +481,7 @@ public class MusicUiApi {
                     .data("profileId", String.valueOf(profileId))
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             System.out.println("Error: " + e.getLocalizedMessage());
             return null;
         }
@@ -564,17 +490,19 @@ public class MusicUiApi {
     @GET
     @Path("/tbody-more/{profileId}/{id}")
     @Blocking
+    @CachedFragment
     public String getMorePlaylistTbody(
             @PathParam("profileId") Long profileId,
             @PathParam("id") Long id,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("2") int page,
             @jakarta.ws.rs.QueryParam("limit") @jakarta.ws.rs.DefaultValue("12") int limit,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search,
-            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("title") String sortBy,
+            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("") String sortBy,
             @jakarta.ws.rs.QueryParam("sortDirection") @jakarta.ws.rs.DefaultValue("asc") String sortDirection) {
 
         try {
             long playlistId = (id == null) ? 0L : id;
+            sortBy = resolveSortBy(playlistId, sortBy);
 
             List<Song> paginatedSongs;
             long totalSongs;
@@ -616,6 +544,7 @@ public class MusicUiApi {
                     .data("profileId", String.valueOf(profileId))
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             System.out.println("Error: " + e.getLocalizedMessage());
             return "<tr><td colspan='6' class='has-text-centered has-text-grey-light py-3 is-size-7'>— end —</td></tr>";
         }
@@ -624,17 +553,19 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-tbody/{profileId}/{id}")
     @Blocking
+    @CachedFragment
     public String getMobilePlaylistTbody(
             @PathParam("profileId") Long profileId,
             @PathParam("id") Long id,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
             @jakarta.ws.rs.QueryParam("limit") @jakarta.ws.rs.DefaultValue("12") int limit,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search,
-            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("title") String sortBy,
+            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("") String sortBy,
             @jakarta.ws.rs.QueryParam("sortDirection") @jakarta.ws.rs.DefaultValue("asc") String sortDirection) {
 
         try {
             long playlistId = (id == null) ? 0L : id;
+            sortBy = resolveSortBy(playlistId, sortBy);
 
             List<Song> paginatedSongs;
             long totalSongs;
@@ -675,6 +606,7 @@ public class MusicUiApi {
                     .data("profileId", String.valueOf(profileId))
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             System.out.println("Error: " + e.getLocalizedMessage());
             return null;
         }
@@ -683,17 +615,19 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-tbody-more/{profileId}/{id}")
     @Blocking
+    @CachedFragment
     public String getMoreMobileSongs(
             @PathParam("profileId") Long profileId,
             @PathParam("id") Long id,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("2") int page,
             @jakarta.ws.rs.QueryParam("limit") @jakarta.ws.rs.DefaultValue("12") int limit,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search,
-            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("title") String sortBy,
+            @jakarta.ws.rs.QueryParam("sortBy") @jakarta.ws.rs.DefaultValue("") String sortBy,
             @jakarta.ws.rs.QueryParam("sortDirection") @jakarta.ws.rs.DefaultValue("asc") String sortDirection) {
 
         try {
             long playlistId = (id == null) ? 0L : id;
+            sortBy = resolveSortBy(playlistId, sortBy);
 
             List<Song> paginatedSongs;
             long totalSongs;
@@ -727,6 +661,7 @@ public class MusicUiApi {
                     .data("profileId", String.valueOf(profileId))
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             System.out.println("Error: " + e.getLocalizedMessage());
             return "<div class='scroll-end'>— end —</div>";
         }
@@ -738,7 +673,7 @@ public class MusicUiApi {
     }
 
     // Helper record to pass history entry and its index to the template
-    public record HistoryWithIndex(Models.PlaybackHistory history, int index) {
+    public record HistoryWithIndex(PlaybackHistory history, int index) {
 
     }
 
@@ -886,15 +821,13 @@ public class MusicUiApi {
     @GET
     @Path("/add-to-playlist-dialog/{profileId}/{songId}")
     @Blocking
+    @CachedFragment
     @Produces(MediaType.TEXT_HTML)
     public String getAddToPlaylistDialog(@PathParam("profileId") Long profileId, @PathParam("songId") Long songId) {
         List<Playlist> playlists = getPlaylistsByProfileId(profileId);
         // Set song status for each playlist
         if (songId != null) {
-            List<Long> playlistIdsWithSong = playlistService.findAll().stream()
-                    .filter(p -> p.getSongs().stream().anyMatch(s -> s.id.equals(songId)))
-                    .map(p -> p.id)
-                    .toList();
+            Set<Long> playlistIdsWithSong = new HashSet<>(playlistService.findPlaylistIdsContaining(songId));
 
             for (Playlist p : playlists) {
                 p.setContainsSong(playlistIdsWithSong.contains(p.id));
@@ -937,6 +870,7 @@ public class MusicUiApi {
     @GET
     @Path("/search-results/{profileId}")
     @Blocking
+    @CachedFragment
     public String getSearchResults(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("search") @jakarta.ws.rs.DefaultValue("") String search) {
@@ -949,6 +883,7 @@ public class MusicUiApi {
     @GET
     @Path("/songs-fragment/{profileId}")
     @Blocking
+    @CachedFragment
     public String getSongsFragment(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
@@ -1138,12 +1073,14 @@ public class MusicUiApi {
     @GET
     @Path("/song-detail/{profileId}/{songId}")
     @Blocking
+    @CachedFragment
     public String getSongDetail(
             @PathParam("profileId") Long profileId,
             @PathParam("songId") Long songId) {
         
         Song song = Song.findById(songId);
         if (song == null) {
+            fragmentRender.failed();
             return "<div class='p-6 has-text-centered'><p>Song not found</p></div>";
         }
 
@@ -1214,11 +1151,13 @@ public class MusicUiApi {
     @GET
     @Path("/album-artist/{profileId}/{artistName}")
     @Blocking
+    @CachedFragment
     public String getAlbumArtistPage(
             @PathParam("profileId") Long profileId,
             @PathParam("artistName") String artistName) {
         
         if (artistName == null || artistName.isBlank()) {
+            fragmentRender.failed();
             return "<div class='p-6 has-text-centered'><p>Artist not found</p></div>";
         }
 
@@ -1332,11 +1271,13 @@ public class MusicUiApi {
     @GET
     @Path("/album/{profileId}/{albumName}")
     @Blocking
+    @CachedFragment
     public String getAlbumPage(
             @PathParam("profileId") Long profileId,
             @PathParam("albumName") String albumName) {
         
         if (albumName == null || albumName.isBlank()) {
+            fragmentRender.failed();
             return "<div class='p-6 has-text-centered'><p>Album not found</p></div>";
         }
 
@@ -1555,6 +1496,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-albums/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMobileAlbumGrid(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
@@ -1590,6 +1532,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-albums-more/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMoreMobileAlbums(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("2") int page,
@@ -1632,6 +1575,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-genres/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMobileGenreGrid(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
@@ -1659,6 +1603,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-genres-more/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMoreMobileGenres(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("2") int page,
@@ -1691,6 +1636,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-genre-songs/{profileId}/{genre}")
     @Blocking
+    @CachedFragment
     public String getMobileGenreSongs(
             @PathParam("profileId") Long profileId,
             @PathParam("genre") String genre,
@@ -1722,6 +1668,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-genre-songs-more/{profileId}/{genre}")
     @Blocking
+    @CachedFragment
     public String getMoreMobileGenreSongs(
             @PathParam("profileId") Long profileId,
             @PathParam("genre") String genre,
@@ -1757,6 +1704,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-playlists/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMobilePlaylistGrid(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("1") int page,
@@ -1784,6 +1732,7 @@ public class MusicUiApi {
     @GET
     @Path("/mobile-playlists-more/{profileId}")
     @Blocking
+    @CachedFragment
     public String getMoreMobilePlaylists(
             @PathParam("profileId") Long profileId,
             @jakarta.ws.rs.QueryParam("page") @jakarta.ws.rs.DefaultValue("2") int page,
@@ -15,8 +15,10 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Arrays;
 
 @Path("/api/music/playlists")
@@ -71,9 +73,6 @@ public class PlaylistAPI {
             if (playlist == null || playlist.getName() == null || playlist.getName().isBlank()) {
                 return Response.status(Response.Status.BAD_REQUEST).entity(ApiResponse.error("Name required")).build();
             }
-            if (playlist.getSongs() == null) {
-                playlist.setSongs(new ArrayList<>());
-            }
             playbackController.createPlaylist(playlist);
             return Response.status(Response.Status.CREATED).entity(ApiResponse.success(playlist)).build();
         } catch (Exception e) {
@@ -91,7 +90,6 @@ public class PlaylistAPI {
             }
             existingPlaylist.setName(playlist.getName());
             existingPlaylist.setDescription(playlist.getDescription());
-            existingPlaylist.setSongs(playlist.getSongs() != null ? playlist.getSongs() : new ArrayList<>());
             playlistService.save(existingPlaylist);
             return Response.ok(ApiResponse.success(existingPlaylist)).build();
         } catch (Exception e) {
@@ -130,13 +128,11 @@ public class PlaylistAPI {
     @Path("/{playlistId}/songs/{songId}/{profileId}")
     public Response addSongToPlaylist(@PathParam("playlistId") Long pid, @PathParam("songId") Long sid, @PathParam("profileId") Long profileId) {
         try {
-            Playlist p = playlistService.find(pid);
-            Song s = songService.find(sid);
-            if (p.getSongs().stream().noneMatch(song -> song.id.equals(sid))) {
-                p.getSongs().add(s);
+            if (playlistService.find(pid) == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Playlist not found")).build();
             }
-            playlistService.save(p);
-            return Response.ok(ApiResponse.success(p)).build();
+            playlistService.addSong(pid, sid);
+            return Response.ok(ApiResponse.success(playlistService.find(pid))).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(ApiResponse.error("Error adding song to playlist: " + e.getMessage())).build();
         }
@@ -147,9 +143,10 @@ public class PlaylistAPI {
     @Consumes(MediaType.WILDCARD)
     public Response removeSongFromPlaylist(@PathParam("playlistId") Long pid, @PathParam("songId") Long sid) {
         try {
-            Playlist p = playlistService.find(pid);
-            p.getSongs().removeIf(song -> song.id.equals(sid));
-            playlistService.save(p);
+            if (playlistService.find(pid) == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Playlist not found")).build();
+            }
+            playlistService.removeSong(pid, sid);
             return Response.ok().build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(ApiResponse.error("Error removing song from playlist: " + e.getMessage())).build();
@@ -161,23 +158,33 @@ public class PlaylistAPI {
     @Consumes(MediaType.WILDCARD)
     public Response toggleSongInPlaylist(@PathParam("playlistId") Long pid, @PathParam("songId") Long sid, @PathParam("profileId") Long profileId) {
         try {
-            Playlist p = playlistService.find(pid);
-            Song s = songService.find(sid);
-            
-            boolean songExistsInPlaylist = p.getSongs().stream().anyMatch(song -> song.id.equals(sid));
-            
-            if (songExistsInPlaylist) {
-                p.getSongs().removeIf(song -> song.id.equals(sid));
-            } else {
-                p.getSongs().add(s);
+            if (playlistService.find(pid) == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Playlist not found")).build();
             }
-            playlistService.save(p);
+            playlistService.toggleSongInPlaylist(pid, sid);
             return Response.ok().build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(ApiResponse.error("Error toggling song in playlist: " + e.getMessage())).build();
         }
     }
 
+    @POST
+    @Path("/{playlistId}/move/{fromIndex}/{toIndex}")
+    @Consumes(MediaType.WILDCARD)
+    public Response moveSongInPlaylist(@PathParam("playlistId") Long pid, @PathParam("fromIndex") int fromIndex, @PathParam("toIndex") int toIndex) {
+        try {
+            if (playlistService.find(pid) == null) {
+                return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Playlist not found")).build();
+            }
+            if (!playlistService.moveInPlaylist(pid, fromIndex, toIndex)) {
+                return Response.status(Response.Status.BAD_REQUEST).entity(ApiResponse.error("Invalid position")).build();
+            }
+            return Response.ok().build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(ApiResponse.error("Error moving song in playlist: " + e.getMessage())).build();
+        }
+    }
+
     @POST
     @Path("/{playlistId}/toggle-shared")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -232,8 +239,9 @@ public class PlaylistAPI {
             playlist.setDescription(request.getDescription());
             playlist.setProfile(profile);
             playlist.setIsGlobal(false); // User-specific playlist
-            playlist.setSongs(new ArrayList<>());
 
+            List<Song> matched = new ArrayList<>();
+            Set<Long> matchedIds = new HashSet<>();
             List<String> unmatchedLines = new ArrayList<>();
             int matchedSongs = 0;
 
@@ -278,11 +286,8 @@ public class PlaylistAPI {
 
                 if (foundSong != null) {
                     // Check if song already in playlist to avoid duplicates
-                    final var finalFoundSong = foundSong;
-                    boolean alreadyInPlaylist = playlist.getSongs().stream()
-                            .anyMatch(song -> song.id.equals(finalFoundSong.id));
-                    if (!alreadyInPlaylist) {
-                        playlist.getSongs().add(foundSong);
+                    if (matchedIds.add(foundSong.id)) {
+                        matched.add(foundSong);
                         matchedSongs++;
                     }
                 } else {
@@ -290,8 +295,9 @@ public class PlaylistAPI {
                 }
             }
 
-            // Save the playlist
+            // Save the playlist, then append its entries in text order
             playlistService.save(playlist);
+            playlistService.addSongsToPlaylist(playlist, matched);
 
             // Create response
             TextPlaylistResponse response = new TextPlaylistResponse();
@@ -2,8 +2,10 @@ package API.Rest;
 
 import API.ApiResponse;
 import Models.Profile;
-import Models.Session;
+import Models.Telemetry.Session;
 import Models.User;
+import Services.FragmentCacheService;
+import Services.PlaybackHistoryService;
 import Services.ProfileService;
 import Services.SessionService;
 import Services.UserService;
@@ -24,6 +26,9 @@ public class ProfileAPI {
     @Inject
     ProfileService profileService;
 
+    @Inject
+    FragmentCacheService fragmentCacheService;
+
     @Inject
     SessionService sessionService;
 
@@ -33,12 +38,15 @@ public class ProfileAPI {
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    PlaybackHistoryService playbackHistoryService;
+
     private User getCurrentUser(HttpHeaders headers) {
         String sessionId = getSessionId(headers);
         if (sessionId == null) {
             return null;
         }
-        Session session = sessionService.findBySessionId(sessionId);
+        Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) {
             return null;
         }
@@ -198,11 +206,7 @@ public class ProfileAPI {
                 p.persist();
             }
             
-            List<Models.PlaybackHistory> history = Models.PlaybackHistory.list("profile", profile);
-            for (Models.PlaybackHistory h : history) {
-                h.profile = otherProfile;
-                h.persist();
-            }
+            playbackHistoryService.reassignProfile(profile.id, otherProfile.id);
             
             Models.PlaybackState state = Models.PlaybackState.find("profile", profile).firstResult();
             if (state != null) {
@@ -235,6 +239,7 @@ public class ProfileAPI {
         
         profile.addHiddenPlaylist(playlistId);
         profile.persist();
+        fragmentCacheService.profileChanged(profile.id);
         
         return Response.ok(ApiResponse.success("Playlist hidden")).build();
     }
@@ -254,6 +259,7 @@ public class ProfileAPI {
         
         profile.removeHiddenPlaylist(playlistId);
         profile.persist();
+        fragmentCacheService.profileChanged(profile.id);
         
         return Response.ok(ApiResponse.success("Playlist unhidden")).build();
     }
@@ -2,7 +2,6 @@ package API.Rest;
 
 import API.ApiResponse;
 import Controllers.PlaybackController;
-import Models.Playlist;
 import Models.Profile;
 import Models.Song; 
 import Services.SongService;
@@ -49,25 +48,23 @@ public class QueueAPI {
         Profile userProfile = getUserProfile(headers);
         if (userProfile == null) return Response.status(401).build();
         
-        List<Song> songsToQueue;
+        List<Long> songIds;
         if (id == null || id == 0) {
-            // Queue all songs
-            songsToQueue = playbackController.getSongs();
+            // Queue all songs (IDs only, no need to load every entity)
+            songIds = playbackController.getAllSongIds();
         } else {
             // Queue songs from a specific playlist
-            Playlist playlist = playbackController.findPlaylistWithSongs(id);
-            if (playlist == null) {
+            songIds = playbackController.findPlaylistSongIds(id);
+            if (songIds == null) {
                 return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Playlist not found")).build();
             }
-            songsToQueue = playlist.getSongs();
         }
 
-        if (songsToQueue == null || songsToQueue.isEmpty()) {
+        if (songIds.isEmpty()) {
             return Response.ok(ApiResponse.success("No songs to queue")).build();
         }
 
         playbackController.clearQueue(userProfile.id);
-        List<Long> songIds = songsToQueue.stream().map(s -> s.id).toList();
         playbackController.addToQueue(songIds, false, userProfile.id);
 
         // Start playback with the first song
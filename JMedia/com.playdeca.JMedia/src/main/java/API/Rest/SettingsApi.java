@@ -41,6 +41,9 @@ public class SettingsApi {
     @Inject
     private SettingsController settingsController;
 
+    @Inject
+    private Services.SessionService sessionService;
+
     @Inject
     private PlaybackHistoryService playbackHistoryService;
 
@@ -102,7 +105,7 @@ public class SettingsApi {
             sessionId = headers.getCookies().get("JMEDIA_SESSION").getValue();
         }
         if (sessionId == null) return null;
-        Models.Session session = Models.Session.findBySessionId(sessionId);
+        Models.Telemetry.Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) return null;
         return Models.User.find("username", session.username).firstResult();
     }
@@ -606,7 +609,7 @@ public class SettingsApi {
                 if (finalDirPath != null) {
                     videoImportService.scanAndProcess(Paths.get(finalDirPath));
                 } else {
-                    String videoPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                    String videoPath = settingsService.getSnapshot().videoLibraryPath();
                     if (videoPath != null && !videoPath.isBlank()) {
                         videoImportService.scanAndProcess(Paths.get(videoPath));
                     }
@@ -681,7 +684,8 @@ public class SettingsApi {
 
     @POST
     @Path("/{profileId}/deleteDuplicates")
-    public Response deleteDuplicates(@PathParam("profileId") Long profileId, @QueryParam("directoryId") Long directoryId, @Context HttpHeaders headers) {
+    public Response deleteDuplicates(@PathParam("profileId") Long profileId, @QueryParam("directoryId") Long directoryId,
+                                     @QueryParam("confirm") @DefaultValue("false") boolean confirm, @Context HttpHeaders headers) {
         if (!checkAdmin(headers)) return Response.status(Response.Status.FORBIDDEN).build();
         
         String dirPath = null;
@@ -692,10 +696,12 @@ public class SettingsApi {
         
         final String finalDirPath = dirPath;
         executor.submit(() -> {
-            settingsController.deleteDuplicateSongs(finalDirPath);
+            settingsController.deleteDuplicateSongs(finalDirPath, confirm);
         }, "DeleteDuplicatesThread");
 
-        String msg = directoryId != null ? "Duplicate check started for directory" : "Duplicate check started";
+        // Without confirm=true this is a dry run that only logs what would be deleted
+        String msg = (confirm ? "Duplicate deletion started" : "Duplicate report started")
+                + (directoryId != null ? " for directory" : "");
         return Response.ok(ApiResponse.success(msg)).build();
     }
 
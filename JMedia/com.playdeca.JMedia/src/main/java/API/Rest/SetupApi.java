@@ -22,6 +22,9 @@ public class SetupApi {
     @Inject
     private Controllers.SetupController setupController;
 
+    @Inject
+    private Services.SessionService sessionService;
+
     private boolean checkAdmin(jakarta.ws.rs.core.HttpHeaders headers) {
         String sessionId = null;
         if (headers.getCookies() != null && headers.getCookies().containsKey("JMEDIA_SESSION")) {
@@ -29,7 +32,7 @@ public class SetupApi {
         }
         
         if (sessionId == null) return false;
-        Models.Session session = Models.Session.findBySessionId(sessionId);
+        Models.Telemetry.Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) return false;
         
         Models.User user = Models.User.find("username", session.username).firstResult();
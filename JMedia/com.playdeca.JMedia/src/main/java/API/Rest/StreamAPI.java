@@ -2,8 +2,10 @@ package API.Rest;
 
 import API.ApiResponse;
 import Controllers.PlaybackController;
-import Models.Settings;
 import Models.Song;
+import Services.BackgroundWorkGovernor;
+import Services.DjMixStreamService;
+import Services.MediaMetrics;
 import Services.SettingsService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -31,6 +33,15 @@ public class StreamAPI {
     @Inject
     private SettingsService settingsService;
 
+    @Inject
+    private DjMixStreamService djMixStreamService;
+
+    @Inject
+    private MediaMetrics metrics;
+
+    @Inject
+    private BackgroundWorkGovernor governor;
+
     private static final Logger LOGGER = Logger.getLogger(StreamAPI.class.getName());
     private static final Map<String, String> EXTENSION_TO_MIME = Map.of(
         ".mp3", "audio/mpeg",
@@ -73,6 +84,7 @@ public class StreamAPI {
     @Path("/{profileId}/{id}")
     @Produces({"audio/mpeg", "application/octet-stream"})
     public Response streamMusicById(@PathParam("profileId") Long profileId, @PathParam("id") Long id, @HeaderParam("Range") String rangeHeader, @Context HttpHeaders headers) {
+        long requestStart = System.nanoTime();
         try {
             // Validate profileId matches the authenticated user
             var userProfile = settingsService.getActiveProfileFromHeaders(headers);
@@ -86,34 +98,11 @@ public class StreamAPI {
                 LOGGER.warning("Stream requested for missing song ID " + id);
                 return Response.status(Response.Status.NOT_FOUND).build();
             }
-            String songPath = song.getPath();
-            
-            // Validate and sanitize the path to prevent directory traversal
-            if (songPath == null || songPath.trim().isEmpty()) {
-                LOGGER.warning("Invalid song path: null or empty");
-                return Response.status(Response.Status.BAD_REQUEST).build();
-            }
-            
-            // Normalize the path and remove any directory traversal attempts
-            String normalizedSongPath = songPath.replace("..", "").replace("//", "/");
-            // Remove any leading slashes to prevent absolute paths
-            normalizedSongPath = normalizedSongPath.replaceFirst("^[/\\\\]+", "");
-            
-            File musicFolder = getMusicFolder();
-            File file = new File(musicFolder, normalizedSongPath);
-            
-            // Additional security check: ensure the resolved file is within the music folder
+            File file;
             try {
-                File canonicalMusicFolder = musicFolder.getCanonicalFile();
-                File canonicalFile = file.getCanonicalFile();
-                
-                if (!canonicalFile.toPath().startsWith(canonicalMusicFolder.toPath())) {
-                    LOGGER.warning("Path traversal attempt detected: " + songPath + " resolves to " + canonicalFile.getAbsolutePath());
-                    return Response.status(Response.Status.FORBIDDEN).build();
-                }
-            } catch (IOException e) {
-                LOGGER.warning("Error resolving canonical paths for security check: " + e.getMessage());
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+                file = resolveSongFile(song);
+            } catch (WebApplicationException e) {
+                return Response.status(e.getResponse().getStatus()).build();
             }
             LOGGER.info("Streaming song: " + song.getTitle() + " from path: " + file.getAbsolutePath());
 
@@ -193,7 +182,8 @@ public class StreamAPI {
                     .header("Accept-Ranges", "bytes")
                     .header("Cache-Control", "public,max-age=3600")
                     .type(contentType)
-                    .entity(stream);
+                    .entity(metrics.meterStream("music", requestStart,
+                            governor.track(BackgroundWorkGovernor.Activity.AUDIO, stream)));
             
             if (rangeHeader != null) {
                 responseBuilder.header("Content-Range", "bytes " + start + "-" + end + "/" + len);
@@ -207,6 +197,91 @@ public class StreamAPI {
         }
     }
 
+    /**
+     * Server-side DJ mix: one continuous constant-bitrate stream that follows the profile's
+     * playback, with planned DJ transitions crossfaded on the server. {@code start} seeks the
+     * current song first; reconnecting without it resumes at the profile's position. Optional
+     * for clients; the per-song stream and the browser crossfade are unchanged.
+     */
+    @GET
+    @Path("/mix/{profileId}")
+    @Produces({"audio/aac", "audio/ogg"})
+    public Response streamDjMix(@PathParam("profileId") Long profileId, @QueryParam("start") Double start,
+                                @QueryParam("format") @DefaultValue("aac") String format, @Context HttpHeaders headers) {
+        long requestStart = System.nanoTime();
+        var userProfile = settingsService.getActiveProfileFromHeaders(headers);
+        if (userProfile == null || !userProfile.id.equals(profileId)) {
+            LOGGER.warning("Unauthorized mix stream attempt for profile " + profileId);
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        if (playbackController.getMixState(profileId).songId() == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (start != null) {
+            playbackController.setSeconds(Math.max(0, start), profileId);
+        }
+
+        DjMixStreamService.Format mixFormat = DjMixStreamService.Format.fromParam(format);
+        StreamingOutput stream = out -> djMixStreamService.streamMix(profileId, this::findSongFile, mixFormat, out);
+        return Response.ok(metrics.meterStream("dj.mix", requestStart,
+                        governor.track(BackgroundWorkGovernor.Activity.AUDIO, stream)))
+                .type(mixFormat.getMimeType())
+                .header("Cache-Control", "no-store")
+                .build();
+    }
+
+    /**
+     * File of a song for the mix stream, or null when the song is gone or its path is invalid.
+     */
+    private File findSongFile(Long songId) {
+        Song song = playbackController.findSong(songId);
+        if (song == null) {
+            return null;
+        }
+        try {
+            return resolveSongFile(song);
+        } catch (WebApplicationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolve a song's library-relative path to a file inside the music folder.
+     * Throws a WebApplicationException carrying the HTTP status when the path is invalid.
+     */
+    private File resolveSongFile(Song song) {
+        String songPath = song.getPath();
+
+        // Validate and sanitize the path to prevent directory traversal
+        if (songPath == null || songPath.trim().isEmpty()) {
+            LOGGER.warning("Invalid song path: null or empty");
+            throw new WebApplicationException(Response.Status.BAD_REQUEST);
+        }
+
+        // Normalize the path and remove any directory traversal attempts
+        String normalizedSongPath = songPath.replace("..", "").replace("//", "/");
+        // Remove any leading slashes to prevent absolute paths
+        normalizedSongPath = normalizedSongPath.replaceFirst("^[/\\\\]+", "");
+
+        File musicFolder = getMusicFolder();
+        File file = new File(musicFolder, normalizedSongPath);
+
+        // Additional security check: ensure the resolved file is within the music folder
+        try {
+            File canonicalMusicFolder = musicFolder.getCanonicalFile();
+            File canonicalFile = file.getCanonicalFile();
+
+            if (!canonicalFile.toPath().startsWith(canonicalMusicFolder.toPath())) {
+                LOGGER.warning("Path traversal attempt detected: " + songPath + " resolves to " + canonicalFile.getAbsolutePath());
+                throw new WebApplicationException(Response.Status.FORBIDDEN);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Error resolving canonical paths for security check: " + e.getMessage());
+            throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+        }
+        return file;
+    }
+
     private String getContentType(String fileName) {
         if (fileName == null) return "audio/mpeg";
         String lower = fileName.toLowerCase();
@@ -241,10 +316,10 @@ public class StreamAPI {
     }
 
     private File getMusicFolder() {
-        Settings settings = playbackController.getSettings();
-        if (settings == null || settings.getLibraryPath() == null) {
+        java.nio.file.Path libraryRoot = settingsService.getSnapshot().libraryRoot();
+        if (libraryRoot == null) {
             return new File("./"); // fallback
         }
-        return new File(settings.getLibraryPath());
+        return libraryRoot.toFile();
     }
 }
@@ -311,7 +311,7 @@ public class SubtitleAPI {
                     LOGGER.info("No subtitle tracks found for video {}, attempting on-demand discovery for embedded/external tracks...", videoId);
                     java.nio.file.Path videoPath = java.nio.file.Paths.get(video.path);
                     if (!videoPath.isAbsolute()) {
-                        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                         videoPath = java.nio.file.Paths.get(videoLibraryPath, video.path);
                     }
                     
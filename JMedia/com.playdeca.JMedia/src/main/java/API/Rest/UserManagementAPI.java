@@ -1,7 +1,7 @@
 package API.Rest;
 
 import API.ApiResponse;
-import Models.Session;
+import Models.Telemetry.Session;
 import Models.User;
 import Services.ProfileService;
 import Services.SessionService;
@@ -37,7 +37,7 @@ public class UserManagementAPI {
             return false;
         }
         
-        Session session = Session.findBySessionId(sessionId);
+        Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) {
             return false;
         }
@@ -220,7 +220,7 @@ public class UserManagementAPI {
                     .build();
         }
         
-        Session session = Session.findBySessionId(sessionId);
+        Session session = sessionService.findBySessionId(sessionId);
         if (session == null) {
             return Response.status(Response.Status.NOT_FOUND)
                     .entity(ApiResponse.error("Session not found"))
@@ -56,6 +56,9 @@ public class VideoAPI {
     @Inject
     TranscodingService transcodingService;
 
+    @Inject
+    Services.SessionService sessionService;
+
     @Inject
     VideoService videoService;
 
@@ -92,6 +95,12 @@ public class VideoAPI {
     @Inject
     ExternalVideoService externalVideoService;
 
+    @Inject
+    Services.MediaMetrics metrics;
+
+    @Inject
+    Services.BackgroundWorkGovernor governor;
+
     private boolean checkAdmin(jakarta.ws.rs.core.HttpHeaders headers) {
         String sessionId = null;
         if (headers.getCookies() != null && headers.getCookies().containsKey("JMEDIA_SESSION")) {
@@ -101,7 +110,7 @@ public class VideoAPI {
         if (sessionId == null) {
             return false;
         }
-        Models.Session session = Models.Session.findBySessionId(sessionId);
+        Models.Telemetry.Session session = sessionService.findActiveSession(sessionId);
         if (session == null || !session.active) {
             return false;
         }
@@ -121,11 +130,11 @@ public class VideoAPI {
         Models.DTOs.VideoMetadataDTO dto = new Models.DTOs.VideoMetadataDTO(video);
         // Populate per-profile resume time from VideoState
         try {
-            Models.VideoState progress = videoStateService.getOrCreate(video);
-            if (progress != null && progress.currentTime > 0) {
-                dto.resumeTime = progress.currentTime;
-            } else if (progress != null && progress.watchProgress != null && progress.watchProgress > 0 && progress.watchProgress < 0.95) {
-                dto.resumeTime = progress.watchProgress * (video.getDurationSeconds());
+            Models.DTOs.VideoWatchStatus progress = videoStateService.getStatus(video);
+            if (progress != null && progress.currentTime() > 0) {
+                dto.resumeTime = progress.currentTime();
+            } else if (progress != null && progress.watchProgress() != null && progress.watchProgress() > 0 && progress.watchProgress() < 0.95) {
+                dto.resumeTime = progress.watchProgress() * (video.getDurationSeconds());
             }
             if (dto.resumeTime != null && video.getDurationSeconds() > 0 && (dto.resumeTime / video.getDurationSeconds()) >= 0.95) {
                 dto.resumeTime = 0.0;
@@ -161,7 +170,7 @@ public class VideoAPI {
                 }
             }
 
-            String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+            String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
             if (videoLibraryPath == null || videoLibraryPath.isBlank()) {
                 LOG.error("Video library path is not configured.");
                 return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
@@ -245,7 +254,7 @@ public class VideoAPI {
                     Models.Video video = Models.Video.findById(videoId);
 
                     if (video != null) {
-                        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                         if (videoLibraryPath != null && !videoLibraryPath.isBlank()) {
                             String fullPath;
                             java.nio.file.Path vPath = java.nio.file.Paths.get(video.path);
@@ -301,6 +310,7 @@ public class VideoAPI {
                                @QueryParam("start") @DefaultValue("0") double startSeconds,
                                @QueryParam("audioTrack") @DefaultValue("-1") int audioTrackIndex,
                                @QueryParam("quality") @DefaultValue("0") int qualityHeight) {
+        long requestStart = System.nanoTime();
         if (videoId == null || videoId <= 0) {
             return Response.status(Response.Status.BAD_REQUEST).entity("Invalid video ID").build();
         }
@@ -310,7 +320,7 @@ public class VideoAPI {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
-        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
         if (videoLibraryPath == null || videoLibraryPath.isBlank()) {
             LOG.error("Video library path is not configured.");
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("Video library path not configured.").build();
@@ -337,13 +347,13 @@ public class VideoAPI {
 
         // Transcode if it's an MKV OR if the codec is not natively web-friendly (non-H.264)
         if (isMKV || transcodingService.isTranscodeNeededForWeb(video, userAgent) || qualityHeight > 0) {
-            return streamRemuxedMKV(video, videoFile, startSeconds, userAgent, rangeHeader, audioTrackIndex, qualityHeight);
+            return streamRemuxedMKV(video, videoFile, startSeconds, userAgent, rangeHeader, audioTrackIndex, qualityHeight, requestStart);
         }
 
-        return streamDirectFile(videoFile, rangeHeader);
+        return streamDirectFile(videoFile, rangeHeader, requestStart);
     }
 
-    private Response streamRemuxedMKV(Models.Video video, File videoFile, double startSeconds, String userAgent, String rangeHeader, int audioTrackIndex, int qualityHeight) {
+    private Response streamRemuxedMKV(Models.Video video, File videoFile, double startSeconds, String userAgent, String rangeHeader, int audioTrackIndex, int qualityHeight, long requestStart) {
         final Long videoId = video.id;
 
         // For probe requests (bytes=0-1), start transcode, wait for it to complete so the
@@ -376,7 +386,7 @@ public class VideoAPI {
 
         try {
             java.nio.file.Path tempFile = transcodingService.getOrCreateTranscode(video, videoFile, startSeconds, userAgent, audioTrackIndex, qualityHeight);
-            return streamFromTempFile(video, videoFile, tempFile, startSeconds, rangeHeader, audioTrackIndex, qualityHeight);
+            return streamFromTempFile(video, videoFile, tempFile, startSeconds, rangeHeader, audioTrackIndex, qualityHeight, requestStart);
         } catch (IOException e) {
             LOG.error("Failed to start transcode for video {}: {}", videoId, e.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
@@ -384,7 +394,7 @@ public class VideoAPI {
     }
 
     private Response streamFromTempFile(Models.Video video, File videoFile, java.nio.file.Path tempFile, double startSeconds,
-                                         String rangeHeader, int audioTrackIndex, int qualityHeight) {
+                                         String rangeHeader, int audioTrackIndex, int qualityHeight, long requestStart) {
         final Long videoId = video.id;
         long fileLength;
         try {
@@ -494,7 +504,8 @@ public class VideoAPI {
         };
 
         Response.ResponseBuilder responseBuilder = Response.status(rangeHeader != null ? Response.Status.PARTIAL_CONTENT : Response.Status.OK)
-                .entity(streamingOutput)
+                .entity(metrics.meterStream("video.transcode", requestStart,
+                        governor.track(Services.BackgroundWorkGovernor.Activity.VIDEO, streamingOutput)))
                 .header("Accept-Ranges", "bytes")
                 .header("Content-Type", "video/mp4")
                 .header("Content-Length", contentLength)
@@ -509,7 +520,7 @@ public class VideoAPI {
         return responseBuilder.build();
     }
 
-    private Response streamDirectFile(File videoFile, String rangeHeader) {
+    private Response streamDirectFile(File videoFile, String rangeHeader, long requestStart) {
         long fileLength = videoFile.length();
         long start = 0;
         long end = fileLength - 1;
@@ -575,7 +586,8 @@ public class VideoAPI {
         };
 
         Response.ResponseBuilder responseBuilder = Response.status(rangeHeader != null ? Response.Status.PARTIAL_CONTENT : Response.Status.OK)
-                .entity(streamingOutput)
+                .entity(metrics.meterStream("video.direct", requestStart,
+                        governor.track(Services.BackgroundWorkGovernor.Activity.VIDEO, streamingOutput)))
                 .header("Accept-Ranges", "bytes")
                 .header("Content-Type", mimeType)
                 .header("Content-Length", contentLength)
@@ -625,7 +637,7 @@ public class VideoAPI {
             }
 
             try {
-                String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                 if (videoLibraryPath != null && !videoLibraryPath.isBlank()) {
                     LOG.info("Starting per-video library scan ({}): {}", scanModeDesc, videoLibraryPath);
 
@@ -667,7 +679,7 @@ public class VideoAPI {
             }
 
             try {
-                String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                 if (videoLibraryPath != null && !videoLibraryPath.isBlank()) {
                     LOG.info("Starting video metadata reload: {}", videoLibraryPath);
                     List<Models.Video> videos = videoImportService.scanAndCreate(Paths.get(videoLibraryPath), true);
@@ -731,7 +743,7 @@ public class VideoAPI {
             try {
                 Models.Video video = Models.Video.findById(videoId);
                 if (video != null) {
-                    String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                    String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                     if (videoLibraryPath != null && !videoLibraryPath.isBlank()) {
                         String fullPath;
                         java.nio.file.Path vPath = java.nio.file.Paths.get(video.path);
@@ -806,7 +818,7 @@ public class VideoAPI {
                 ManagedContext requestContext = Arc.container().requestContext();
                 if (!requestContext.isActive()) requestContext.activate();
                 try {
-                    String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                    String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                     java.nio.file.Path vPath = Paths.get(video.path);
                     java.nio.file.Path videoPath = vPath.isAbsolute() ? vPath : Paths.get(videoLibraryPath, video.path);
                     
@@ -840,7 +852,7 @@ public class VideoAPI {
                 return Response.status(Response.Status.NOT_FOUND).entity(ApiResponse.error("Series not found")).build();
             }
             
-            String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+            String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
             java.nio.file.Path seriesFolderPath = videoService.getSeriesFolderPath(seriesTitle);
             if (seriesFolderPath == null) {
                 return Response.serverError().entity(ApiResponse.error("Could not determine series folder path")).build();
@@ -894,7 +906,7 @@ public class VideoAPI {
         try {
             List<Models.Video> existingEpisodes = videoService.findEpisodesForSeason(seriesTitle, seasonNumber);
             
-            String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+            String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
             java.nio.file.Path seasonFolderPath = videoService.getSeasonFolderPath(seriesTitle, seasonNumber);
             if (seasonFolderPath == null) {
                 seasonFolderPath = videoService.getSeasonFolderPathFallback(seriesTitle, seasonNumber);
@@ -953,7 +965,7 @@ public class VideoAPI {
             try {
                 Models.Video video = Models.Video.findById(videoId);
                 if (video == null || video.path == null) return;
-                String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                 if (videoLibraryPath == null) return;
                 java.nio.file.Path vPath = java.nio.file.Paths.get(video.path);
                 String fullPath = vPath.isAbsolute() ? vPath.toString() : java.nio.file.Paths.get(videoLibraryPath, video.path).toString();
@@ -162,7 +162,7 @@ public class VideoManagementApi {
             return Response.status(Response.Status.NOT_FOUND).entity("Series not found").build();
         }
 
-        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
         if (videoLibraryPath == null || videoLibraryPath.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST).entity("Video library path not configured").build();
         }
@@ -203,7 +203,7 @@ public class VideoManagementApi {
         }
 
         // Check if video library path is configured
-        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
         if (videoLibraryPath == null || videoLibraryPath.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST).entity("Video library path not configured").build();
         }
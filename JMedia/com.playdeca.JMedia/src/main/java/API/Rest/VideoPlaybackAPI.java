@@ -198,10 +198,8 @@ public class VideoPlaybackAPI {
     public Response reportProgress(@QueryParam("videoId") Long videoId, @QueryParam("time") double seconds, @QueryParam("playing") boolean playing) {
         try {
             if (videoId != null) {
-                Video video = Video.findById(videoId);
-                if (video != null) {
-                    // Update per-profile progress (no global Video writes)
-                    videoStateService.updateProgress(video, seconds);
+                // Buffered per-profile progress (no global Video writes); flushed in batches
+                if (videoStateService.recordProgress(videoId, seconds)) {
 
                     // Update current session state if this video is active
                     ProfileSessionState currentState = videoController.getState();
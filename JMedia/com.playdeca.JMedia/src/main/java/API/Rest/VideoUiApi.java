@@ -1,6 +1,8 @@
 package API.Rest;
 
 import API.ApiResponse;
+import API.Filter.CachedFragment;
+import API.Filter.FragmentRender;
 import Controllers.VideoController;
 import Services.VideoService;
 import Services.VideoHistoryService;
@@ -8,12 +10,14 @@ import Services.VideoStateService;
 import Services.CollectionWatchProgressService;
 import Services.GenreService;
 import Models.Video;
-import Models.VideoHistory;
+import Models.Telemetry.VideoHistory;
 import Models.Profile;
 import Models.VideoState;
 import Models.CollectionWatchProgress;
 import Services.VideoSuggestionService;
 import Services.ExternalVideoService;
+import Services.SeriesIndexService;
+import Services.HomeCarouselService;
 import io.quarkus.qute.Template;
 import io.quarkus.qute.ValueResolver;
 import io.smallrye.common.annotation.Blocking;
@@ -67,6 +71,15 @@ public class VideoUiApi {
     @Inject
     ExternalVideoService externalVideoService;
 
+    @Inject
+    SeriesIndexService seriesIndexService;
+
+    @Inject
+    HomeCarouselService homeCarouselService;
+
+    @Inject
+    FragmentRender fragmentRender;
+
     @Inject @io.quarkus.qute.Location("suggestionFragment.html")
     Template suggestionFragment;
 
@@ -118,6 +131,7 @@ public class VideoUiApi {
     @GET
     @Path("/hero-fragment")
     @Blocking
+    @CachedFragment
     public String getHeroFragment() {
         try {
             List<Models.Video> allVideos = Models.Video.list("isActive", true);
@@ -139,6 +153,7 @@ public class VideoUiApi {
             
             return renderedHero;
         } catch (Exception e) {
+            fragmentRender.failed();
             LOG.error("Error generating hero fragment", e);
             return "";
         }
@@ -149,89 +164,95 @@ public class VideoUiApi {
     @Blocking
     public String getOptimizedCarousels() {
         try {
-            Map<String, Object> carouselData = getCarouselData();
-            
-            // Print debug info like the original class
-            System.out.println("DEBUG: Total videos found: " + Models.Video.count("isActive", true));
-            System.out.println("DEBUG: Movies: " + ((List<?>)carouselData.get("movies")).size());
-            System.out.println("DEBUG: New releases: " + ((List<?>)carouselData.get("newReleases")).size());
-            System.out.println("DEBUG: Trending videos: " + ((List<?>)carouselData.get("trending")).size());
-            System.out.println("DEBUG: TV Shows: " + ((List<?>)carouselData.get("tvShows")).size());
-
-            StringBuilder html = new StringBuilder("<div class='carousels-container' style='padding: 2rem 0;'>");
-            
-            List<Models.Video> continueWatching = (List<Models.Video>) carouselData.get("continueWatching");
-            if (!continueWatching.isEmpty()) {
-                html.append(createSimpleCarouselHTML("Continue Watching", continueWatching, "pi pi-replay", "#fdcb6e", "RESUME", "continue-watching-carousel"));
-            }
+            Models.Profile profile = settingsService.getActiveProfile();
+            return homeCarouselService.renderHome(profile != null ? profile.id : null, this::renderCarousels);
+        } catch (Exception e) {
+            LOG.error("Error getting optimized carousels", e);
+            return "<div class='notification is-danger'>Failed to load carousels</div>";
+        }
+    }
 
-            // Collection progress carousel
-            {
-                List<CollectionWatchProgress> collectionProgress = collectionWatchProgressService.getInProgress();
-                if (!collectionProgress.isEmpty()) {
-                    html.append(createCollectionCarouselHTML(collectionProgress));
-                }
+    private String renderCarousels(HomeCarouselService.HomeRows rows) {
+        List<Models.Video> continueWatching = findContinueWatching();
+
+        // Per-profile progress for every card in one query
+        List<Models.Video> cardVideos = new ArrayList<>(continueWatching);
+        cardVideos.addAll(rows.newReleases());
+        cardVideos.addAll(rows.trending());
+        cardVideos.addAll(rows.movies());
+        cardVideos.addAll(rows.tvShows());
+        Map<Long, Models.DTOs.VideoWatchStatus> statuses = videoStateService.getStatusBatch(cardVideos);
+
+        StringBuilder html = new StringBuilder("<div class='carousels-container' style='padding: 2rem 0;'>");
+
+        if (!continueWatching.isEmpty()) {
+            html.append(createSimpleCarouselHTML("Continue Watching", continueWatching, "pi pi-replay", "#fdcb6e", "RESUME", "continue-watching-carousel", statuses));
+        }
+
+        // Collection progress carousel
+        {
+            List<CollectionWatchProgress> collectionProgress = collectionWatchProgressService.getInProgress();
+            if (!collectionProgress.isEmpty()) {
+                html.append(createCollectionCarouselHTML(collectionProgress));
             }
-            
-            // Build Recently Updated carousel — merge regular and external entries sorted by date
-            {
-                List<Models.Video> newReleases = (List<Models.Video>) carouselData.get("newReleases");
-                List<Models.ExternalVideo> externalVideos = Models.ExternalVideo.list("order by lastUpdated desc");
-                // Build list of (html, timestamp) pairs
-                List<Object[]> cardEntries = new ArrayList<>();
-                for (Models.Video v : newReleases) {
-                    java.time.LocalDateTime ts = v.dateAdded != null ? v.dateAdded : java.time.LocalDateTime.MIN;
-                    cardEntries.add(new Object[]{createSimpleCardHTML(v), ts});
-                }
-                for (Models.ExternalVideo ev : externalVideos) {
-                    java.time.LocalDateTime ts = ev.lastUpdated != null ? ev.lastUpdated : java.time.LocalDateTime.MIN;
-                    cardEntries.add(new Object[]{createExternalCardHTML(ev), ts});
-                }
-                cardEntries.sort((a, b) -> ((java.time.LocalDateTime) b[1]).compareTo((java.time.LocalDateTime) a[1]));
-                // Limit to 40 items
-                if (cardEntries.size() > 40) cardEntries = cardEntries.subList(0, 40);
-
-                StringBuilder carouselHtml = new StringBuilder();
-                carouselHtml.append("<div class='streaming-carousel-section'>");
-                carouselHtml.append("<div class='carousel-header'>");
-                carouselHtml.append("<div class='carousel-title-section'>");
-                carouselHtml.append("<i class='pi pi-clock' style='color: #48c774'></i>");
-                carouselHtml.append("<h2 class='carousel-title'>Recently Updated</h2>");
-                carouselHtml.append("<span class='carousel-badge'>UPDATED</span>");
-                carouselHtml.append("</div>");
-                carouselHtml.append("<div class='carousel-controls'>");
-                carouselHtml.append("<button class='carousel-nav-btn' onclick=\"window.scrollCarousel('new-releases-carousel', 'left')\"><i class='pi pi-chevron-left'></i></button>");
-                carouselHtml.append("<button class='carousel-nav-btn' onclick=\"window.scrollCarousel('new-releases-carousel', 'right')\"><i class='pi pi-chevron-right'></i></button>");
-                carouselHtml.append("</div>");
-                carouselHtml.append("</div>");
-                carouselHtml.append("<div class='carousel-container'>");
-                carouselHtml.append("<div class='streaming-carousel' id='new-releases-carousel'>");
-                for (Object[] entry : cardEntries) {
-                    carouselHtml.append((String) entry[0]);
-                }
-                carouselHtml.append("</div></div></div>");
-                html.append(carouselHtml.toString());
+        }
+        
+        // Build Recently Updated carousel — merge regular and external entries sorted by date
+        {
+            List<Models.Video> newReleases = rows.newReleases();
+            List<Models.ExternalVideo> externalVideos = Models.ExternalVideo.find("order by lastUpdated desc").page(0, 40).list();
+            // Build list of (html, timestamp) pairs
+            List<Object[]> cardEntries = new ArrayList<>();
+            for (Models.Video v : newReleases) {
+                java.time.LocalDateTime ts = v.dateAdded != null ? v.dateAdded : java.time.LocalDateTime.MIN;
+                cardEntries.add(new Object[]{createSimpleCardHTML(v, statuses), ts});
             }
-
-            List<Models.Video> trending = (List<Models.Video>) carouselData.get("trending");
-            if (!trending.isEmpty()) {
-                html.append(createSimpleCarouselHTML("Trending Now", trending, "pi pi-fire", "#ffa502", "TRENDING", "trending-carousel"));
+            for (Models.ExternalVideo ev : externalVideos) {
+                java.time.LocalDateTime ts = ev.lastUpdated != null ? ev.lastUpdated : java.time.LocalDateTime.MIN;
+                cardEntries.add(new Object[]{createExternalCardHTML(ev), ts});
             }
-            
-            html.append(createSimpleCarouselHTML("Movies", (List<Models.Video>) carouselData.get("movies"), "pi pi-video", "#5f27cd", "MOVIES", "movies-carousel"));
-            html.append(createSimpleCarouselHTML("TV Shows", (List<Models.Video>) carouselData.get("tvShows"), "pi pi-desktop", "#00d2d3", "SERIES", "tv-shows-carousel"));
-            
-            html.append("</div>");
-            return html.toString();
-        } catch (Exception e) {
-            LOG.error("Error getting optimized carousels", e);
-            return "<div class='notification is-danger'>Failed to load carousels</div>";
+            cardEntries.sort((a, b) -> ((java.time.LocalDateTime) b[1]).compareTo((java.time.LocalDateTime) a[1]));
+            // Limit to 40 items
+            if (cardEntries.size() > 40) cardEntries = cardEntries.subList(0, 40);
+
+            StringBuilder carouselHtml = new StringBuilder();
+            carouselHtml.append("<div class='streaming-carousel-section'>");
+            carouselHtml.append("<div class='carousel-header'>");
+            carouselHtml.append("<div class='carousel-title-section'>");
+            carouselHtml.append("<i class='pi pi-clock' style='color: #48c774'></i>");
+            carouselHtml.append("<h2 class='carousel-title'>Recently Updated</h2>");
+            carouselHtml.append("<span class='carousel-badge'>UPDATED</span>");
+            carouselHtml.append("</div>");
+            carouselHtml.append("<div class='carousel-controls'>");
+            carouselHtml.append("<button class='carousel-nav-btn' onclick=\"window.scrollCarousel('new-releases-carousel', 'left')\"><i class='pi pi-chevron-left'></i></button>");
+            carouselHtml.append("<button class='carousel-nav-btn' onclick=\"window.scrollCarousel('new-releases-carousel', 'right')\"><i class='pi pi-chevron-right'></i></button>");
+            carouselHtml.append("</div>");
+            carouselHtml.append("</div>");
+            carouselHtml.append("<div class='carousel-container'>");
+            carouselHtml.append("<div class='streaming-carousel' id='new-releases-carousel'>");
+            for (Object[] entry : cardEntries) {
+                carouselHtml.append((String) entry[0]);
+            }
+            carouselHtml.append("</div></div></div>");
+            html.append(carouselHtml.toString());
+        }
+
+        List<Models.Video> trending = rows.trending();
+        if (!trending.isEmpty()) {
+            html.append(createSimpleCarouselHTML("Trending Now", trending, "pi pi-fire", "#ffa502", "TRENDING", "trending-carousel", statuses));
         }
+        
+        html.append(createSimpleCarouselHTML("Movies", rows.movies(), "pi pi-video", "#5f27cd", "MOVIES", "movies-carousel", statuses));
+        html.append(createSimpleCarouselHTML("TV Shows", rows.tvShows(), "pi pi-desktop", "#00d2d3", "SERIES", "tv-shows-carousel", statuses));
+        
+        html.append("</div>");
+        return html.toString();
     }
 
     @GET
     @Path("/movies-fragment")
     @Blocking
+    @CachedFragment
     public String getMoviesFragment(
             @QueryParam("page") @DefaultValue("1") int page,
             @QueryParam("limit") @DefaultValue("40") int limit,
@@ -254,13 +275,13 @@ public class VideoUiApi {
         int totalPages = (int) Math.ceil((double) totalItems / limit);
 
         // Enrich movies with per-profile progress (batch)
-        Map<Long, Models.VideoState> movieStates = videoStateService.getOrCreateBatch(paginatedVideos.videos);
+        Map<Long, Models.DTOs.VideoWatchStatus> movieStates = videoStateService.getStatusBatch(paginatedVideos.videos);
         for (Models.Video movie : paginatedVideos.videos) {
-            Models.VideoState vs = movieStates.get(movie.id);
+            Models.DTOs.VideoWatchStatus vs = movieStates.get(movie.id);
             if (vs != null) {
-                movie.watchProgress = vs.watchProgress;
-                movie.watchProgressPercent = vs.watchProgress != null ? (int) Math.round(vs.watchProgress * 100) : 0;
-                movie.watched = vs.watched;
+                movie.watchProgress = vs.watchProgress();
+                movie.watchProgressPercent = vs.watchProgress() != null ? (int) Math.round(vs.watchProgress() * 100) : 0;
+                movie.watched = vs.watched();
             }
         }
 
@@ -287,6 +308,7 @@ public class VideoUiApi {
     @GET
     @Path("/movies-fragment-more")
     @Blocking
+    @CachedFragment
     public String getMoviesFragmentMore(
             @QueryParam("page") @DefaultValue("1") int page,
             @QueryParam("limit") @DefaultValue("40") int limit,
@@ -311,13 +333,13 @@ public class VideoUiApi {
         int nextPage = page + 1;
 
         // Enrich movies with per-profile progress (batch)
-        Map<Long, Models.VideoState> movieStates = videoStateService.getOrCreateBatch(paginatedVideos.videos);
+        Map<Long, Models.DTOs.VideoWatchStatus> movieStates = videoStateService.getStatusBatch(paginatedVideos.videos);
         for (Models.Video movie : paginatedVideos.videos) {
-            Models.VideoState vs = movieStates.get(movie.id);
+            Models.DTOs.VideoWatchStatus vs = movieStates.get(movie.id);
             if (vs != null) {
-                movie.watchProgress = vs.watchProgress;
-                movie.watchProgressPercent = vs.watchProgress != null ? (int) Math.round(vs.watchProgress * 100) : 0;
-                movie.watched = vs.watched;
+                movie.watchProgress = vs.watchProgress();
+                movie.watchProgressPercent = vs.watchProgress() != null ? (int) Math.round(vs.watchProgress() * 100) : 0;
+                movie.watched = vs.watched();
             }
         }
 
@@ -337,6 +359,7 @@ public class VideoUiApi {
     @GET
     @Path("/shows-fragment")
     @Blocking
+    @CachedFragment
     public String getSeriesFragment(
             @QueryParam("page") @DefaultValue("1") int page,
             @QueryParam("limit") @DefaultValue("40") int limit,
@@ -359,65 +382,8 @@ public class VideoUiApi {
         int totalItems = (int) paginatedSeries.totalCount;
         int totalPages = (int) Math.ceil((double) totalItems / limit);
         
-        List<Models.Video> allEpisodes = videoService.findEpisodes();
-        if (allEpisodes.isEmpty()) {
-            allEpisodes = Models.Video.<Models.Video>listAll().stream()
-                    .filter(v -> v.type != null && v.type.equalsIgnoreCase("episode"))
-                    .collect(Collectors.toList());
-        }
-
-        List<SeriesTitleEntry> entries = new ArrayList<>();
-        for (String title : paginatedSeries.titles) {
-            final String currentTitle = title;
-            Models.Video sample = allEpisodes.stream()
-                    .filter(v -> currentTitle.equalsIgnoreCase(v.seriesTitle))
-                    .findFirst().orElse(null);
-            
-            if (sample != null) {
-                entries.add(new SeriesTitleEntry(
-                    title, 
-                    URLEncoder.encode(title, StandardCharsets.UTF_8),
-                    "series-" + Math.abs(title.hashCode()),
-                    sample.id
-                ));
-            }
-        }
-
-        // Merge external series titles
-        List<String> externalSeriesTitles = externalVideoService.findAllSeriesTitles();
-        Set<String> existingTitles = entries.stream().map(e -> e.rawTitle().toLowerCase()).collect(Collectors.toSet());
-        for (String extTitle : externalSeriesTitles) {
-            if (existingTitles.contains(extTitle.toLowerCase())) continue;
-            if (search != null && !search.trim().isEmpty()) {
-                if (!extTitle.toLowerCase().contains(search.toLowerCase())) continue;
-            }
-            entries.add(new SeriesTitleEntry(
-                extTitle,
-                URLEncoder.encode(extTitle, StandardCharsets.UTF_8),
-                "series-ext-" + Math.abs(extTitle.hashCode()),
-                null // no sample video ID for external series
-            ));
-        }
-
-        // Compute per-show watch progress using batch state loading
         Map<String, SeriesProgress> showProgress = new HashMap<>();
-        Map<String, List<Models.Video>> episodesBySeries = allEpisodes.stream()
-                .filter(v -> v.seriesTitle != null)
-                .collect(Collectors.groupingBy(v -> v.seriesTitle.toLowerCase()));
-        Map<Long, Models.VideoState> allStates = videoStateService.getOrCreateBatch(allEpisodes);
-        for (SeriesTitleEntry entry : entries) {
-            String key = entry.rawTitle().toLowerCase();
-            List<Models.Video> seriesEps = episodesBySeries.getOrDefault(key, Collections.emptyList());
-            int total = seriesEps.size();
-            int watched = 0;
-            for (Models.Video ep : seriesEps) {
-                Models.VideoState vs = allStates.get(ep.id);
-                if (vs != null && Boolean.TRUE.equals(vs.watched)) {
-                    watched++;
-                }
-            }
-            showProgress.put(entry.rawTitle(), new SeriesProgress(watched, total));
-        }
+        List<SeriesTitleEntry> entries = buildSeriesEntries(paginatedSeries.titles, search, showProgress);
 
         boolean hasMore = page < totalPages;
         int nextPage = page + 1;
@@ -440,6 +406,7 @@ public class VideoUiApi {
     @GET
     @Path("/shows-fragment-more")
     @Blocking
+    @CachedFragment
     public String getSeriesFragmentMore(
             @QueryParam("page") @DefaultValue("1") int page,
             @QueryParam("limit") @DefaultValue("40") int limit,
@@ -458,27 +425,40 @@ public class VideoUiApi {
         boolean hasMore = page < totalPages;
         int nextPage = page + 1;
 
-        List<Models.Video> allEpisodes = videoService.findEpisodes();
-        if (allEpisodes.isEmpty()) {
-            allEpisodes = Models.Video.<Models.Video>listAll().stream()
-                    .filter(v -> v.type != null && v.type.equalsIgnoreCase("episode"))
-                    .collect(Collectors.toList());
-        }
+        Map<String, SeriesProgress> showProgress = new HashMap<>();
+        List<SeriesTitleEntry> entries = buildSeriesEntries(paginatedSeries.titles, search, showProgress);
 
-        List<SeriesTitleEntry> entries = new ArrayList<>();
-        for (String title : paginatedSeries.titles) {
-            final String currentTitle = title;
-            Models.Video sample = allEpisodes.stream()
-                    .filter(v -> currentTitle.equalsIgnoreCase(v.seriesTitle))
-                    .findFirst().orElse(null);
+        return seriesItemsFragment
+                .data("series", entries)
+                .data("showProgress", showProgress)
+                .data("limit", limit)
+                .data("nextPage", nextPage)
+                .data("hasMore", hasMore)
+                .data("sortBy", sortBy)
+                .data("sortDirection", sortDirection)
+                .data("search", search)
+                .render();
+    }
+
+    /**
+     * Show cards for one page of series titles plus matching external series, with per-show
+     * watch progress from the series index.
+     */
+    private List<SeriesTitleEntry> buildSeriesEntries(List<String> titles, String search, Map<String, SeriesProgress> showProgress) {
+        Models.Profile profile = settingsService.getActiveProfile();
+        Long profileId = profile != null ? profile.id : null;
 
-            if (sample != null) {
+        List<SeriesTitleEntry> entries = new ArrayList<>();
+        for (String title : titles) {
+            SeriesIndexService.SeriesCard card = seriesIndexService.card(title, profileId);
+            if (card != null) {
                 entries.add(new SeriesTitleEntry(
                     title,
                     URLEncoder.encode(title, StandardCharsets.UTF_8),
                     "series-" + Math.abs(title.hashCode()),
-                    sample.id
+                    card.sampleVideoId()
                 ));
+                showProgress.put(title, new SeriesProgress(card.watchedCount(), card.episodeCount()));
             }
         }
 
@@ -494,79 +474,31 @@ public class VideoUiApi {
                 extTitle,
                 URLEncoder.encode(extTitle, StandardCharsets.UTF_8),
                 "series-ext-" + Math.abs(extTitle.hashCode()),
-                null
+                null // no sample video ID for external series
             ));
+            showProgress.put(extTitle, new SeriesProgress(0, 0));
         }
-
-        // Compute per-show watch progress
-        Map<String, SeriesProgress> showProgress = new HashMap<>();
-        Map<String, List<Models.Video>> episodesBySeries = allEpisodes.stream()
-                .filter(v -> v.seriesTitle != null)
-                .collect(Collectors.groupingBy(v -> v.seriesTitle.toLowerCase()));
-        Map<Long, Models.VideoState> allStates = videoStateService.getOrCreateBatch(allEpisodes);
-        for (SeriesTitleEntry entry : entries) {
-            String key = entry.rawTitle().toLowerCase();
-            List<Models.Video> seriesEps = episodesBySeries.getOrDefault(key, Collections.emptyList());
-            int total = seriesEps.size();
-            int watched = 0;
-            for (Models.Video ep : seriesEps) {
-                Models.VideoState vs = allStates.get(ep.id);
-                if (vs != null && Boolean.TRUE.equals(vs.watched)) {
-                    watched++;
-                }
-            }
-            showProgress.put(entry.rawTitle(), new SeriesProgress(watched, total));
-        }
-
-        return seriesItemsFragment
-                .data("series", entries)
-                .data("showProgress", showProgress)
-                .data("limit", limit)
-                .data("nextPage", nextPage)
-                .data("hasMore", hasMore)
-                .data("sortBy", sortBy)
-                .data("sortDirection", sortDirection)
-                .data("search", search)
-                .render();
+        return entries;
     }
 
     @GET
     @Path("/shows/{seriesTitle}/seasons-fragment")
     @Blocking
+    @CachedFragment
     public String getSeasonsFragment(@PathParam("seriesTitle") String seriesTitle) {
         try {
             // Path parameters are often not decoded automatically in all JAX-RS configurations
             String decodedTitle = java.net.URLDecoder.decode(seriesTitle, StandardCharsets.UTF_8);
-            List<Models.Video> seriesEpisodes = videoService.findEpisodesForSeries(decodedTitle);
-            
-            // Case-insensitive fallback
-            if (seriesEpisodes.isEmpty()) {
-                seriesEpisodes = Models.Video.<Models.Video>listAll().stream()
-                    .filter(v -> v.type != null && v.type.equalsIgnoreCase("episode") && 
-                            decodedTitle.equalsIgnoreCase(v.seriesTitle))
-                    .collect(Collectors.toList());
-            }
-
-            final List<Models.Video> finalEpisodes = seriesEpisodes;
-            List<Integer> seasonNumbers = finalEpisodes.stream()
-                    .map(v -> v.seasonNumber != null ? v.seasonNumber : 1) // Treat null as Season 1
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            // If it's still empty but we have episodes, ensure we have at least season 1
-            if (seasonNumbers.isEmpty() && !finalEpisodes.isEmpty()) {
-                seasonNumbers = Collections.singletonList(1);
-            }
+            Models.Profile profile = settingsService.getActiveProfile();
+            List<SeriesIndexService.SeasonSummary> indexedSeasons =
+                    seriesIndexService.seasons(decodedTitle, profile != null ? profile.id : null);
 
+            // Season samples and per-season watch progress come from the series index
             List<SeasonEntry> seasons = new ArrayList<>();
-            for (Integer sn : seasonNumbers) {
-                Models.Video sample = finalEpisodes.stream()
-                        .filter(v -> (v.seasonNumber != null ? v.seasonNumber : 1) == sn)
-                        .findFirst()
-                        .orElse(null);
-                String seasonName = sample != null ? sample.seasonName : null;
-                seasons.add(new SeasonEntry(sn, sample != null ? sample.id : null, seasonName));
+            Map<Integer, SeasonProgress> seasonProgress = new HashMap<>();
+            for (SeriesIndexService.SeasonSummary season : indexedSeasons) {
+                seasons.add(new SeasonEntry(season.seasonNumber(), season.sampleVideoId(), season.seasonName()));
+                seasonProgress.put(season.seasonNumber(), new SeasonProgress(season.watchedCount(), season.episodeCount()));
             }
 
             // Merge external season numbers
@@ -575,37 +507,17 @@ public class VideoUiApi {
             for (Integer extSn : externalSeasonNumbers) {
                 if (!existingSeasonNums.contains(extSn)) {
                     seasons.add(new SeasonEntry(extSn, null, null));
+                    seasonProgress.put(extSn, new SeasonProgress(0, 0));
                 }
             }
             seasons.sort(Comparator.comparingInt(SeasonEntry::seasonNumber));
 
-            Models.Video sampleVideo = finalEpisodes.isEmpty() ? null : finalEpisodes.get(0);
-            
-            // Find the last played video (or first one)
-            Models.Video lastPlayedVideo = finalEpisodes.stream()
-                    .filter(v -> v.lastWatched != null)
-                    .sorted(Comparator.comparing(v -> ((Models.Video)v).lastWatched).reversed())
-                    .findFirst()
-                    .orElse(sampleVideo);
-
-            // Compute per-season watch progress (batch)
-            Map<Long, Models.VideoState> seasonStates = videoStateService.getOrCreateBatch(finalEpisodes);
-            Map<Integer, SeasonProgress> seasonProgress = new HashMap<>();
-            for (SeasonEntry entry : seasons) {
-                int total = 0;
-                int watched = 0;
-                for (Models.Video ep : finalEpisodes) {
-                    int sn = ep.seasonNumber != null ? ep.seasonNumber : 1;
-                    if (sn == entry.seasonNumber()) {
-                        total++;
-                        Models.VideoState vs = seasonStates.get(ep.id);
-                        if (vs != null && Boolean.TRUE.equals(vs.watched)) {
-                            watched++;
-                        }
-                    }
-                }
-                seasonProgress.put(entry.seasonNumber(), new SeasonProgress(watched, total));
-            }
+            // First episode, and the last played one (or the first)
+            List<Long> sampleIds = seriesIndexService.sampleAndLastPlayed(decodedTitle);
+            Models.Video sampleVideo = sampleIds.isEmpty() ? null : videoService.find(sampleIds.get(0));
+            Models.Video lastPlayedVideo = sampleIds.isEmpty() || sampleIds.get(1).equals(sampleIds.get(0))
+                    ? sampleVideo
+                    : videoService.find(sampleIds.get(1));
 
             return seasonListContent
                     .data("seriesTitle", decodedTitle)
@@ -616,6 +528,7 @@ public class VideoUiApi {
                     .data("lastPlayedVideo", lastPlayedVideo)
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             LOG.error("Error rendering seasons fragment for show {}: {}", seriesTitle, e.getMessage(), e);
             return "<div class='carousel-empty-state'><i class='pi pi-exclamation-circle'></i><h3>Error loading seasons</h3><p>" + e.getMessage() + "</p></div>";
         }
@@ -624,6 +537,7 @@ public class VideoUiApi {
     @GET
     @Path("/shows/{seriesTitle}/seasons/{seasonNumber}/episodes-fragment")
     @Blocking
+    @CachedFragment
     public String getEpisodesFragment(
             @PathParam("seriesTitle") String seriesTitle,
             @PathParam("seasonNumber") Integer seasonNumber) {
@@ -633,25 +547,22 @@ public class VideoUiApi {
             
             List<Models.Video> episodes = videoService.findEpisodesForSeason(decodedTitle, seasonNumber);
             
-            // Fallback for case-insensitivity or null season numbers (mapped to season 1)
+            // Fallback for case-insensitivity: retry with the stored spelling of the title
             if (episodes.isEmpty()) {
-                episodes = Models.Video.<Models.Video>listAll().stream()
-                    .filter(v -> v.type != null && v.type.equalsIgnoreCase("episode") && 
-                            decodedTitle.equalsIgnoreCase(v.seriesTitle) && 
-                            (seasonNumber.equals(v.seasonNumber) || (seasonNumber == 1 && v.seasonNumber == null)) &&
-                            (v.folder == null || v.folder.isEmpty()))
-                    .sorted(Comparator.comparingInt(v -> v.episodeNumber != null ? v.episodeNumber : 0))
-                    .collect(Collectors.toList());
+                String storedTitle = seriesIndexService.resolveTitle(decodedTitle);
+                if (storedTitle != null && !storedTitle.equals(decodedTitle)) {
+                    episodes = videoService.findEpisodesForSeason(storedTitle, seasonNumber);
+                }
             }
 
             // Enrich episodes with per-profile progress (batch)
-            Map<Long, Models.VideoState> epStates = videoStateService.getOrCreateBatch(episodes);
+            Map<Long, Models.DTOs.VideoWatchStatus> epStates = videoStateService.getStatusBatch(episodes);
             for (Models.Video ep : episodes) {
-                Models.VideoState vs = epStates.get(ep.id);
+                Models.DTOs.VideoWatchStatus vs = epStates.get(ep.id);
                 if (vs != null) {
-                    ep.watchProgress = vs.watchProgress;
-                    ep.watchProgressPercent = vs.watchProgress != null ? (int) Math.round(vs.watchProgress * 100) : 0;
-                    ep.watched = vs.watched;
+                    ep.watchProgress = vs.watchProgress();
+                    ep.watchProgressPercent = vs.watchProgress() != null ? (int) Math.round(vs.watchProgress() * 100) : 0;
+                    ep.watched = vs.watched();
                 }
             }
 
@@ -678,6 +589,7 @@ public class VideoUiApi {
                     .data("encodedSeriesTitle", seriesTitle)
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             LOG.error("Error rendering episodes fragment for show {} season {}: {}", seriesTitle, seasonNumber, e.getMessage(), e);
             return "<div class='carousel-empty-state'><i class='pi pi-exclamation-circle'></i><h3>Error loading episodes</h3><p>" + e.getMessage() + "</p></div>";
         }
@@ -686,6 +598,7 @@ public class VideoUiApi {
     @GET
     @Path("/shows/{seriesTitle}/seasons/{seasonNumber}/folders/{folderName}/episodes-fragment")
     @Blocking
+    @CachedFragment
     public String getFolderEpisodesFragment(
             @PathParam("seriesTitle") String seriesTitle,
             @PathParam("seasonNumber") Integer seasonNumber,
@@ -698,13 +611,13 @@ public class VideoUiApi {
             List<Models.Video> episodes = videoService.findEpisodesForSeasonAndFolder(decodedTitle, seasonNumber, decodedFolder);
 
             // Enrich episodes with per-profile progress (batch)
-            Map<Long, Models.VideoState> folderEpStates = videoStateService.getOrCreateBatch(episodes);
+            Map<Long, Models.DTOs.VideoWatchStatus> folderEpStates = videoStateService.getStatusBatch(episodes);
             for (Models.Video ep : episodes) {
-                Models.VideoState vs = folderEpStates.get(ep.id);
+                Models.DTOs.VideoWatchStatus vs = folderEpStates.get(ep.id);
                 if (vs != null) {
-                    ep.watchProgress = vs.watchProgress;
-                    ep.watchProgressPercent = vs.watchProgress != null ? (int) Math.round(vs.watchProgress * 100) : 0;
-                    ep.watched = vs.watched;
+                    ep.watchProgress = vs.watchProgress();
+                    ep.watchProgressPercent = vs.watchProgress() != null ? (int) Math.round(vs.watchProgress() * 100) : 0;
+                    ep.watched = vs.watched();
                 }
             }
 
@@ -717,6 +630,7 @@ public class VideoUiApi {
                     .data("encodedSeriesTitle", seriesTitle)
                     .render();
         } catch (Exception e) {
+            fragmentRender.failed();
             LOG.error("Error rendering folder episodes for {} season {} folder {}: {}", seriesTitle, seasonNumber, folderName, e.getMessage(), e);
             return "<div class='carousel-empty-state'><i class='pi pi-exclamation-circle'></i><h3>Error loading folder</h3><p>" + e.getMessage() + "</p></div>";
         }
@@ -731,12 +645,13 @@ public class VideoUiApi {
             @QueryParam("search") String search) {
         VideoService.PaginatedVideos paginated = videoService.findHistoryPaginated(search, page, limit);
         
-        // Enrich history videos with per-profile progress
+        // Enrich history videos with per-profile progress (batch)
+        Map<Long, Models.DTOs.VideoWatchStatus> historyStates = videoStateService.getStatusBatch(paginated.videos);
         for (Models.Video video : paginated.videos) {
-            Models.VideoState vs = videoStateService.getOrCreate(video);
-            if (vs != null && vs.watchProgress != null && vs.watchProgress > 0) {
-                video.watchProgress = vs.watchProgress;
-                video.watchProgressPercent = (int) Math.round(vs.watchProgress * 100);
+            Models.DTOs.VideoWatchStatus vs = historyStates.get(video.id);
+            if (vs != null && vs.watchProgress() != null && vs.watchProgress() > 0) {
+                video.watchProgress = vs.watchProgress();
+                video.watchProgressPercent = (int) Math.round(vs.watchProgress() * 100);
             }
         }
         
@@ -786,11 +701,12 @@ public class VideoUiApi {
             @QueryParam("search") String search) {
         VideoService.PaginatedVideos paginated = videoService.findHistoryPaginated(search, page, limit);
         
+        Map<Long, Models.DTOs.VideoWatchStatus> historyStates = videoStateService.getStatusBatch(paginated.videos);
         for (Models.Video video : paginated.videos) {
-            Models.VideoState vs = videoStateService.getOrCreate(video);
-            if (vs != null && vs.watchProgress != null && vs.watchProgress > 0) {
-                video.watchProgress = vs.watchProgress;
-                video.watchProgressPercent = (int) Math.round(vs.watchProgress * 100);
+            Models.DTOs.VideoWatchStatus vs = historyStates.get(video.id);
+            if (vs != null && vs.watchProgress() != null && vs.watchProgress() > 0) {
+                video.watchProgress = vs.watchProgress();
+                video.watchProgressPercent = (int) Math.round(vs.watchProgress() * 100);
             }
         }
         
@@ -967,16 +883,20 @@ public class VideoUiApi {
     @GET
     @Path("/details-fragment/{videoId}")
     @Blocking
+    @CachedFragment
     public String getDetailsFragment(@PathParam("videoId") Long videoId) {
         Models.Video item = videoService.find(videoId);
-        if (item == null) return "<div class='notification is-danger'>Video not found</div>";
+        if (item == null) {
+            fragmentRender.failed();
+            return "<div class='notification is-danger'>Video not found</div>";
+        }
         
         return detailsFragment
                 .data("item", item)
                 .data("formatDuration", (Function<Integer, String>) this::formatDuration)
                 .data("json", (ValueResolver) (ctx) -> {
                     try { return java.util.concurrent.CompletableFuture.completedFuture(objectMapper.writeValueAsString(ctx.getBase())); }
-                    catch (Exception e) { return java.util.concurrent.CompletableFuture.completedFuture("{}"); }
+                    catch (Exception e) { fragmentRender.failed(); return java.util.concurrent.CompletableFuture.completedFuture("{}"); }
                 }).render();
     }
 
@@ -990,12 +910,12 @@ public class VideoUiApi {
         double resumeTime = 0;
 
         // Get per-profile progress
-        Models.VideoState progress = videoStateService.getOrCreate(item);
+        Models.DTOs.VideoWatchStatus progress = videoStateService.getStatus(item);
         if (progress != null) {
-            if (progress.currentTime > 0) {
-                resumeTime = progress.currentTime;
-            } else if (progress.watchProgress != null && progress.watchProgress > 0 && progress.watchProgress < 0.95) {
-                resumeTime = progress.watchProgress * (item.getDurationSeconds());
+            if (progress.currentTime() > 0) {
+                resumeTime = progress.currentTime();
+            } else if (progress.watchProgress() != null && progress.watchProgress() > 0 && progress.watchProgress() < 0.95) {
+                resumeTime = progress.watchProgress() * (item.getDurationSeconds());
             }
         }
 
@@ -1012,10 +932,10 @@ public class VideoUiApi {
         boolean needsTranscoding = isMKV || transcodingService.isTranscodeNeededForWeb(item, userAgent);
 
         // Load auto-skip settings
-        Models.Settings settings = settingsService.getOrCreateSettings();
-        boolean autoSkipIntro = settings.getAutoSkipIntro();
-        boolean autoSkipRecap = settings.getAutoSkipRecap();
-        boolean autoSkipOutro = settings.getAutoSkipOutro();
+        Models.SettingsSnapshot settings = settingsService.getSnapshot();
+        boolean autoSkipIntro = settings.autoSkipIntro();
+        boolean autoSkipRecap = settings.autoSkipRecap();
+        boolean autoSkipOutro = settings.autoSkipOutro();
 
         return playbackFragment
                 .data("item", item)
@@ -1045,7 +965,7 @@ public class VideoUiApi {
 
     // ==================== HELPERS ====================
 
-    private String createSimpleCardHTML(Models.Video item) {
+    private String createSimpleCardHTML(Models.Video item, Map<Long, Models.DTOs.VideoWatchStatus> statuses) {
         String title = item.title != null ? item.title : (item.seriesTitle != null ? item.seriesTitle : "Unknown");
         boolean isEpisode = item.type != null && "episode".equalsIgnoreCase(item.type);
         String dataAttrs = isEpisode && item.seriesTitle != null
@@ -1062,9 +982,9 @@ public class VideoUiApi {
 
         // Progress bar HTML - get per-profile watch progress
         String progressBar = "";
-        Models.VideoState progress = videoStateService.getOrCreate(item);
-        if (progress != null && progress.watchProgress != null && progress.watchProgress > 0) {
-            int progressPercent = (int)(progress.watchProgress * 100);
+        Models.DTOs.VideoWatchStatus progress = statuses.get(item.id);
+        if (progress != null && progress.watchProgress() != null && progress.watchProgress() > 0) {
+            int progressPercent = (int)(progress.watchProgress() * 100);
             progressBar = "<div class='card-progress-container'><div class='card-progress-bar' style='width: " + progressPercent + "%%'></div></div>";
         }
 
@@ -1112,7 +1032,8 @@ public class VideoUiApi {
                "<div class='card-content'><div class='card-title'>" + title + "</div><div class='card-meta'>" + escapeHtml(meta) + "</div></div></div>";
     }
 
-    private String createSimpleCarouselHTML(String title, List<Models.Video> items, String iconClass, String iconColor, String badge, String carouselId) {
+    private String createSimpleCarouselHTML(String title, List<Models.Video> items, String iconClass, String iconColor, String badge, String carouselId,
+                                            Map<Long, Models.DTOs.VideoWatchStatus> statuses) {
         if (items == null || items.isEmpty()) return "";
         StringBuilder html = new StringBuilder("<div class='streaming-carousel-section'>");
         
@@ -1136,7 +1057,7 @@ public class VideoUiApi {
         // Container for items
         html.append("<div class='carousel-container'>");
         html.append("<div class='streaming-carousel' id='").append(carouselId).append("'>");
-        for (Models.Video item : items) html.append(createSimpleCardHTML(item));
+        for (Models.Video item : items) html.append(createSimpleCardHTML(item, statuses));
         html.append("</div></div></div>");
         return html.toString();
     }
@@ -1185,18 +1106,17 @@ public class VideoUiApi {
         return html.toString();
     }
 
-    private Map<String, Object> getCarouselData() {
-        List<Models.Video> all = Models.Video.list("isActive", true);
-        Map<String, Object> data = new HashMap<>();
-        
-        // Continue Watching - based on per-profile VideoState progress
+    /**
+     * Continue Watching row from per-profile VideoState progress, one card per show.
+     */
+    private List<Models.Video> findContinueWatching() {
         java.util.Set<String> seenContinue = new java.util.HashSet<>();
         List<Models.Video> continueWatching = new java.util.ArrayList<>();
         
         List<Models.VideoState> inProgress = videoStateService.getInProgressVideos();
         for (Models.VideoState vs : inProgress) {
             if (vs.video != null && vs.video.isActive) {
-                String key = getDedupeKey(vs.video);
+                String key = HomeCarouselService.dedupeKey(vs.video);
                 if (seenContinue.add(key)) {
                     continueWatching.add(vs.video);
                     // Attach per-profile progress to video for UI display
@@ -1205,47 +1125,7 @@ public class VideoUiApi {
                 if (continueWatching.size() >= 10) break;
             }
         }
-        data.put("continueWatching", continueWatching);
-        
-        // New releases - dedupe by show/movie to avoid multiple episodes of same show
-        java.util.Set<String> seenNewReleases = new java.util.HashSet<>();
-        data.put("newReleases", all.stream()
-            .sorted((v1, v2) -> (v2.dateAdded != null ? v2.dateAdded : java.time.LocalDateTime.MIN).compareTo(v1.dateAdded != null ? v1.dateAdded : java.time.LocalDateTime.MIN))
-            .filter(v -> {
-                String key = getDedupeKey(v);
-                return seenNewReleases.add(key);
-            })
-            .limit(20).collect(Collectors.toList()));
-        
-        data.put("movies", all.stream().filter(v -> v.type != null && "movie".equalsIgnoreCase(v.type)).limit(20).collect(Collectors.toList()));
-        
-        // TV Shows - dedupe by series title
-        java.util.Set<String> seenShows = new java.util.HashSet<>();
-        data.put("tvShows", all.stream()
-            .filter(v -> v.type != null && "episode".equalsIgnoreCase(v.type) && v.seriesTitle != null)
-            .filter(v -> {
-                String normalized = v.seriesTitle.toLowerCase().replaceAll("[^a-z0-9]", "");
-                return seenShows.add(normalized);
-            })
-            .limit(20).collect(Collectors.toList()));
-        
-        // Trending - dedupe by show/movie
-        java.util.Set<String> seenTrending = new java.util.HashSet<>();
-        data.put("trending", all.stream()
-            .skip(Math.min(10, all.size()))
-            .filter(v -> {
-                String key = getDedupeKey(v);
-                return seenTrending.add(key);
-            })
-            .limit(15).collect(Collectors.toList()));
-        return data;
-    }
-    
-    private String getDedupeKey(Models.Video v) {
-        if (v.type != null && "episode".equalsIgnoreCase(v.type) && v.seriesTitle != null) {
-            return "show:" + v.seriesTitle.toLowerCase().replaceAll("[^a-z0-9]", "");
-        }
-        return "video:" + v.id;
+        return continueWatching;
     }
 
     private String formatDuration(Integer s) { return s == null ? "0:00" : String.format("%d:%02d", s / 60, s % 60); }
@@ -4,7 +4,7 @@ import Models.User;
 import Models.Video;
 import Models.Xtream.*;
 import Services.AuthService;
-import Services.VideoService;
+import Services.XtreamCatalogService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.Context;
@@ -13,7 +13,6 @@ import jakarta.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Path("/player_api.php")
 @Produces(MediaType.APPLICATION_JSON)
@@ -23,7 +22,7 @@ public class XtreamCodesAPI {
     AuthService authService;
 
     @Inject
-    VideoService videoService;
+    XtreamCatalogService catalogService;
 
     @QueryParam("username")
     String username;
@@ -42,7 +41,7 @@ public class XtreamCodesAPI {
 
     @GET
     public Response handleRequest() {
-        Optional<User> userOpt = authService.authenticate(username, password);
+        Optional<User> userOpt = authService.authenticateCached(username, password);
         if (userOpt.isEmpty()) {
             return Response.status(Response.Status.FORBIDDEN).build();
         }
@@ -120,49 +119,10 @@ public class XtreamCodesAPI {
 
     private Response getSeriesInfo(String seriesId) {
         if (seriesId == null) return Response.status(Response.Status.BAD_REQUEST).build();
-        
-        // Find episodes by hashing matching (as used in getSeries)
-        List<Video> episodes = Video.find("type = 'episode'").list();
-        List<Video> seriesEpisodes = episodes.stream()
-                .filter(e -> e.seriesTitle != null && String.valueOf(e.seriesTitle.hashCode()).equals(seriesId))
-                .sorted(java.util.Comparator.comparing(e -> e.seasonNumber != null ? e.seasonNumber : 0))
-                .collect(Collectors.toList());
-
-        if (seriesEpisodes.isEmpty()) return Response.status(Response.Status.NOT_FOUND).build();
-
-        // Construct complex Xtream response for series info
-        java.util.Map<String, Object> response = new java.util.HashMap<>();
-        
-        java.util.Map<String, Object> info = new java.util.HashMap<>();
-        Video first = seriesEpisodes.get(0);
-        info.put("name", first.seriesTitle);
-        info.put("cover", "/api/video/thumbnail/" + first.id);
-        info.put("plot", first.overview);
-        info.put("cast", first.cast != null ? String.join(", ", first.cast) : "");
-        info.put("director", first.directors != null ? String.join(", ", first.directors) : "");
-        info.put("genre", first.genres != null ? String.join(", ", first.genres) : "");
-        info.put("releaseDate", first.releaseDate);
-        info.put("rating", first.imdbRating);
-        
-        response.put("info", info);
 
-        java.util.Map<String, List<java.util.Map<String, Object>>> seasons = new java.util.HashMap<>();
-        for (Video e : seriesEpisodes) {
-            String seasonNum = String.valueOf(e.seasonNumber != null ? e.seasonNumber : 1);
-            seasons.computeIfAbsent(seasonNum, k -> new ArrayList<>());
-            
-            java.util.Map<String, Object> ep = new java.util.HashMap<>();
-            ep.put("id", e.id);
-            ep.put("title", e.title != null ? e.title : "Episode " + e.episodeNumber);
-            ep.put("container_extension", e.container != null ? e.container : "mp4");
-            ep.put("season", e.seasonNumber);
-            ep.put("episode_num", e.episodeNumber);
-            
-            seasons.get(seasonNum).add(ep);
-        }
-        
-        response.put("episodes", seasons);
-        return Response.ok(response).build();
+        byte[] json = catalogService.getSeriesInfo(seriesId);
+        if (json == null) return Response.status(Response.Status.NOT_FOUND).build();
+        return json(json);
     }
 
     @Context
@@ -194,49 +154,11 @@ public class XtreamCodesAPI {
     }
 
     private Response getVodCategories() {
-        // Map genres to categories
-        List<Models.Genre> genres = Models.Genre.list("isActive = true");
-        List<XtreamCategory> categories = genres.stream()
-                .map(g -> new XtreamCategory(g.id.toString(), g.name))
-                .collect(Collectors.toList());
-        return Response.ok(categories).build();
+        return json(catalogService.getVodCategories());
     }
 
     private Response getVodStreams(String catId) {
-        List<Video> videos;
-        if (catId != null && !catId.equals("0")) {
-            // Find genre name from ID
-            Models.Genre genre = Models.Genre.findById(Long.parseLong(catId));
-            if (genre != null) {
-                videos = videoService.findByGenre(genre.name.toLowerCase(), 1, 1000);
-            } else {
-                videos = Video.find("type = 'movie'").list();
-            }
-        } else {
-            videos = Video.find("type = 'movie'").list();
-        }
-
-        List<XtreamVodStream> streams = new ArrayList<>();
-        int num = 1;
-        for (Video v : videos) {
-            XtreamVodStream s = new XtreamVodStream();
-            s.num = num++;
-            s.name = v.title;
-            s.streamId = v.id;
-            s.streamIcon = "/api/video/thumbnail/" + v.id;
-            s.rating = v.imdbRating != null ? v.imdbRating.toString() : "0";
-            s.added = v.dateAdded != null ? String.valueOf(v.dateAdded.toEpochSecond(java.time.ZoneOffset.UTC)) : "0";
-            s.containerExtension = v.container != null ? v.container : "mp4";
-            // Map the first genre ID if available
-            if (v.genres != null && !v.genres.isEmpty()) {
-                Models.Genre g = Models.Genre.find("LOWER(name) = ?1", v.genres.get(0).toLowerCase()).firstResult();
-                s.categoryId = g != null ? g.id.toString() : "0";
-            } else {
-                s.categoryId = "0";
-            }
-            streams.add(s);
-        }
-        return Response.ok(streams).build();
+        return json(catalogService.getVodStreams(catId));
     }
 
     private Response getSeriesCategories() {
@@ -245,28 +167,11 @@ public class XtreamCodesAPI {
     }
 
     private Response getSeries(String catId) {
-        List<Video> episodes = Video.find("type = 'episode'").list();
-        // Group by series title
-        java.util.Map<String, List<Video>> seriesGroups = episodes.stream()
-                .filter(e -> e.seriesTitle != null)
-                .collect(Collectors.groupingBy(e -> e.seriesTitle));
+        return json(catalogService.getSeries());
+    }
 
-        List<XtreamSeries> seriesList = new ArrayList<>();
-        int num = 1;
-        for (java.util.Map.Entry<String, List<Video>> entry : seriesGroups.entrySet()) {
-            Video first = entry.getValue().get(0);
-            XtreamSeries s = new XtreamSeries();
-            s.num = num++;
-            s.name = entry.getKey();
-            s.seriesId = String.valueOf(entry.getKey().hashCode()); // Hacky unique ID
-            s.cover = "/api/video/thumbnail/" + first.id;
-            s.plot = first.overview;
-            s.rating = first.imdbRating != null ? first.imdbRating.toString() : "0";
-            s.releaseDate = first.releaseDate;
-            s.lastModified = String.valueOf(System.currentTimeMillis() / 1000);
-            s.categoryId = "0"; // Map properly if possible
-            seriesList.add(s);
-        }
-        return Response.ok(seriesList).build();
+    private static Response json(byte[] body) {
+        // Pre-serialized by XtreamCatalogService
+        return Response.ok(body, MediaType.APPLICATION_JSON_TYPE).build();
     }
 }
@@ -32,6 +32,9 @@ public class ImportStatusSocket {
     @Inject
     Vertx vertx;
 
+    @Inject
+    WebSocketManager webSocketManager;
+
     WorkerExecutor executor;
 
     @PostConstruct
@@ -60,9 +63,9 @@ public class ImportStatusSocket {
                 })
                 .onComplete(res -> {
                     if (res.succeeded()) {
-                        session.getAsyncRemote().sendText(res.result());
+                        webSocketManager.sendImportStatus(session, res.result());
                     } else {
-                        session.getAsyncRemote().sendText("ERROR: Unable to load installation status.");
+                        webSocketManager.sendImportStatus(session, "ERROR: Unable to load installation status.");
                         res.cause().printStackTrace();
                     }
                 });
@@ -70,11 +73,11 @@ public class ImportStatusSocket {
         // Non-blocking code stays normal
         String outputHistory = importController.getOutputCache();
         if (outputHistory != null && !outputHistory.isEmpty()) {
-            session.getAsyncRemote().sendText(outputHistory);
+            webSocketManager.sendImportStatus(session, outputHistory);
         }
 
         if (importController.isImporting()) {
-            session.getAsyncRemote().sendText("[IMPORT_IN_PROGRESS]");
+            webSocketManager.sendImportStatus(session, "[IMPORT_IN_PROGRESS]");
         }
     }
 
@@ -82,12 +85,14 @@ public class ImportStatusSocket {
     public void onClose(Session session, CloseReason closeReason) {
         sessions.remove(session.getId());
         sessionProfileMap.remove(session.getId());
+        webSocketManager.removeImportSession(session);
         System.out.println("[INFO] ImportStatusSocket: Session " + session.getId() + " closed. Reason: " + closeReason.getReasonPhrase());
     }
 
     @OnError
     public void onError(Session session, Throwable throwable) {
         sessions.remove(session.getId());
+        webSocketManager.removeImportSession(session);
         System.err.println("[ERROR] ImportStatusSocket: Error in session " + session.getId() + ": " + throwable.getMessage());
     }
 
@@ -134,16 +139,27 @@ public class ImportStatusSocket {
         }
     }
 
+    /**
+     * Sends through each session's outbound queue, since concurrent downloads broadcast from
+     * several threads at once.
+     */
     public void broadcast(String message, Long profileId) {
         sessions.values().forEach(session -> {
             Long sessionProfileId = sessionProfileMap.get(session.getId());
             if (session.isOpen() && sessionProfileId != null && sessionProfileId.equals(profileId)) {
-                session.getAsyncRemote().sendText(message, result -> {
-                    if (result.getException() != null) {
-                        System.err.println("[WARN] ImportStatusSocket: Unable to send message to session "
-                                + session.getId() + " for profile " + profileId + ": " + result.getException().getMessage());
-                    }
-                });
+                webSocketManager.sendImportStatus(session, message);
+            }
+        });
+    }
+
+    /**
+     * Progress of one import item; only the newest state per item is queued for a slow client.
+     */
+    public void broadcastProgress(String itemKey, String message, Long profileId) {
+        sessions.values().forEach(session -> {
+            Long sessionProfileId = sessionProfileMap.get(session.getId());
+            if (session.isOpen() && sessionProfileId != null && sessionProfileId.equals(profileId)) {
+                webSocketManager.sendImportProgress(session, itemKey, message);
             }
         });
     }
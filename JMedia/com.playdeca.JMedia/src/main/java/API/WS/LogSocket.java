@@ -42,7 +42,7 @@ public class LogSocket {
                         ObjectNode message = mapper.createObjectNode();
                         message.put("type", "log");
                         message.put("payload", log);
-                        session.getAsyncRemote().sendText(mapper.writeValueAsString(message));
+                        webSocketManager.sendLog(session, mapper.writeValueAsString(message));
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -94,7 +94,7 @@ public class MusicSocket {
                 ObjectNode message = mapper.createObjectNode();
                 message.put("type", "state");
                 message.set("payload", mapper.valueToTree(state));
-                session.getAsyncRemote().sendText(mapper.writeValueAsString(message));
+                webSocketManager.sendSnapshot(session, "state", mapper.writeValueAsString(message));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -122,7 +122,7 @@ public class MusicSocket {
             ObjectNode message = mapper.createObjectNode();
             message.put("type", "state");
             message.set("payload", mapper.valueToTree(stateToBroadcast));
-            webSocketManager.broadcastToProfile(profileId, mapper.writeValueAsString(message));
+            webSocketManager.broadcastToProfile(profileId, "state", mapper.writeValueAsString(message));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -135,7 +135,7 @@ public class MusicSocket {
             message.put("profileId", profileId);
             String messageJson = mapper.writeValueAsString(message);
             System.out.println("[MusicSocket] Broadcasting history update for profile " + profileId + ": " + messageJson);
-            webSocketManager.broadcastToProfile(profileId, messageJson);
+            webSocketManager.broadcastToProfile(profileId, "history-update", messageJson);
         } catch (IOException e) {
             e.printStackTrace();
         }
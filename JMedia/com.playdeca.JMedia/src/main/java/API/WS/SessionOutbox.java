@@ -0,0 +1,210 @@
+package API.WS;
+
+import Services.MediaMetrics;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Outbound queue of one WebSocket session.
+ *
+ * At most one message is in flight; the next is sent when the container reports the last one
+ * written, so a slow client grows its own queue instead of the container's buffers. The queue
+ * is bounded by message count and size:
+ * <ul>
+ * <li>{@link Delivery#LATEST} messages replace a queued message with the same key, so only the
+ * newest playback state is ever waiting</li>
+ * <li>{@link Delivery#DROPPABLE} messages (log lines) are dropped oldest first when full</li>
+ * <li>{@link Delivery#RELIABLE} messages are never dropped; overflowing with them marks the
+ * client as unable to keep up</li>
+ * </ul>
+ * A client whose in-flight send stalls is first degraded (log lines are no longer queued for
+ * it) and then disconnected by {@link WebSocketManager}.
+ */
+final class SessionOutbox {
+
+    enum Delivery {
+        LATEST, DROPPABLE, RELIABLE
+    }
+
+    enum Health {
+        OK, DEGRADED, STALLED
+    }
+
+    private static final class Pending {
+        final String key;
+        final Delivery delivery;
+        String text;
+
+        Pending(String key, Delivery delivery, String text) {
+            this.key = key;
+            this.delivery = delivery;
+            this.text = text;
+        }
+    }
+
+    private final Session session;
+    private final MediaMetrics metrics;
+    private final int maxMessages;
+    private final long maxBytes;
+
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    /** Queued (not in-flight) LATEST messages by key. */
+    private final Map<String, Pending> latest = new HashMap<>();
+    private long queuedBytes;
+    private boolean inFlight;
+    private long inFlightSince;
+    private boolean degraded;
+    private boolean closed;
+
+    SessionOutbox(Session session, MediaMetrics metrics, int maxMessages, long maxBytes) {
+        this.session = session;
+        this.metrics = metrics;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+    }
+
+    Session session() {
+        return session;
+    }
+
+    /**
+     * Queue a message. Returns false when the queue overflowed with messages that cannot be
+     * dropped and the session should be disconnected.
+     */
+    synchronized boolean offer(String key, Delivery delivery, String text) {
+        if (closed) {
+            return true;
+        }
+        if (delivery == Delivery.LATEST) {
+            Pending existing = latest.get(key);
+            if (existing != null) {
+                queuedBytes += text.length() - existing.text.length();
+                existing.text = text;
+                metrics.socketMessageDropped("coalesced");
+                return true;
+            }
+        } else if (delivery == Delivery.DROPPABLE && degraded) {
+            metrics.socketMessageDropped("degraded");
+            return true;
+        }
+
+        Pending pending = new Pending(key, delivery, text);
+        queue.addLast(pending);
+        if (delivery == Delivery.LATEST) {
+            latest.put(key, pending);
+        }
+        queuedBytes += text.length();
+        metrics.socketSendQueued();
+
+        // Make room by dropping the oldest log lines
+        Iterator<Pending> it = queue.iterator();
+        while (overCap() && it.hasNext()) {
+            Pending candidate = it.next();
+            if (candidate.delivery == Delivery.DROPPABLE) {
+                it.remove();
+                dequeued(candidate);
+                metrics.socketMessageDropped("overflow");
+            }
+        }
+        if (overCap()) {
+            return false;
+        }
+
+        sendNext();
+        return true;
+    }
+
+    synchronized Health check(long now, long slowAfterNanos, long disconnectAfterNanos) {
+        if (closed || !inFlight) {
+            return Health.OK;
+        }
+        long stalled = now - inFlightSince;
+        if (stalled > disconnectAfterNanos) {
+            return Health.STALLED;
+        }
+        if (stalled > slowAfterNanos && !degraded) {
+            degraded = true;
+            queue.removeIf(p -> {
+                if (p.delivery == Delivery.DROPPABLE) {
+                    dequeued(p);
+                    metrics.socketMessageDropped("degraded");
+                    return true;
+                }
+                return false;
+            });
+            return Health.DEGRADED;
+        }
+        return degraded ? Health.DEGRADED : Health.OK;
+    }
+
+    /**
+     * Drop everything queued; later offers are ignored.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.forEach(this::dequeued);
+        queue.clear();
+        if (inFlight) {
+            inFlight = false;
+            metrics.socketSendCompleted();
+        }
+    }
+
+    private boolean overCap() {
+        return queue.size() > maxMessages || queuedBytes > maxBytes;
+    }
+
+    private void dequeued(Pending pending) {
+        queuedBytes -= pending.text.length();
+        if (pending.delivery == Delivery.LATEST) {
+            latest.remove(pending.key, pending);
+        }
+        metrics.socketSendCompleted();
+    }
+
+    private void sendNext() {
+        if (inFlight || closed || queue.isEmpty()) {
+            return;
+        }
+        if (!session.isOpen()) {
+            close();
+            return;
+        }
+        Pending next = queue.pollFirst();
+        queuedBytes -= next.text.length();
+        if (next.delivery == Delivery.LATEST) {
+            latest.remove(next.key, next);
+        }
+        inFlight = true;
+        inFlightSince = System.nanoTime();
+        try {
+            session.getAsyncRemote().sendText(next.text, this::onSent);
+        } catch (RuntimeException e) {
+            // Session closed underneath us
+            close();
+        }
+    }
+
+    private synchronized void onSent(SendResult result) {
+        if (closed) {
+            return;
+        }
+        inFlight = false;
+        metrics.socketSendCompleted();
+        if (!result.isOK()) {
+            close();
+            return;
+        }
+        if (queue.isEmpty()) {
+            degraded = false;
+        }
+        sendNext();
+    }
+}
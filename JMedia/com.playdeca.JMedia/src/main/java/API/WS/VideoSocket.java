@@ -87,7 +87,7 @@ public class VideoSocket {
                 ObjectNode message = mapper.createObjectNode();
                 message.put("type", "state");
                 message.set("payload", mapper.valueToTree(state));
-                session.getAsyncRemote().sendText(mapper.writeValueAsString(message));
+                webSocketManager.sendSnapshot(session, "state", mapper.writeValueAsString(message));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -108,7 +108,7 @@ public class VideoSocket {
             ObjectNode message = mapper.createObjectNode();
             message.put("type", "state");
             message.set("payload", mapper.valueToTree(stateToBroadcast));
-            webSocketManager.broadcastToVideo(mapper.writeValueAsString(message));
+            webSocketManager.broadcastToVideo("state", mapper.writeValueAsString(message));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -1,16 +1,53 @@
 package API.WS;
 
+import API.WS.SessionOutbox.Delivery;
+import Services.MediaMetrics;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Tracks WebSocket sessions and sends to them through one {@link SessionOutbox} per session,
+ * so a slow client only ever delays and buffers its own messages.
+ */
 @ApplicationScoped
 public class WebSocketManager {
 
+    private static final Logger LOG = Logger.getLogger(WebSocketManager.class);
+
+    @Inject
+    MediaMetrics metrics;
+
+    @ConfigProperty(name = "jmedia.ws.outbox.max-messages", defaultValue = "256")
+    int maxQueuedMessages;
+
+    @ConfigProperty(name = "jmedia.ws.outbox.max-bytes", defaultValue = "1048576")
+    long maxQueuedBytes;
+
+    /** A send stalled this long degrades the client: log lines stop being queued for it. */
+    @ConfigProperty(name = "jmedia.ws.outbox.slow-after", defaultValue = "10s")
+    Duration slowAfter;
+
+    /** A send stalled this long disconnects the client. */
+    @ConfigProperty(name = "jmedia.ws.outbox.disconnect-after", defaultValue = "30s")
+    Duration disconnectAfter;
+
+    private static final Pattern IMPORT_MARKER = Pattern.compile("\\[[A-Z_]+\\]");
+
+    private final Map<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+
     private final Set<Session> musicSessions = ConcurrentHashMap.newKeySet();
     private final Set<Session> logSessions = ConcurrentHashMap.newKeySet();
     private final Set<Session> videoSessions = ConcurrentHashMap.newKeySet();
@@ -40,6 +77,7 @@ public class WebSocketManager {
             }
         }
         musicSessions.remove(session); // Remove from musicSessions as well
+        discardOutbox(session);
     }
 
     public Long getProfileIdForSession(String sessionId) {
@@ -74,6 +112,7 @@ public class WebSocketManager {
 
     public void removeLogSession(Session session) {
         logSessions.remove(session);
+        discardOutbox(session);
     }
 
     public void addVideoSession(Session session) {
@@ -90,6 +129,7 @@ public class WebSocketManager {
 
     public void removeVideoSession(Session session) {
         videoSessions.remove(session);
+        discardOutbox(session);
         String sessionId = session.getId();
         Long profileId = sessionProfileMap.remove(sessionId);
         if (profileId != null) {
@@ -104,29 +144,106 @@ public class WebSocketManager {
     }
 
     public void broadcastToMusic(String message) {
-        broadcast(musicSessions, message);
+        broadcast(musicSessions, null, Delivery.RELIABLE, message);
     }
- 
+
     public void broadcastToLogs(String message) {
-        broadcast(logSessions, message);
+        broadcast(logSessions, null, Delivery.DROPPABLE, message);
     }
 
-    public void broadcastToVideo(String message) { // Added for video sessions
-        broadcast(videoSessions, message);
+    /**
+     * Video state snapshot; a client that is behind only receives the newest one.
+     */
+    public void broadcastToVideo(String type, String message) {
+        broadcast(videoSessions, type, Delivery.LATEST, message);
     }
 
-    public void broadcastToProfile(Long profileId, String message) {
+    /**
+     * Snapshot of the given type for a profile's clients; a client that is behind only
+     * receives the newest one per type.
+     */
+    public void broadcastToProfile(Long profileId, String type, String message) {
         Set<Session> sessions = profileSessionsMap.get(profileId);
         if (sessions != null) {
-            broadcast(sessions, message);
+            broadcast(sessions, type, Delivery.LATEST, message);
+        }
+    }
+
+    public void sendSnapshot(Session session, String type, String message) {
+        send(session, type, Delivery.LATEST, message);
+    }
+
+    public void sendLog(Session session, String message) {
+        send(session, null, Delivery.DROPPABLE, message);
+    }
+
+    /**
+     * Import or installation output. Plain output lines are dropped for a client that is
+     * behind; status markers such as {@code [IMPORT_FINISHED]} and JSON messages never are.
+     */
+    public void sendImportStatus(Session session, String message) {
+        String trimmed = message.trim();
+        boolean control = IMPORT_MARKER.matcher(trimmed).matches() || trimmed.startsWith("{");
+        send(session, null, control ? Delivery.RELIABLE : Delivery.DROPPABLE, message);
+    }
+
+    /**
+     * Progress of one import item; a client that is behind only receives the newest per item.
+     */
+    public void sendImportProgress(Session session, String itemKey, String message) {
+        send(session, itemKey, Delivery.LATEST, message);
+    }
+
+    public void removeImportSession(Session session) {
+        discardOutbox(session);
+    }
+
+    private void broadcast(Set<Session> sessions, String key, Delivery delivery, String message) {
+        sessions.forEach(session -> send(session, key, delivery, message));
+    }
+
+    private void send(Session session, String key, Delivery delivery, String message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        SessionOutbox outbox = outboxes.computeIfAbsent(session.getId(),
+                id -> new SessionOutbox(session, metrics, maxQueuedMessages, maxQueuedBytes));
+        if (!outbox.offer(key, delivery, message)) {
+            disconnectSlowClient(outbox, "outbound queue full");
         }
     }
 
-    private void broadcast(Set<Session> sessions, String message) {
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                session.getAsyncRemote().sendText(message);
+    @Scheduled(every = "5s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void checkSlowClients() {
+        long now = System.nanoTime();
+        outboxes.values().forEach(outbox -> {
+            if (!outbox.session().isOpen()) {
+                discardOutbox(outbox.session());
+                return;
+            }
+            SessionOutbox.Health health = outbox.check(now, slowAfter.toNanos(), disconnectAfter.toNanos());
+            if (health == SessionOutbox.Health.STALLED) {
+                disconnectSlowClient(outbox, "no progress for " + disconnectAfter.toSeconds() + "s");
             }
         });
     }
-}
\ No newline at end of file
+
+    private void disconnectSlowClient(SessionOutbox outbox, String reason) {
+        Session session = outbox.session();
+        LOG.warnf("Disconnecting slow WebSocket client %s: %s", session.getId(), reason);
+        metrics.slowSocketDisconnected();
+        discardOutbox(session);
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Client too slow"));
+        } catch (IOException | RuntimeException e) {
+            LOG.debugf("Closing slow WebSocket client %s failed: %s", session.getId(), e.getMessage());
+        }
+    }
+
+    private void discardOutbox(Session session) {
+        SessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package Controllers;
+
+import Services.StaticAssetService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Serves content-hashed assets with the best precompressed variant the client accepts and a
+ * one-year immutable cache lifetime. Unhashed paths under {@code /assets/} (files referenced
+ * relatively from a hashed stylesheet, such as fonts) fall back to {@code META-INF/resources}
+ * with a short lifetime, but only for the static directories and file types a stylesheet can
+ * point at: {@code /assets/} is public, so views and other resources must not leak through it.
+ * Nothing is compressed on the fly.
+ */
+@Path("/assets")
+public class AssetController {
+
+    private static final Logger logger = Logger.getLogger(AssetController.class);
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String SHORT_LIVED = "public, max-age=3600";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "js", "text/javascript; charset=utf-8",
+            "mjs", "text/javascript; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "json", "application/json",
+            "map", "application/json",
+            "svg", "image/svg+xml",
+            "wasm", "application/wasm",
+            "woff", "font/woff",
+            "woff2", "font/woff2",
+            "ttf", "font/ttf");
+    private static final List<String> FALLBACK_DIRECTORIES = List.of("css/", "js/", "lib/", "images/");
+    private static final Set<String> FALLBACK_EXTENSIONS = Set.of(
+            "css", "js", "mjs", "map", "woff", "woff2", "ttf", "eot", "otf",
+            "svg", "png", "jpg", "jpeg", "gif", "webp", "ico");
+
+    @Inject
+    StaticAssetService assetService;
+
+    @GET
+    @Path("/{path: .+}")
+    public Response serveAsset(@PathParam("path") String path,
+                               @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        if (path.contains("..")) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        StaticAssetService.Asset asset = assetService.findHashed("/assets/" + path);
+        if (asset == null) {
+            if (!isFallbackAllowed(path)) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            InputStream fallback = resource("META-INF/resources/" + path);
+            if (fallback == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            return Response.ok(fallback, contentType(path))
+                    .header(HttpHeaders.CACHE_CONTROL, SHORT_LIVED)
+                    .build();
+        }
+
+        StaticAssetService.Variant variant = assetService.variantFor(asset, acceptEncoding);
+        InputStream body = resource(variant.resource());
+        if (body == null) {
+            logger.warn("Hashed asset listed in the manifest but missing: " + variant.resource());
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        Response.ResponseBuilder response = Response.ok(body, contentType(asset.logicalPath()))
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (variant.contentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, variant.contentEncoding());
+        }
+        return response.build();
+    }
+
+    private static boolean isFallbackAllowed(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot >= 0
+                && FALLBACK_DIRECTORIES.stream().anyMatch(path::startsWith)
+                && FALLBACK_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase());
+    }
+
+    private static InputStream resource(String name) {
+        return Thread.currentThread().getContextClassLoader().getResourceAsStream(name);
+    }
+
+    private static String contentType(String path) {
+        int dot = path.lastIndexOf('.');
+        String type = dot >= 0 ? CONTENT_TYPES.get(path.substring(dot + 1).toLowerCase()) : null;
+        if (type == null) {
+            type = URLConnection.guessContentTypeFromName(path);
+        }
+        return type != null ? type : "application/octet-stream";
+    }
+}
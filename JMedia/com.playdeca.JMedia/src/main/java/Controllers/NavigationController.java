@@ -1,17 +1,28 @@
 package Controllers;
 
+import Services.StaticAssetService;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path; 
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import java.io.InputStream; 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jboss.logging.Logger;
 
 @Path("/")
 public class NavigationController {
     
     private static final Logger logger = Logger.getLogger(NavigationController.class);
+
+    @Inject
+    StaticAssetService assetService;
+
+    /** Pages with asset references rewritten to hashed URLs; only filled when a manifest exists. */
+    private final Map<String, String> rewrittenPages = new ConcurrentHashMap<>();
     
     @GET
     public Response serveIndex(@Context UriInfo uriInfo) {
@@ -93,6 +104,11 @@ public class NavigationController {
         logger.info("🔍 Request for page '" + pageName + "' (file: '" + resourceFile + "')");
         
         try {
+            String cached = rewrittenPages.get(resourceFile);
+            if (cached != null) {
+                return page(cached);
+            }
+
             InputStream is = loadResourceRobustly(resourceFile);
             
             if (is == null) {
@@ -104,10 +120,20 @@ public class NavigationController {
             }
             
             logger.info("✅ Successfully serving page '" + pageName + "'");
-            return Response.ok()
-                    .type("text/html")
-                    .entity(is)
-                    .build();
+            if (!assetService.isEnabled()) {
+                return Response.ok()
+                        .type("text/html")
+                        .entity(is)
+                        .build();
+            }
+
+            // Reference content-hashed assets; the page itself must revalidate to pick up new hashes
+            String html;
+            try (is) {
+                html = assetService.rewriteHtml(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            rewrittenPages.put(resourceFile, html);
+            return page(html);
                     
         } catch (Exception e) {
             logger.error("💥 Error serving page '" + pageName + "': " + e.getMessage(), e);
@@ -117,4 +143,12 @@ public class NavigationController {
                     .build();
         }
     }
+
+    private static Response page(String html) {
+        return Response.ok()
+                .type("text/html")
+                .header("Cache-Control", "no-cache")
+                .entity(html)
+                .build();
+    }
 }
@@ -1,7 +1,7 @@
 package Controllers;
 
 import API.WS.MusicSocket;
-import Models.PlaybackHistory;
+import Models.Telemetry.PlaybackHistory;
 import Models.PlaybackState;
 import Models.Playlist;
 import Models.Profile;
@@ -10,16 +10,20 @@ import Models.Song;
 import Services.AudioAnalysisService;
 import Services.DjTransitionService;
 import Services.DjTransitionService.DjTransition;
+import Services.FragmentCacheService;
+import Services.MediaMetrics;
 import Services.PlaybackHistoryService;
 import Services.PlaylistService;
 import Services.ProfileService;
 import Services.SongService;
+import Services.TrackCatalogService;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,12 +32,13 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class PlaybackController {
 
     private final Map<Long, PlaybackState> memoryStates = new ConcurrentHashMap<>();
+    /** Last (song, playing) pair per profile, to tell cached song lists when the highlight moves. */
+    private final Map<Long, List<Object>> lastHighlights = new ConcurrentHashMap<>();
 
     @Inject
     PlaybackPersistenceController playbackPersistenceController;
@@ -55,6 +60,12 @@ public class PlaybackController {
     AudioAnalysisService audioAnalysisService;
     @Inject
     DjTransitionService djTransitionService;
+    @Inject
+    TrackCatalogService trackCatalogService;
+    @Inject
+    FragmentCacheService fragmentCacheService;
+    @Inject
+    MediaMetrics metrics;
 
     private ScheduledExecutorService scheduler;
     private final Map<Long, ScheduledFuture<?>> playbackTasks = new ConcurrentHashMap<>();
@@ -88,7 +99,13 @@ public class PlaybackController {
             task.cancel(false); // Allow current task to complete if running
         }
 
+        // Lag is measured against the fixed-rate schedule; the scheduler is single-threaded,
+        // so the tick counter needs no synchronization
+        long scheduledAt = System.nanoTime();
+        long[] ticks = {0};
         task = scheduler.scheduleAtFixedRate(() -> {
+            long due = scheduledAt + TimeUnit.MILLISECONDS.toNanos(ticks[0]++ * PLAYBACK_UPDATE_INTERVAL_MS);
+            metrics.recordTickLag(profileId, System.nanoTime() - due);
             processPlaybackTick(profileId);
         }, 0, PLAYBACK_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
         playbackTasks.put(profileId, task);
@@ -254,6 +271,20 @@ public class PlaybackController {
     // -----------------------------
     // Playback state methods
     // -----------------------------
+
+    /**
+     * Whether any loaded profile is playing. Reads the in-memory states without taking the
+     * controller lock, so the background work governor can poll it cheaply.
+     */
+    public boolean isAnyProfilePlaying() {
+        for (PlaybackState state : memoryStates.values()) {
+            if (state.isPlaying()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public synchronized PlaybackState getState(Long profileId) {
         return memoryStates.computeIfAbsent(profileId, id -> {
             PlaybackState state = playbackPersistenceController.loadState(id);
@@ -319,6 +350,12 @@ public class PlaybackController {
 
         memoryStates.put(profileId, newState); // Update the map with the new state
 
+        // Song lists highlight the current song; time updates alone do not change them
+        List<Object> highlight = Arrays.asList(newState.getCurrentSongId(), newState.isPlaying());
+        if (!highlight.equals(lastHighlights.put(profileId, highlight))) {
+            fragmentCacheService.profileChanged(profileId);
+        }
+
         newState.setLastUpdateTime(System.currentTimeMillis()); // Set timestamp for latency compensation
         playbackPersistenceController.maybePersist(profileId, newState); // persist only
 
@@ -443,8 +480,8 @@ public class PlaybackController {
         return playlistService.find(id);
     }
 
-    public Playlist findPlaylistWithSongs(Long id) {
-        return playlistService.findWithSongs(id);
+    public List<Long> findPlaylistSongIds(Long id) {
+        return playlistService.findSongIds(id);
     }
 
     public List<Playlist> getPlaylists() {
@@ -483,6 +520,10 @@ public class PlaybackController {
         return songService.findAll();
     }
 
+    public List<Long> getAllSongIds() {
+        return trackCatalogService.allIds();
+    }
+
     public SongService.PaginatedSongs getSongs(int page, int limit, String search, String sortBy, String sortDirection) {
         return songService.findAll(page, limit, search, sortBy, sortDirection);
     }
@@ -927,6 +968,50 @@ public class PlaybackController {
         return st.getCrossfadeDuration();
     }
 
+    /**
+     * What the server-side mix stream follows: the current song and position, whether it is
+     * playing, and the planned DJ transition out of it (nextSongId is null when none is planned).
+     */
+    public record MixState(Long songId, double currentTime, boolean playing, int crossfadeSeconds,
+                           Long nextSongId, double exitTime, double entryTime) {
+
+        public boolean hasTransition() {
+            return nextSongId != null;
+        }
+    }
+
+    public synchronized MixState getMixState(Long profileId) {
+        PlaybackState st = getState(profileId);
+        int crossfade = st.getCrossfadeDuration() != null ? st.getCrossfadeDuration() : 0;
+        if (Boolean.TRUE.equals(st.getDjModeActive()) && Boolean.TRUE.equals(st.getDjTransitionPlanned())
+                && st.getDjNextSongId() != null && st.getDjExitTime() != null) {
+            return new MixState(st.getCurrentSongId(), st.getCurrentTime(), st.isPlaying(), crossfade,
+                    st.getDjNextSongId(), st.getDjExitTime(), st.getDjEntryTime() != null ? st.getDjEntryTime() : 0);
+        }
+        return new MixState(st.getCurrentSongId(), st.getCurrentTime(), st.isPlaying(), crossfade, null, 0, 0);
+    }
+
+    /**
+     * The mix stream started its crossfade out of fromSongId; same as the browser's
+     * transition-started call, ignored if the state moved on in the meantime.
+     */
+    public synchronized void mixTransitionStarted(Long profileId, Long fromSongId) {
+        if (fromSongId != null && fromSongId.equals(getState(profileId).getCurrentSongId())) {
+            handleTransitionStarted(profileId);
+        }
+    }
+
+    /**
+     * The mix stream reached the end of songId. Advances like the playback timer would, unless
+     * the state already moved on.
+     */
+    public synchronized void mixSongEnded(Long profileId, Long songId) {
+        PlaybackState st = getState(profileId);
+        if (st.isPlaying() && songId != null && songId.equals(st.getCurrentSongId())) {
+            handleSongEnded(profileId);
+        }
+    }
+
     /**
      * Returns the currently playing song, or null if none
      */
@@ -954,12 +1039,9 @@ public class PlaybackController {
         int cueIndex = st.getCueIndex();
 
         if (cue == null || cue.isEmpty() || cueIndex <= 0) {
-            // If no previous song in queue, try to get from history
-            PlaybackHistory lastPlayed = PlaybackHistory.find("order by playedAt desc").firstResult(); // This needs to be profile-aware
-            if (lastPlayed != null && lastPlayed.song != null) {
-                return lastPlayed.song;
-            }
-            return null; // No previous song in queue or history
+            // If no previous song in queue, try to get from this profile's history
+            List<Long> lastPlayed = playbackHistoryService.getRecentlyPlayedSongIds(1, profileId);
+            return lastPlayed.isEmpty() ? null : findSong(lastPlayed.get(0)); // No previous song in queue or history
         }
         Long prevSongId = cue.get(cueIndex - 1);
         return findSong(prevSongId);
@@ -994,26 +1076,23 @@ public class PlaybackController {
             List<Long> cue = st.getCue();
             // If queue is empty, populate with all songs
             if (cue == null || cue.isEmpty()) {
-                List<Song> allSongs = getSongs();
-                List<Long> allSongIds = allSongs.stream().map(s -> s.id).toList();
-                playbackQueueController.populateCue(st, allSongIds, profileId);
+                playbackQueueController.populateCue(st, getAllSongIds(), profileId);
             }
 
         } else {
             // Set the current playlist normally
             st.setCurrentPlaylistId(playlist.id);
 
-            // Re-fetch playlist with songs to avoid LazyInitializationException
-            Playlist fullPlaylist = findPlaylistWithSongs(playlist.id);
+            // Song IDs in playlist order
+            List<Long> cue = findPlaylistSongIds(playlist.id);
 
-            if (fullPlaylist == null || fullPlaylist.getSongs() == null || fullPlaylist.getSongs().isEmpty()) {
+            if (cue == null || cue.isEmpty()) {
                 playbackQueueController.clear(st, profileId); // clear queue if no songs
                 updateState(profileId, st, true);
                 return;
             }
 
-            if (fullPlaylist != null) {
-                List<Long> cue = fullPlaylist.getSongs().stream().map(s -> s.id).toList();
+            if (cue != null) {
                 playbackQueueController.populateCue(st, cue, profileId);
             } else {
                 // empty playlist → stop playback
@@ -1087,28 +1166,22 @@ public class PlaybackController {
         if (playlist == null) {
             return;
         }
-        // Re-fetch playlist with songs to avoid LazyInitializationException
-        Playlist fullPlaylist = findPlaylistWithSongs(playlist.id);
+        List<Long> songIds = findPlaylistSongIds(playlist.id);
 
-        if (fullPlaylist == null || fullPlaylist.getSongs() == null || fullPlaylist.getSongs().isEmpty()) {
+        if (songIds == null || songIds.isEmpty()) {
             return;
         }
-        List<Long> songIds = fullPlaylist.getSongs().stream()
-                .map(s -> s.id)
-                .toList();
         addToQueue(songIds, playNext, profileId);
     }
 
-    public synchronized List<Song> getQueue(Long profileId) {
+    public List<Song> getQueue(Long profileId) {
         PlaybackState st = getState(profileId);
-        List<Long> cueIds = st.getCue();
-        if (cueIds == null) {
-            return new ArrayList<>();
+        List<Long> cueIds;
+        synchronized (this) {
+            cueIds = new ArrayList<>(st.getCue());
         }
-        return cueIds.stream()
-                .map(this::findSong)
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+        // Batched IN queries instead of one lookup per queued song
+        return songService.findByIds(cueIds);
     }
 
     public record PaginatedQueue(List<Song> songs, int totalSize) {
@@ -1121,54 +1194,48 @@ public class PlaybackController {
 
     public PaginatedQueue getQueuePage(int page, int limit, Long profileId, String search) {
         PlaybackState st = getState(profileId);
-        List<Long> cueIds;
-        synchronized(st) {
-            cueIds = new ArrayList<>(st.getCue());
-        }
-        
-        if (cueIds.isEmpty()) {
-            return new PaginatedQueue(new ArrayList<>(), 0);
-        }
+        int fromIndex = Math.max(0, (page - 1) * limit);
 
-        // If no search, use original pagination logic
+        // If no search, copy just the requested slice of the queue
         if (search == null || search.isBlank()) {
-            int totalSize = cueIds.size();
-            int fromIndex = (page - 1) * limit;
-            int toIndex = Math.min(fromIndex + limit, totalSize);
-
-            if (fromIndex >= totalSize) {
-                return new PaginatedQueue(new ArrayList<>(), totalSize);
+            List<Long> pageOfIds;
+            int totalSize;
+            synchronized (this) {
+                List<Long> cue = st.getCue();
+                totalSize = cue.size();
+                if (fromIndex >= totalSize) {
+                    return new PaginatedQueue(new ArrayList<>(), totalSize);
+                }
+                pageOfIds = new ArrayList<>(cue.subList(fromIndex, Math.min(fromIndex + limit, totalSize)));
             }
-
-            List<Long> pageOfIds = cueIds.subList(fromIndex, toIndex);
-            List<Song> songs = songService.findByIds(pageOfIds);
-            return new PaginatedQueue(songs, totalSize);
+            return new PaginatedQueue(songService.findByIds(pageOfIds), totalSize);
         }
 
-        // With search: get all songs, filter, then paginate
-        List<Song> allSongs = songService.findByIds(cueIds);
-        String searchLower = search.toLowerCase();
-        
-        List<Song> filtered = allSongs.stream()
-                .filter(s -> (s.getTitle() != null && s.getTitle().toLowerCase().contains(searchLower)) ||
-                             (s.getArtist() != null && s.getArtist().toLowerCase().contains(searchLower)))
-                .collect(Collectors.toList());
+        // With search: match IDs in the database, then keep queue order and paginate
+        java.util.Set<Long> matchingIds = songService.findIdsByTitleOrArtist(search);
+        List<Long> filtered = new ArrayList<>();
+        synchronized (this) {
+            for (long id : st.getCue().toLongArray()) {
+                if (matchingIds.contains(id)) {
+                    filtered.add(id);
+                }
+            }
+        }
 
         int totalSize = filtered.size();
-        int fromIndex = (page - 1) * limit;
         int toIndex = Math.min(fromIndex + limit, totalSize);
 
-        if (fromIndex >= totalSize || filtered.isEmpty()) {
+        if (fromIndex >= totalSize) {
             return new PaginatedQueue(new ArrayList<>(), totalSize);
         }
 
-        return new PaginatedQueue(filtered.subList(fromIndex, toIndex), totalSize);
+        return new PaginatedQueue(songService.findByIds(filtered.subList(fromIndex, toIndex)), totalSize);
     }
 
     public synchronized void skipToQueueIndex(int index, Long profileId) {
         LOGGER.info("skipToQueueIndex called with index: " + index + " for profile: " + profileId);
         PlaybackState st = getState(profileId);
-        LOGGER.info("skipToQueueIndex: Original cue for profile " + profileId + ": " + st.getCue());
+        LOGGER.info("skipToQueueIndex: Original cue size for profile " + profileId + ": " + st.getCue().size());
         playbackQueueController.skipToQueueIndex(st, index, profileId);
 
         Long songId = st.getCurrentSongId();
@@ -1,17 +1,19 @@
 package Controllers;
 
+import Models.PlayQueue;
 import Models.PlaybackState;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import Models.Song;
 import Services.PlaybackHistoryService;
+import Services.SettingsService;
 import Services.SongService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import Models.PlaybackHistory;
+import Models.Telemetry.PlaybackHistory;
 import Services.AudioAnalysisService;
+import Services.TrackCatalogService;
 
 @ApplicationScoped
 public class PlaybackQueueController {
@@ -27,16 +29,18 @@ public class PlaybackQueueController {
     private SongService songService;
 
     @Inject
-    private SettingsController settingsController;
+    private SettingsService settingsService;
 
     @Inject
     private AudioAnalysisService audioAnalysisService;
 
+    @Inject
+    private TrackCatalogService trackCatalogService;
+
 
 
 public void populateCue(PlaybackState state, List<Long> songIds, Long profileId) {
-        state.setCue(new ArrayList<>(songIds));
-        state.setOriginalCue(new ArrayList<>()); // Clear any previously saved original cue
+        state.setCue(songIds); // Fresh queue, so no previously saved original order
         state.setCueIndex(songIds.isEmpty() ? -1 : 0);
         state.setCurrentSongId(songIds.isEmpty() ? null : songIds.get(0));
         state.setPlaying(!songIds.isEmpty());
@@ -45,13 +49,10 @@ public void populateCue(PlaybackState state, List<Long> songIds, Long profileId)
     }
 
     public void initializeSecondaryQueue(PlaybackState state, Long profileId) {
-        // Fetch only IDs from the database to ensure they actually exist
-        List<Long> allSongIds = songService.findAll().stream()
-                .map(s -> s.id)
-                .collect(java.util.stream.Collectors.toList());
+        // IDs come from the in-memory catalog, which only holds songs that exist
+        List<Long> allSongIds = trackCatalogService.allIds();
         
-        state.setSecondaryCue(new ArrayList<>(allSongIds));
-        state.setSecondaryOriginalCue(new ArrayList<>());
+        state.setSecondaryCue(allSongIds);
         state.setSecondaryCueIndex(-1); // Start at -1 so first advance goes to 0
         
         // Apply current shuffle mode to secondary queue
@@ -166,104 +167,33 @@ public Long advance(PlaybackState state, boolean forward, boolean skippedEarly,
     }
 
     public void initShuffle(PlaybackState state, Long profileId) {
-        // Save the original order before shuffling if it's not already saved
-        if (state.getOriginalCue() == null || state.getOriginalCue().isEmpty()) {
-            state.setOriginalCue(new ArrayList<>(state.getCue()));
-        }
-
-        List<Long> cue = state.getCue();
+        PlayQueue cue = state.getCue();
         Long currentSongId = state.getCurrentSongId();
 
-        if (cue == null || cue.isEmpty()) {
+        if (cue.isEmpty()) {
             return; // Nothing to shuffle
         }
 
-        // Keep current song at the top, shuffle the rest
-        if (currentSongId != null && cue.contains(currentSongId)) {
-            cue.remove(currentSongId);
-            Collections.shuffle(cue);
-            cue.add(0, currentSongId);
-            state.setCueIndex(0);
-        } else {
-            // If no current song or it's not in the cue, just shuffle everything
-            Collections.shuffle(cue);
-            state.setCueIndex(0);
-        }
+        // Keep current song at the top, shuffle the rest.
+        // The queue remembers the original order itself, so nothing is copied here.
+        cue.shuffle(currentSongId, java.util.concurrent.ThreadLocalRandom.current());
+        state.setCueIndex(0);
     }
 
     public void initSmartShuffle(PlaybackState state, Long profileId) {
         // 1. Get the pool of songs
-        List<Long> songPoolIds = (state.getOriginalCue() != null && !state.getOriginalCue().isEmpty())
-                ? new ArrayList<>(state.getOriginalCue())
-                : new ArrayList<>(state.getCue());
-
-        if (songPoolIds.isEmpty()) {
+        PlayQueue cue = state.getCue();
+        if (cue.isEmpty()) {
             return;
         }
 
-        // Save original cue if it wasn't saved before
-        if (state.getOriginalCue() == null || state.getOriginalCue().isEmpty()) {
-            state.setOriginalCue(new ArrayList<>(songPoolIds));
-        }
-
-        List<Song> allSongs = songService.findByIds(songPoolIds);
-
-        // Get current song's BPM for sorting reference
-        int currentBpm = 0;
-        Song currentSong = null;
-        if (state.getCurrentSongId() != null) {
-            currentSong = allSongs.stream()
-                    .filter(s -> s.id.equals(state.getCurrentSongId()))
-                    .findFirst()
-                    .orElse(null);
-            if (currentSong != null && currentSong.getBpm() > 0) {
-                currentBpm = currentSong.getBpm();
-            }
-        }
-
-        // 2. Group songs by genre
-        java.util.Map<String, List<Song>> songsByGenre = allSongs.stream()
-                .collect(java.util.stream.Collectors.groupingBy(song ->
-                        song.getGenre() == null || song.getGenre().isBlank() ? "Unknown" : song.getGenre()
-                ));
+        // 2-4. Group by genre in random genre order, BPM-sorted within each genre (in memory)
+        int currentBpm = trackCatalogService.getBpm(state.getCurrentSongId());
+        List<Long> newCue = trackCatalogService.smartShuffleOrder(cue, currentBpm);
 
-        // 3. Shuffle the order of genres
-        List<String> genres = new ArrayList<>(songsByGenre.keySet());
-        Collections.shuffle(genres);
-
-        // 4. Build the new queue with BPM sorting within genre groups
-        List<Long> newCue = new ArrayList<>();
-        for (String genre : genres) {
-            List<Song> songsInGenre = songsByGenre.get(genre);
-            
-            // Sort by BPM similarity to current song's BPM
-            final int targetBpm = currentBpm;
-            if (targetBpm > 0) {
-                songsInGenre.sort((a, b) -> {
-                    int aBpm = a.getBpm() > 0 ? a.getBpm() : targetBpm;
-                    int bBpm = b.getBpm() > 0 ? b.getBpm() : targetBpm;
-                    int diffA = Math.abs(aBpm - targetBpm);
-                    int diffB = Math.abs(bBpm - targetBpm);
-                    
-                    // If BPM difference is equal, shuffle to add variety
-                    if (diffA == diffB) {
-                        return Math.random() > 0.5 ? 1 : -1;
-                    }
-                    return Integer.compare(diffA, diffB);
-                });
-            } else {
-                // No current BPM to reference, just shuffle
-                Collections.shuffle(songsInGenre);
-            }
-            
-            for (Song song : songsInGenre) {
-                newCue.add(song.id);
-            }
-        }
-
-        // 5. Update the state
-        state.setCue(newCue);
-        int newIndex = newCue.indexOf(state.getCurrentSongId());
+        // 5. Update the state, keeping each song's original position for when shuffle is cleared
+        cue.reorder(newCue);
+        int newIndex = cue.indexOf(state.getCurrentSongId());
         state.setCueIndex(newIndex != -1 ? newIndex : 0);
 
         // If current song was not found (shouldn't happen), set to first song
@@ -276,15 +206,11 @@ public Long advance(PlaybackState state, boolean forward, boolean skippedEarly,
     }
 
     public void clearShuffle(PlaybackState state, Long profileId) {
-        List<Long> originalCue = state.getOriginalCue();
-        // Check if there is an original cue to restore from
-        if (originalCue != null && !originalCue.isEmpty()) {
-            state.setCue(new ArrayList<>(originalCue));
-            state.setOriginalCue(new ArrayList<>()); // Clear the saved cue
-        }
+        // Sort the queue back into the order it had before shuffling
+        state.getCue().restoreOriginalOrder();
 
         // After restoring, find the index of the current song
-        if (state.getCue() != null && state.getCurrentSongId() != null) {
+        if (state.getCurrentSongId() != null) {
             int newIndex = state.getCue().indexOf(state.getCurrentSongId());
             state.setCueIndex(newIndex);
         } else {
@@ -297,10 +223,6 @@ public void addToQueue(PlaybackState state, List<Long> songIds, boolean playNext
             return;
         }
         List<Long> cue = state.getCue();
-        if (cue == null) {
-            cue = new ArrayList<>();
-            state.setCue(cue);
-        }
 
         int insertIndex = playNext && state.getCueIndex() >= 0
                 ? state.getCueIndex() + 1
@@ -366,8 +288,7 @@ public void addToQueue(PlaybackState state, List<Long> songIds, boolean playNext
     }
 
     public void clear(PlaybackState state, Long profileId) {
-        state.setCue(new ArrayList<>());
-        state.setOriginalCue(new ArrayList<>());
+        state.getCue().clear();
         state.setCueIndex(-1);
         state.setCurrentSongId(null);
         state.setPlaying(false);
@@ -375,13 +296,12 @@ public void addToQueue(PlaybackState state, List<Long> songIds, boolean playNext
     }
 
     public void moveInQueue(PlaybackState state, int fromIndex, int toIndex, Long profileId) {
-        List<Long> cue = state.getCue();
-        if (cue == null || cue.isEmpty() || fromIndex < 0 || fromIndex >= cue.size() || toIndex < 0 || toIndex >= cue.size()) {
+        PlayQueue cue = state.getCue();
+        if (cue.isEmpty() || fromIndex < 0 || fromIndex >= cue.size() || toIndex < 0 || toIndex >= cue.size()) {
             return;
         }
 
-        Long songId = cue.remove(fromIndex);
-        cue.add(toIndex, songId);
+        cue.move(fromIndex, toIndex);
 
         // Adjust cue index if needed
         int currentIdx = state.getCueIndex();
@@ -432,33 +352,18 @@ public void songSelected(Long songId, Long profileId) {
     }
 
   public void skipToQueueIndex(PlaybackState state, int index, Long profileId) {
-        List<Long> cue = state.getCue();
-        if (cue == null || index < 0 || index >= cue.size()) {
+        PlayQueue cue = state.getCue();
+        if (index < 0 || index >= cue.size()) {
             return;
         }
 
-        // Create the new truncated cue
-        List<Long> newCue = new ArrayList<>(cue.subList(index, cue.size()));
-
-        // If shuffle was active, we must also filter the originalCue to keep it consistent
-        List<Long> originalCue = state.getOriginalCue();
-        if (originalCue != null && !originalCue.isEmpty()) {
-            // Create a set of the IDs that will remain in the active cue for efficient lookup
-            java.util.Set<Long> remainingIds = new java.util.HashSet<>(newCue);
-
-            // Filter the originalCue, keeping only the songs that are in the new active cue
-            List<Long> newOriginalCue = originalCue.stream()
-                    .filter(remainingIds::contains)
-                    .collect(java.util.stream.Collectors.toList());
-            state.setOriginalCue(newOriginalCue);
-        }
-
-        // Set the new active cue
-        state.setCue(newCue);
+        // Drop everything before the selected song; the original order of the
+        // remaining songs is kept by the queue, so shuffle can still be cleared
+        cue.truncateBefore(index);
 
         // The new song is now at index 0 of the new cue
         state.setCueIndex(0);
-        state.setCurrentSongId(newCue.get(0));
+        state.setCurrentSongId(cue.get(0));
         state.setCurrentTime(0);
         state.setPlaying(true);
     }
@@ -471,100 +376,74 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
         return;
     }
 
-    Song currentSong = songService.find(state.getCurrentSongId());
+    Long currentSongId = state.getCurrentSongId();
 
-        if (currentSong == null) {
+        if (currentSongId == null || !trackCatalogService.contains(currentSongId)) {
             return;
         }
 
-        List<Long> cue = state.getCue();
-        int cueSize = (cue != null) ? cue.size() : 0;
-        if (cueSize <= 1) {
+        PlayQueue cue = state.getCue();
+        if (cue.size() <= 1) {
             return;
         }
 
-        // Use originalCue for a wider selection pool if available
-        List<Long> songPool = (state.getOriginalCue() != null && !state.getOriginalCue().isEmpty())
-                ? state.getOriginalCue() : cue;
+        // Candidates come from the songs still in the queue
+        List<Long> songPool = cue;
 
         // ENHANCED SMART SHUFFLE: Multi-candidate scoring with artist/album awareness
-        Song nextSong = null;
-        String targetGenre;
+        // All candidate selection runs against the in-memory track catalog
+        int currentGenreId = trackCatalogService.getGenreId(currentSongId);
+        int targetGenreId;
         
-        if (skippedEarly && (currentSong.getGenre() != null && !currentSong.getGenre().isBlank())) {
+        if (skippedEarly && currentGenreId != TrackCatalogService.UNKNOWN) {
             // User skipped early - pick a song from a DIFFERENT genre
-            List<Song> allSongsInPool = songService.findByIds(songPool);
-            java.util.Map<String, List<Song>> songsByGenre = allSongsInPool.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(song ->
-                            song.getGenre() == null || song.getGenre().isBlank() ? "Unknown" : song.getGenre()
-                    ));
-            
-            String currentGenre = currentSong.getGenre();
-            List<String> otherGenres = songsByGenre.keySet().stream()
-                    .filter(g -> !g.equalsIgnoreCase(currentGenre))
-                    .collect(java.util.stream.Collectors.toList());
-            
-            if (otherGenres.isEmpty()) {
-                targetGenre = currentGenre; // Fallback to current genre if no others
-            } else {
-                java.util.Collections.shuffle(otherGenres);
-                targetGenre = otherGenres.get(0);
-            }
+            // (falls back to the current genre if the pool has no others)
+            targetGenreId = trackCatalogService.pickOtherGenre(songPool, currentGenreId);
         } else {
             // Normal case - stay in same genre
-            targetGenre = currentSong.getGenre();
+            targetGenreId = currentGenreId;
         }
 
-        if (targetGenre == null || targetGenre.isBlank()) {
+        if (targetGenreId == TrackCatalogService.UNKNOWN) {
             return; // No genre info, can't do smart shuffle
         }
+        String targetGenre = trackCatalogService.genreName(targetGenreId);
 
-        // Get BPM tolerance from settings
+        // Get BPM tolerance from the in-memory settings snapshot
         int bpmTolerance = 10;
-        if (settingsController != null) {
-            bpmTolerance = settingsController.getOrCreateSettings().getBpmToleranceForGenre(targetGenre);
+        if (settingsService != null) {
+            bpmTolerance = settingsService.getSnapshot().bpmToleranceForGenre(targetGenre);
         }
 
         // Get recently played songs (last 12) to exclude
         List<Long> recentSongIds = playbackHistoryService.getRecentlyPlayedSongIds(12, profileId);
         List<Long> exclusions = new ArrayList<>(recentSongIds);
-        exclusions.add(currentSong.id);
-
-        // PHASE 1: Get multiple candidates by Genre + BPM
-        List<Song> candidates;
-        if (currentSong.getBpm() > 0) {
-            candidates = songService.findCandidatesByGenreAndBpm(
-                    targetGenre,
-                    currentSong.getBpm(),
-                    bpmTolerance,
-                    exclusions,
-                    songPool,
-                    20 // Get up to 20 candidates for scoring
-            );
-        } else {
-            candidates = songService.findCandidatesByGenre(
-                    targetGenre,
-                    exclusions,
-                    songPool,
-                    20
-            );
-        }
+        exclusions.add(currentSongId);
+
+        // PHASE 1: Get multiple candidates by Genre (+ BPM when known)
+        int currentBpm = trackCatalogService.getBpm(currentSongId);
+        List<Long> candidates = trackCatalogService.findCandidates(
+                targetGenreId,
+                currentBpm,
+                bpmTolerance,
+                exclusions,
+                songPool,
+                20 // Get up to 20 candidates for scoring
+        );
 
         if (candidates.isEmpty()) {
             return; // No candidates found
         }
 
         // PHASE 2: Score candidates by Artist + Album
-        nextSong = selectBestCandidate(candidates, state, currentSong);
+        Long nextSongId = selectBestCandidate(candidates, state);
 
-        if (nextSong == null) {
+        if (nextSongId == null) {
             return; // No smart match found, let the default (shuffled) order proceed
         }
 
         // Update tracking for consecutive artist/album plays
-        updateConsecutiveTracking(state, currentSong, nextSong);
-
-        Long nextSongId = nextSong.id;
+        updateConsecutiveTracking(state, currentSongId, nextSongId);
 
         // Move the chosen song to be the next one in the cue
         int currentSongIndexInCue = state.getCueIndex();
@@ -572,9 +451,7 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
 
         // If the smart song is already in the cue and not next, move it.
         if (nextSongCurrentIndex != -1 && nextSongCurrentIndex != currentSongIndexInCue + 1) {
-            Long songToMove = cue.remove(nextSongCurrentIndex);
-            int insertionPoint = Math.min(currentSongIndexInCue + 1, cue.size());
-            cue.add(insertionPoint, songToMove);
+            cue.move(nextSongCurrentIndex, Math.min(currentSongIndexInCue + 1, cue.size() - 1));
         }
     }
 
@@ -587,7 +464,7 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
      * +1 pt:  Different album, same artist - variety bonus
      * 0 pts:  Different artist, different album - neutral
      */
-    private Song selectBestCandidate(List<Song> candidates, PlaybackState state, Song currentSong) {
+    private Long selectBestCandidate(List<Long> candidates, PlaybackState state) {
         if (candidates.isEmpty()) {
             return null;
         }
@@ -596,15 +473,15 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
         }
 
         // Score each candidate
-        java.util.Map<Song, Integer> songScores = new java.util.HashMap<>();
+        java.util.Map<Long, Integer> songScores = new java.util.HashMap<>();
         String lastAlbum = state.getLastPlayedAlbum();
         String lastArtist = state.getLastPlayedArtist();
         int consecutiveAlbums = state.getConsecutiveAlbumPlays();
 
-        for (Song candidate : candidates) {
+        for (Long candidate : candidates) {
             int score = 0;
-            String candidateAlbum = candidate.getAlbum();
-            String candidateArtist = candidate.getArtist();
+            String candidateAlbum = trackCatalogService.getAlbum(candidate);
+            String candidateArtist = trackCatalogService.getArtist(candidate);
 
             // Album scoring
             if (candidateAlbum != null && !candidateAlbum.isBlank() && 
@@ -632,8 +509,8 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
         }
 
         // Sort by score descending and take top 5
-        List<java.util.Map.Entry<Song, Integer>> sorted = songScores.entrySet().stream()
-                .sorted(java.util.Map.Entry.<Song, Integer>comparingByValue().reversed())
+        List<java.util.Map.Entry<Long, Integer>> sorted = songScores.entrySet().stream()
+                .sorted(java.util.Map.Entry.<Long, Integer>comparingByValue().reversed())
                 .limit(5)
                 .toList();
 
@@ -644,10 +521,10 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
         // Weighted random selection from top candidates
         // Higher scores get higher probability
         int totalWeight = sorted.stream().mapToInt(java.util.Map.Entry::getValue).map(s -> Math.max(s + 5, 1)).sum();
-        int randomWeight = new java.util.Random().nextInt(totalWeight);
+        int randomWeight = java.util.concurrent.ThreadLocalRandom.current().nextInt(totalWeight);
         int currentWeight = 0;
 
-        for (java.util.Map.Entry<Song, Integer> entry : sorted) {
+        for (java.util.Map.Entry<Long, Integer> entry : sorted) {
             int weight = Math.max(entry.getValue() + 5, 1); // +5 to ensure positive weights
             currentWeight += weight;
             if (randomWeight < currentWeight) {
@@ -661,11 +538,11 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
     /**
      * Update consecutive artist/album tracking in playback state.
      */
-    private void updateConsecutiveTracking(PlaybackState state, Song currentSong, Song nextSong) {
-        String currentAlbum = currentSong.getAlbum();
-        String currentArtist = currentSong.getArtist();
-        String nextAlbum = nextSong.getAlbum();
-        String nextArtist = nextSong.getArtist();
+    private void updateConsecutiveTracking(PlaybackState state, Long currentSongId, Long nextSongId) {
+        String currentAlbum = trackCatalogService.getAlbum(currentSongId);
+        String currentArtist = trackCatalogService.getArtist(currentSongId);
+        String nextAlbum = trackCatalogService.getAlbum(nextSongId);
+        String nextArtist = trackCatalogService.getArtist(nextSongId);
 
         // Update album tracking
         if (currentAlbum != null && nextAlbum != null && currentAlbum.equalsIgnoreCase(nextAlbum)) {
@@ -685,97 +562,35 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
     }
 
     public void initSecondaryShuffle(PlaybackState state) {
-        // Save the original order before shuffling if it's not already saved
-        if (state.getSecondaryOriginalCue() == null || state.getSecondaryOriginalCue().isEmpty()) {
-            state.setSecondaryOriginalCue(new ArrayList<>(state.getSecondaryCue()));
-        }
-
-        List<Long> secondaryCue = state.getSecondaryCue();
+        PlayQueue secondaryCue = state.getSecondaryCue();
         Long currentSongId = state.getCurrentSongId();
 
-        if (secondaryCue == null || secondaryCue.isEmpty()) {
+        if (secondaryCue.isEmpty()) {
             return; // Nothing to shuffle
         }
 
         // Keep current song at the top, shuffle the rest
-        if (currentSongId != null && secondaryCue.contains(currentSongId)) {
-            secondaryCue.remove(currentSongId);
-            Collections.shuffle(secondaryCue);
-            secondaryCue.add(0, currentSongId);
-            state.setSecondaryCueIndex(0);
-        } else {
-            // If no current song or it's not in the cue, just shuffle everything
-            Collections.shuffle(secondaryCue);
-            state.setSecondaryCueIndex(-1);
-        }
+        boolean keepCurrent = currentSongId != null && secondaryCue.contains(currentSongId);
+        secondaryCue.shuffle(keepCurrent ? currentSongId : null, java.util.concurrent.ThreadLocalRandom.current());
+        // If no current song or it's not in the cue, start before the first song
+        state.setSecondaryCueIndex(keepCurrent ? 0 : -1);
     }
 
     public void initSecondarySmartShuffle(PlaybackState state, Long profileId) {
         // 1. Get the pool of songs (all songs for secondary queue)
-        List<Song> allSongs = songService.findAll();
-        if (allSongs.isEmpty()) {
+        List<Long> allSongIds = trackCatalogService.allIds();
+        if (allSongIds.isEmpty()) {
             return;
         }
 
-        // Save original secondary cue if it wasn't saved before
-        if (state.getSecondaryOriginalCue() == null || state.getSecondaryOriginalCue().isEmpty()) {
-            state.setSecondaryOriginalCue(new ArrayList<>(state.getSecondaryCue()));
-        }
+        // 2-4. Group by genre in random genre order, BPM-sorted within each genre (in memory)
+        int currentBpm = trackCatalogService.getBpm(state.getCurrentSongId());
+        List<Long> newSecondaryCue = trackCatalogService.smartShuffleOrder(allSongIds, currentBpm);
 
-        // Get current song's BPM for sorting reference
-        int currentBpm = 0;
-        if (state.getCurrentSongId() != null) {
-            Song currentSong = allSongs.stream()
-                    .filter(s -> s.id.equals(state.getCurrentSongId()))
-                    .findFirst()
-                    .orElse(null);
-            if (currentSong != null && currentSong.getBpm() > 0) {
-                currentBpm = currentSong.getBpm();
-            }
-        }
-
-        // 2. Group songs by genre
-        java.util.Map<String, List<Song>> songsByGenre = allSongs.stream()
-                .collect(java.util.stream.Collectors.groupingBy(song ->
-                        song.getGenre() == null || song.getGenre().isBlank() ? "Unknown" : song.getGenre()
-                ));
-
-        // 3. Shuffle the order of genres
-        List<String> genres = new ArrayList<>(songsByGenre.keySet());
-        Collections.shuffle(genres);
-
-        // 4. Build the new secondary queue with BPM sorting within genre groups
-        List<Long> newSecondaryCue = new ArrayList<>();
-        for (String genre : genres) {
-            List<Song> songsInGenre = songsByGenre.get(genre);
-            
-            // Sort by BPM similarity to current song's BPM
-            final int targetBpm = currentBpm;
-            if (targetBpm > 0) {
-                songsInGenre.sort((a, b) -> {
-                    int aBpm = a.getBpm() > 0 ? a.getBpm() : targetBpm;
-                    int bBpm = b.getBpm() > 0 ? b.getBpm() : targetBpm;
-                    int diffA = Math.abs(aBpm - targetBpm);
-                    int diffB = Math.abs(bBpm - targetBpm);
-                    
-                    // If BPM difference is equal, shuffle to add variety
-                    if (diffA == diffB) {
-                        return Math.random() > 0.5 ? 1 : -1;
-                    }
-                    return Integer.compare(diffA, diffB);
-                });
-            } else {
-                Collections.shuffle(songsInGenre);
-            }
-            
-            for (Song song : songsInGenre) {
-                newSecondaryCue.add(song.id);
-            }
-        }
-
-        // 5. Update the state
-        state.setSecondaryCue(newSecondaryCue);
-        int newIndex = newSecondaryCue.indexOf(state.getCurrentSongId());
+        // 5. Update the state, keeping the original order for when shuffle is cleared
+        PlayQueue secondaryCue = state.getSecondaryCue();
+        secondaryCue.reorder(newSecondaryCue);
+        int newIndex = secondaryCue.indexOf(state.getCurrentSongId());
         state.setSecondaryCueIndex(newIndex);
     }
     
@@ -784,64 +599,42 @@ private void findAndPrepareNextSmartSong(PlaybackState state, boolean skippedEar
      * Called at 1/12 remaining in the song when DJ Mode is active
      */
     public void prepareDjModeTransition(PlaybackState state, Long profileId, int djModeBpmTolerance) {
-        Song currentSong = songService.find(state.getCurrentSongId());
-        if (currentSong == null || currentSong.getBpm() <= 0) {
+        Long currentSongId = state.getCurrentSongId();
+        int currentBpm = trackCatalogService.getBpm(currentSongId);
+        if (currentBpm <= 0) {
             return;
         }
         
         // Get the song pool
-        List<Long> songPool = (state.getOriginalCue() != null && !state.getOriginalCue().isEmpty())
-                ? state.getOriginalCue() : state.getCue();
+        PlayQueue songPool = state.getCue();
         
-        if (songPool == null || songPool.isEmpty()) {
+        if (songPool.isEmpty()) {
             return;
         }
         
         // Try to find a song with tighter BPM tolerance
-        Song nextSong = null;
+        Long nextSongId = null;
         
-        if (currentSong.getGenre() != null && !currentSong.getGenre().isBlank()) {
-            nextSong = songService.findRandomSongByGenreAndBpm(
-                    currentSong.getGenre(),
-                    currentSong.getBpm(),
-                    djModeBpmTolerance,
-                    currentSong.id,
-                    songPool
-            );
+        int genreId = trackCatalogService.getGenreId(currentSongId);
+        if (genreId != TrackCatalogService.UNKNOWN) {
+            List<Long> matches = trackCatalogService.findCandidates(
+                    genreId, currentBpm, djModeBpmTolerance, List.of(currentSongId), songPool, 1);
+            nextSongId = matches.isEmpty() ? null : matches.get(0);
         }
         
         // Fall back to BPM-only search if no genre match
-        if (nextSong == null) {
-            List<Song> allSongs = songService.findByIds(songPool);
-            List<Song> bpmMatched = allSongs.stream()
-                    .filter(s -> s.id != null && !s.id.equals(currentSong.id))
-                    .filter(s -> s.getBpm() > 0)
-                    .filter(s -> Math.abs(s.getBpm() - currentSong.getBpm()) <= djModeBpmTolerance)
-                    .sorted((a, b) -> {
-                        int diffA = Math.abs(a.getBpm() - currentSong.getBpm());
-                        int diffB = Math.abs(b.getBpm() - currentSong.getBpm());
-                        return Integer.compare(diffA, diffB);
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            
-            if (!bpmMatched.isEmpty()) {
-                java.util.Collections.shuffle(bpmMatched);
-                nextSong = bpmMatched.get(0);
-            }
+        if (nextSongId == null) {
+            nextSongId = trackCatalogService.findRandomByBpm(currentBpm, djModeBpmTolerance, currentSongId, songPool);
         }
         
         // If found, move it to be the next song in queue
-        if (nextSong != null) {
-            List<Long> cue = state.getCue();
-            if (cue != null) {
-                int currentSongIndexInCue = state.getCueIndex();
-                int nextSongCurrentIndex = cue.indexOf(nextSong.id);
-                
-                if (nextSongCurrentIndex != -1 && nextSongCurrentIndex != currentSongIndexInCue + 1) {
-                    Long songToMove = cue.remove(nextSongCurrentIndex);
-                    int insertionPoint = Math.min(currentSongIndexInCue + 1, cue.size());
-                    cue.add(insertionPoint, songToMove);
-                }
+        if (nextSongId != null) {
+            PlayQueue cue = state.getCue();
+            int currentSongIndexInCue = state.getCueIndex();
+            int nextSongCurrentIndex = cue.indexOf(nextSongId);
+            
+            if (nextSongCurrentIndex != -1 && nextSongCurrentIndex != currentSongIndexInCue + 1) {
+                cue.move(nextSongCurrentIndex, Math.min(currentSongIndexInCue + 1, cue.size() - 1));
             }
         }
     }
@@ -4,7 +4,7 @@ import API.WS.LogSocket;
 import API.WS.MusicSocket;
 import jakarta.annotation.PostConstruct;
 import Models.Settings;
-import Models.SettingsLog;
+import Models.Telemetry.SettingsLog;
 import Models.Song;
 import Services.ImportService;
 import Services.MusicEnrichmentService;
@@ -73,6 +73,15 @@ public class SettingsController implements Serializable {
     @Inject
     private Services.AudioAnalysisService audioAnalysisService;
 
+    @Inject
+    private Services.FingerprintService fingerprintService;
+
+    @Inject
+    private Services.MediaMetrics metrics;
+
+    @Inject
+    private Services.BackgroundWorkGovernor governor;
+
     private final List<ScanResult> failedSongs = Collections.synchronizedList(new ArrayList<>());
     
     private record FFprobeMetadata(String title, String artist) {}
@@ -124,6 +133,14 @@ public class SettingsController implements Serializable {
     private static final int THREADS = Math.max(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
     private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
 
+    /**
+     * The scan pool, with each file waiting for an I/O permit so scans back off during playback.
+     */
+    private java.util.concurrent.Executor scanExecutor() {
+        return governor.governed(executor, Services.BackgroundWorkGovernor.Resource.IO,
+                Services.BackgroundWorkGovernor.Priority.NORMAL);
+    }
+
     @PostConstruct
     public void init() {
         Settings currentSettings = settingsService.getOrCreateSettings();
@@ -340,7 +357,7 @@ public class SettingsController implements Serializable {
     }
 
     public void scanVideoLibrary(String dirPath) {
-        String scanPath = dirPath != null ? dirPath : settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String scanPath = dirPath != null ? dirPath : settingsService.getSnapshot().videoLibraryPath();
         addLog("Scanning video library: " + scanPath);
         
         if (scanPath == null || scanPath.isBlank()) {
@@ -365,11 +382,79 @@ public class SettingsController implements Serializable {
         addLog("Metadata reload completed for: " + scanPath);
     }
 
-    public void deleteDuplicateSongs(String dirPath) {
+    /**
+     * Library-wide acoustic duplicate scan. Within each group of songs that sound the same, the
+     * main-library copy (then the oldest file) is kept; the others are candidates for deletion
+     * when the match is confident enough and, if dirPath is given, they live under it. Without
+     * confirmed this only reports what would be deleted. Songs that have not been analyzed yet
+     * have no fingerprint and are not considered.
+     */
+    public void deleteDuplicateSongs(String dirPath, boolean confirmed) {
         String scanPath = dirPath != null ? dirPath : musicLibraryPath;
-        addLog("Checking duplicates for: " + (dirPath != null ? "directory: " + dirPath : "all music"));
-        // TODO: Implement per-directory duplicate detection
+        addLog((confirmed ? "Deleting duplicates for: " : "Checking duplicates (report only) for: ")
+                + (dirPath != null ? "directory: " + dirPath : "all music"));
+        addLog("[Fingerprint] Comparing " + fingerprintService.size() + " fingerprinted songs...");
+
+        List<Services.FingerprintService.DuplicateGroup> groups =
+                fingerprintService.findAllDuplicates(Services.FingerprintService.DUPLICATE_CONFIDENCE);
+        File musicFolder = getMusicFolder();
+        String scope = dirPath != null && !dirPath.isBlank() ? new File(dirPath).getAbsolutePath() : null;
+        int deletedCount = 0;
+        int reviewCount = 0;
+        for (Services.FingerprintService.DuplicateGroup group : groups) {
+            List<Song> songs = new ArrayList<>(songService.findByIds(group.songIds()));
+            if (songs.size() < 2) {
+                continue;
+            }
+            songs.sort((a, b) -> {
+                boolean aImport = ("/" + a.getPath()).contains("/import/");
+                boolean bImport = ("/" + b.getPath()).contains("/import/");
+                if (aImport != bImport) {
+                    return aImport ? 1 : -1;
+                }
+                return Long.compare(new File(musicFolder, a.getPath()).lastModified(), new File(musicFolder, b.getPath()).lastModified());
+            });
+            Song keeper = songs.get(0);
+            String confidence = String.format(java.util.Locale.ROOT, "%.2f", group.confidence());
+
+            if (group.confidence() < Services.FingerprintService.DELETE_CONFIDENCE) {
+                reviewCount++;
+                addLog("[Fingerprint] Possible duplicates (confidence " + confidence + "), not deleted: "
+                        + songs.stream().map(Song::getPath).collect(Collectors.joining(", ")));
+                continue;
+            }
+            for (Song duplicate : songs.subList(1, songs.size())) {
+                File file = new File(musicFolder, duplicate.getPath());
+                if (scope != null && !file.getAbsolutePath().startsWith(scope)) {
+                    continue;
+                }
+                if (!confirmed) {
+                    deletedCount++;
+                    addLog("[Fingerprint] Would delete " + duplicate.getPath() + " (duplicate of " + keeper.getPath()
+                            + ", confidence " + confidence + ")");
+                    continue;
+                }
+                try {
+                    songService.deleteAsDuplicateOf(duplicate.id, keeper.id);
+                    if (file.exists() && !file.delete()) {
+                        addLog("[Fingerprint] WARNING: Removed from library but could not delete file: " + file.getAbsolutePath());
+                    }
+                    deletedCount++;
+                    addLog("[Fingerprint] Deleted " + duplicate.getPath() + " (duplicate of " + keeper.getPath()
+                            + ", confidence " + confidence + ")");
+                } catch (Exception e) {
+                    addLog("[Fingerprint] ERROR: Failed to delete duplicate " + duplicate.getPath() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        addLog("[Fingerprint] " + groups.size() + " duplicate groups found, " + deletedCount
+                + (confirmed ? " files deleted, " : " files would be deleted (confirm to delete), ")
+                + reviewCount + " groups left for review.");
         addLog("Duplicate check completed for: " + scanPath);
+        if (confirmed && deletedCount > 0) {
+            musicSocket.broadcastLibraryUpdateToAllProfiles();
+        }
     }
 
     public List<Song> scanLibraryIncremental() {
@@ -437,10 +522,13 @@ public class SettingsController implements Serializable {
 
     private List<Song> performScan(File folderToScan, String scanType) {
         List<File> audioFiles = new ArrayList<>();
+        long collectStart = System.nanoTime();
         collectAudioFiles(folderToScan, audioFiles);
+        metrics.recordScanPhase("music", "collect", audioFiles.size(), System.nanoTime() - collectStart);
         addLog("Found " + audioFiles.size() + " audio files in " + scanType + ". Starting parallel metadata reading...");
 
-        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(executor);
+        long metadataStart = System.nanoTime();
+        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(scanExecutor());
         audioFiles.forEach(f -> completion.submit(() -> processFile(f)));
 
         int totalAdded = 0;
@@ -467,6 +555,7 @@ public class SettingsController implements Serializable {
             }
         }
 
+        metrics.recordScanPhase("music", "metadata", audioFiles.size(), System.nanoTime() - metadataStart);
         addLog("Scan of " + scanType + " completed. Total audio files processed successfully: " + totalAdded);
         if (!failedSongs.isEmpty()) {
             addLog("The following " + failedSongs.size() + " songs failed to process:");
@@ -479,7 +568,7 @@ public class SettingsController implements Serializable {
     private List<Song> performTargetedScan(List<File> targetFiles, String scanType) {
         addLog("Processing " + targetFiles.size() + " specific files from " + scanType + "...");
 
-        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(executor);
+        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(scanExecutor());
         targetFiles.forEach(f -> completion.submit(() -> processFile(f)));
 
         int totalProcessed = 0;
@@ -519,10 +608,13 @@ public class SettingsController implements Serializable {
 
     private List<Song> performIncrementalScan(File folderToScan, String scanType) {
         List<File> audioFiles = new ArrayList<>();
+        long collectStart = System.nanoTime();
         collectAudioFiles(folderToScan, audioFiles);
+        metrics.recordScanPhase("music", "collect", audioFiles.size(), System.nanoTime() - collectStart);
         addLog("Found " + audioFiles.size() + " audio files for " + scanType + ". Starting parallel metadata reading...");
 
-        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(executor);
+        long metadataStart = System.nanoTime();
+        ExecutorCompletionService<Song> completion = new ExecutorCompletionService<>(scanExecutor());
         audioFiles.forEach(f -> completion.submit(() -> processFile(f)));
 
         int totalProcessed = 0;
@@ -551,6 +643,7 @@ public class SettingsController implements Serializable {
             }
         }
 
+        metrics.recordScanPhase("music", "metadata", audioFiles.size(), System.nanoTime() - metadataStart);
         addLog("Incremental scan of " + scanType + " completed. Total processed: " + totalProcessed + ", Added: " + totalAdded + ", Skipped: " + totalSkipped);
         if (!failedSongs.isEmpty()) {
             addLog("The following " + failedSongs.size() + " songs failed to process:");
@@ -1099,7 +1192,7 @@ public class SettingsController implements Serializable {
         }
 
         // Phase 1: Parallel file scanning (fast)
-        ExecutorCompletionService<List<String>> completion = new ExecutorCompletionService<>(executor);
+        ExecutorCompletionService<List<String>> completion = new ExecutorCompletionService<>(scanExecutor());
         allSongs.forEach(song -> completion.submit(() -> reloadMetadataForSongNoEnrichment(song)));
 
         int updatedCount = 0;
@@ -1394,9 +1487,7 @@ public class SettingsController implements Serializable {
 
             // Enrich metadata from external APIs if genre is missing (only if enabled in settings)
             boolean needsGenreEnrichment = (song.getGenre() == null || song.getGenre().isBlank());
-            Settings settings = settingsService.getOrCreateSettings();
-            
-            if (needsGenreEnrichment && settings.getEnableMetadataEnrichment()
+            if (needsGenreEnrichment && settingsService.getSnapshot().enableMetadataEnrichment()
                     && song.getArtist() != null && !song.getArtist().isBlank()
                     && song.getTitle() != null && !song.getTitle().isBlank()) {
                 
@@ -1612,8 +1703,7 @@ public class SettingsController implements Serializable {
     }
 
     public File getMusicFolder() {
-        Settings currentSettings = settingsService.getOrCreateSettings();
-        return new File(currentSettings.getLibraryPath());
+        return new File(settingsService.getSnapshot().libraryPath());
     }
 
     public void resetMusicLibrary() {
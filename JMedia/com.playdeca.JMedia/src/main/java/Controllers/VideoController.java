@@ -5,8 +5,8 @@ import Models.Profile;
 import Models.ProfileSessionState;
 import Models.Settings;
 import Models.Video;
-import Models.VideoHistory;
-import Models.VideoState;
+import Models.Telemetry.VideoHistory;
+import Models.DTOs.VideoWatchStatus;
 import Services.ProfileSessionStateService;
 import Services.SettingsService;
 import Services.VideoHistoryService;
@@ -155,9 +155,9 @@ public class VideoController {
                     st.currentTime = startTime;
                 } else {
                     // Get per-profile progress
-                    VideoState progress = videoStateService.getOrCreate(newVideo);
-                    if (progress != null && progress.currentTime > 0) {
-                        st.currentTime = progress.currentTime;
+                    VideoWatchStatus progress = videoStateService.getStatus(newVideo);
+                    if (progress != null && progress.currentTime() > 0) {
+                        st.currentTime = progress.currentTime();
                     } else {
                         st.currentTime = 0;
                     }
@@ -193,6 +193,8 @@ public class VideoController {
         st.playing = false;
         updateState(st, true);
         activePlayingProfileId = null;
+        // Pause and seek updates wait for the timed flush; stopping writes buffered progress now
+        videoStateService.flushProgress();
     }
     
     private synchronized void advanceVideo(boolean forward, boolean fromVideoEnd) {
@@ -255,6 +257,8 @@ public class VideoController {
         stopPlaybackTimer();
         st.playing = false;
         updateState(st, true);
+        // The finished video's last progress is written once here rather than per state update
+        videoStateService.flushProgress();
 
         if (st.collectionId != null && st.cue != null && st.cueIndex + 1 < st.cue.size()) {
             advanceVideo(true, true);
@@ -33,6 +33,7 @@ public class JMediaAuthFilter implements ContainerRequestFilter {
     private static final List<String> STATIC_RESOURCES = Arrays.asList(
             "/css/",
             "/js/",
+            "/assets/",
             "/logo.png",
             "/manifest.json",
             "/login.html"
@@ -0,0 +1,12 @@
+package Models.DTOs;
+
+/**
+ * Read-only per-profile watch state for one video. Videos the profile has never played
+ * get {@link #unwatched} instead of a stored row.
+ */
+public record VideoWatchStatus(Long videoId, Boolean watched, Double watchProgress, double currentTime) {
+
+    public static VideoWatchStatus unwatched(Long videoId) {
+        return new VideoWatchStatus(videoId, false, 0.0, 0);
+    }
+}
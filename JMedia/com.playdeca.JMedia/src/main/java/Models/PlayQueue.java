@@ -0,0 +1,600 @@
+package Models;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Play queue of song IDs backed by a chunked rope of primitive longs.
+ *
+ * Songs live in fixed-capacity chunks; a Fenwick tree over chunk sizes maps a queue
+ * position to its chunk in O(log chunks), and an id -> chunk index answers contains/indexOf
+ * without scanning the queue. Insert, remove, move and index lookup therefore cost
+ * O(log n + chunk size) instead of shifting the whole list.
+ *
+ * Every entry also carries an original-order rank. Shuffling only permutes entries and
+ * keeps their ranks, so turning shuffle off sorts by rank instead of restoring a second,
+ * materialized copy of the queue; songs added or removed while shuffled stay consistent.
+ *
+ * Implements {@code List<Long>} so existing callers and the JSON state payload keep working.
+ */
+public class PlayQueue extends AbstractList<Long> implements RandomAccess {
+
+    private static final int CHUNK_CAPACITY = 512;
+    private static final int REBUILD_FILL = CHUNK_CAPACITY * 3 / 4;
+    private static final int FORMAT_VERSION = 1;
+
+    private static final class Chunk {
+        final long[] ids = new long[CHUNK_CAPACITY];
+        final long[] ranks = new long[CHUNK_CAPACITY];
+        int size;
+        int ordinal;
+    }
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int[] tree = new int[1]; // Fenwick tree over chunk sizes, 1-based
+    private int size;
+
+    // id -> Chunk holding its only occurrence, or Integer occurrence count when queued more than once
+    private final Map<Long, Object> locations = new HashMap<>();
+
+    private boolean shuffled;
+    private long nextRank;
+    private long removedRank;
+    private int savedVersion = -1;
+
+    public PlayQueue() {
+    }
+
+    public PlayQueue(Collection<Long> ids) {
+        long[] values = new long[ids.size()];
+        long[] ranks = new long[values.length];
+        int i = 0;
+        for (Long id : ids) {
+            values[i] = id;
+            ranks[i] = i;
+            i++;
+        }
+        rebuild(values, ranks, values.length);
+        nextRank = values.length;
+    }
+
+    // --- List implementation ---
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Long get(int index) {
+        checkIndex(index, size);
+        long loc = locate(index);
+        return chunks.get((int) (loc >>> 32)).ids[(int) loc];
+    }
+
+    @Override
+    public Long set(int index, Long element) {
+        checkIndex(index, size);
+        long loc = locate(index);
+        Chunk chunk = chunks.get((int) (loc >>> 32));
+        int offset = (int) loc;
+        long old = chunk.ids[offset];
+        chunk.ids[offset] = element;
+        unindex(old);
+        index(element, chunk);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Long element) {
+        checkIndex(index, size + 1);
+        insertAt(index, element, nextRank++);
+        modCount++;
+    }
+
+    @Override
+    public Long remove(int index) {
+        checkIndex(index, size);
+        long id = removeAt(index);
+        modCount++;
+        return id;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && locations.containsKey(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Long id)) {
+            return -1;
+        }
+        Object loc = locations.get(id);
+        if (loc instanceof Chunk chunk) {
+            for (int i = 0; i < chunk.size; i++) {
+                if (chunk.ids[i] == id) {
+                    return prefix(chunk.ordinal) + i;
+                }
+            }
+        } else if (loc != null) {
+            // Queued more than once: fall back to a forward scan for the first occurrence
+            int base = 0;
+            for (Chunk chunk : chunks) {
+                for (int i = 0; i < chunk.size; i++) {
+                    if (chunk.ids[i] == id) {
+                        return base + i;
+                    }
+                }
+                base += chunk.size;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (!(o instanceof Long id)) {
+            return -1;
+        }
+        Object loc = locations.get(id);
+        if (loc instanceof Chunk) {
+            return indexOf(id);
+        } else if (loc != null) {
+            int base = size;
+            for (int c = chunks.size() - 1; c >= 0; c--) {
+                Chunk chunk = chunks.get(c);
+                base -= chunk.size;
+                for (int i = chunk.size - 1; i >= 0; i--) {
+                    if (chunk.ids[i] == id) {
+                        return base + i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        chunks.clear();
+        tree = new int[1];
+        size = 0;
+        locations.clear();
+        shuffled = false;
+        nextRank = 0;
+        modCount++;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        long[][] entries = snapshot();
+        int remaining = size - (toIndex - fromIndex);
+        long[] ids = new long[remaining];
+        long[] ranks = new long[remaining];
+        System.arraycopy(entries[0], 0, ids, 0, fromIndex);
+        System.arraycopy(entries[1], 0, ranks, 0, fromIndex);
+        System.arraycopy(entries[0], toIndex, ids, fromIndex, size - toIndex);
+        System.arraycopy(entries[1], toIndex, ranks, fromIndex, size - toIndex);
+        rebuild(ids, ranks, remaining);
+        modCount++;
+    }
+
+    // --- Queue operations ---
+
+    /**
+     * Move the entry at fromIndex to toIndex, keeping its original-order rank.
+     */
+    public void move(int fromIndex, int toIndex) {
+        checkIndex(fromIndex, size);
+        checkIndex(toIndex, size);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        long id = removeAt(fromIndex);
+        insertAt(toIndex, id, removedRank);
+        modCount++;
+    }
+
+    /**
+     * Drop every entry before index, so the entry at index becomes the head.
+     */
+    public void truncateBefore(int index) {
+        removeRange(0, Math.min(index, size));
+    }
+
+    /**
+     * Shuffle the queue, optionally pinning one song to the head. The first shuffle records
+     * the current order as the original order.
+     */
+    public void shuffle(Long keepFirst, Random random) {
+        long[][] entries = snapshot();
+        long[] ids = entries[0];
+        long[] ranks = entries[1];
+        if (!shuffled) {
+            for (int i = 0; i < size; i++) {
+                ranks[i] = i;
+            }
+            nextRank = size;
+            shuffled = true;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            swap(ids, ranks, i, random.nextInt(i + 1));
+        }
+        if (keepFirst != null) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == keepFirst) {
+                    swap(ids, ranks, 0, i);
+                    break;
+                }
+            }
+        }
+        rebuild(ids, ranks, size);
+        modCount++;
+    }
+
+    /**
+     * Replace the queue order with the given one while keeping each song's original-order
+     * rank, as used by smart shuffle. Songs missing from the new order are dropped.
+     */
+    public void reorder(List<Long> newOrder) {
+        long[][] entries = snapshot();
+        Map<Long, Long> rankById = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            rankById.putIfAbsent(entries[0][i], shuffled ? entries[1][i] : i);
+        }
+        if (!shuffled) {
+            nextRank = size;
+            shuffled = true;
+        }
+        long[] ids = new long[newOrder.size()];
+        long[] ranks = new long[ids.length];
+        int i = 0;
+        for (Long id : newOrder) {
+            ids[i] = id;
+            Long rank = rankById.remove(id);
+            ranks[i] = rank != null ? rank : nextRank++;
+            i++;
+        }
+        rebuild(ids, ranks, ids.length);
+        modCount++;
+    }
+
+    /**
+     * Undo shuffling by sorting entries back into their original-order rank.
+     */
+    public void restoreOriginalOrder() {
+        if (!shuffled) {
+            return;
+        }
+        long[][] entries = snapshot();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (entries[1][i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        long[] ids = new long[size];
+        long[] ranks = new long[size];
+        for (int i = 0; i < size; i++) {
+            int from = (int) keys[i];
+            ids[i] = entries[0][from];
+            ranks[i] = i;
+        }
+        rebuild(ids, ranks, size);
+        shuffled = false;
+        nextRank = size;
+        modCount++;
+    }
+
+    public boolean isShuffled() {
+        return shuffled;
+    }
+
+    /**
+     * Whether the queue changed since it was last loaded from or written to storage.
+     */
+    public boolean isModifiedSinceSave() {
+        return savedVersion != modCount;
+    }
+
+    public void markSaved() {
+        savedVersion = modCount;
+    }
+
+    public long[] toLongArray() {
+        return snapshot()[0];
+    }
+
+    // --- Persistence ---
+
+    public byte[] toBytes() {
+        long[][] entries = snapshot();
+        ByteBuffer buffer = ByteBuffer.allocate(17 + size * Long.BYTES * (shuffled ? 2 : 1));
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(size);
+        buffer.put((byte) (shuffled ? 1 : 0));
+        buffer.putLong(nextRank);
+        for (long id : entries[0]) {
+            buffer.putLong(id);
+        }
+        if (shuffled) {
+            for (long rank : entries[1]) {
+                buffer.putLong(rank);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static PlayQueue fromBytes(byte[] data) {
+        PlayQueue queue = new PlayQueue();
+        if (data == null || data.length < 17) {
+            return queue;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != FORMAT_VERSION) {
+            return queue;
+        }
+        int count = buffer.getInt();
+        boolean shuffled = buffer.get() == 1;
+        long nextRank = buffer.getLong();
+        long[] ids = new long[count];
+        long[] ranks = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getLong();
+        }
+        for (int i = 0; i < count; i++) {
+            ranks[i] = shuffled ? buffer.getLong() : i;
+        }
+        queue.rebuild(ids, ranks, count);
+        queue.shuffled = shuffled;
+        queue.nextRank = Math.max(nextRank, count);
+        queue.markSaved();
+        return queue;
+    }
+
+    /**
+     * Build a queue from the old list-based storage, where shuffle kept a full copy of the
+     * unshuffled queue. Positions in that copy become the original-order ranks.
+     */
+    public static PlayQueue fromLegacy(List<Long> cue, List<Long> originalCue) {
+        PlayQueue queue = new PlayQueue(cue != null ? cue : List.of());
+        if (originalCue == null || originalCue.isEmpty() || queue.isEmpty()) {
+            return queue;
+        }
+        Map<Long, Long> rankById = new HashMap<>();
+        for (int i = 0; i < originalCue.size(); i++) {
+            rankById.putIfAbsent(originalCue.get(i), (long) i);
+        }
+        long next = originalCue.size();
+        long[][] entries = queue.snapshot();
+        for (int i = 0; i < queue.size; i++) {
+            Long rank = rankById.remove(entries[0][i]);
+            entries[1][i] = rank != null ? rank : next++;
+        }
+        queue.rebuild(entries[0], entries[1], queue.size);
+        queue.shuffled = true;
+        queue.nextRank = next;
+        return queue;
+    }
+
+    // --- Internals ---
+
+    private void insertAt(int index, long id, long rank) {
+        Chunk chunk;
+        int offset;
+        if (chunks.isEmpty()) {
+            chunk = new Chunk();
+            chunks.add(chunk);
+            rebuildTree();
+            offset = 0;
+        } else if (index == size) {
+            chunk = chunks.get(chunks.size() - 1);
+            offset = chunk.size;
+        } else {
+            long loc = locate(index);
+            chunk = chunks.get((int) (loc >>> 32));
+            offset = (int) loc;
+        }
+
+        if (chunk.size == CHUNK_CAPACITY) {
+            Chunk right = split(chunk);
+            if (offset > chunk.size) {
+                offset -= chunk.size;
+                chunk = right;
+            }
+        }
+
+        System.arraycopy(chunk.ids, offset, chunk.ids, offset + 1, chunk.size - offset);
+        System.arraycopy(chunk.ranks, offset, chunk.ranks, offset + 1, chunk.size - offset);
+        chunk.ids[offset] = id;
+        chunk.ranks[offset] = rank;
+        chunk.size++;
+        size++;
+        treeAdd(chunk.ordinal, 1);
+        index(id, chunk);
+    }
+
+    private long removeAt(int index) {
+        long loc = locate(index);
+        Chunk chunk = chunks.get((int) (loc >>> 32));
+        int offset = (int) loc;
+        long id = chunk.ids[offset];
+        removedRank = chunk.ranks[offset];
+
+        System.arraycopy(chunk.ids, offset + 1, chunk.ids, offset, chunk.size - offset - 1);
+        System.arraycopy(chunk.ranks, offset + 1, chunk.ranks, offset, chunk.size - offset - 1);
+        chunk.size--;
+        size--;
+        if (chunk.size == 0) {
+            chunks.remove(chunk.ordinal);
+            renumberFrom(chunk.ordinal);
+            rebuildTree();
+        } else {
+            treeAdd(chunk.ordinal, -1);
+        }
+        unindex(id);
+        return id;
+    }
+
+    /**
+     * Move the upper half of a full chunk into a new chunk right after it.
+     */
+    private Chunk split(Chunk chunk) {
+        Chunk right = new Chunk();
+        int half = chunk.size / 2;
+        right.size = chunk.size - half;
+        System.arraycopy(chunk.ids, half, right.ids, 0, right.size);
+        System.arraycopy(chunk.ranks, half, right.ranks, 0, right.size);
+        chunk.size = half;
+        chunks.add(chunk.ordinal + 1, right);
+        renumberFrom(chunk.ordinal + 1);
+        rebuildTree();
+        for (int i = 0; i < right.size; i++) {
+            if (locations.get(right.ids[i]) == chunk) {
+                locations.put(right.ids[i], right);
+            }
+        }
+        return right;
+    }
+
+    private void index(long id, Chunk chunk) {
+        locations.merge(id, chunk, (old, c) -> old instanceof Integer n ? n + 1 : 2);
+    }
+
+    private void unindex(long id) {
+        Object loc = locations.get(id);
+        if (loc instanceof Integer n) {
+            if (n > 2) {
+                locations.put(id, n - 1);
+            } else {
+                // One occurrence left: find its chunk again
+                for (Chunk chunk : chunks) {
+                    for (int i = 0; i < chunk.size; i++) {
+                        if (chunk.ids[i] == id) {
+                            locations.put(id, chunk);
+                            return;
+                        }
+                    }
+                }
+                locations.remove(id);
+            }
+        } else {
+            locations.remove(id);
+        }
+    }
+
+    /**
+     * Chunk ordinal in the high 32 bits, offset within the chunk in the low 32 bits.
+     */
+    private long locate(int index) {
+        int pos = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(chunks.size()); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= chunks.size() && tree[next] <= remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return ((long) pos << 32) | remaining;
+    }
+
+    private int prefix(int ordinal) {
+        int sum = 0;
+        for (int i = ordinal; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void treeAdd(int ordinal, int delta) {
+        for (int i = ordinal + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuildTree() {
+        int n = chunks.size();
+        tree = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            tree[i] += chunks.get(i - 1).size;
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void renumberFrom(int ordinal) {
+        for (int i = ordinal; i < chunks.size(); i++) {
+            chunks.get(i).ordinal = i;
+        }
+    }
+
+    private long[][] snapshot() {
+        long[] ids = new long[size];
+        long[] ranks = new long[size];
+        int pos = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.ids, 0, ids, pos, chunk.size);
+            System.arraycopy(chunk.ranks, 0, ranks, pos, chunk.size);
+            pos += chunk.size;
+        }
+        return new long[][] {ids, ranks};
+    }
+
+    private void rebuild(long[] ids, long[] ranks, int count) {
+        chunks.clear();
+        locations.clear();
+        for (int pos = 0; pos < count; pos += REBUILD_FILL) {
+            Chunk chunk = new Chunk();
+            chunk.size = Math.min(REBUILD_FILL, count - pos);
+            System.arraycopy(ids, pos, chunk.ids, 0, chunk.size);
+            System.arraycopy(ranks, pos, chunk.ranks, 0, chunk.size);
+            chunk.ordinal = chunks.size();
+            chunks.add(chunk);
+            for (int i = 0; i < chunk.size; i++) {
+                index(chunk.ids[i], chunk);
+            }
+        }
+        size = count;
+        rebuildTree();
+    }
+
+    private static void swap(long[] ids, long[] ranks, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        long rank = ranks[a];
+        ranks[a] = ranks[b];
+        ranks[b] = rank;
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+}
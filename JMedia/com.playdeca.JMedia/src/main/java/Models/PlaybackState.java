@@ -1,5 +1,6 @@
 package Models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Transient;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
@@ -9,11 +10,16 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
 import jakarta.persistence.OneToOne;
 import java.util.ArrayList;
 import java.util.List;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @Entity
@@ -39,7 +45,45 @@ public class PlaybackState extends PanacheEntity {
     private long lastUpdateTime;  
      
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Queues are stored as PlayQueue blobs. The element collections below are the old
+    // list storage; they are only read once to migrate a state and then left empty.
+    @Lob
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private byte[] queueData;
+
+    @Lob
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private byte[] secondaryQueueData;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PlayQueue primaryQueue;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PlayQueue secondaryQueue;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<Long> cue = new ArrayList<>();
 
     private int cueIndex;
@@ -47,7 +91,11 @@ public class PlaybackState extends PanacheEntity {
     @ElementCollection(fetch = FetchType.EAGER)
     private List<Long> lastSongs = new ArrayList<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<Long> originalCue = new ArrayList<>();
 
     // Enhanced Smart Shuffle tracking (transient - not persisted)
@@ -63,12 +111,20 @@ public class PlaybackState extends PanacheEntity {
     @Enumerated(EnumType.STRING)
     private RepeatMode repeatMode = RepeatMode.OFF;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<Long> secondaryCue = new ArrayList<>();
 
     private int secondaryCueIndex = -1;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<Long> secondaryOriginalCue = new ArrayList<>();
 
     private boolean usingSecondaryQueue = false;
@@ -87,6 +143,65 @@ public class PlaybackState extends PanacheEntity {
     private Double djTransitionConfidence; // 0.0-1.0 confidence of the match
     private String djTransitionReason;   // Human-readable explanation of the match
 
+    public PlayQueue getCue() {
+        if (primaryQueue == null) {
+            primaryQueue = queueData != null ? PlayQueue.fromBytes(queueData) : new PlayQueue();
+        }
+        return primaryQueue;
+    }
+
+    public void setCue(List<Long> ids) {
+        primaryQueue = ids instanceof PlayQueue queue ? queue : new PlayQueue(ids != null ? ids : List.of());
+    }
+
+    public PlayQueue getSecondaryCue() {
+        if (secondaryQueue == null) {
+            secondaryQueue = secondaryQueueData != null ? PlayQueue.fromBytes(secondaryQueueData) : new PlayQueue();
+        }
+        return secondaryQueue;
+    }
+
+    public void setSecondaryCue(List<Long> ids) {
+        secondaryQueue = ids instanceof PlayQueue queue ? queue : new PlayQueue(ids != null ? ids : List.of());
+    }
+
+    /**
+     * Rebuild the queues from the old list columns for states saved before queue blobs
+     * existed, writing the blobs and emptying those columns in the same step so one flush
+     * persists the whole migration. Must run while the entity is managed, since those
+     * collections are lazy.
+     */
+    public void migrateLegacyQueues() {
+        if (queueData == null && primaryQueue == null) {
+            primaryQueue = PlayQueue.fromLegacy(cue, originalCue);
+            queueData = primaryQueue.toBytes();
+            primaryQueue.markSaved();
+            cue.clear();
+            originalCue.clear();
+        }
+        if (secondaryQueueData == null && secondaryQueue == null) {
+            secondaryQueue = PlayQueue.fromLegacy(secondaryCue, secondaryOriginalCue);
+            secondaryQueueData = secondaryQueue.toBytes();
+            secondaryQueue.markSaved();
+            secondaryCue.clear();
+            secondaryOriginalCue.clear();
+        }
+    }
+
+    /**
+     * Write changed queues back to their blob columns.
+     */
+    public void storeQueues() {
+        if (primaryQueue != null && (queueData == null || primaryQueue.isModifiedSinceSave())) {
+            queueData = primaryQueue.toBytes();
+            primaryQueue.markSaved();
+        }
+        if (secondaryQueue != null && (secondaryQueueData == null || secondaryQueue.isModifiedSinceSave())) {
+            secondaryQueueData = secondaryQueue.toBytes();
+            secondaryQueue.markSaved();
+        }
+    }
+
     public enum ShuffleMode {
         OFF,
         SHUFFLE,
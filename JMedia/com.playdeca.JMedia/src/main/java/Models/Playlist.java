@@ -1,18 +1,15 @@
 package Models;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.*;
 import lombok.Data;
-
-import java.util.ArrayList;
-import java.util.List;
 import lombok.EqualsAndHashCode;
-import lombok.ToString;
 
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Entity
+@EntityListeners(Services.FragmentCacheListener.class)
 public class Playlist extends PanacheEntity {
 
     // 'id' is already inherited from PanacheEntity
@@ -28,16 +25,15 @@ public class Playlist extends PanacheEntity {
     
     public Boolean isGlobal = true; // Global playlists accessible to all profiles
 
-    @JsonIgnore
-    @ToString.Exclude
-    @EqualsAndHashCode.Exclude
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-            name = "playlist_song",
-            joinColumns = @JoinColumn(name = "playlist_id"),
-            inverseJoinColumns = @JoinColumn(name = "song_id")
-    )
-    private List<Song> songs = new ArrayList<>();
+    // Aggregates over the playlist's entries, written only by PlaylistService's bulk updates
+    // so merging a stale copy of the playlist never overwrites them
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(updatable = false)
+    private Long songCount = 0L;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(updatable = false)
+    private Long totalDurationSeconds = 0L;
 
     @Transient // Not to be persisted
     private boolean containsSong;
@@ -52,6 +48,14 @@ public class Playlist extends PanacheEntity {
         this.containsSong = containsSong;
     }
 
+    public long getSongCount() {
+        return songCount != null ? songCount : 0L;
+    }
+
+    public long getTotalDurationSeconds() {
+        return totalDurationSeconds != null ? totalDurationSeconds : 0L;
+    }
+
     public void setProfile(Profile profile) {
         this.profile = profile;
     }
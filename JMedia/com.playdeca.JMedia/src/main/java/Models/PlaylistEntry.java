@@ -0,0 +1,31 @@
+package Models;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.*;
+
+/**
+ * One song in a playlist. Positions are sparse (spaced {@link #POSITION_GAP} apart) so a move
+ * or insert only rewrites the moved row; the playlist is renumbered only when two neighbours
+ * run out of room between them.
+ */
+@Entity
+@Table(name = "playlist_entry",
+        uniqueConstraints = @UniqueConstraint(name = "uk_playlist_entry_song", columnNames = {"playlist_id", "song_id"}),
+        indexes = {
+            @Index(name = "idx_playlist_entry_position", columnList = "playlist_id, position"),
+            @Index(name = "idx_playlist_entry_song", columnList = "song_id")
+        })
+public class PlaylistEntry extends PanacheEntity {
+
+    public static final long POSITION_GAP = 1024;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "playlist_id")
+    public Playlist playlist;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "song_id")
+    public Song song;
+
+    public long position;
+}
@@ -0,0 +1,136 @@
+package Models;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the persisted {@link Settings} for read paths.
+ *
+ * SettingsService swaps in a new snapshot once a settings write commits and fires it as a
+ * CDI event, so request handlers read configuration from memory and components that cache
+ * derived values (paths, pool sizes) can observe the change instead of polling.
+ */
+public record SettingsSnapshot(
+        long version,
+        Long settingsId,
+        String libraryPath,
+        String videoLibraryPath,
+        Path libraryRoot,
+        Path videoLibraryRoot,
+        int downloadThreads,
+        int searchThreads,
+        int thumbnailApiDelayMs,
+        int thumbnailMaxRetries,
+        int thumbnailProcessingThreads,
+        boolean thumbnailPreferApi,
+        String tmdbApiKey,
+        String omdbApiKey,
+        String cookiesFilePath,
+        int bpmTolerance,
+        Map<String, Integer> bpmToleranceOverrides,
+        Map<Long, Long> activeProfileIds,
+        boolean enableMetadataEnrichment,
+        boolean autoSkipIntro,
+        boolean autoSkipRecap,
+        boolean autoSkipOutro) {
+
+    public static SettingsSnapshot of(Settings settings, long version) {
+        return new SettingsSnapshot(
+                version,
+                settings.id,
+                settings.getLibraryPath(),
+                settings.getVideoLibraryPath(),
+                toRoot(settings.getLibraryPath()),
+                toRoot(settings.getVideoLibraryPath()),
+                orDefault(settings.getDownloadThreads(), 4),
+                orDefault(settings.getSearchThreads(), 4),
+                orDefault(settings.getThumbnailApiDelayMs(), 1000),
+                orDefault(settings.getThumbnailMaxRetries(), 3),
+                orDefault(settings.getThumbnailProcessingThreads(), 2),
+                settings.getThumbnailPreferApi() == null || settings.getThumbnailPreferApi(),
+                settings.getTmdbApiKey(),
+                settings.getOmdbApiKey(),
+                settings.getCookiesFilePath(),
+                settings.getBpmTolerance() != null ? settings.getBpmTolerance() : 10,
+                parseOverrides(settings.getBpmToleranceOverrides()),
+                parseActiveProfiles(settings.getActiveProfileIdsJson()),
+                settings.getEnableMetadataEnrichment(),
+                settings.getAutoSkipIntro(),
+                settings.getAutoSkipRecap(),
+                settings.getAutoSkipOutro());
+    }
+
+    /**
+     * Same resolution as {@link Settings#getBpmToleranceForGenre}, with the overrides JSON
+     * parsed once per snapshot instead of on every lookup.
+     */
+    public int bpmToleranceForGenre(String genre) {
+        if (genre == null || genre.isBlank()) {
+            return bpmTolerance;
+        }
+        String genreLower = genre.toLowerCase();
+        Integer exact = bpmToleranceOverrides.get(genreLower);
+        if (exact != null) {
+            return exact;
+        }
+        // Partial match (e.g., "techno" matches "electronic")
+        for (Map.Entry<String, Integer> entry : bpmToleranceOverrides.entrySet()) {
+            if (genreLower.contains(entry.getKey()) || entry.getKey().contains(genreLower)) {
+                return entry.getValue();
+            }
+        }
+        return bpmTolerance;
+    }
+
+    private static Map<String, Integer> parseOverrides(String json) {
+        if (json == null || json.isBlank() || json.equals("{}")) {
+            return Map.of();
+        }
+        try {
+            return Map.copyOf(new ObjectMapper().readValue(json, new TypeReference<Map<String, Integer>>() {}));
+        } catch (Exception e) {
+            // If JSON parsing fails, fall back to the default tolerance
+            return Map.of();
+        }
+    }
+
+    /**
+     * User ID to active profile ID, from the JSON map keyed by user ID as a string.
+     */
+    private static Map<Long, Long> parseActiveProfiles(String json) {
+        if (json == null || json.isBlank() || json.equals("{}")) {
+            return Map.of();
+        }
+        try {
+            Map<String, Long> byUser = new ObjectMapper().readValue(json, new TypeReference<Map<String, Long>>() {});
+            Map<Long, Long> result = new HashMap<>();
+            byUser.forEach((userId, profileId) -> {
+                if (profileId != null) {
+                    result.put(Long.valueOf(userId), profileId);
+                }
+            });
+            return Map.copyOf(result);
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private static Path toRoot(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            return Paths.get(path).toAbsolutePath().normalize();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static int orDefault(Integer value, int fallback) {
+        return value != null && value > 0 ? value : fallback;
+    }
+}
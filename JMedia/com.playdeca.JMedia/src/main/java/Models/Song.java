@@ -6,6 +6,7 @@ import lombok.Data;
 
 @Data
 @Entity
+@EntityListeners({Services.TrackCatalogListener.class, Services.FragmentCacheListener.class})
 public class Song extends PanacheEntity {
 
     private String title;
@@ -25,15 +25,34 @@ public class SongAnalysis extends PanacheEntity {
     @Column(name = "beat_time")
     private List<Double> beatTimes = new ArrayList<>();
     
+    // Unboxed view of beatTimes, built lazily and dropped by setBeatTimes
+    @Transient
+    private transient double[] beatTimesCache;
+    
     // Segment features for similarity matching (JSON serialized)
     // Each entry corresponds to a beat, containing timbre/pitch/loudness vectors
     @Column(length = Integer.MAX_VALUE)
     private String segmentFeaturesJson;
     
-    // Similar beat mappings - JSON: {"beatIndex": [similarBeatIndex1, similarBeatIndex2, ...]}
+    // Legacy similar beat mappings - JSON: {"beatIndex": [similarBeatIndex1, similarBeatIndex2, ...]}
+    // Only read for rows analyzed before the packed graph below existed
     @Column(length = Integer.MAX_VALUE)
     private String similarBeatsJson;
     
+    // Similar beat adjacency packed as beatCount x similarBeatsWidth big-endian ints, -1 = empty slot
+    @Lob
+    private byte[] similarBeatsGraph;
+    
+    private Integer similarBeatsWidth;
+    
+    // Decoded view of similarBeatsGraph, built lazily on first lookup
+    @Transient
+    private transient int[] similarBeatsCache;
+    
+    // Acoustic fingerprint: big-endian 32-bit sub-fingerprints from the start of the song (see FingerprintService)
+    @Lob
+    private byte[] fingerprint;
+    
     // Beat metadata for cross-song matching - JSON array of per-beat objects:
     // [{"index":0, "time":0.0, "beatInBar":1, "barNumber":0, "strength":1.0, "relativePosition":0.0}, ...]
     @Column(length = Integer.MAX_VALUE)
@@ -58,16 +77,24 @@ public class SongAnalysis extends PanacheEntity {
         FAILED
     }
     
+    public void setBeatTimes(List<Double> beatTimes) {
+        this.beatTimes = beatTimes;
+        this.beatTimesCache = null;
+    }
+    
     /**
-     * Get beat times as primitive array for efficient processing
+     * Get beat times as primitive array for efficient processing.
+     * The array is cached and shared between calls, so callers must not modify it.
      */
     public double[] getBeatTimesArray() {
-        if (beatTimes == null || beatTimes.isEmpty()) {
-            return new double[0];
-        }
-        double[] result = new double[beatTimes.size()];
-        for (int i = 0; i < beatTimes.size(); i++) {
-            result[i] = beatTimes.get(i);
+        double[] result = beatTimesCache;
+        if (result == null) {
+            int count = beatTimes != null ? beatTimes.size() : 0;
+            result = new double[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = beatTimes.get(i);
+            }
+            beatTimesCache = result;
         }
         return result;
     }
@@ -76,16 +103,17 @@ public class SongAnalysis extends PanacheEntity {
      * Find the beat index closest to a given time
      */
     public int findBeatIndexAtTime(double timeSeconds) {
-        if (beatTimes == null || beatTimes.isEmpty()) {
+        double[] times = getBeatTimesArray();
+        if (times.length == 0) {
             return -1;
         }
         
         int low = 0;
-        int high = beatTimes.size() - 1;
+        int high = times.length - 1;
         
         while (low <= high) {
             int mid = (low + high) / 2;
-            double beatTime = beatTimes.get(mid);
+            double beatTime = times[mid];
             
             if (beatTime < timeSeconds) {
                 low = mid + 1;
@@ -97,24 +125,65 @@ public class SongAnalysis extends PanacheEntity {
         }
         
         // Return closest beat
-        if (low >= beatTimes.size()) {
-            return beatTimes.size() - 1;
+        if (low >= times.length) {
+            return times.length - 1;
         } else if (low == 0) {
             return 0;
         } else {
             // Return whichever is closer
-            double diffLow = Math.abs(beatTimes.get(low) - timeSeconds);
-            double diffHigh = Math.abs(beatTimes.get(low - 1) - timeSeconds);
+            double diffLow = Math.abs(times[low] - timeSeconds);
+            double diffHigh = Math.abs(times[low - 1] - timeSeconds);
             return diffLow < diffHigh ? low : low - 1;
         }
     }
     
     /**
-     * Get similar beat indices for a given beat index
+     * Store the similarity graph as a fixed-width adjacency matrix.
+     * Each row holds up to {@code width} beat indices, padded with -1.
+     */
+    public void setSimilarBeatsMatrix(int[][] adjacency, int width) {
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(adjacency.length * width * Integer.BYTES);
+        int[] flat = new int[adjacency.length * width];
+        for (int i = 0; i < adjacency.length; i++) {
+            for (int k = 0; k < width; k++) {
+                int value = k < adjacency[i].length ? adjacency[i][k] : -1;
+                flat[i * width + k] = value;
+                buffer.putInt(value);
+            }
+        }
+        this.similarBeatsGraph = buffer.array();
+        this.similarBeatsWidth = width;
+        this.similarBeatsCache = flat;
+        this.similarBeatsJson = null;
+    }
+    
+    /**
+     * Get similar beat indices for a given beat index.
+     * Reads the packed graph directly; falls back to the legacy JSON map for old rows.
      */
-    public List<Integer> getSimilarBeats(int beatIndex) {
+    public int[] getSimilarBeats(int beatIndex) {
+        if (similarBeatsGraph != null && similarBeatsWidth != null && similarBeatsWidth > 0) {
+            int[] flat = similarBeatsCache;
+            if (flat == null) {
+                java.nio.IntBuffer ints = java.nio.ByteBuffer.wrap(similarBeatsGraph).asIntBuffer();
+                flat = new int[ints.remaining()];
+                ints.get(flat);
+                similarBeatsCache = flat;
+            }
+            int width = similarBeatsWidth;
+            int from = beatIndex * width;
+            if (beatIndex < 0 || from + width > flat.length) {
+                return new int[0];
+            }
+            int count = 0;
+            while (count < width && flat[from + count] >= 0) {
+                count++;
+            }
+            return java.util.Arrays.copyOfRange(flat, from, from + count);
+        }
+        
         if (similarBeatsJson == null || similarBeatsJson.isEmpty()) {
-            return new ArrayList<>();
+            return new int[0];
         }
         
         try {
@@ -125,9 +194,9 @@ public class SongAnalysis extends PanacheEntity {
             );
             
             String key = String.valueOf(beatIndex);
-            return similarMap.getOrDefault(key, new ArrayList<>());
+            return similarMap.getOrDefault(key, new ArrayList<>()).stream().mapToInt(Integer::intValue).toArray();
         } catch (Exception e) {
-            return new ArrayList<>();
+            return new int[0];
         }
     }
     
@@ -138,8 +207,8 @@ public class SongAnalysis extends PanacheEntity {
         return status == AnalysisStatus.COMPLETED 
             && beatTimes != null 
             && !beatTimes.isEmpty()
-            && similarBeatsJson != null 
-            && !similarBeatsJson.isEmpty();
+            && ((similarBeatsGraph != null && similarBeatsGraph.length > 0)
+                || (similarBeatsJson != null && !similarBeatsJson.isEmpty()));
     }
     
     /**
@@ -0,0 +1,34 @@
+package Models.Telemetry;
+
+import Models.Song;
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_playback_history_profile", columnList = "profile_id, playedAt"),
+        @Index(name = "idx_playback_history_song", columnList = "song_id")
+})
+public class PlaybackHistory extends PanacheEntity {
+
+    // Plain ids: songs and profiles live in the catalog database
+    @Column(name = "song_id")
+    public Long songId;
+
+    @Column(name = "profile_id")
+    public Long profileId;
+
+    public LocalDateTime playedAt;
+
+    // Resolved from the catalog by PlaybackHistoryService for display
+    @Transient
+    public Song song;
+
+    public PlaybackHistory() {
+    }
+}
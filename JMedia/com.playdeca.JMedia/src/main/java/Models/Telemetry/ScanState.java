@@ -1,4 +1,4 @@
-package Models;
+package Models.Telemetry;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
 import jakarta.persistence.ElementCollection;
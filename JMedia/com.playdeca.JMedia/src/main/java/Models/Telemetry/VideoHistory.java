@@ -0,0 +1,28 @@
+package Models.Telemetry;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_video_history_profile", columnList = "profile_id, playedAt"),
+        @Index(name = "idx_video_history_media", columnList = "media_file_id")
+})
+public class VideoHistory extends PanacheEntity {
+
+    // Plain ids: media files and profiles live in the catalog database
+    @Column(name = "media_file_id")
+    public Long mediaFileId;
+
+    @Column(name = "profile_id")
+    public Long profileId;
+
+    public LocalDateTime playedAt;
+
+    public VideoHistory() {
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * High-churn rows (activity log, login sessions, scan checkpoints, play history) kept in the
+ * "telemetry" persistence unit. It is backed by its own H2 file, so these writes never take the
+ * catalog store's write lock or page cache; see {@link Services.TelemetryStore} for retention.
+ * Rows refer to catalog entities by plain id only, and are accessed in their own requiringNew
+ * transactions, never inside a catalog transaction.
+ */
+@PersistenceUnit("telemetry")
+package Models.Telemetry;
+
+import io.quarkus.hibernate.orm.PersistenceUnit;
@@ -10,6 +10,8 @@ import java.util.List;
 @Data
 @Entity
 @EqualsAndHashCode(callSuper = false)
+@EntityListeners({Services.XtreamCatalogListener.class, Services.SeriesIndexListener.class, Services.HomeCarouselListener.class,
+        Services.FragmentCacheListener.class})
 @Table(name = "video",
         indexes = {
             @Index(name = "idx_video_type", columnList = "type"),
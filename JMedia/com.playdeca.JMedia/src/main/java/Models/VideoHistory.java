@@ -1,21 +0,0 @@
-package Models;
-
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
-import jakarta.persistence.Entity;
-import jakarta.persistence.ManyToOne;
-import java.time.LocalDateTime;
-
-@Entity
-public class VideoHistory extends PanacheEntity {
-
-    @ManyToOne
-    public MediaFile mediaFile;
-
-    @ManyToOne
-    public Profile profile;
-
-    public LocalDateTime playedAt;
-
-    public VideoHistory() {
-    }
-}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(Services.VideoStateIndexListener.class)
 @Table(name = "video_progress", uniqueConstraints = @UniqueConstraint(columnNames = {"profile_id", "video_id"}))
 public class VideoState extends PanacheEntity {
 
@@ -0,0 +1,81 @@
+package Services;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Defers the in-memory side effects of a write (settings snapshots, caches, indexes) until the
+ * surrounding transaction commits, so a rollback never leaves them ahead of the database.
+ *
+ * Outside a transaction the action runs immediately; inside one that is already marked for
+ * rollback it is dropped (or the rollback action runs instead).
+ */
+@ApplicationScoped
+public class AfterCommit {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AfterCommit.class);
+
+    @Inject
+    TransactionSynchronizationRegistry registry;
+
+    public void run(Runnable action) {
+        run(action, null);
+    }
+
+    /**
+     * Like {@link #run(Runnable)}, but registers at most one action per key and transaction, for
+     * invalidations that entity listeners would otherwise queue once per written row.
+     */
+    public void runOnce(Object key, Runnable onCommit) {
+        if (registry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            if (registry.getResource(key) != null) {
+                return;
+            }
+            registry.putResource(key, Boolean.TRUE);
+        }
+        run(onCommit);
+    }
+
+    /**
+     * Run onCommit once the current transaction commits, or onRollback (when given) if it rolls
+     * back instead.
+     */
+    public void run(Runnable onCommit, Runnable onRollback) {
+        int status = registry.getTransactionStatus();
+        if (status == Status.STATUS_NO_TRANSACTION) {
+            onCommit.run();
+            return;
+        }
+        if (status != Status.STATUS_ACTIVE) {
+            runSafely(onRollback);
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int completionStatus) {
+                runSafely(completionStatus == Status.STATUS_COMMITTED ? onCommit : onRollback);
+            }
+        });
+    }
+
+    private static void runSafely(Runnable action) {
+        if (action == null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            // The transaction is already over; one failing action must not affect the others
+            LOG.warn("After-completion action failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import Models.SubtitleTrack;
 import Models.Video;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -66,7 +67,7 @@ public class AiSubtitleJobService {
     public synchronized int startBatch(List<Long> videoIds, String languageCode) {
         // Cancel any running job
         if (currentJob != null && "running".equals(currentJob.status)) {
-            parakeetService.cancelGeneration();
+            cancelJob(currentJob.id);
         }
 
         int jobId = jobIdCounter.incrementAndGet();
@@ -101,57 +102,28 @@ public class AiSubtitleJobService {
     private void processJob(AiSubtitleJob job) {
         job.status = "running";
         job.startTime = System.currentTimeMillis();
-
-        for (int i = 0; i < job.videoIds.size(); i++) {
-            if (!"running".equals(job.status)) break;
-
-            Long videoId = job.videoIds.get(i);
-            VideoProgress vp = job.progressList.get(i);
-            job.currentVideoIndex = i;
-            job.currentVideoId = videoId;
-
-            Video video = job.videoCache.get(videoId);
-            if (video == null) {
-                job.currentVideoTitle = vp.videoTitle;
-                job.currentVideoSeries = "";
-                job.currentVideoSeason = null;
-                vp.status = "failed";
-                vp.error = "Video not found in cache";
-                job.failedCount++;
-                job.errors.add(vp.videoTitle + ": Video not found");
-                job.overallProgress = calculateOverallProgress(job);
-                continue;
-            }
-
-            job.currentVideoTitle = video.title != null ? video.title : (video.episodeTitle != null ? video.episodeTitle : video.filename);
-            job.currentVideoSeries = video.seriesTitle != null ? video.seriesTitle : "";
-            job.currentVideoSeason = video.seasonNumber;
-            job.currentVideoId = video.id;
-            vp.status = "running";
-
-            try {
-                parakeetService.generateSubtitle(video, job.languageCode, progress -> {
-                    vp.progress = progress;
-                    job.overallProgress = calculateOverallProgress(job);
-                }).get();
-
-                vp.status = "completed";
-                vp.progress = 100.0;
-                job.completedCount++;
-            } catch (Exception e) {
-                String msg = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
-                if (msg != null && msg.contains("cancelled")) {
-                    vp.status = "cancelled";
-                    job.status = "cancelled";
+        parakeetService.resetCancellation();
+
+        // Audio of the next video is extracted while the current one transcribes
+        CompletableFuture<Path> nextAudio = null;
+        try {
+            for (int i = 0; i < job.videoIds.size(); i++) {
+                if (!"running".equals(job.status)) break;
+
+                CompletableFuture<Path> audio = nextAudio;
+                nextAudio = null;
+                if (i + 1 < job.videoIds.size()) {
+                    Video next = job.videoCache.get(job.videoIds.get(i + 1));
+                    if (next != null) {
+                        nextAudio = parakeetService.prepareAudio(next);
+                    }
+                }
+                if (!processVideo(job, i, audio)) {
                     return;
                 }
-                vp.status = "failed";
-                vp.error = msg;
-                job.failedCount++;
-                job.errors.add(vp.videoTitle + ": " + msg);
             }
-
-            job.overallProgress = calculateOverallProgress(job);
+        } finally {
+            parakeetService.discardAudio(nextAudio);
         }
 
         if ("running".equals(job.status)) {
@@ -160,6 +132,62 @@ public class AiSubtitleJobService {
         }
     }
 
+    /**
+     * Transcribe one video of the job, using audio already being extracted when given.
+     * Returns false when the job was cancelled.
+     */
+    private boolean processVideo(AiSubtitleJob job, int i, CompletableFuture<Path> audio) {
+        Long videoId = job.videoIds.get(i);
+        VideoProgress vp = job.progressList.get(i);
+        job.currentVideoIndex = i;
+        job.currentVideoId = videoId;
+
+        Video video = job.videoCache.get(videoId);
+        if (video == null) {
+            job.currentVideoTitle = vp.videoTitle;
+            job.currentVideoSeries = "";
+            job.currentVideoSeason = null;
+            vp.status = "failed";
+            vp.error = "Video not found in cache";
+            job.failedCount++;
+            job.errors.add(vp.videoTitle + ": Video not found");
+            job.overallProgress = calculateOverallProgress(job);
+            return true;
+        }
+
+        job.currentVideoTitle = video.title != null ? video.title : (video.episodeTitle != null ? video.episodeTitle : video.filename);
+        job.currentVideoSeries = video.seriesTitle != null ? video.seriesTitle : "";
+        job.currentVideoSeason = video.seasonNumber;
+        job.currentVideoId = video.id;
+        vp.status = "running";
+
+        try {
+            CompletableFuture<Path> videoAudio = audio != null ? audio : parakeetService.prepareAudio(video);
+            parakeetService.generateSubtitle(video, job.languageCode, videoAudio, progress -> {
+                vp.progress = progress;
+                job.overallProgress = calculateOverallProgress(job);
+            }).get();
+
+            vp.status = "completed";
+            vp.progress = 100.0;
+            job.completedCount++;
+        } catch (Exception e) {
+            String msg = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            if ((msg != null && msg.contains("cancelled")) || "cancelled".equals(job.status)) {
+                vp.status = "cancelled";
+                job.status = "cancelled";
+                return false;
+            }
+            vp.status = "failed";
+            vp.error = msg;
+            job.failedCount++;
+            job.errors.add(vp.videoTitle + ": " + msg);
+        }
+
+        job.overallProgress = calculateOverallProgress(job);
+        return true;
+    }
+
     private double calculateOverallProgress(AiSubtitleJob job) {
         if (job.videoIds.isEmpty()) return 100.0;
         double total = 0;
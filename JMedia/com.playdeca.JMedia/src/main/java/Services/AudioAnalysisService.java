@@ -20,6 +20,7 @@ import be.tarsos.dsp.AudioProcessor;
 import be.tarsos.dsp.AudioEvent;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service for analyzing audio files to detect beats and build similarity mappings
@@ -35,11 +36,17 @@ public class AudioAnalysisService {
     @Inject
     SettingsService settingsService;
     
+    @Inject
+    FingerprintService fingerprintService;
+    
     @PersistenceContext
     EntityManager em;
     
     // Configuration
     private static final int BEATS_PER_BAR = 4; // Standard 4/4 time signature
+    private static final int SIMILAR_BEATS_PER_BEAT = 10; // Fixed width of the similarity adjacency
+    private static final int CHROMA_WINDOW = 3 * SIMILAR_BEATS_PER_BEAT; // Neighbours scanned either side in projection order
+    private static final double MIN_JUMP_DISTANCE_SECONDS = 5.0;
     
     /**
      * Analyze a song and create SongAnalysis data
@@ -47,7 +54,7 @@ public class AudioAnalysisService {
      */
     @Transactional
     public SongAnalysis analyzeSong(Song song) {
-        String libraryPath = settingsService.getOrCreateSettings().getLibraryPath();
+        String libraryPath = settingsService.getSnapshot().libraryPath();
         if (libraryPath == null || libraryPath.isBlank()) {
             LOG.error("No library path configured, cannot analyze song");
             return null;
@@ -64,7 +71,16 @@ public class AudioAnalysisService {
         // Check if analysis already exists
         SongAnalysis existing = SongAnalysis.find("song.id", song.id).firstResult();
         if (existing != null && existing.getStatus() == SongAnalysis.AnalysisStatus.COMPLETED) {
-            LOG.info("Song {} already analyzed", song.getTitle());
+            if (existing.getFingerprint() == null) {
+                // Analyzed before fingerprints existed: a short decode of the intro is enough
+                try {
+                    storeFingerprint(song, existing, computeFingerprint(audioFile));
+                } catch (Exception e) {
+                    LOG.warn("Fingerprinting failed for {}: {}", song.getTitle(), e.getMessage());
+                }
+            } else {
+                LOG.info("Song {} already analyzed", song.getTitle());
+            }
             return existing;
         }
         
@@ -108,13 +124,16 @@ public class AudioAnalysisService {
             analysis.setSegmentFeaturesJson(featuresJson);
             
             // Step 3: Build similarity graph
-            String similarBeatsJson = buildSimilarityGraph(result.beatTimes, (int) Math.round(result.detectedBpm));
-            analysis.setSimilarBeatsJson(similarBeatsJson);
+            int[][] similarBeats = buildSimilarityGraph(result.beatTimes, extractBeatChroma(result));
+            analysis.setSimilarBeatsMatrix(similarBeats, SIMILAR_BEATS_PER_BEAT);
             
             // Step 4: Store beat metadata for cross-song matching
             String beatMetadataJson = buildBeatMetadata(result.beatTimes, (int) Math.round(result.detectedBpm), song.getDurationSeconds());
             analysis.setBeatMetadataJson(beatMetadataJson);
             
+            // Step 5: Acoustic fingerprint for duplicate detection
+            storeFingerprint(song, analysis, result.fingerprint);
+            
             analysis.setStatus(SongAnalysis.AnalysisStatus.COMPLETED);
             analysis.setErrorMessage(null);
             
@@ -132,7 +151,54 @@ public class AudioAnalysisService {
         return analysis;
     }
 
-    private record AnalysisResult(List<Double> beatTimes, double detectedBpm, List<Double> onsetTimes, Map<Double, double[]> spectralMap) {}
+    private record AnalysisResult(List<Double> beatTimes, double detectedBpm, List<Double> onsetTimes, Map<Double, double[]> spectralMap,
+                                  int[] fingerprint) {}
+
+    /**
+     * Persist and index a fingerprint, then report acoustic duplicates already in the library.
+     */
+    private void storeFingerprint(Song song, SongAnalysis analysis, int[] fingerprint) {
+        if (fingerprint == null || fingerprint.length == 0) {
+            return;
+        }
+        analysis.setFingerprint(FingerprintService.encode(fingerprint));
+        List<FingerprintService.Match> matches = fingerprintService.findMatches(
+                fingerprint, song.getDurationSeconds(), song.id, FingerprintService.DUPLICATE_CONFIDENCE);
+        fingerprintService.upsert(song.id, song.getDurationSeconds(), fingerprint);
+        for (FingerprintService.Match match : matches) {
+            LOG.info("Song {} ({}) sounds like song {} (confidence {})", song.getTitle(), song.id, match.songId(),
+                    String.format(Locale.ROOT, "%.2f", match.confidence()));
+        }
+    }
+
+    /**
+     * Fingerprint-only pass: decodes just until the fingerprint is full.
+     */
+    private int[] computeFingerprint(File file) throws Exception {
+        int bufferSize = 1024;
+        AudioDispatcher dispatcher = AudioDispatcherFactory.fromPipe(file.getAbsolutePath(), 44100, bufferSize, 0);
+        FFT fft = new FFT(bufferSize);
+        FingerprintService.Extractor extractor = new FingerprintService.Extractor();
+        dispatcher.addAudioProcessor(new AudioProcessor() {
+            @Override
+            public boolean process(AudioEvent audioEvent) {
+                float[] buffer = audioEvent.getFloatBuffer().clone();
+                float[] magnitudes = new float[bufferSize / 2];
+                fft.forwardTransform(buffer);
+                fft.modulus(buffer, magnitudes);
+                extractor.accept(magnitudes);
+                if (extractor.isFull()) {
+                    dispatcher.stop();
+                }
+                return true;
+            }
+
+            @Override
+            public void processingFinished() {}
+        });
+        dispatcher.run();
+        return extractor.finish();
+    }
 
     /**
      * Perform actual audio analysis using TarsosDSP
@@ -142,6 +208,7 @@ public class AudioAnalysisService {
         final List<Double> onsetTimes = new ArrayList<>();
         final List<Double> beatTimes = new ArrayList<>();
         final Map<Double, double[]> spectralMap = new TreeMap<>();
+        final FingerprintService.Extractor fingerprint = new FingerprintService.Extractor();
         
         // 1. Collect onsets and FFT spectral data
         int sampleRate = 44100;
@@ -158,6 +225,7 @@ public class AudioAnalysisService {
                 float[] magnitudes = new float[bufferSize / 2];
                 fft.forwardTransform(buffer);
                 fft.modulus(buffer, magnitudes);
+                fingerprint.accept(magnitudes);
                 
                 // Compress magnitudes into 12 "chroma-like" buckets for cosine similarity
                 double[] chroma = new double[12];
@@ -208,7 +276,7 @@ public class AudioAnalysisService {
         }
         
         double bpm = 60.0 / medianInterval;
-        return new AnalysisResult(beatTimes, bpm, onsetTimes, spectralMap);
+        return new AnalysisResult(beatTimes, bpm, onsetTimes, spectralMap, fingerprint.finish());
     }
 
     /**
@@ -299,67 +367,160 @@ public class AudioAnalysisService {
     }
     
     /**
-     * Build similarity graph - find which beats sound similar
-     * Beats at the same position in different cycles are considered similar
+     * Sample the chroma vector closest to each beat and L2-normalise it,
+     * so a dot product between two beats is their cosine similarity.
      */
-    private String buildSimilarityGraph(List<Double> beatTimes, int bpm) {
-        try {
-            Map<String, List<Integer>> similarBeats = new HashMap<>();
-            
-            double beatInterval = 60.0 / bpm;
-            double barInterval = beatInterval * BEATS_PER_BAR;
-            int totalBars = beatTimes.size() / BEATS_PER_BAR;
+    private float[][] extractBeatChroma(AnalysisResult result) {
+        NavigableMap<Double, double[]> spectralData = (NavigableMap<Double, double[]>) result.spectralMap;
+        float[][] chroma = new float[result.beatTimes.size()][12];
+        
+        for (int i = 0; i < chroma.length; i++) {
+            Map.Entry<Double, double[]> closest = spectralData.floorEntry(result.beatTimes.get(i));
+            if (closest == null) {
+                continue;
+            }
+            double[] raw = closest.getValue();
+            double norm = 0;
+            for (double v : raw) {
+                norm += v * v;
+            }
+            norm = Math.sqrt(norm);
+            if (norm > 0) {
+                for (int c = 0; c < 12; c++) {
+                    chroma[i][c] = (float) (raw[c] / norm);
+                }
+            }
+        }
+        return chroma;
+    }
+    
+    /**
+     * Build similarity graph - find which beats sound similar.
+     * 
+     * Beats sharing a position in the bar are ordered by a 1-D projection of their chroma
+     * and each beat only scores the neighbours inside a fixed window of that order, keeping
+     * the best matches by cosine similarity. Rows that are still short are topped up from the
+     * relative-position windows (same point in the song, or half a song away), found by
+     * binary search over the sorted beat times. Total cost is O(n log n) instead of O(n^2).
+     * 
+     * @return adjacency of {@link #SIMILAR_BEATS_PER_BEAT} beat indices per beat, padded with -1
+     */
+    private int[][] buildSimilarityGraph(List<Double> beatTimes, float[][] chroma) {
+        int n = beatTimes.size();
+        int[][] adjacency = new int[n][SIMILAR_BEATS_PER_BEAT];
+        float[][] scores = new float[n][SIMILAR_BEATS_PER_BEAT];
+        int[] filled = new int[n];
+        for (int[] row : adjacency) {
+            Arrays.fill(row, -1);
+        }
+        
+        // Projection weights: one full cosine cycle over the 12 chroma buckets
+        float[] projection = new float[12];
+        for (int c = 0; c < 12; c++) {
+            projection[c] = (float) Math.cos(2 * Math.PI * c / 12.0);
+        }
+        
+        for (int beatInBar = 0; beatInBar < BEATS_PER_BAR; beatInBar++) {
+            int size = (n - beatInBar + BEATS_PER_BAR - 1) / BEATS_PER_BAR;
+            if (size <= 0) continue;
             
-            // For each beat, find similar beats (same position in different cycle)
-            for (int i = 0; i < beatTimes.size(); i++) {
-                List<Integer> similar = new ArrayList<>();
-                
-                int beatInBar = i % BEATS_PER_BAR;
-                int currentBar = i / BEATS_PER_BAR;
-                
-                // Find beats at same position in other cycles
-                // Skip the current cycle and adjacent ones to avoid repetition
-                for (int otherBar = 0; otherBar < totalBars; otherBar++) {
-                    if (Math.abs(otherBar - currentBar) <= 1) continue; // Skip adjacent bars
-                    
-                    int otherBeatIndex = otherBar * BEATS_PER_BAR + beatInBar;
-                    if (otherBeatIndex < beatTimes.size()) {
-                        similar.add(otherBeatIndex);
-                    }
+            // Pack (projection, beat index) into one sortable long so the sort stays primitive
+            long[] order = new long[size];
+            for (int k = 0; k < size; k++) {
+                int i = beatInBar + k * BEATS_PER_BAR;
+                float p = 0;
+                for (int c = 0; c < 12; c++) {
+                    p += chroma[i][c] * projection[c];
                 }
-                
-                // Also add some variation - beats at different positions in same relative position
-                // This creates the "EternalJukebox" style transitions
-                double currentRelPos = beatTimes.get(i) / beatTimes.get(beatTimes.size() - 1);
-                for (int j = 0; j < beatTimes.size(); j++) {
-                    if (j == i) continue;
-                    
-                    double otherRelPos = beatTimes.get(j) / beatTimes.get(beatTimes.size() - 1);
-                    double posDiff = Math.abs(currentRelPos - otherRelPos);
-                    
-                    // Beats at similar relative position are also similar
-                    if (posDiff < 0.1 || (posDiff > 0.4 && posDiff < 0.6)) {
-                        if (!similar.contains(j)) {
-                            similar.add(j);
-                        }
+                int sortableBits = Float.floatToIntBits(p);
+                sortableBits ^= (sortableBits >> 31) & 0x7fffffff;
+                order[k] = ((long) sortableBits << 32) | i;
+            }
+            Arrays.sort(order);
+            
+            for (int k = 0; k < size; k++) {
+                int i = (int) order[k];
+                int bar = i / BEATS_PER_BAR;
+                int from = Math.max(0, k - CHROMA_WINDOW);
+                int to = Math.min(size - 1, k + CHROMA_WINDOW);
+                for (int w = from; w <= to; w++) {
+                    int j = (int) order[w];
+                    if (Math.abs(j / BEATS_PER_BAR - bar) <= 1) continue; // Skip current and adjacent bars
+                    float score = 0;
+                    for (int c = 0; c < 12; c++) {
+                        score += chroma[i][c] * chroma[j][c];
                     }
+                    filled[i] = insertTopK(adjacency[i], scores[i], filled[i], j, score);
                 }
-                
-                // Limit to top 10 similar beats
-                if (similar.size() > 10) {
-                    similar = similar.subList(0, 10);
+            }
+        }
+        
+        // Top up short rows from relative-position windows, as the original graph did
+        double lastTime = beatTimes.get(n - 1);
+        double[] times = new double[n];
+        for (int i = 0; i < n; i++) {
+            times[i] = beatTimes.get(i);
+        }
+        for (int i = 0; i < n && lastTime > 0; i++) {
+            if (filled[i] >= SIMILAR_BEATS_PER_BEAT) continue;
+            double relPos = times[i] / lastTime;
+            for (double offset : new double[] {0.0, 0.5, -0.5}) {
+                double center = relPos + offset;
+                if (center < 0 || center > 1) continue;
+                int lo = lowerBound(times, (center - 0.1) * lastTime);
+                int hi = lowerBound(times, (center + 0.1) * lastTime);
+                for (int j = lo; j < hi && filled[i] < SIMILAR_BEATS_PER_BEAT; j++) {
+                    if (Math.abs(j - i) <= BEATS_PER_BAR || contains(adjacency[i], filled[i], j)) continue;
+                    adjacency[i][filled[i]++] = j;
                 }
-                
-                similarBeats.put(String.valueOf(i), similar);
             }
-            
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(similarBeats);
-            
-        } catch (Exception e) {
-            LOG.error("Error building similarity graph: {}", e.getMessage());
-            return "{}";
         }
+        
+        return adjacency;
+    }
+    
+    /**
+     * Insert a candidate into a row kept sorted by descending score, dropping the weakest
+     * entry once the row is full. Returns the new fill count.
+     */
+    private static int insertTopK(int[] row, float[] rowScores, int filled, int candidate, float score) {
+        int width = row.length;
+        if (filled == width && score <= rowScores[width - 1]) {
+            return filled;
+        }
+        int pos = Math.min(filled, width - 1);
+        while (pos > 0 && rowScores[pos - 1] < score) {
+            row[pos] = row[pos - 1];
+            rowScores[pos] = rowScores[pos - 1];
+            pos--;
+        }
+        row[pos] = candidate;
+        rowScores[pos] = score;
+        return Math.min(filled + 1, width);
+    }
+    
+    private static boolean contains(int[] row, int filled, int value) {
+        for (int k = 0; k < filled; k++) {
+            if (row[k] == value) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * First index whose value is >= key in an ascending array
+     */
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
     
     /**
@@ -395,32 +556,32 @@ public class AudioAnalysisService {
             return -1;
         }
         
-        List<Integer> similarBeats = analysis.getSimilarBeats(currentBeatIndex);
-        if (similarBeats.isEmpty()) {
+        int[] similarBeats = analysis.getSimilarBeats(currentBeatIndex);
+        if (similarBeats.length == 0) {
             return -1;
         }
         
         // Pick a random similar beat (but not too close in time)
-        Random random = new Random();
-        List<Integer> validBeats = new ArrayList<>();
+        double[] beatTimes = analysis.getBeatTimesArray();
+        int[] validBeats = new int[similarBeats.length];
+        int validCount = 0;
         for (int idx : similarBeats) {
-            double beatTime = analysis.getBeatTimes().get(idx);
             // Don't jump to something too close (within 5 seconds)
-            if (Math.abs(beatTime - currentTime) > 5) {
-                validBeats.add(idx);
+            if (idx < beatTimes.length && Math.abs(beatTimes[idx] - currentTime) > MIN_JUMP_DISTANCE_SECONDS) {
+                validBeats[validCount++] = idx;
             }
         }
         
-        if (validBeats.isEmpty()) {
+        if (validCount == 0) {
             // Fall back to any similar beat
             validBeats = similarBeats;
+            validCount = similarBeats.length;
         }
         
-        int targetBeatIndex = validBeats.get(random.nextInt(validBeats.size()));
-        List<Double> beatTimes = analysis.getBeatTimes();
+        int targetBeatIndex = validBeats[ThreadLocalRandom.current().nextInt(validCount)];
         
-        if (targetBeatIndex >= 0 && targetBeatIndex < beatTimes.size()) {
-            return beatTimes.get(targetBeatIndex);
+        if (targetBeatIndex >= 0 && targetBeatIndex < beatTimes.length) {
+            return beatTimes[targetBeatIndex];
         }
         
         return -1;
@@ -3,22 +3,98 @@ package Services;
 import Models.User;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class AuthService {
-    
+
+    private static final long CREDENTIAL_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_CACHED_CREDENTIALS = 1_000;
+
+    /**
+     * Recently verified credentials, keyed by a salted SHA-256 of username and password.
+     * The salt is random per JVM, so keys are useless outside this process and no
+     * password is kept in memory.
+     */
+    private final Map<String, VerifiedCredential> verified = new ConcurrentHashMap<>();
+    private final byte[] salt = new byte[32];
+
+    private record VerifiedCredential(Long userId, long expiresAtNanos) {
+        boolean isFresh() {
+            return System.nanoTime() - expiresAtNanos < 0;
+        }
+    }
+
+    public AuthService() {
+        new SecureRandom().nextBytes(salt);
+    }
+
     @Transactional
     public Optional<User> authenticate(String username, String password) {
         if (username == null || password == null) {
             return Optional.empty();
         }
-        
+
         User user = User.find("username", username).firstResult();
         if (user != null && user.checkPassword(password)) {
             return Optional.of(user);
         }
-        
+
         return Optional.empty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Same as {@link #authenticate} but skips the BCrypt check when the same credentials
+     * were verified within the last minute. For clients that send credentials on every
+     * request (Xtream Codes players). A changed password takes effect after the TTL.
+     */
+    @Transactional
+    public Optional<User> authenticateCached(String username, String password) {
+        if (username == null || password == null) {
+            return Optional.empty();
+        }
+
+        String key = credentialKey(username, password);
+        VerifiedCredential cached = verified.get(key);
+        if (cached != null && cached.isFresh()) {
+            User user = User.findById(cached.userId());
+            if (user != null && username.equals(user.getUsername())) {
+                return Optional.of(user);
+            }
+        }
+        verified.remove(key);
+
+        Optional<User> user = authenticate(username, password);
+        user.ifPresent(u -> {
+            if (verified.size() >= MAX_CACHED_CREDENTIALS) {
+                verified.values().removeIf(c -> !c.isFresh());
+                if (verified.size() >= MAX_CACHED_CREDENTIALS) {
+                    verified.clear();
+                }
+            }
+            verified.put(key, new VerifiedCredential(u.id, System.nanoTime() + CREDENTIAL_TTL_NANOS));
+        });
+        return user;
+    }
+
+    private String credentialKey(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(username.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package Services;
+
+import Controllers.PlaybackController;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands out I/O and CPU permits to background engines (library scans, thumbnails, subtitle
+ * discovery, metadata enrichment) based on what is being played.
+ *
+ * Music counts as playing while any profile's playback state says so: a song downloads in a
+ * few seconds, so stream activity alone would leave most of each track unthrottled. Video
+ * streams report themselves through {@link #track} and HLS segment fetches through
+ * {@link #noteActivity}. With nothing playing every priority may use the whole budget; while
+ * music plays bulk work is cut back, and while video plays (or music plays on a saturated CPU)
+ * bulk work pauses and scans continue one task at a time. The ceilings apply to the total number
+ * of permits in use, so higher priorities always have room left over from lower ones.
+ */
+@ApplicationScoped
+public class BackgroundWorkGovernor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundWorkGovernor.class);
+
+    public enum Resource {
+        IO, CPU
+    }
+
+    public enum Priority {
+        /** Work a user is waiting for, such as a single requested thumbnail */
+        HIGH,
+        /** Library scans and metadata enrichment */
+        NORMAL,
+        /** Catch-up work nobody is waiting for */
+        BULK
+    }
+
+    public enum Activity {
+        AUDIO, VIDEO
+    }
+
+    public enum Level {
+        OPEN, THROTTLED, MINIMAL
+    }
+
+    /** Video counts as playing for this long after its last byte or HLS segment, bridging requests. */
+    private static final long ACTIVITY_GRACE_NANOS = TimeUnit.SECONDS.toNanos(20);
+    /** CPU load above which playback is considered contended. */
+    private static final double HIGH_LOAD = 0.9;
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final Map<Resource, Integer> CAPACITY = Map.of(
+            Resource.IO, Math.max(2, CORES / 2),
+            Resource.CPU, Math.max(1, CORES));
+
+    @ConfigProperty(name = "jmedia.governor.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    Instance<PlaybackController> playbackController;
+
+    private final Map<Activity, AtomicInteger> activeStreams = new EnumMap<>(Activity.class);
+    private final Map<Activity, AtomicLong> lastActivity = new EnumMap<>(Activity.class);
+    private final Map<Resource, Integer> inUse = new EnumMap<>(Resource.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private volatile double cpuLoad;
+    private volatile Level level = Level.OPEN;
+
+    public BackgroundWorkGovernor() {
+        for (Activity activity : Activity.values()) {
+            activeStreams.put(activity, new AtomicInteger());
+            lastActivity.put(activity, new AtomicLong(System.nanoTime() - ACTIVITY_GRACE_NANOS));
+        }
+        for (Resource resource : Resource.values()) {
+            inUse.put(resource, 0);
+        }
+    }
+
+    /**
+     * A held permit; close it when the work is done.
+     */
+    public final class Permit implements AutoCloseable {
+        private final Resource resource;
+        private boolean closed;
+
+        private Permit(Resource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    inUse.merge(resource, -1, Integer::sum);
+                    released.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ========== PLAYBACK ==========
+
+    /**
+     * Count a stream as playing while its body is written.
+     */
+    public StreamingOutput track(Activity activity, StreamingOutput body) {
+        return output -> {
+            activeStreams.get(activity).incrementAndGet();
+            noteActivity(activity);
+            try {
+                body.write(output);
+            } finally {
+                activeStreams.get(activity).decrementAndGet();
+                noteActivity(activity);
+            }
+        };
+    }
+
+    /**
+     * Mark video playback as ongoing for requests that are not streamed through {@link #track},
+     * such as HLS segments.
+     */
+    public void noteActivity(Activity activity) {
+        lastActivity.get(activity).set(System.nanoTime());
+        updateLevel();
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    // ========== PERMITS ==========
+
+    /**
+     * Block until the current level leaves room for work of this priority.
+     */
+    public Permit acquire(Resource resource, Priority priority) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inUse.get(resource) >= ceiling(resource, priority, level)) {
+                // Timed wait so a level change with no release is noticed
+                released.await(1, TimeUnit.SECONDS);
+                updateLevel();
+            }
+            inUse.merge(resource, 1, Integer::sum);
+            return new Permit(resource);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executor running each task of {@code delegate} under a permit, for pools feeding an
+     * ExecutorCompletionService.
+     */
+    public Executor governed(Executor delegate, Resource resource, Priority priority) {
+        return task -> delegate.execute(() -> {
+            try (Permit permit = acquire(resource, priority)) {
+                task.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Never run without a permit; cancel so a waiting completion service sees the task end
+                if (task instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            }
+        });
+    }
+
+    private int ceiling(Resource resource, Priority priority, Level current) {
+        int capacity = CAPACITY.get(resource);
+        return switch (current) {
+            case OPEN -> capacity;
+            case THROTTLED -> switch (priority) {
+                case HIGH -> capacity;
+                case NORMAL -> Math.max(1, capacity / 2);
+                case BULK -> 1;
+            };
+            case MINIMAL -> switch (priority) {
+                case HIGH -> Math.max(1, capacity / 2);
+                case NORMAL -> 1;
+                case BULK -> 0;
+            };
+        };
+    }
+
+    // ========== LEVEL ==========
+
+    @Scheduled(every = "2s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sampleLoad() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        double load = -1;
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            load = sunOs.getCpuLoad();
+        }
+        if (load < 0 && os.getSystemLoadAverage() >= 0) {
+            load = os.getSystemLoadAverage() / CORES;
+        }
+        cpuLoad = Math.max(0, load);
+        updateLevel();
+    }
+
+    private void updateLevel() {
+        Level next = computeLevel();
+        if (next == level) {
+            return;
+        }
+        Level previous = level;
+        level = next;
+        LOG.info("Background work level {} -> {}", previous, next);
+        if (next.ordinal() < previous.ordinal()) {
+            lock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Level computeLevel() {
+        if (!enabled) {
+            return Level.OPEN;
+        }
+        if (isPlaying(Activity.VIDEO)) {
+            return Level.MINIMAL;
+        }
+        if (isPlaying(Activity.AUDIO)) {
+            // Background work is what saturates the CPU while only music plays
+            return cpuLoad > HIGH_LOAD ? Level.MINIMAL : Level.THROTTLED;
+        }
+        return Level.OPEN;
+    }
+
+    private boolean isPlaying(Activity activity) {
+        if (activeStreams.get(activity).get() > 0) {
+            return true;
+        }
+        if (activity == Activity.AUDIO) {
+            return playbackController != null && playbackController.isResolvable()
+                    && playbackController.get().isAnyProfilePlaying();
+        }
+        return System.nanoTime() - lastActivity.get(activity).get() < ACTIVITY_GRACE_NANOS;
+    }
+}
@@ -0,0 +1,456 @@
+package Services;
+
+import Controllers.PlaybackController;
+import Controllers.PlaybackController.MixState;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server-side DJ mix: one continuous constant-bitrate stream per profile that follows the
+ * profile's playback, so a phone downloads and decodes a single stream instead of two full
+ * files around every transition.
+ *
+ * Songs are decoded to PCM by ffmpeg and mixed here: a planned DJ transition crossfades with
+ * equal-power curves from its exit point into the next song's entry point, other song changes
+ * use the configured crossfade, and a song that simply ends is joined gaplessly. One encoder
+ * turns the mix into AAC or Opus. The stream acts as the profile's player: it reports
+ * transition starts and song ends to PlaybackController as the browser does, and follows
+ * skips, seeks and pauses made anywhere else. Rendering stays at most {@link #LEAD_SECONDS}
+ * ahead of real time, which bounds how late such changes are heard. A reconnect resumes at the
+ * profile's current position.
+ */
+@ApplicationScoped
+public class DjMixStreamService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DjMixStreamService.class);
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int CHANNELS = 2;
+    private static final int FRAME_BYTES = CHANNELS * Short.BYTES;
+    /** Frames mixed per step (100 ms). */
+    private static final int CHUNK_FRAMES = SAMPLE_RATE / 10;
+    /** How far rendering may run ahead of real time; also the client's start-up buffer. */
+    private static final double LEAD_SECONDS = 2.0;
+    /** Distance from the playback position beyond which the mix seeks to it. */
+    private static final double RESYNC_SECONDS = LEAD_SECONDS + 2.0;
+    /** Short fade for seeks and for song changes without a configured crossfade, to avoid clicks. */
+    private static final double SWITCH_FADE_SECONDS = 0.05;
+    private static final long IDLE_SLEEP_MS = 100;
+
+    public enum Format {
+        AAC("audio/aac", "aac", "160k", "adts"),
+        OPUS("audio/ogg", "libopus", "128k", "ogg");
+
+        private final String mimeType;
+        private final String codec;
+        private final String bitrate;
+        private final String container;
+
+        Format(String mimeType, String codec, String bitrate, String container) {
+            this.mimeType = mimeType;
+            this.codec = codec;
+            this.bitrate = bitrate;
+            this.container = container;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        public static Format fromParam(String value) {
+            return "opus".equalsIgnoreCase(value) ? OPUS : AAC;
+        }
+    }
+
+    @Inject
+    FFmpegDiscoveryService discoveryService;
+
+    @Inject
+    PlaybackController playbackController;
+
+    @Inject
+    MediaMetrics metrics;
+
+    // One live mix per profile: a new connection replaces the previous one
+    private final Map<Long, Mixer> activeMixes = new ConcurrentHashMap<>();
+
+    /**
+     * Stream the profile's mix into output until the client disconnects, another mix for the
+     * profile starts, or playback runs out of songs. songFiles resolves a song id to its file,
+     * or null when it cannot be played.
+     */
+    public void streamMix(Long profileId, Function<Long, File> songFiles, Format format, OutputStream output) throws IOException {
+        String ffmpegPath = discoveryService.findFFmpegExecutable();
+        if (ffmpegPath == null) {
+            throw new IOException("FFmpeg not found");
+        }
+
+        ProcessBuilder pb = new ProcessBuilder(encoderCommand(ffmpegPath, format));
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process encoder = metrics.trackProcess("dj.mix.encode", pb.start());
+
+        Mixer mixer = new Mixer(profileId, ffmpegPath, songFiles, encoder);
+        Mixer previous = activeMixes.put(profileId, mixer);
+        if (previous != null) {
+            previous.stop();
+        }
+        LOG.info("Starting DJ mix stream for profile {} ({})", profileId, format);
+        mixer.start();
+
+        try (InputStream is = encoder.getInputStream()) {
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+                output.flush();
+            }
+        } catch (IOException e) {
+            LOG.debug("DJ mix stream for profile {} closed: {}", profileId, e.getMessage());
+        } finally {
+            activeMixes.remove(profileId, mixer);
+            mixer.stop();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        activeMixes.values().forEach(Mixer::stop);
+        activeMixes.clear();
+    }
+
+    private static List<String> encoderCommand(String ffmpegPath, Format format) {
+        List<String> command = new ArrayList<>(List.of(ffmpegPath, "-hide_banner", "-loglevel", "error",
+                "-f", "s16le", "-ar", String.valueOf(SAMPLE_RATE), "-ac", String.valueOf(CHANNELS), "-i", "pipe:0",
+                "-c:a", format.codec, "-b:a", format.bitrate));
+        if (format == Format.OPUS) {
+            command.add("-vbr");
+            command.add("off");
+        }
+        command.addAll(List.of("-flush_packets", "1", "-f", format.container, "pipe:1"));
+        return command;
+    }
+
+    private static String formatSeconds(double seconds) {
+        return String.format(Locale.ROOT, "%.3f", Math.max(0, seconds));
+    }
+
+    /**
+     * Renders one profile's mix into the encoder's stdin on its own thread.
+     */
+    private final class Mixer implements Runnable {
+
+        private final Long profileId;
+        private final String ffmpegPath;
+        private final Function<Long, File> songFiles;
+        private final Process encoder;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private final short[] outgoingSamples = new short[CHUNK_FRAMES * CHANNELS];
+        private final short[] incomingSamples = new short[CHUNK_FRAMES * CHANNELS];
+        private final byte[] pcm = new byte[CHUNK_FRAMES * FRAME_BYTES];
+
+        // The song being heard, and during a fade the one fading in
+        private Track current;
+        private Track incoming;
+        private long fadeFrames;
+        private long fadePosition;
+        // A song whose file could not be opened; not retried until the state moves on
+        private Long unplayableSongId;
+
+        Mixer(Long profileId, String ffmpegPath, Function<Long, File> songFiles, Process encoder) {
+            this.profileId = profileId;
+            this.ffmpegPath = ffmpegPath;
+            this.songFiles = songFiles;
+            this.encoder = encoder;
+            this.thread = new Thread(this, "dj-mix-" + profileId);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            thread.interrupt();
+            // Also unblocks a write to an encoder nobody reads from any more
+            encoder.destroyForcibly();
+        }
+
+        @Override
+        public void run() {
+            try (OutputStream out = encoder.getOutputStream()) {
+                long writtenFrames = 0;
+                // Seconds of audio that may have been written by now; only grows while playing
+                double budgetSeconds = LEAD_SECONDS;
+                long lastNanos = System.nanoTime();
+
+                while (running) {
+                    MixState state = playbackController.getMixState(profileId);
+                    long now = System.nanoTime();
+                    if (state.songId() == null) {
+                        break; // Nothing left to play; closing stdin ends the stream
+                    }
+                    if (!state.playing()) {
+                        lastNanos = now;
+                        Thread.sleep(IDLE_SLEEP_MS);
+                        continue;
+                    }
+                    budgetSeconds += (now - lastNanos) / 1e9;
+                    lastNanos = now;
+                    double ahead = (double) writtenFrames / SAMPLE_RATE - budgetSeconds;
+                    if (ahead >= 0) {
+                        Thread.sleep(Math.min(IDLE_SLEEP_MS, (long) (ahead * 1000) + 1));
+                        continue;
+                    }
+
+                    follow(state);
+                    int frames = mixChunk(state);
+                    if (frames > 0) {
+                        out.write(pcm, 0, frames * FRAME_BYTES);
+                        writtenFrames += frames;
+                    } else if (current == null && incoming == null) {
+                        // Waiting for the state to move past an unplayable or finished song
+                        Thread.sleep(IDLE_SLEEP_MS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                LOG.debug("DJ mix encoder for profile {} closed: {}", profileId, e.getMessage());
+            } catch (RuntimeException e) {
+                LOG.warn("DJ mix for profile {} failed: {}", profileId, e.getMessage(), e);
+            } finally {
+                closeTracks();
+            }
+        }
+
+        /**
+         * Line the mix up with the playback state: switch songs the state moved to without us
+         * (skip, queue selection, timer advance) and seek when the positions drifted apart.
+         */
+        private void follow(MixState state) throws IOException {
+            Track heard = incoming != null ? incoming : current;
+            if (heard == null || !heard.songId.equals(state.songId())) {
+                if (state.songId().equals(unplayableSongId)) {
+                    // Reached through a transition whose next song failed to open; skip it
+                    playbackController.mixSongEnded(profileId, state.songId());
+                    return;
+                }
+                double fade = heard != null && state.crossfadeSeconds() > 0 ? state.crossfadeSeconds() : SWITCH_FADE_SECONDS;
+                switchTo(state.songId(), state.currentTime(), fade);
+            } else if (Math.abs(heard.position() - state.currentTime()) > RESYNC_SECONDS) {
+                switchTo(state.songId(), state.currentTime(), SWITCH_FADE_SECONDS);
+            }
+        }
+
+        /**
+         * Mix the next chunk into pcm and return its frame count. Starts the planned DJ
+         * transition when the current song reaches its exit point, and reports a song that
+         * ended without one.
+         */
+        private int mixChunk(MixState state) throws IOException {
+            if (current == null) {
+                return 0;
+            }
+
+            int frames = CHUNK_FRAMES;
+            boolean transitionPending = incoming == null && state.hasTransition() && current.songId.equals(state.songId())
+                    && !state.nextSongId().equals(unplayableSongId);
+            if (transitionPending) {
+                long untilExit = Math.round((state.exitTime() - current.position()) * SAMPLE_RATE);
+                if (untilExit <= 0) {
+                    startTransition(state);
+                } else if (untilExit < frames) {
+                    frames = (int) untilExit; // Cut the chunk on the exit beat
+                }
+            }
+
+            int read = current.read(outgoingSamples, frames);
+            if (incoming == null) {
+                if (read < frames) {
+                    Long ended = current.songId;
+                    closeCurrent();
+                    playbackController.mixSongEnded(profileId, ended);
+                }
+                encode(outgoingSamples, read);
+                return read;
+            }
+
+            int readIn = incoming.read(incomingSamples, frames);
+            for (int i = read; i < frames; i++) {
+                outgoingSamples[i * CHANNELS] = 0;
+                outgoingSamples[i * CHANNELS + 1] = 0;
+            }
+            for (int i = readIn; i < frames; i++) {
+                incomingSamples[i * CHANNELS] = 0;
+                incomingSamples[i * CHANNELS + 1] = 0;
+            }
+            // Equal-power curves keep the perceived loudness steady through the fade
+            for (int i = 0; i < frames; i++) {
+                double t = Math.min(1.0, (double) (fadePosition + i) / fadeFrames) * Math.PI / 2;
+                double out = Math.cos(t);
+                double in = Math.sin(t);
+                for (int c = 0; c < CHANNELS; c++) {
+                    int s = i * CHANNELS + c;
+                    outgoingSamples[s] = clip(outgoingSamples[s] * out + incomingSamples[s] * in);
+                }
+            }
+            // An outgoing song that ends early just contributes silence for the rest of the fade
+            fadePosition += frames;
+            if (fadePosition >= fadeFrames) {
+                closeCurrent();
+                current = incoming;
+                incoming = null;
+            }
+            encode(outgoingSamples, frames);
+            return frames;
+        }
+
+        private void startTransition(MixState state) throws IOException {
+            Track next = open(state.nextSongId(), state.entryTime());
+            if (next == null) {
+                unplayableSongId = state.nextSongId();
+                return; // Play the current song out; the state advances past it as usual
+            }
+            startFade(next, Math.max(state.crossfadeSeconds(), SWITCH_FADE_SECONDS));
+            LOG.debug("DJ mix for profile {}: song {} at {}s into song {} at {}s", profileId, current.songId,
+                    formatSeconds(current.position()), next.songId, formatSeconds(state.entryTime()));
+            playbackController.mixTransitionStarted(profileId, current.songId);
+        }
+
+        private void switchTo(Long songId, double positionSeconds, double fadeSeconds) throws IOException {
+            Track next = open(songId, positionSeconds);
+            if (next == null) {
+                unplayableSongId = songId;
+                closeTracks();
+                // Skip it like a song that ended, so playback does not stall on it
+                playbackController.mixSongEnded(profileId, songId);
+                return;
+            }
+            unplayableSongId = null;
+            if (current == null) {
+                current = next;
+                return;
+            }
+            if (incoming != null) {
+                // Changed again mid-fade: fade out of what is loudest now
+                closeCurrent();
+                current = incoming;
+            }
+            startFade(next, fadeSeconds);
+        }
+
+        private void startFade(Track next, double seconds) {
+            incoming = next;
+            fadeFrames = Math.max(1, Math.round(seconds * SAMPLE_RATE));
+            fadePosition = 0;
+        }
+
+        private Track open(Long songId, double positionSeconds) throws IOException {
+            File file = songFiles.apply(songId);
+            if (file == null || !file.isFile()) {
+                LOG.warn("DJ mix for profile {}: song {} has no playable file", profileId, songId);
+                return null;
+            }
+            ProcessBuilder pb = new ProcessBuilder(ffmpegPath, "-hide_banner", "-loglevel", "error", "-nostdin",
+                    "-ss", formatSeconds(positionSeconds), "-i", file.getAbsolutePath(),
+                    "-map", "0:a:0", "-vn", "-ac", String.valueOf(CHANNELS), "-ar", String.valueOf(SAMPLE_RATE),
+                    "-f", "s16le", "pipe:1");
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            return new Track(songId, Math.max(0, positionSeconds), metrics.trackProcess("dj.mix.decode", pb.start()));
+        }
+
+        private void encode(short[] samples, int frames) {
+            ByteBuffer.wrap(pcm, 0, frames * FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .asShortBuffer().put(samples, 0, frames * CHANNELS);
+        }
+
+        private void closeCurrent() {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+
+        private void closeTracks() {
+            closeCurrent();
+            if (incoming != null) {
+                incoming.close();
+                incoming = null;
+            }
+        }
+    }
+
+    private static short clip(double sample) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample)));
+    }
+
+    /**
+     * One song decoded to interleaved 16-bit PCM from a start position.
+     */
+    private static final class Track {
+
+        final Long songId;
+        private final double startSeconds;
+        private final Process process;
+        private final InputStream in;
+        private final byte[] bytes = new byte[CHUNK_FRAMES * FRAME_BYTES];
+        private long framesRead;
+
+        Track(Long songId, double startSeconds, Process process) {
+            this.songId = songId;
+            this.startSeconds = startSeconds;
+            this.process = process;
+            this.in = process.getInputStream();
+        }
+
+        double position() {
+            return startSeconds + (double) framesRead / SAMPLE_RATE;
+        }
+
+        /**
+         * Read up to frames frames; fewer means the song ended.
+         */
+        int read(short[] samples, int frames) throws IOException {
+            int wanted = frames * FRAME_BYTES;
+            int got = 0;
+            while (got < wanted) {
+                int r = in.read(bytes, got, wanted - got);
+                if (r < 0) {
+                    break;
+                }
+                got += r;
+            }
+            int read = got / FRAME_BYTES;
+            ByteBuffer.wrap(bytes, 0, read * FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .asShortBuffer().get(samples, 0, read * CHANNELS);
+            framesRead += read;
+            return read;
+        }
+
+        void close() {
+            process.destroyForcibly();
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -18,7 +18,12 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.concurrent.ExecutorService;
@@ -44,10 +49,16 @@ public class DownloadService {
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    LibraryOwnershipIndex ownershipIndex;
+
     private final ExecutorService downloadExecutor = Executors.newSingleThreadExecutor();
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private volatile Process currentProcess;
+    // Downloader processes of all concurrent downloads, so a cancel stops every one of them
+    private final Set<Process> activeProcesses = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean isCancelled = new AtomicBoolean(false);
+    // A rate limit hit by one download pauses every download from that source until it expires
+    private final Map<RateLimitSource, AtomicLong> pausedUntilNanos = new ConcurrentHashMap<>();
 
     // Rate limit information class
     private static class RateLimitInfo {
@@ -78,6 +89,14 @@ public class DownloadService {
         public String getDescription() { return description; }
     }
     
+    /**
+     * Notified as downloaded files become complete on disk, while the download is still running.
+     */
+    @FunctionalInterface
+    public interface DownloadListener {
+        void fileReady(String filename);
+    }
+
     // Download strategy class
     private static class DownloadStrategy {
         private final Settings.DownloadSource source;
@@ -129,6 +148,18 @@ public class DownloadService {
      */
     public DownloadResult download(String url, String format, Integer downloadThreads, Integer searchThreads,
             String downloadPath, Long profileId) throws Exception {
+        return download(url, format, downloadThreads, searchThreads, downloadPath, profileId, null);
+    }
+
+    /**
+     * Downloads media from URL, reporting each file to {@code listener} as soon as it is complete
+     * so it can be imported while the rest of the download continues. Safe to call from several
+     * threads at once; rate limits hit by one call pause the others using the same source.
+     *
+     * @param listener notified per finished file, may be null
+     */
+    public DownloadResult download(String url, String format, Integer downloadThreads, Integer searchThreads,
+            String downloadPath, Long profileId, DownloadListener listener) throws Exception {
 
         AtomicBoolean isDownloading = new AtomicBoolean(false);
         DownloadResult result = new DownloadResult();
@@ -138,6 +169,17 @@ public class DownloadService {
         }
 
         try {
+            // Don't start a downloader for a search we already own. Exact names only: a fuzzy
+            // match would skip "Song (Live)" because we have "Song"
+            if (isSongSearchQuery(url)) {
+                Long ownedId = ownershipIndex.findExactByQuery(url);
+                if (ownedId != null) {
+                    broadcast("⏭️ Already in library, skipping download: " + url + "\n", profileId);
+                    result.addOwnedSong(ownedId);
+                    return result;
+                }
+            }
+
             // Get current settings for smart configuration
             Settings settings = settingsService.getSettingsOrNull();
             if (settings == null) {
@@ -148,7 +190,7 @@ public class DownloadService {
 
             // Use new smart routing logic
             return executeDownloadWithRetry(url, format, downloadThreads, searchThreads, 
-                                       Paths.get(downloadPath), profileId, settings);
+                                       Paths.get(downloadPath), profileId, settings, listener);
         } finally {
             isDownloading.set(false);
         }
@@ -156,9 +198,11 @@ public class DownloadService {
 
     public void cancelDownload() {
         isCancelled.set(true);
-        if (currentProcess != null && currentProcess.isAlive()) {
-            currentProcess.destroyForcibly();
-            LOGGER.info("Download process forcibly terminated");
+        for (Process process : activeProcesses) {
+            if (process.isAlive()) {
+                process.destroyForcibly();
+                LOGGER.info("Download process forcibly terminated");
+            }
         }
     }
 
@@ -175,7 +219,7 @@ public class DownloadService {
      */
     private void parseDownloadLine(String line, DownloadResult result, Long profileId) {
         result.appendOutput(line + "\n");
-        lastOutputCache += line + "\n";
+        lastOutputCache.append(line).append("\n");
         broadcast(line + "\n", profileId);
 
         String title = null;
@@ -221,6 +265,8 @@ public class DownloadService {
             if (spotdlMatcher.find()) {
                 String filename = spotdlMatcher.group(1);
                 result.addDownloadedFile(sanitizeFilename(filename));
+                // SpotDL reports a song once its file is written and tagged
+                result.publishDownloadedFiles();
             } else {
                 Matcher ytdlpMatcher = YTDLP_MERGING_PATTERN.matcher(line);
                 if (ytdlpMatcher.find()) {
@@ -490,7 +536,8 @@ public class DownloadService {
      * Executes download with intelligent retry and source switching.
      */
     private DownloadResult executeDownloadWithRetry(String url, String format, Integer downloadThreads,
-            Integer searchThreads, Path downloadPath, Long profileId, Settings settings) throws Exception {
+            Integer searchThreads, Path downloadPath, Long profileId, Settings settings,
+            DownloadListener listener) throws Exception {
         
         DownloadStrategy strategy = determineDownloadStrategy(url, settings);
         DownloadResult result = new DownloadResult();
@@ -508,7 +555,7 @@ public class DownloadService {
             
             // Execute download with current source
             result = executeSingleDownload(url, format, downloadThreads, searchThreads, 
-                                         downloadPath, profileId, currentSource);
+                                         downloadPath, profileId, currentSource, listener);
 
             // Check if cancelled after download
             if (isCancelled.get()) {
@@ -566,11 +613,17 @@ public class DownloadService {
      */
     private DownloadResult executeSingleDownload(String url, String format, Integer downloadThreads,
             Integer searchThreads, Path downloadPath, Long profileId, 
-            Settings.DownloadSource source) throws Exception {
+            Settings.DownloadSource source, DownloadListener listener) throws Exception {
         
         DownloadResult result = new DownloadResult();
         result.setDownloadSource(source == Settings.DownloadSource.YOUTUBE ? 
                              DownloadSource.YOUTUBE : DownloadSource.SPOTDL);
+        result.setListener(listener);
+
+        awaitSourceAvailable(rateLimitSourceOf(source), profileId);
+        if (isCancelled.get()) {
+            return result;
+        }
 
         List<String> command = buildDownloadCommand(url, format, downloadThreads, 
                                                 searchThreads, downloadPath, profileId);
@@ -581,24 +634,31 @@ public class DownloadService {
         processBuilder.environment().put("PYTHONIOENCODING", "utf-8");
         processBuilder.redirectErrorStream(true);
 
-        currentProcess = processBuilder.start();
+        Process process = processBuilder.start();
+        activeProcesses.add(process);
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(currentProcess.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (isCancelled.get()) {
-                    broadcast("Download cancelled.\n", profileId);
-                    currentProcess.destroyForcibly();
-                    return result;
+        int exitCode;
+        try {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (isCancelled.get()) {
+                        broadcast("Download cancelled.\n", profileId);
+                        process.destroyForcibly();
+                        return result;
+                    }
+                    parseDownloadLine(line, result, profileId);
                 }
-                parseDownloadLine(line, result, profileId);
             }
+            exitCode = process.waitFor();
+        } finally {
+            activeProcesses.remove(process);
         }
-
-        int exitCode = currentProcess.waitFor();
-        currentProcess = null;
         broadcast("Process finished with exit code: " + exitCode + "\n", profileId);
 
+        // yt-dlp names its output before post-processing ends; the files are complete now
+        result.publishDownloadedFiles();
+
         return result;
     }
 
@@ -754,7 +814,32 @@ public class DownloadService {
         broadcast("⏱️ " + rateLimitInfo.getSource().getDescription() + 
                  " detected. Waiting " + waitTimeSeconds + " seconds before retry...\n", profileId);
         
-        Thread.sleep(waitTimeMs);
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeMs);
+        pausedUntilNanos.computeIfAbsent(rateLimitInfo.getSource(), k -> new AtomicLong())
+                .accumulateAndGet(until, Math::max);
+        awaitSourceAvailable(rateLimitInfo.getSource(), profileId);
+    }
+
+    /**
+     * Blocks while another download's rate limit on this source is still in effect.
+     */
+    private void awaitSourceAvailable(RateLimitSource source, Long profileId) throws InterruptedException {
+        AtomicLong pausedUntil = pausedUntilNanos.get(source);
+        if (pausedUntil == null) {
+            return;
+        }
+        long remaining = pausedUntil.get() - System.nanoTime();
+        if (remaining > 0 && !isCancelled.get()) {
+            broadcast("⏸️ " + source.getDescription() + " in effect, waiting " + TimeUnit.NANOSECONDS.toSeconds(remaining) + " seconds...\n", profileId);
+        }
+        while ((remaining = pausedUntil.get() - System.nanoTime()) > 0 && !isCancelled.get()) {
+            // Short sleeps so a cancel is noticed
+            Thread.sleep(Math.min(TimeUnit.NANOSECONDS.toMillis(remaining) + 1, 1000));
+        }
+    }
+
+    private static RateLimitSource rateLimitSourceOf(Settings.DownloadSource source) {
+        return source == Settings.DownloadSource.SPOTDL ? RateLimitSource.SPOTDL : RateLimitSource.YOUTUBE;
     }
 
     /**
@@ -1075,13 +1160,13 @@ public class DownloadService {
         importStatusSocket.broadcast(message, profileId);
     }
 
-    private String lastOutputCache = "";
+    private final StringBuffer lastOutputCache = new StringBuffer();
 
     /**
      * Gets the last output cache for backward compatibility.
      */
     public String getLastOutputCache() {
-        return lastOutputCache;
+        return lastOutputCache.toString();
     }
 
     public enum DownloadSource {
@@ -1095,8 +1180,11 @@ public class DownloadService {
 
         private final List<String> downloadedFiles = Collections.synchronizedList(new ArrayList<>());
         private final List<String[]> skippedSongs = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> ownedSongIds = Collections.synchronizedList(new ArrayList<>());
         private final StringBuilder outputCache = new StringBuilder();
         private DownloadSource downloadSource;
+        private DownloadListener listener;
+        private int publishedFiles;
 
         public DownloadSource getDownloadSource() {
             return downloadSource;
@@ -1114,6 +1202,29 @@ public class DownloadService {
             skippedSongs.add(artistTitle);
         }
 
+        void setListener(DownloadListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Hands files added since the last call to the listener.
+         */
+        void publishDownloadedFiles() {
+            if (listener == null) {
+                return;
+            }
+            List<String> ready;
+            synchronized (downloadedFiles) {
+                ready = new ArrayList<>(downloadedFiles.subList(publishedFiles, downloadedFiles.size()));
+                publishedFiles = downloadedFiles.size();
+            }
+            ready.forEach(listener::fileReady);
+        }
+
+        public void addOwnedSong(Long songId) {
+            ownedSongIds.add(songId);
+        }
+
         public void appendOutput(String output) {
             outputCache.append(output);
         }
@@ -1126,6 +1237,13 @@ public class DownloadService {
             return new ArrayList<>(skippedSongs);
         }
 
+        /**
+         * Library songs that matched the request, so nothing was downloaded for them.
+         */
+        public List<Long> getOwnedSongIds() {
+            return new ArrayList<>(ownedSongIds);
+        }
+
         public StringBuilder getOutputCache() {
             return outputCache;
         }
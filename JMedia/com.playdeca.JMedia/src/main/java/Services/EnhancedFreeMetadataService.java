@@ -4,8 +4,8 @@ import com.playdeca.jmedia.service.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.smallrye.faulttolerance.api.CircuitBreakerName;
-import io.smallrye.faulttolerance.api.RateLimit;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.faulttolerance.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,9 +27,8 @@ public class EnhancedFreeMetadataService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EnhancedFreeMetadataService.class);
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    @Inject
+    MetadataHttpCache httpCache;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -81,10 +80,7 @@ public class EnhancedFreeMetadataService {
 
             // Primary: MusicBrainz search with retries
             try {
-                // MusicBrainz allows only 1 request per second. 
-                // Adding a small sleep here to prevent rate limiting during batch processing.
-                try { Thread.sleep(1100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
-                
+                // MusicBrainz allows only 1 request per second; MetadataHttpCache paces uncached requests
                 Optional<MusicBrainzData> mbResult = searchMusicBrainz(parsedArtist, parsedTitle);
                 if (mbResult.isPresent()) {
                     mergeMusicBrainzResult(result, mbResult.get());
@@ -200,7 +196,6 @@ public class EnhancedFreeMetadataService {
             retryOn = {Exception.class}
     )
     @Timeout(value = 25, unit = ChronoUnit.SECONDS)
-    @RateLimit(value = 1, window = 1, windowUnit = ChronoUnit.SECONDS)
     public Optional<MusicBrainzData> searchMusicBrainz(String artist, String title) throws ApiException {
         long startTime = System.currentTimeMillis();
 
@@ -229,9 +224,10 @@ public class EnhancedFreeMetadataService {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = httpClient.send(
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(
+                    MetadataHttpCache.Provider.MUSICBRAINZ,
                     request,
-                    HttpResponse.BodyHandlers.ofString()
+                    MetadataHttpCache.emptyJsonArray("recordings")
             );
 
             LOGGER.debug(
@@ -321,8 +317,8 @@ public class EnhancedFreeMetadataService {
                         .GET()
                         .build();
 
-                HttpResponse<String> response = httpClient.send(request,
-                        HttpResponse.BodyHandlers.ofString());
+                MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.DEEZER,
+                        request, MetadataHttpCache.emptyJsonArray("data"));
 
                 long responseTime = System.currentTimeMillis() - startTime;
                 LOGGER.debug("Deezer query '{}' response time: {}ms, status: {}", query, responseTime, response.statusCode());
@@ -375,7 +371,6 @@ public class EnhancedFreeMetadataService {
             jitter = 100
     )
     @Timeout(value = 20, unit = ChronoUnit.SECONDS)
-    @RateLimit(value = 2, window = 1, windowUnit = ChronoUnit.SECONDS)
     public Optional<TheAudioDbData> searchTheAudioDb(String artist, String title) throws ApiException {
         long startTime = System.currentTimeMillis();
 
@@ -391,8 +386,8 @@ public class EnhancedFreeMetadataService {
                     .GET()
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.THEAUDIODB,
+                    request, MetadataHttpCache.nullOrEmptyJsonArray("track"));
 
             long responseTime = System.currentTimeMillis() - startTime;
             LOGGER.debug("TheAudioDB response time: {}ms, status: {}", responseTime, response.statusCode());
@@ -6,7 +6,6 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.regex.Pattern;
 
 @ApplicationScoped
@@ -37,9 +36,6 @@ public class EnhancedSubtitleMatcher {
         Map.entry("zh", new LanguageInfo("chi", "zh", "中文"))
     );
     
-    // Supported subtitle formats
-    private static final List<String> SUPPORTED_FORMATS = List.of("srt", "vtt", "ass", "ssa");
-    
     // Language tag patterns
     private static final Pattern LANGUAGE_PATTERN = Pattern.compile("^[a-zA-Z]{2,3}$|^forced$|^sdh$");
     private static final Pattern FORCED_PATTERN = Pattern.compile("(?i)forced|\\.forced");
@@ -48,12 +44,46 @@ public class EnhancedSubtitleMatcher {
     
     @Inject
     FFprobeSubtitleService ffprobeSubtitleService;
+    
+    @Inject
+    SubtitleSidecarIndex sidecarIndex;
 
     public List<SubtitleTrack> discoverSubtitleTracks(Path videoPath, Video video) {
+        Path videoDir = videoPath.getParent();
+        List<SubtitleSidecarIndex.Sidecar> sidecars = videoDir != null ? sidecarIndex.list(videoDir) : List.of();
+        return discoverSubtitleTracks(videoPath, video, sidecars);
+    }
+    
+    /**
+     * Discover tracks for many videos, listing each directory's subtitle files once and matching
+     * every video of that directory against the same listing.
+     *
+     * @return tracks by video id
+     */
+    public Map<Long, List<SubtitleTrack>> discoverSubtitleTracks(List<Video> videos) {
+        Map<Path, List<Video>> byDirectory = new LinkedHashMap<>();
+        for (Video video : videos) {
+            Path videoDir = Path.of(video.path).getParent();
+            if (videoDir != null) {
+                byDirectory.computeIfAbsent(videoDir, dir -> new ArrayList<>()).add(video);
+            }
+        }
+        
+        Map<Long, List<SubtitleTrack>> result = new HashMap<>();
+        byDirectory.forEach((videoDir, directoryVideos) -> {
+            List<SubtitleSidecarIndex.Sidecar> sidecars = sidecarIndex.list(videoDir);
+            for (Video video : directoryVideos) {
+                result.put(video.id, discoverSubtitleTracks(Path.of(video.path), video, sidecars));
+            }
+        });
+        return result;
+    }
+    
+    private List<SubtitleTrack> discoverSubtitleTracks(Path videoPath, Video video, List<SubtitleSidecarIndex.Sidecar> sidecars) {
         List<SubtitleTrack> tracks = new ArrayList<>();
         
         // 1. External subtitle discovery
-        tracks.addAll(discoverExternalSubtitles(videoPath, video));
+        tracks.addAll(matchExternalSubtitles(videoPath, video, sidecars));
 
         // 2. Internal subtitle discovery
         try {
@@ -79,74 +109,42 @@ public class EnhancedSubtitleMatcher {
             return tracks;
         }
         
-        try (java.util.stream.Stream<Path> stream = Files.walk(videoDir, 3)) {
-            List<Path> subtitleFiles = stream
-                .filter(Files::isRegularFile)
-                .filter(this::isSubtitleFile)
-                .collect(Collectors.toList());
+        for (SubtitleSidecarIndex.Sidecar sidecar : sidecarIndex.list(videoDir)) {
+            String filename = sidecar.filename();
             
-            for (Path subtitleFile : subtitleFiles) {
-                String filename = subtitleFile.getFileName().toString();
-                String fullPath = subtitleFile.toString();
-                String format = getFileExtension(filename);
-                long fileSize = Files.size(subtitleFile);
-                
-                SubtitleTrack tempTrack = new SubtitleTrack();
-                extractLanguageAndTags(filename, tempTrack);
-                
-                tracks.add(new Models.DTOs.LocalSubtitleFile(
-                    filename,
-                    fullPath,
-                    tempTrack.languageName,
-                    format,
-                    fileSize
-                ));
-            }
-        } catch (Exception e) {
-            System.err.println("Error scanning all subtitle files recursively: " + e.getMessage());
+            SubtitleTrack tempTrack = new SubtitleTrack();
+            extractLanguageAndTags(filename, tempTrack);
+            
+            tracks.add(new Models.DTOs.LocalSubtitleFile(
+                filename,
+                sidecar.path().toString(),
+                tempTrack.languageName,
+                getFileExtension(filename),
+                sidecar.size()
+            ));
         }
         
         return tracks;
     }
 
-    private List<SubtitleTrack> discoverExternalSubtitles(Path videoPath, Video video) {
+    private List<SubtitleTrack> matchExternalSubtitles(Path videoPath, Video video, List<SubtitleSidecarIndex.Sidecar> sidecars) {
         List<SubtitleTrack> tracks = new ArrayList<>();
-        Path videoDir = videoPath.getParent();
-        String videoFilename = videoPath.getFileName().toString();
-        String videoBasename = getBasename(videoFilename);
-        
-        if (videoDir == null || !Files.exists(videoDir)) {
-            return tracks;
-        }
+        String videoBasename = getBasename(videoPath.getFileName().toString());
         
-        // Use Files.walk to recursively search for subtitles (depth 3 covers most "Subs/" or "Lang/" folder structures)
-        try (java.util.stream.Stream<Path> stream = Files.walk(videoDir, 3)) {
-            List<Path> subtitleFiles = stream
-                .filter(Files::isRegularFile)
-                .filter(this::isSubtitleFile)
-                .collect(Collectors.toList());
-            
-            for (Path subtitleFile : subtitleFiles) {
-                SubtitleTrack track = createTrackFromFile(subtitleFile, videoBasename, video);
-                if (track != null) {
-                    tracks.add(track);
-                }
+        // The index covers the video folder to depth 3, which includes most "Subs/" or "Lang/" folder structures
+        for (SubtitleSidecarIndex.Sidecar sidecar : sidecars) {
+            SubtitleTrack track = createTrackFromFile(sidecar, videoBasename, video);
+            if (track != null) {
+                tracks.add(track);
             }
-        } catch (Exception e) {
-            System.err.println("Error discovering subtitle files recursively: " + e.getMessage());
         }
         
         return tracks;
     }
     
-    private boolean isSubtitleFile(Path path) {
-        String filename = path.getFileName().toString().toLowerCase();
-        return SUPPORTED_FORMATS.stream().anyMatch(format -> filename.endsWith("." + format));
-    }
-    
-    private SubtitleTrack createTrackFromFile(Path subtitleFile, String videoBasename, Video video) {
+    private SubtitleTrack createTrackFromFile(SubtitleSidecarIndex.Sidecar sidecar, String videoBasename, Video video) {
         try {
-            String filename = subtitleFile.getFileName().toString();
+            String filename = sidecar.filename();
             String format = getFileExtension(filename);
             
             // Check if this subtitle belongs to the video
@@ -156,10 +154,10 @@ public class EnhancedSubtitleMatcher {
             
             SubtitleTrack track = new SubtitleTrack();
             track.filename = filename;
-            track.fullPath = subtitleFile.toString();
+            track.fullPath = sidecar.path().toString();
             track.format = format;
             track.video = video;
-            track.fileSize = Files.size(subtitleFile);
+            track.fileSize = sidecar.size();
             track.isEmbedded = false;
             
             // Extract language and special tags
@@ -189,7 +189,7 @@ public class FFprobeSubtitleService {
             throw new IOException("FFmpeg not found");
         }
 
-        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
         Path baseFilePath = Paths.get(track.video.path);
         Path filePath = baseFilePath.isAbsolute() ? baseFilePath : Paths.get(videoLibraryPath, track.video.path);
 
@@ -252,7 +252,7 @@ public class FFprobeSubtitleService {
             throw new IOException("FFmpeg not found");
         }
 
-        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
         Path baseFilePath = Paths.get(track.video.path);
         Path filePath = baseFilePath.isAbsolute() ? baseFilePath : Paths.get(videoLibraryPath, track.video.path);
 
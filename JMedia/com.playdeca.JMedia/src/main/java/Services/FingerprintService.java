@@ -0,0 +1,544 @@
+package Services;
+
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Acoustic fingerprints for duplicate detection, independent of tags and encoding.
+ *
+ * A fingerprint is a sequence of 32-bit sub-fingerprints (Haitsma/Kalker style) built from
+ * the FFT frames of the analysis pass: each bit is the sign of the energy difference between
+ * adjacent frequency bands, compared to the previous block. Re-encodes and bitrate changes flip
+ * only a small fraction of bits, so two files are the same recording when the bit error rate
+ * over their aligned overlap is low.
+ *
+ * All fingerprints are held in memory with an inverted index on the top 16 bits of each
+ * sub-fingerprint. A lookup votes on (song, time offset) pairs from exact key hits and only
+ * verifies the best few candidates bit by bit, so checking a new import takes milliseconds and
+ * a library-wide duplicate scan is one pass over the index.
+ */
+@Startup
+@ApplicationScoped
+public class FingerprintService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FingerprintService.class);
+
+    // Extraction parameters, tied to the analysis pass (44.1 kHz, 1024-sample frames, no overlap)
+    private static final int SAMPLE_RATE = 44100;
+    private static final int FRAME_SIZE = 1024;
+    private static final int BANDS = 33;
+    private static final double LOW_HZ = 300;
+    private static final double HIGH_HZ = 5000;
+    // Blocks are 4 frames wide and advance one frame at a time, so a whole-frame shift between
+    // two files is an exact block offset
+    private static final int FRAMES_PER_BLOCK = 4;
+    // ~15 s of audio after leading silence
+    public static final int MAX_HASHES = 640;
+    private static final double SILENCE_ENERGY = 1e-3;
+    private static final int[] BAND_EDGES = bandEdges();
+
+    // Matching parameters
+    private static final double MAX_BER = 0.35;
+    private static final int MIN_OVERLAP_BLOCKS = 64;
+    private static final int MIN_VOTES = 3;
+    private static final int MAX_VERIFIED_CANDIDATES = 32;
+    private static final int KEY_BITS = 16;
+    private static final int POSITION_BITS = 11;
+    private static final int INDEX_STRIDE = 2;
+    // Keys this many times more common than average (silence, steady tones) carry no information
+    private static final int FREQUENT_KEY_FACTOR = 16;
+
+    /** Matches at or above this confidence are reported as duplicates */
+    public static final double DUPLICATE_CONFIDENCE = 0.3;
+    /**
+     * Matches at or above this confidence may be deleted once the user confirms. Sub-fingerprints
+     * come from non-overlapping analysis frames, so only near-identical prints (bit error rate
+     * around 7% or lower) are trusted this far.
+     */
+    public static final double DELETE_CONFIDENCE = 0.8;
+
+    public record Match(Long songId, double confidence, int offsetBlocks) {}
+
+    public record DuplicateGroup(List<Long> songIds, double confidence) {}
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Rows [0, size) are live
+    private long[] songIds = new long[1024];
+    private int[] durations = new int[1024];
+    private int[][] prints = new int[1024][];
+    private int size;
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    // CSR inverted index: postings[keyStart[k] .. keyStart[k + 1]) = row << POSITION_BITS | position
+    private int[] keyStart = new int[(1 << KEY_BITS) + 1];
+    private int[] postings = new int[0];
+    private int frequentKeyLimit;
+    private volatile boolean indexDirty = true;
+
+    /**
+     * Incremental sub-fingerprint builder fed with the magnitude spectrum of each analysis frame.
+     */
+    public static final class Extractor {
+
+        private final double[][] ring = new double[FRAMES_PER_BLOCK][BANDS];
+        private final int[] hashes = new int[MAX_HASHES];
+        private double[] previousBlock;
+        private boolean started;
+        private int frames;
+        private int count;
+
+        public void accept(float[] magnitudes) {
+            if (count >= MAX_HASHES || magnitudes.length < BAND_EDGES[BANDS]) {
+                return;
+            }
+            double[] bands = ring[frames % FRAMES_PER_BLOCK];
+            double total = 0;
+            for (int b = 0; b < BANDS; b++) {
+                double energy = 0;
+                for (int k = BAND_EDGES[b]; k < BAND_EDGES[b + 1]; k++) {
+                    energy += (double) magnitudes[k] * magnitudes[k];
+                }
+                bands[b] = energy;
+                total += energy;
+            }
+            // Skip leading silence so files with different padding line up
+            if (!started) {
+                if (total < SILENCE_ENERGY) {
+                    return;
+                }
+                started = true;
+            }
+            frames++;
+            if (frames < FRAMES_PER_BLOCK) {
+                return;
+            }
+
+            double[] block = new double[BANDS];
+            for (double[] frame : ring) {
+                for (int b = 0; b < BANDS; b++) {
+                    block[b] += frame[b];
+                }
+            }
+            if (previousBlock != null) {
+                int hash = 0;
+                for (int m = 0; m < BANDS - 1; m++) {
+                    double delta = (block[m] - block[m + 1]) - (previousBlock[m] - previousBlock[m + 1]);
+                    if (delta > 0) {
+                        hash |= 1 << (31 - m);
+                    }
+                }
+                hashes[count++] = hash;
+            }
+            previousBlock = block;
+        }
+
+        public boolean isFull() {
+            return count >= MAX_HASHES;
+        }
+
+        public int[] finish() {
+            return Arrays.copyOf(hashes, count);
+        }
+    }
+
+    // --- Encoding ---
+
+    public static byte[] encode(int[] fingerprint) {
+        ByteBuffer buffer = ByteBuffer.allocate(fingerprint.length * Integer.BYTES);
+        buffer.asIntBuffer().put(fingerprint);
+        return buffer.array();
+    }
+
+    public static int[] decode(byte[] data) {
+        if (data == null) {
+            return new int[0];
+        }
+        IntBuffer ints = ByteBuffer.wrap(data).asIntBuffer();
+        int[] fingerprint = new int[ints.remaining()];
+        ints.get(fingerprint);
+        return fingerprint;
+    }
+
+    // --- Loading and sync ---
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        reload();
+    }
+
+    /**
+     * Rebuild the index from a single projection query over analyzed songs.
+     */
+    @Transactional
+    public void reload() {
+        List<Object[]> rows = em.createQuery(
+                "SELECT a.song.id, a.song.durationSeconds, a.fingerprint FROM SongAnalysis a WHERE a.fingerprint IS NOT NULL",
+                Object[].class)
+                .getResultList();
+
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            for (Object[] row : rows) {
+                upsertRow((Long) row[0], row[1] == null ? 0 : ((Number) row[1]).intValue(), decode((byte[]) row[2]));
+            }
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Fingerprint index loaded with {} songs", rows.size());
+    }
+
+    public void upsert(Long songId, int durationSeconds, int[] fingerprint) {
+        if (songId == null || fingerprint == null || fingerprint.length == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            upsertRow(songId, durationSeconds, fingerprint);
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long songId) {
+        if (songId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(songId);
+            if (row == null) {
+                return;
+            }
+            int last = size - 1;
+            if (row != last) {
+                songIds[row] = songIds[last];
+                durations[row] = durations[last];
+                prints[row] = prints[last];
+                rowById.put(songIds[row], row);
+            }
+            prints[last] = null;
+            size--;
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        if (ids != null) {
+            ids.forEach(this::remove);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(prints, 0, size, null);
+            size = 0;
+            rowById.clear();
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long songId) {
+        lock.readLock().lock();
+        try {
+            return rowById.containsKey(songId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Lookups ---
+
+    /**
+     * Acoustic duplicates of an indexed song, best match first.
+     */
+    public List<Match> findMatches(Long songId, double minConfidence) {
+        lock.readLock().lock();
+        try {
+            ensureIndex();
+            Integer row = rowById.get(songId);
+            if (row == null) {
+                return new ArrayList<>();
+            }
+            return matchRow(prints[row], durations[row], row, minConfidence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Acoustic duplicates of a fingerprint that may not be indexed yet, e.g. a fresh import.
+     */
+    public List<Match> findMatches(int[] fingerprint, int durationSeconds, Long excludeSongId, double minConfidence) {
+        if (fingerprint == null || fingerprint.length == 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            ensureIndex();
+            Integer excludedRow = excludeSongId == null ? null : rowById.get(excludeSongId);
+            return matchRow(fingerprint, durationSeconds, excludedRow == null ? -1 : excludedRow, minConfidence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Library-wide duplicate scan. Songs linked by matches at or above minConfidence are grouped
+     * together; a group's confidence is its weakest link.
+     */
+    public List<DuplicateGroup> findAllDuplicates(double minConfidence) {
+        long startTime = System.currentTimeMillis();
+        List<DuplicateGroup> groups = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            ensureIndex();
+            int[] parent = new int[size];
+            double[] weakest = new double[size];
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+                weakest[i] = 1.0;
+            }
+            for (int row = 0; row < size; row++) {
+                for (Match match : matchRow(prints[row], durations[row], row, minConfidence)) {
+                    int other = rowById.get(match.songId());
+                    if (other < row) continue; // Each pair once
+                    int a = findRoot(parent, row);
+                    int b = findRoot(parent, other);
+                    double confidence = Math.min(match.confidence(), Math.min(weakest[a], weakest[b]));
+                    if (a != b) {
+                        parent[b] = a;
+                    }
+                    weakest[a] = confidence;
+                }
+            }
+
+            Map<Integer, List<Long>> members = new HashMap<>();
+            for (int row = 0; row < size; row++) {
+                members.computeIfAbsent(findRoot(parent, row), k -> new ArrayList<>()).add(songIds[row]);
+            }
+            for (Map.Entry<Integer, List<Long>> entry : members.entrySet()) {
+                if (entry.getValue().size() > 1) {
+                    groups.add(new DuplicateGroup(entry.getValue(), weakest[entry.getKey()]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        groups.sort(Comparator.comparingDouble(DuplicateGroup::confidence).reversed());
+        LOGGER.info("Fingerprint duplicate scan found {} groups in {} ms", groups.size(), System.currentTimeMillis() - startTime);
+        return groups;
+    }
+
+    // --- Internals ---
+
+    /**
+     * Vote on (row, offset) pairs from exact key hits, then verify the strongest candidates by
+     * bit error rate. Must be called with the read lock held and a fresh index.
+     */
+    private List<Match> matchRow(int[] query, int durationSeconds, int excludedRow, double minConfidence) {
+        int offsetRange = 1 << POSITION_BITS;
+        long[] hits = new long[64];
+        int hitCount = 0;
+        for (int i = 0; i < query.length; i++) {
+            int key = query[i] >>> (32 - KEY_BITS);
+            if (keyStart[key + 1] - keyStart[key] > frequentKeyLimit) continue;
+            for (int p = keyStart[key]; p < keyStart[key + 1]; p++) {
+                int row = postings[p] >>> POSITION_BITS;
+                if (row == excludedRow || !durationsCompatible(durationSeconds, durations[row])) continue;
+                int offset = i - (postings[p] & (offsetRange - 1));
+                if (hitCount == hits.length) {
+                    hits = Arrays.copyOf(hits, hits.length * 2);
+                }
+                hits[hitCount++] = ((long) row << (POSITION_BITS + 1)) | (offset + offsetRange);
+            }
+        }
+        if (hitCount == 0) {
+            return new ArrayList<>();
+        }
+
+        // Count runs of identical (row, offset) pairs
+        Arrays.sort(hits, 0, hitCount);
+        List<long[]> candidates = new ArrayList<>();
+        int run = 1;
+        for (int i = 1; i <= hitCount; i++) {
+            if (i < hitCount && hits[i] == hits[i - 1]) {
+                run++;
+                continue;
+            }
+            if (run >= MIN_VOTES) {
+                candidates.add(new long[]{hits[i - 1], run});
+            }
+            run = 1;
+        }
+        candidates.sort((a, b) -> Long.compare(b[1], a[1]));
+
+        Map<Integer, Match> best = new HashMap<>();
+        int verified = 0;
+        for (long[] candidate : candidates) {
+            if (verified++ >= MAX_VERIFIED_CANDIDATES) break;
+            int row = (int) (candidate[0] >>> (POSITION_BITS + 1));
+            int offset = (int) (candidate[0] & ((1L << (POSITION_BITS + 1)) - 1)) - offsetRange;
+            double confidence = confidence(query, prints[row], offset);
+            if (confidence < minConfidence) continue;
+            Match existing = best.get(row);
+            if (existing == null || existing.confidence() < confidence) {
+                best.put(row, new Match(songIds[row], confidence, offset));
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best.values());
+        matches.sort(Comparator.comparingDouble(Match::confidence).reversed());
+        return matches;
+    }
+
+    /**
+     * 1.0 for identical sub-fingerprints over the overlap, 0.0 at MAX_BER or worse.
+     * query[i] is aligned with candidate[i - offset].
+     */
+    private static double confidence(int[] query, int[] candidate, int offset) {
+        int from = Math.max(0, offset);
+        int to = Math.min(query.length, candidate.length + offset);
+        int overlap = to - from;
+        int required = Math.max(MIN_OVERLAP_BLOCKS, Math.min(query.length, candidate.length) / 2);
+        if (overlap < required) {
+            return 0;
+        }
+        long errors = 0;
+        for (int i = from; i < to; i++) {
+            errors += Integer.bitCount(query[i] ^ candidate[i - offset]);
+        }
+        double ber = errors / (overlap * 32.0);
+        return Math.max(0, (MAX_BER - ber) / MAX_BER);
+    }
+
+    private static boolean durationsCompatible(int a, int b) {
+        if (a <= 0 || b <= 0) {
+            return true;
+        }
+        // Same recording within container/padding differences; rules out radio edits sharing an intro
+        return Math.abs(a - b) <= Math.max(5, Math.max(a, b) / 20);
+    }
+
+    private static int findRoot(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Must be called with the read lock held; rebuilds the index under the write lock when
+     * writes have made it stale.
+     */
+    private void ensureIndex() {
+        if (indexDirty) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (indexDirty) {
+                    rebuildIndex();
+                }
+                lock.readLock().lock(); // Downgrade before releasing the write lock
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        int keys = 1 << KEY_BITS;
+        int[] starts = new int[keys + 1];
+        for (int row = 0; row < size; row++) {
+            int[] print = prints[row];
+            for (int pos = 0; pos < print.length; pos += INDEX_STRIDE) {
+                starts[(print[pos] >>> (32 - KEY_BITS)) + 1]++;
+            }
+        }
+        for (int k = 0; k < keys; k++) {
+            starts[k + 1] += starts[k];
+        }
+        int[] fill = Arrays.copyOf(starts, keys);
+        int[] newPostings = new int[starts[keys]];
+        for (int row = 0; row < size; row++) {
+            int[] print = prints[row];
+            for (int pos = 0; pos < print.length; pos += INDEX_STRIDE) {
+                newPostings[fill[print[pos] >>> (32 - KEY_BITS)]++] = (row << POSITION_BITS) | pos;
+            }
+        }
+        keyStart = starts;
+        postings = newPostings;
+        frequentKeyLimit = Math.max(64, FREQUENT_KEY_FACTOR * newPostings.length / keys);
+        indexDirty = false;
+    }
+
+    private void upsertRow(Long songId, int durationSeconds, int[] fingerprint) {
+        Integer row = rowById.get(songId);
+        if (row == null) {
+            if (size == songIds.length) {
+                int capacity = songIds.length * 2;
+                songIds = Arrays.copyOf(songIds, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+                prints = Arrays.copyOf(prints, capacity);
+            }
+            row = size++;
+            rowById.put(songId, row);
+        }
+        songIds[row] = songId;
+        durations[row] = durationSeconds;
+        prints[row] = fingerprint.length > MAX_HASHES ? Arrays.copyOf(fingerprint, MAX_HASHES) : fingerprint;
+    }
+
+    private static int[] bandEdges() {
+        double binHz = (double) SAMPLE_RATE / FRAME_SIZE;
+        int[] edges = new int[BANDS + 1];
+        double ratio = Math.pow(HIGH_HZ / LOW_HZ, 1.0 / BANDS);
+        for (int b = 0; b <= BANDS; b++) {
+            int bin = (int) Math.round(LOW_HZ * Math.pow(ratio, b) / binHz);
+            // Keep every band at least one bin wide at the low end
+            edges[b] = b == 0 ? bin : Math.max(bin, edges[b - 1] + 1);
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,24 @@
+package Services;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener on Song, Video and Playlist that bumps the {@link FragmentCacheService}
+ * library version once a transaction with writes commits, so no fragment rendered from the
+ * uncommitted state is cached under the new version. Playlist membership changes and bulk
+ * JPQL deletes bypass entity callbacks, so PlaylistService, SongService and
+ * VideoImportService defer the same bump themselves.
+ */
+public class FragmentCacheListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(Object entity) {
+        Arc.container().instance(AfterCommit.class).get().runOnce(FragmentCacheService.LIBRARY_CHANGE,
+                () -> Arc.container().instance(FragmentCacheService.class).get().libraryChanged());
+    }
+}
@@ -0,0 +1,130 @@
+package Services;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered HTML fragments of the music and video UI, reused while nothing they depend on
+ * changed.
+ *
+ * Entries are keyed by request (path, query, profile) and remember the library version and
+ * the profile version they were rendered at. Song, video and playlist writes bump the library
+ * version; current-song, play/pause, video progress and hidden-playlist changes bump the
+ * profile version. An entry whose versions no longer match is ignored and replaced by the
+ * next render. The cache is LRU-bounded by entry count and total size.
+ */
+@ApplicationScoped
+public class FragmentCacheService {
+
+    private static final int MAX_ENTRIES = 2_000;
+    /** Upper bound on cached HTML, counted in chars. */
+    private static final long MAX_TOTAL_CHARS = 16L * 1024 * 1024;
+    /** Backstop for writes that bypass the version counters; re-render at least this often. */
+    private static final long MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /**
+     * Versions a fragment was rendered at; compared on lookup.
+     */
+    public record Versions(long library, long profile) {}
+
+    public record Fragment(String html, String etag, Versions versions, long renderedAtNanos) {}
+
+    /**
+     * {@link AfterCommit#runOnce} keys, so writes bump each version once their transaction
+     * commits and at most once per transaction.
+     */
+    public static final Object LIBRARY_CHANGE = new Object();
+
+    public record ProfileChange(Long profileId) {}
+
+    private final AtomicLong libraryVersion = new AtomicLong(1);
+    private final Map<Long, AtomicLong> profileVersions = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<String, Fragment> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalChars;
+
+    // ========== INVALIDATION ==========
+
+    public void libraryChanged() {
+        libraryVersion.incrementAndGet();
+    }
+
+    public void profileChanged(Long profileId) {
+        if (profileId != null) {
+            profileVersions.computeIfAbsent(profileId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    public Versions currentVersions(Long profileId) {
+        AtomicLong profile = profileId != null ? profileVersions.get(profileId) : null;
+        return new Versions(libraryVersion.get(), profile != null ? profile.get() : 0);
+    }
+
+    // ========== LOOKUP / STORE ==========
+
+    /**
+     * Cached fragment for the key, or null when missing, rendered at other versions, or too old.
+     */
+    public synchronized Fragment get(String key, Versions versions) {
+        Fragment fragment = entries.get(key);
+        if (fragment == null) {
+            return null;
+        }
+        if (!fragment.versions().equals(versions)
+                || System.nanoTime() - fragment.renderedAtNanos() > MAX_AGE_NANOS) {
+            evict(key);
+            return null;
+        }
+        return fragment;
+    }
+
+    /**
+     * Store a rendered fragment. Versions must be the ones read before rendering, so a change
+     * that lands mid-render leaves the entry already stale.
+     */
+    public synchronized Fragment put(String key, String html, Versions versions) {
+        Fragment fragment = new Fragment(html, etag(html), versions, System.nanoTime());
+        if (html.length() > MAX_TOTAL_CHARS / 4) {
+            return fragment;
+        }
+        evict(key);
+        entries.put(key, fragment);
+        totalChars += html.length();
+
+        Iterator<Map.Entry<String, Fragment>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > MAX_ENTRIES || totalChars > MAX_TOTAL_CHARS) && eldest.hasNext()) {
+            totalChars -= eldest.next().getValue().html().length();
+            eldest.remove();
+        }
+        return fragment;
+    }
+
+    private void evict(String key) {
+        Fragment removed = entries.remove(key);
+        if (removed != null) {
+            totalChars -= removed.html().length();
+        }
+    }
+
+    /**
+     * Strong ETag derived from the fragment body, so identical HTML rendered after an
+     * unrelated version bump still validates.
+     */
+    public static String etag(String html) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(html.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 27) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -9,9 +9,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -26,9 +24,8 @@ public class FreeMetadataService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FreeMetadataService.class);
     
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(30))
-            .build();
+    @Inject
+    MetadataHttpCache httpCache;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -126,8 +123,6 @@ public class FreeMetadataService {
             String url = String.format(MUSICBRAINZ_API, 
                 java.net.URLEncoder.encode(query, "UTF-8"));
             
-            Thread.sleep(1000); // Rate limiting: 1 request per second
-            
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .header("User-Agent", "JMedia/1.0")
@@ -135,8 +130,8 @@ public class FreeMetadataService {
                     .GET()
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.MUSICBRAINZ,
+                request, MetadataHttpCache.emptyJsonArray("recordings"));
             
             if (response.statusCode() == 200) {
                 JsonNode root = objectMapper.readTree(response.body());
@@ -171,8 +166,8 @@ public class FreeMetadataService {
                     .GET()
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.DEEZER,
+                request, MetadataHttpCache.emptyJsonArray("data"));
             
             if (response.statusCode() == 200) {
                 JsonNode root = objectMapper.readTree(response.body());
@@ -200,8 +195,6 @@ public class FreeMetadataService {
             String url = String.format(THEAUDIODB_API, 
                 java.net.URLEncoder.encode(query, "UTF-8"));
             
-            Thread.sleep(500); // Rate limiting
-            
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .header("User-Agent", "JMedia/1.0")
@@ -209,8 +202,8 @@ public class FreeMetadataService {
                     .GET()
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request, 
-                HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.THEAUDIODB,
+                request, MetadataHttpCache.emptyJsonArray("track"));
             
             if (response.statusCode() == 200) {
                 JsonNode root = objectMapper.readTree(response.body());
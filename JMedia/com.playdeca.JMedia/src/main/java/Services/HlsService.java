@@ -1,9 +1,12 @@
 package Services;
 
 import Models.AudioTrack;
+import Models.SettingsSnapshot;
 import Models.Video;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.ObservesAsync;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
@@ -24,9 +27,13 @@ public class HlsService {
     @Inject VideoService videoService;
     @Inject SettingsService settingsService;
     @Inject FFmpegDiscoveryService ffmpegDiscoveryService;
+    @Inject MediaMetrics metrics;
+    @Inject BackgroundWorkGovernor governor;
 
     private final Map<String, HlsSession> activeSessions = new ConcurrentHashMap<>();
     private Path hlsBasePath;
+    // Video library the cached base path was derived from
+    private String hlsBasePathSource;
 
     public HlsSession createSession(Long videoId, double startSeconds, Long profileId) throws IOException {
         return createSession(videoId, startSeconds, profileId, null, null);
@@ -37,6 +44,7 @@ public class HlsService {
     }
 
     @Transactional
+    @WithSpan("hls.session.create")
     public HlsSession createSession(Long videoId, double startSeconds, Long profileId, Integer preferredAudioTrackIndex, Integer qualityHeight) throws IOException {
         String sessionId = "vid-" + videoId;
         HlsSession session = activeSessions.get(sessionId);
@@ -239,7 +247,7 @@ public class HlsService {
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.directory(session.sessionDir.toFile());
         pb.redirectErrorStream(true);
-        return pb.start();
+        return metrics.trackProcess("hls", pb.start());
     }
 
     private void startEncoderMonitor(HlsSession session, String variantName, Long profileId, Process process, boolean useHardware) {
@@ -342,7 +350,7 @@ public class HlsService {
                 ProcessBuilder pb = new ProcessBuilder(command);
                 pb.directory(session.sessionDir.toFile());
                 pb.redirectErrorStream(true);
-                Process process = pb.start();
+                Process process = metrics.trackProcess("hls", pb.start());
                 session.addProcess(audioName, process);
                 session.audioPlaylistNames.add(audioName);
                 new Thread(() -> {
@@ -374,9 +382,9 @@ public class HlsService {
             return vPath.toString();
         }
         try {
-            String libraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
-            if (libraryPath != null && !libraryPath.isEmpty()) {
-                return java.nio.file.Paths.get(libraryPath, videoPath).toString();
+            java.nio.file.Path libraryRoot = settingsService.getSnapshot().videoLibraryRoot();
+            if (libraryRoot != null) {
+                return libraryRoot.resolve(videoPath).toString();
             }
         } catch (Exception e) {
             LOG.warn("Could not resolve video library path for {}: {}", videoPath, e.getMessage());
@@ -489,13 +497,33 @@ public class HlsService {
         HlsSession session = activeSessions.get(sessionId);
         if (session == null) return null;
         File segment = session.sessionDir.resolve(segmentName).toFile();
-        return segment.exists() ? segment : null;
+        if (!segment.exists()) {
+            return null;
+        }
+        if (!session.firstSegmentServed) {
+            session.firstSegmentServed = true;
+            metrics.recordHlsFirstSegment(System.nanoTime() - session.createdAtNanos);
+        }
+        metrics.recordBytes("hls.segment", segment.length());
+        governor.noteActivity(BackgroundWorkGovernor.Activity.VIDEO);
+        return segment;
+    }
+
+    /**
+     * New sessions follow a changed video library; running sessions keep their directory.
+     */
+    synchronized void onSettingsChanged(@ObservesAsync SettingsSnapshot settings) {
+        if (hlsBasePath != null && !Objects.equals(hlsBasePathSource, settings.videoLibraryPath())) {
+            LOG.info("Video library changed, HLS sessions will move to {}", settings.videoLibraryPath());
+            hlsBasePath = null;
+        }
     }
 
     private synchronized Path getHlsBasePath() {
         if (hlsBasePath == null) {
             try {
-                String libraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                String libraryPath = settingsService.getSnapshot().videoLibraryPath();
+                hlsBasePathSource = libraryPath;
                 if (libraryPath != null && !libraryPath.isEmpty()) {
                     hlsBasePath = java.nio.file.Paths.get(libraryPath, "hls").toAbsolutePath();
                 } else {
@@ -532,6 +560,8 @@ public class HlsService {
         public final double startSeconds;
         public final List<String> audioPlaylistNames = new ArrayList<>();
         public long lastAccessed;
+        final long createdAtNanos = System.nanoTime();
+        volatile boolean firstSegmentServed;
         private final Map<String, Process> processes = new ConcurrentHashMap<>();
         private Integer preferredAudioTrackIndex = null;
 
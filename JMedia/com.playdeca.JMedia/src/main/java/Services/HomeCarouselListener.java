@@ -0,0 +1,24 @@
+package Services;
+
+import Models.Video;
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that marks the {@link HomeCarouselService} snapshot stale once a
+ * transaction with Video writes commits; a rebuild before then would only cache the old rows
+ * again. Bulk JPQL deletes bypass entity callbacks, so those call it directly
+ * (see VideoImportService).
+ */
+public class HomeCarouselListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(Video video) {
+        Arc.container().instance(AfterCommit.class).get().runOnce(HomeCarouselService.LIBRARY_CHANGE,
+                () -> Arc.container().instance(HomeCarouselService.class).get().libraryChanged());
+    }
+}
@@ -0,0 +1,204 @@
+package Services;
+
+import Models.Video;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshot of the home screen carousels.
+ *
+ * The library-wide rows (recently added, trending, movies, TV shows) are computed with the
+ * row limit pushed into the query and kept until the library changes. {@link HomeCarouselListener}
+ * bumps the library version on video writes; a background job rebuilds stale rows, so
+ * requests during a scan keep getting the previous snapshot instead of waiting. Rendered home
+ * HTML is cached per profile and reused until the rows or that profile's progress change.
+ */
+@ApplicationScoped
+public class HomeCarouselService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HomeCarouselService.class);
+
+    private static final int NEW_RELEASES_LIMIT = 20;
+    private static final int TRENDING_LIMIT = 15;
+    private static final int MOVIES_LIMIT = 20;
+    private static final int TV_SHOWS_LIMIT = 20;
+    /** Rows fetched per query while skipping duplicates of the same show. */
+    private static final int SCAN_PAGE_SIZE = 100;
+    /** Collections and external videos are not versioned; re-render at least this often. */
+    private static final long RENDER_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @PersistenceContext
+    EntityManager em;
+
+    /**
+     * Library-wide carousel rows. Videos are detached; only basic fields are read from them.
+     */
+    public record HomeRows(long version, List<Video> newReleases, List<Video> trending,
+                           List<Video> movies, List<Video> tvShows) {}
+
+    private record RenderedHome(String html, long rowsVersion, long progressVersion, long renderedAtNanos) {}
+
+    /** {@link AfterCommit#runOnce} key for a deferred library bump. */
+    public static final Object LIBRARY_CHANGE = new Object();
+
+    private final AtomicLong libraryVersion = new AtomicLong(1);
+    private final Map<Long, AtomicLong> progressVersions = new ConcurrentHashMap<>();
+    private final Map<Long, RenderedHome> renderedByProfile = new ConcurrentHashMap<>();
+    private volatile HomeRows rows;
+
+    // ========== INVALIDATION ==========
+
+    public void libraryChanged() {
+        libraryVersion.incrementAndGet();
+    }
+
+    public void progressChanged(Long profileId) {
+        if (profileId != null) {
+            progressVersions.computeIfAbsent(profileId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    @Scheduled(every = "15s", delayed = "15s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshIfStale() {
+        HomeRows current = rows;
+        if (current != null && current.version() != libraryVersion.get()) {
+            rebuild();
+        }
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Current rows; built synchronously only when no snapshot exists yet.
+     */
+    public HomeRows getRows() {
+        HomeRows current = rows;
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Home HTML for a profile, rendered by the caller from the current rows and reused while
+     * neither the rows nor the profile's progress changed.
+     */
+    public String renderHome(Long profileId, Function<HomeRows, String> renderer) {
+        HomeRows current = getRows();
+        long progressVersion = profileId != null
+                ? progressVersions.computeIfAbsent(profileId, id -> new AtomicLong()).get()
+                : 0;
+        long key = profileId != null ? profileId : -1L;
+
+        RenderedHome cached = renderedByProfile.get(key);
+        if (cached != null && cached.rowsVersion() == current.version()
+                && cached.progressVersion() == progressVersion
+                && System.nanoTime() - cached.renderedAtNanos() < RENDER_TTL_NANOS) {
+            return cached.html();
+        }
+
+        String html = renderer.apply(current);
+        renderedByProfile.put(key, new RenderedHome(html, current.version(), progressVersion, System.nanoTime()));
+        return html;
+    }
+
+    // ========== BUILD ==========
+
+    @Transactional
+    synchronized HomeRows rebuild() {
+        long version = libraryVersion.get();
+        if (rows != null && rows.version() == version) {
+            return rows;
+        }
+        long start = System.nanoTime();
+
+        List<Video> newReleases = firstDistinct(
+                "SELECT v FROM Video v WHERE v.isActive = true ORDER BY v.dateAdded DESC NULLS LAST, v.id DESC",
+                NEW_RELEASES_LIMIT);
+        List<Video> trending = firstDistinct(
+                "SELECT v FROM Video v WHERE v.isActive = true ORDER BY v.popularityScore DESC NULLS LAST, v.id",
+                TRENDING_LIMIT);
+        List<Video> movies = em.createQuery(
+                "SELECT v FROM Video v WHERE v.type = 'movie' AND v.isActive = true ORDER BY v.id", Video.class)
+                .setMaxResults(MOVIES_LIMIT)
+                .getResultList();
+        List<Video> tvShows = firstEpisodePerShow(TV_SHOWS_LIMIT);
+
+        HomeRows built = new HomeRows(version, List.copyOf(newReleases), List.copyOf(trending),
+                List.copyOf(movies), List.copyOf(tvShows));
+        rows = built;
+        LOG.debug("Home carousels rebuilt at library version {} in {} ms", version,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return built;
+    }
+
+    /**
+     * First rows of an ordered query, keeping one video per show, read page by page so only
+     * about {@code limit} rows are loaded.
+     */
+    private List<Video> firstDistinct(String jpql, int limit) {
+        List<Video> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        TypedQuery<Video> query = em.createQuery(jpql, Video.class);
+        for (int offset = 0; result.size() < limit; offset += SCAN_PAGE_SIZE) {
+            List<Video> page = query.setFirstResult(offset).setMaxResults(SCAN_PAGE_SIZE).getResultList();
+            for (Video v : page) {
+                if (seen.add(dedupeKey(v)) && result.size() < limit) {
+                    result.add(v);
+                }
+            }
+            if (page.size() < SCAN_PAGE_SIZE) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lowest-id episode of each series, grouped in SQL, then merged by normalized title.
+     */
+    private List<Video> firstEpisodePerShow(int limit) {
+        List<Long> ids = em.createQuery(
+                "SELECT MIN(v.id) FROM Video v WHERE v.type = 'episode' AND v.seriesTitle IS NOT NULL "
+                        + "AND v.isActive = true GROUP BY v.seriesTitle ORDER BY MIN(v.id)", Long.class)
+                .setMaxResults(limit * 3)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Video> episodes = em.createQuery("SELECT v FROM Video v WHERE v.id IN :ids ORDER BY v.id", Video.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        List<Video> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Video v : episodes) {
+            if (result.size() < limit && seen.add(dedupeKey(v))) {
+                result.add(v);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Episodes of the same show share a key, so a carousel shows each show once.
+     */
+    public static String dedupeKey(Video v) {
+        if (v.type != null && "episode".equalsIgnoreCase(v.type) && v.seriesTitle != null) {
+            return "show:" + v.seriesTitle.toLowerCase().replaceAll("[^a-z0-9]", "");
+        }
+        return "video:" + v.id;
+    }
+}
@@ -9,11 +9,8 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -23,9 +20,8 @@ public class IMDbApiService {
     
     private static final String IMDB_API_BASE = "https://api.imdbapi.dev";
     
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    @Inject
+    MetadataHttpCache httpCache;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -38,7 +34,8 @@ public class IMDbApiService {
             
             LOG.info("Searching IMDb for series: {}", seriesTitle);
             HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.IMDB,
+                    request, MetadataHttpCache.emptyJsonArray("results"));
             
             if (response.statusCode() == 200) {
                 JsonNode root = objectMapper.readTree(response.body());
@@ -8,8 +8,10 @@ import Models.PlaybackState;
 import Models.Playlist;
 import Models.Song;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,9 +27,16 @@ import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
@@ -64,17 +73,49 @@ public class ImportService {
     @Inject
     DownloadService downloadService;
 
+    @Inject
+    LibraryOwnershipIndex ownershipIndex;
+
+    @ConfigProperty(name = "jmedia.import.download-concurrency", defaultValue = "3")
+    int downloadConcurrency;
+
     private final AtomicBoolean isImporting = new AtomicBoolean(false);
     private final AtomicBoolean isCancelled = new AtomicBoolean(false);
-    private volatile List<String> currentUrls = new ArrayList<>();
     private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    // Downloader processes, several items at a time
+    private ExecutorService downloadPool;
+    // Tags and stores downloaded files while the downloads continue
+    private final ExecutorService importStage = Executors.newSingleThreadExecutor();
+    private final LinkedBlockingQueue<LandedFile> landedFiles = new LinkedBlockingQueue<>();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // Store the detected execution method for SpotDL
     private volatile String spotdlExecutionMethod = "DIRECT_COMMAND";
     private volatile String detectedPythonExecutable = "python";
 
+    @PostConstruct
+    void init() {
+        downloadPool = Executors.newFixedThreadPool(Math.max(1, downloadConcurrency));
+    }
+
     public synchronized void startDownload(String url, String format, Integer downloadThreads, Integer searchThreads, String downloadPath, String playlistName, boolean queueAfterDownload, Long profileId) {
+        startImport(List.of(url), format, downloadThreads, searchThreads, downloadPath, playlistName, queueAfterDownload, profileId, url);
+    }
+
+    /**
+     * Starts background import process for multiple songs/URLs.
+     */
+    public synchronized void startDownloads(List<String> urls, String format, Integer downloadThreads, Integer searchThreads, String downloadPath, String playlistName, boolean queueAfterDownload, Long profileId) {
+        startImport(urls, format, downloadThreads, searchThreads, downloadPath, playlistName, queueAfterDownload, profileId, "Song List: " + String.join(", ", urls));
+    }
+
+    /**
+     * Runs an import as a pipeline: up to {@code jmedia.import.download-concurrency} items
+     * download at once, each downloaded file is handed to the import stage as soon as it is
+     * complete, and the playlist and queue are filled once everything has been imported, in
+     * the order the items were requested.
+     */
+    private void startImport(List<String> urls, String format, Integer downloadThreads, Integer searchThreads, String downloadPath, String playlistName, boolean queueAfterDownload, Long profileId, String originalLink) {
         if (isImporting.get()) {
             LOGGER.warn("An import is already in progress. Ignoring new request.");
             importStatusSocket.broadcast("An import is already in progress. Please wait for it to complete.\n", profileId);
@@ -86,27 +127,51 @@ public class ImportService {
                 return;
             }
 
-            broadcast("Starting new import process...\n", profileId);
+            downloadService.resetCancelled();
+            broadcast("Starting new import process for " + urls.size() + " items...\n", profileId);
 
             try {
-                // Step 1: Download media
-                DownloadService.DownloadResult downloadResult = downloadService.download(
-                        url, format, downloadThreads, searchThreads, downloadPath, profileId);
+                ImportRun run = new ImportRun(format, downloadThreads, searchThreads, downloadPath, profileId);
+                List<ImportItem> items = new ArrayList<>();
+                for (int i = 0; i < urls.size(); i++) {
+                    items.add(new ImportItem(run, i + 1, urls.size(), urls.get(i)));
+                }
+                items.forEach(item -> item.progress("queued"));
+
+                // Step 1: Download media; files are imported as they land
+                List<Future<?>> downloads = new ArrayList<>();
+                for (ImportItem item : items) {
+                    downloads.add(downloadPool.submit(() -> downloadItem(item)));
+                }
+                for (Future<?> download : downloads) {
+                    download.get();
+                }
 
-                // Step 2: Process downloaded files and create songs
-                List<Song> finalSongsForPlaylist = processDownloadResult(downloadResult, downloadPath, format, profileId);
+                // Step 2: Wait for the import stage to catch up
+                List<Song> allSongsForPlaylist = new ArrayList<>();
+                for (ImportItem item : items) {
+                    item.awaitImported();
+                    allSongsForPlaylist.addAll(item.songs());
+                }
+
+                if (isCancelled.get()) {
+                    broadcast("Import cancelled. Stopping...\n", profileId);
+                }
+
+                broadcast("\n=== Summary ===\n", profileId);
+                broadcast("Processed " + urls.size() + " items. Found " + allSongsForPlaylist.size() + " total songs.\n", profileId);
 
                 // Step 3: Create playlist if requested
                 if (playlistName != null && !playlistName.trim().isEmpty()) {
-                    broadcast("Creating playlist '" + playlistName + "' with " + finalSongsForPlaylist.size() + " songs...\n", profileId);
-                    addSongsToPlaylist(playlistName, finalSongsForPlaylist, profileId, url);
+                    broadcast("Creating playlist '" + playlistName + "' with " + allSongsForPlaylist.size() + " songs...\n", profileId);
+                    addSongsToPlaylist(playlistName, allSongsForPlaylist, profileId, originalLink);
                 } else {
                     broadcast("No playlist name provided, skipping playlist creation.\n", profileId);
                 }
 
                 // Step 4: Add to queue if requested
-                if (queueAfterDownload) {
-                    addSongToQueue(finalSongsForPlaylist, profileId);
+                if (queueAfterDownload && !allSongsForPlaylist.isEmpty()) {
+                    addSongToQueue(allSongsForPlaylist, profileId);
                 }
 
                 broadcast("Import process fully completed.\n", profileId);
@@ -123,231 +188,256 @@ public class ImportService {
     }
 
     /**
-     * Starts background import process for multiple songs/URLs.
+     * Download stage for one item, run on the download pool.
      */
-    public synchronized void startDownloads(List<String> urls, String format, Integer downloadThreads, Integer searchThreads, String downloadPath, String playlistName, boolean queueAfterDownload, Long profileId) {
-        if (isImporting.get()) {
-            LOGGER.warn("An import is already in progress. Ignoring new request.");
-            importStatusSocket.broadcast("An import is already in progress. Please wait for it to complete.\n", profileId);
+    private void downloadItem(ImportItem item) {
+        ImportRun run = item.run;
+        if (isCancelled.get()) {
+            item.progress("cancelled");
             return;
         }
 
-        importExecutor.submit(() -> {
-            if (!isImporting.compareAndSet(false, true)) {
-                return;
-            }
-
-            // Store URLs for cancellation
-            currentUrls = new ArrayList<>(urls);
-            
-            broadcast("Starting new import process for " + urls.size() + " items...\n", profileId);
-
-            try {
-                List<Song> allSongsForPlaylist = new ArrayList<>();
-
-                // Process each URL/song
-                for (int i = 0; i < currentUrls.size(); i++) {
-                    // Check if cancelled - exit loop immediately
-                    if (isCancelled.get() || currentUrls.isEmpty()) {
-                        broadcast("Import cancelled. Stopping...\n", profileId);
-                        break;
-                    }
-                    
-                    String url = currentUrls.get(i);
-                    broadcast("\n--- Processing item " + (i + 1) + " of " + currentUrls.size() + ": " + url + " ---\n", profileId);
-
-                    // Check if song already exists (only for song lists, not URLs)
-                    if (currentUrls.size() > 1 && isSongSearchQuery(url)) {
-                        Song existingSong = findExistingSong(url);
-                        if (existingSong != null) {
-                            broadcast("⏭️ Song already exists in library: '" + existingSong.getTitle() + "' by '" + existingSong.getArtist() + "' - skipping download\n", profileId);
-                            allSongsForPlaylist.add(existingSong); // Add existing song to playlist
-                            continue;
-                        }
-                    }
-
-                    try {
-                        // Step 1: Download media
-                        DownloadService.DownloadResult downloadResult = downloadService.download(
-                                url, format, downloadThreads, searchThreads, downloadPath, profileId);
-
-                        // Step 2: Process downloaded files and create songs
-                        List<Song> songsForThisUrl = processDownloadResult(downloadResult, downloadPath, format, profileId);
-
-                        // Add to overall list
-                        allSongsForPlaylist.addAll(songsForThisUrl);
-
-                        broadcast("Completed item " + (i + 1) + " of " + currentUrls.size() + ". Found " + songsForThisUrl.size() + " songs.\n", profileId);
-                        
-                        // Check if cancelled after each download
-                        if (isCancelled.get() || currentUrls.isEmpty()) {
-                            broadcast("Import cancelled. Stopping...\n", profileId);
-                            break;
-                        }
-
-                    } catch (Exception e) {
-                        LOGGER.error("Error processing item: " + url, e);
-                        broadcast("ERROR processing '" + url + "': " + e.getMessage() + "\n", profileId);
-
-                        // Check if this is a song search query that might have hit YouTube retry limits
-                        if (currentUrls.size() > 1 && isSongSearchQuery(url)) {
-                            boolean isLikelyYouTubeExhausted = e.getMessage() != null
-                                    && (e.getMessage().contains("All 3 YouTube retries failed")
-                                    || e.getMessage().contains("YouTube retry wait interrupted")
-                                    || e.getMessage().contains("download process exited with error code") && e.getMessage().contains("YouTube"));
-
-                            if (isLikelyYouTubeExhausted) {
-                                broadcast("⚠️ YouTube retries exhausted for this song. Skipping and continuing with next item...\n", profileId);
-                                continue; // Skip to next item, YouTube already tried SpotDL fallback
-                            } else {
-                                // Non-YouTube error or unrecognized error, skip
-                                broadcast("⚠️ Skipping this song due to error: " + e.getMessage() + "\n", profileId);
-                                continue;
-                            }
-                        } else {
-                            // Single URL or non-song query, continue normally
-                            broadcast("Continuing with next item...\n", profileId);
-                        }
-                    }
-                }
+        item.progress("downloading");
+        broadcast("\n--- Processing item " + item.index + " of " + item.total + ": " + item.url + " ---\n", run.profileId);
 
-                broadcast("\n=== Summary ===\n", profileId);
-                broadcast("Processed " + currentUrls.size() + " items. Found " + allSongsForPlaylist.size() + " total songs.\n", profileId);
+        try {
+            DownloadService.DownloadResult downloadResult = downloadService.download(
+                    item.url, run.format, run.downloadThreads, run.searchThreads, run.downloadPath, run.profileId,
+                    filename -> importWhenLanded(item, filename));
+
+            // Files reported but never handed over, e.g. when the process was stopped early
+            downloadResult.getDownloadedFiles().forEach(filename -> importWhenLanded(item, filename));
+            item.existing.addAll(findExistingSongs(downloadResult, run.profileId));
+            item.downloadFinished();
+        } catch (Exception e) {
+            LOGGER.error("Error processing item: " + item.url, e);
+            broadcast("ERROR processing '" + item.url + "': " + e.getMessage() + "\n", run.profileId);
+            broadcast("⚠️ Skipping this item and continuing with the others...\n", run.profileId);
+            item.progress("failed");
+        }
+    }
 
-                // Step 3: Create playlist if requested
-                if (playlistName != null && !playlistName.trim().isEmpty()) {
-                    broadcast("Creating playlist '" + playlistName + "' with " + allSongsForPlaylist.size() + " songs...\n", profileId);
-                    addSongsToPlaylist(playlistName, allSongsForPlaylist, profileId, "Song List: " + String.join(", ", urls));
-                } else {
-                    broadcast("No playlist name provided, skipping playlist creation.\n", profileId);
-                }
+    /**
+     * Hands a finished download to the import stage. Files the downloader named but did not
+     * write were already available locally and are left alone.
+     */
+    private void importWhenLanded(ImportItem item, String filename) {
+        ImportRun run = item.run;
+        if (!run.landed.add(filename)) {
+            return;
+        }
+        File file = Paths.get(run.downloadPath).resolve(filename + run.fileExtension).toFile();
+        if (!file.isFile()) {
+            return;
+        }
 
-                // Step 4: Add to queue if requested
-                if (queueAfterDownload && !allSongsForPlaylist.isEmpty()) {
-                    addSongToQueue(allSongsForPlaylist, profileId);
-                }
+        LandedFile landed = new LandedFile(item, file.getName(), new CompletableFuture<>());
+        item.imports.add(landed.done());
+        landedFiles.add(landed);
+        importStage.execute(this::importLandedFiles);
+    }
 
-                broadcast("Import process fully completed.\n", profileId);
+    /**
+     * Import stage: scans every file that landed since the last run, one targeted scan per
+     * item, so a burst of finished downloads is tagged and stored in one batch.
+     */
+    private void importLandedFiles() {
+        List<LandedFile> batch = new ArrayList<>();
+        landedFiles.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
 
+        Map<ImportItem, List<LandedFile>> byItem = batch.stream()
+                .collect(Collectors.groupingBy(LandedFile::item, LinkedHashMap::new, Collectors.toList()));
+        byItem.forEach((item, files) -> {
+            try {
+                item.progress("importing");
+                List<String> filenames = files.stream().map(LandedFile::filename).toList();
+                item.imported.addAll(scanDownloadedFiles(filenames, item.run.downloadPath, item.run.profileId));
             } catch (Exception e) {
-                LOGGER.error("An error occurred during the import process.", e);
-                broadcast("ERROR: " + e.getMessage() + "\n", profileId);
+                LOGGER.error("Import of downloaded files failed for item: " + item.url, e);
             } finally {
-                isImporting.set(false);
-                isCancelled.set(false);
-                broadcast("[IMPORT_FINISHED]", profileId);
+                files.forEach(file -> file.done().complete(null));
             }
         });
     }
 
     /**
-     * Processes the download result to create Song objects.
+     * Targeted scan of downloaded files, falling back to an incremental and then a full import
+     * folder scan.
      */
-    private List<Song> processDownloadResult(DownloadService.DownloadResult downloadResult, String downloadPath,
-            String format, Long profileId) {
-        List<String> downloadedFileNames = downloadResult.getDownloadedFiles();
-        List<String[]> skippedSongs = downloadResult.getSkippedSongs();
-
+    private List<Song> scanDownloadedFiles(List<String> filenames, String downloadPath, Long profileId) {
         Path normalizedDownloadPath = Paths.get(downloadPath);
         Path baseMusicFolder = settings.getMusicFolder().toPath();
 
-        // Separate actually downloaded files from skipped files
-        List<String> actuallyDownloadedFiles = new ArrayList<>();
-        List<String> actuallySkippedFiles = new ArrayList<>();
-
-        String fileExtension = "." + (format != null && !format.isEmpty() ? format : "mp3");
-        for (String filename : downloadedFileNames) {
-            File file = normalizedDownloadPath.resolve(filename + fileExtension).toFile();
-            if (file.exists() && file.isFile()) {
-                actuallyDownloadedFiles.add(filename);
-            } else {
-                actuallySkippedFiles.add(filename);
-            }
+        broadcast("Importing " + filenames.size() + " downloaded files...\n", profileId);
+        try {
+            List<Song> newlyAddedSongs = settings.scanSpecificFiles(filenames, normalizedDownloadPath.toString());
+            broadcast("Targeted scan completed. Found " + newlyAddedSongs.size() + " newly added songs.\n", profileId);
+            return newlyAddedSongs;
+        } catch (Exception e) {
+            LOGGER.error("An error occurred during targeted file scan.", e);
+            broadcast("WARNING: The targeted file scan failed. Falling back to incremental library scan. Error: " + e.getMessage() + "\n", profileId);
         }
 
-        if (!actuallyDownloadedFiles.isEmpty()) {
-            broadcast("Download completed successfully. Found " + actuallyDownloadedFiles.size() + " new files downloaded, " + actuallySkippedFiles.size() + " files were already available.\n", profileId);
-        } else {
-            broadcast("Download completed successfully. All " + downloadedFileNames.size() + " files were already available locally.\n", profileId);
+        try {
+            List<Song> newlyAddedSongs = settings.scanLibraryIncremental();
+            broadcast("Incremental library scan completed. Found " + newlyAddedSongs.size() + " newly added songs.\n", profileId);
+            return newlyAddedSongs;
+        } catch (Exception fallbackException) {
+            LOGGER.error("Incremental scan also failed", fallbackException);
+            broadcast("WARNING: Incremental scan failed. Falling back to full import folder scan. Error: " + fallbackException.getMessage() + "\n", profileId);
         }
 
-        // Process downloaded files
-        List<Song> newlyAddedSongs = new ArrayList<>();
-        if (!actuallyDownloadedFiles.isEmpty()) {
-            broadcast("Download completed successfully. Triggering targeted scan for downloaded files...\n", profileId);
-            try {
-                newlyAddedSongs = settings.scanSpecificFiles(actuallyDownloadedFiles, normalizedDownloadPath.toString());
-                broadcast("Targeted scan completed. Found " + newlyAddedSongs.size() + " newly added songs.\n", profileId);
-            } catch (Exception e) {
-                LOGGER.error("An error occurred during targeted file scan.", e);
-                broadcast("WARNING: The targeted file scan failed. Falling back to incremental library scan. Error: " + e.getMessage() + "\n", profileId);
-
-                try {
-                    newlyAddedSongs = settings.scanLibraryIncremental();
-                    broadcast("Incremental library scan completed. Found " + newlyAddedSongs.size() + " newly added songs.\n", profileId);
-                } catch (Exception fallbackException) {
-                    LOGGER.error("Incremental scan also failed", fallbackException);
-                    broadcast("WARNING: Incremental scan failed. Falling back to full import folder scan. Error: " + fallbackException.getMessage() + "\n", profileId);
-
-                    try {
-                        settings.scanImportFolder();
-                        Set<String> relativeDownloadedPaths = new HashSet<>();
-                        for (String filename : downloadedFileNames) {
-                            Path fullPath = normalizedDownloadPath.resolve(filename + fileExtension);
-                            String relativePath = baseMusicFolder.relativize(fullPath).toString().replace('\\', '/');
-                            relativeDownloadedPaths.add(relativePath);
-                        }
-                        newlyAddedSongs = songService.findByRelativePaths(relativeDownloadedPaths);
-                    } catch (Exception finalFallbackException) {
-                        LOGGER.error("Final fallback scan also failed", finalFallbackException);
-                        broadcast("ERROR: All scan methods failed. Newly downloaded songs may not be available immediately. Error: " + finalFallbackException.getMessage() + "\n", profileId);
-                        newlyAddedSongs = new ArrayList<>();
-                    }
-                }
+        try {
+            settings.scanImportFolder();
+            Set<String> relativeDownloadedPaths = new HashSet<>();
+            for (String filename : filenames) {
+                Path fullPath = normalizedDownloadPath.resolve(filename);
+                String relativePath = baseMusicFolder.relativize(fullPath).toString().replace('\\', '/');
+                relativeDownloadedPaths.add(relativePath);
             }
+            return songService.findByRelativePaths(relativeDownloadedPaths);
+        } catch (Exception finalFallbackException) {
+            LOGGER.error("Final fallback scan also failed", finalFallbackException);
+            broadcast("ERROR: All scan methods failed. Newly downloaded songs may not be available immediately. Error: " + finalFallbackException.getMessage() + "\n", profileId);
+            return new ArrayList<>();
         }
+    }
+
+    /**
+     * Library songs for what the downloader skipped as already downloaded or found already
+     * owned.
+     */
+    private List<Song> findExistingSongs(DownloadService.DownloadResult downloadResult, Long profileId) {
+        List<String[]> skippedSongs = downloadResult.getSkippedSongs();
+        List<Long> matchedIds = new ArrayList<>(downloadResult.getOwnedSongIds());
 
-        // Process skipped songs with fuzzy matching
-        List<Song> skippedButExistingSongs = new ArrayList<>();
         if (!skippedSongs.isEmpty()) {
-            List<Song> allSongs = songService.findAll();
-            broadcast("Processing " + skippedSongs.size() + " skipped songs with fuzzy matching against " + allSongs.size() + " DB songs\n", profileId);
+            broadcast("Processing " + skippedSongs.size() + " skipped songs with fuzzy matching against " + ownershipIndex.size() + " library songs\n", profileId);
 
             for (String[] artistTitle : skippedSongs) {
                 String parsedArtist = artistTitle[0];
                 String parsedTitle = artistTitle[1];
 
-                Song bestMatch = metadataService.findBestMatch(parsedArtist, parsedTitle, allSongs);
-
-                if (bestMatch != null) {
-                    skippedButExistingSongs.add(bestMatch);
-                    broadcast("Found fuzzy match: '" + parsedTitle + "' by '" + parsedArtist + "' -> DB: '" + bestMatch.getTitle() + "' by '" + bestMatch.getArtist() + "'\n", profileId);
+                Long matchId = ownershipIndex.find(parsedArtist, parsedTitle);
+                if (matchId != null) {
+                    matchedIds.add(matchId);
                 } else {
                     broadcast("No fuzzy match found for: '" + parsedTitle + "' by '" + parsedArtist + "'\n", profileId);
                 }
             }
         }
 
-        // Combine all songs
-        List<Song> finalSongsForPlaylist = new ArrayList<>();
-        Set<Long> songIdsInFinalList = new HashSet<>();
+        // One batched lookup for all matches instead of loading the whole table
+        List<Song> existingSongs = songService.findByIds(matchedIds);
+        for (Song song : existingSongs) {
+            broadcast("Found match in library: '" + song.getTitle() + "' by '" + song.getArtist() + "'\n", profileId);
+        }
+        return existingSongs;
+    }
 
-        // Add newly added songs first
-        for (Song song : newlyAddedSongs) {
-            if (song.id != null && songIdsInFinalList.add(song.id)) {
-                finalSongsForPlaylist.add(song);
-            }
+    /**
+     * Options shared by every item of one import.
+     */
+    private static final class ImportRun {
+        final String format;
+        final Integer downloadThreads;
+        final Integer searchThreads;
+        final String downloadPath;
+        final Long profileId;
+        final String fileExtension;
+        // Files already handed to the import stage, across items
+        final Set<String> landed = ConcurrentHashMap.newKeySet();
+
+        ImportRun(String format, Integer downloadThreads, Integer searchThreads, String downloadPath, Long profileId) {
+            this.format = format;
+            this.downloadThreads = downloadThreads;
+            this.searchThreads = searchThreads;
+            this.downloadPath = downloadPath;
+            this.profileId = profileId;
+            this.fileExtension = "." + (format != null && !format.isEmpty() ? format : "mp3");
+        }
+    }
+
+    private record LandedFile(ImportItem item, String filename, CompletableFuture<Void> done) {}
+
+    /**
+     * One requested URL or search and the songs it resolved to.
+     */
+    private final class ImportItem {
+        final ImportRun run;
+        final int index;
+        final int total;
+        final String url;
+        final List<Song> imported = Collections.synchronizedList(new ArrayList<>());
+        final List<Song> existing = Collections.synchronizedList(new ArrayList<>());
+        final List<CompletableFuture<Void>> imports = Collections.synchronizedList(new ArrayList<>());
+
+        ImportItem(ImportRun run, int index, int total, String url) {
+            this.run = run;
+            this.index = index;
+            this.total = total;
+            this.url = url;
+        }
+
+        /**
+         * Reports this item's state ({@code queued}, {@code downloading}, {@code importing},
+         * {@code done}, {@code failed} or {@code cancelled}) to the import page.
+         */
+        void progress(String state) {
+            ObjectNode message = objectMapper.createObjectNode();
+            message.put("type", "import-progress");
+            message.put("item", index);
+            message.put("total", total);
+            message.put("state", state);
+            message.put("query", url);
+            message.put("songs", imported.size() + existing.size());
+            importStatusSocket.broadcastProgress("import-item-" + index, message.toString(), run.profileId);
+        }
+
+        /**
+         * Called once the download returned; the item is done when its files are imported.
+         */
+        void downloadFinished() {
+            CompletableFuture.allOf(pendingImports()).whenComplete((ignored, error) -> {
+                broadcast("Completed item " + index + " of " + total + ". Found " + songs().size() + " songs.\n", run.profileId);
+                progress("done");
+            });
+        }
+
+        void awaitImported() {
+            CompletableFuture.allOf(pendingImports()).join();
         }
 
-        // Add skipped songs that were found in DB
-        for (Song song : skippedButExistingSongs) {
-            if (song.id != null && songIdsInFinalList.add(song.id)) {
-                finalSongsForPlaylist.add(song);
+        /**
+         * Newly imported songs first, then songs that were already in the library, without
+         * duplicates.
+         */
+        List<Song> songs() {
+            List<Song> songs = new ArrayList<>();
+            Set<Long> songIds = new HashSet<>();
+            List<Song> candidates = new ArrayList<>();
+            synchronized (imported) {
+                candidates.addAll(imported);
             }
+            synchronized (existing) {
+                candidates.addAll(existing);
+            }
+            for (Song song : candidates) {
+                if (song.id != null && songIds.add(song.id)) {
+                    songs.add(song);
+                }
+            }
+            return songs;
         }
 
-        broadcast("Final song list contains " + finalSongsForPlaylist.size() + " unique songs for playlist creation.\n", profileId);
-        return finalSongsForPlaylist;
+        private CompletableFuture<?>[] pendingImports() {
+            synchronized (imports) {
+                return imports.toArray(new CompletableFuture<?>[0]);
+            }
+        }
     }
 
     private void addSongToQueue(List<Song> songsToQueue, Long profileId) {
@@ -409,8 +499,7 @@ public class ImportService {
     public void cancelImport() {
         if (isImporting.get()) {
             isCancelled.set(true);
-            // Clear the URLs list to stop processing immediately
-            currentUrls.clear();
+            // Stops every running downloader; queued items see the flag and skip
             downloadService.cancelDownload();
             broadcast("Import cancelled by user.\n", null);
         }
@@ -490,51 +579,6 @@ public class ImportService {
         importStatusSocket.broadcast(message, profileId);
     }
 
-    /**
-     * Parses a song query into artist and title components. Handles formats
-     * like "Artist - Title", "Artist1,Artist2 - Title", etc.
-     */
-    private String[] parseSongQuery(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return null;
-        }
-
-        String trimmed = query.trim();
-
-        // Look for " - " separator
-        int separatorIndex = trimmed.indexOf(" - ");
-        if (separatorIndex == -1) {
-            // No separator, treat entire string as title
-            return new String[]{"Unknown Artist", trimmed};
-        }
-
-        String artistPart = trimmed.substring(0, separatorIndex).trim();
-        String titlePart = trimmed.substring(separatorIndex + 3).trim(); // Skip " - "
-
-        return new String[]{artistPart, titlePart};
-    }
-
-    /**
-     * Checks if input is a song search query (not a URL).
-     * Simple implementation based on DownloadService logic.
-     */
-    private boolean isSongSearchQuery(String input) {
-        if (input == null || input.trim().isEmpty()) {
-            return false;
-        }
-        String trimmed = input.trim().toLowerCase();
-        // Check if it's not a URL
-        return !trimmed.contains("spotify.com")
-                && !trimmed.contains("youtube.com")
-                && !trimmed.contains("youtu.be")
-                && // Basic pattern detection for song/artist searches
-                (trimmed.length() > 2); // Minimum length for a meaningful search
-    }
- 
-
-
-
-
     /**
      * Helper method to safely get song count from DownloadResult.
      */
@@ -543,46 +587,29 @@ public class ImportService {
             return 0;
         }
         return (result.getDownloadedFiles() != null ? result.getDownloadedFiles().size() : 0)
-                + (result.getSkippedSongs() != null ? result.getSkippedSongs().size() : 0);
+                + (result.getSkippedSongs() != null ? result.getSkippedSongs().size() : 0)
+                + result.getOwnedSongIds().size();
     }
 
-    /**
-     * Checks if a song already exists in the library using exact matching
-     * first, then falls back to fuzzy matching if needed.
-     */
-    private Song findExistingSong(String query) {
-        String[] artistTitle = parseSongQuery(query);
-        if (artistTitle == null) {
-            return null;
-        }
-
-        String searchArtist = artistTitle[0];
-        String searchTitle = artistTitle[1];
-
-        // First try exact match
-        Song exactMatch = songService.findByTitleAndArtist(searchTitle, searchArtist);
-        if (exactMatch != null) {
-            return exactMatch;
-        }
-
-        // Fallback to fuzzy matching
-        List<Song> allSongs = songService.findAll();
-        return metadataService.findBestMatch(searchArtist, searchTitle, allSongs);
-    }
-    
     @PreDestroy
     public void shutdown() {
-        if (importExecutor != null && !importExecutor.isShutdown()) {
-            LOGGER.info("Shutting down ImportService executor");
-            importExecutor.shutdown();
+        shutdownExecutor("import", importExecutor);
+        shutdownExecutor("download", downloadPool);
+        shutdownExecutor("import stage", importStage);
+    }
+
+    private void shutdownExecutor(String name, ExecutorService executor) {
+        if (executor != null && !executor.isShutdown()) {
+            LOGGER.info("Shutting down ImportService {} executor", name);
+            executor.shutdown();
             try {
-                if (!importExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
-                    LOGGER.warn("ImportService executor did not terminate gracefully, forcing shutdown");
-                    importExecutor.shutdownNow();
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOGGER.warn("ImportService {} executor did not terminate gracefully, forcing shutdown", name);
+                    executor.shutdownNow();
                 }
             } catch (InterruptedException e) {
-                LOGGER.error("Interrupted while waiting for ImportService executor to terminate");
-                importExecutor.shutdownNow();
+                LOGGER.error("Interrupted while waiting for ImportService {} executor to terminate", name);
+                executor.shutdownNow();
                 Thread.currentThread().interrupt();
             }
         }
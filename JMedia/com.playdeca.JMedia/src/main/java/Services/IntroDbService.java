@@ -3,14 +3,12 @@ package Services;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -24,9 +22,8 @@ public class IntroDbService {
     // Source 2: OpenAPI v2 media endpoint
     private static final String API_URL_MEDIA = "https://api.theintrodb.org/v2/media";
     
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    @Inject
+    MetadataHttpCache httpCache;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -67,7 +64,7 @@ public class IntroDbService {
                     baseUrl, imdbId, season, episode);
             
             HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.INTRODB, request);
             
             if (response.statusCode() == 200) {
                 JsonNode root = objectMapper.readTree(response.body());
@@ -0,0 +1,398 @@
+package Services;
+
+import Models.Song;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory answer to "is this track already in the library?" for imports.
+ *
+ * Songs are keyed by normalized primary artist and normalized title (see
+ * {@link MetadataService#normalizeForMatching}), with the duration kept in 5-second buckets to
+ * tell apart versions when a duration is known. Exact lookups are two hash probes; the fuzzy
+ * fallback only compares against artists sharing a word prefix with the query, using the same
+ * thresholds as {@link MetadataService#findBestMatch}. Loaded once at startup and kept in sync
+ * through {@link TrackCatalogListener}, so import and download paths never load the Song table.
+ *
+ * Matching keys drop version info such as "(Live)" or "(Remix)", which is right for recognizing
+ * a file we already downloaded but too loose for deciding not to download at all. That decision
+ * uses {@link #findExact}, which keys on the full artist and title with only case, accents and
+ * punctuation folded.
+ */
+@Startup
+@ApplicationScoped
+public class LibraryOwnershipIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LibraryOwnershipIndex.class);
+
+    private static final int DURATION_BUCKET_SECONDS = 5;
+    private static final String UNKNOWN_ARTIST = "unknown artist";
+    private static final int GRAM_LENGTH = 3;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Inject
+    MetadataService metadataService;
+
+    private record Owned(long id, String artistKey, String titleKey, String exactKey, int durationBucket) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // artist key -> title key -> songs
+    private final Map<String, Map<String, List<Owned>>> byArtist = new HashMap<>();
+    // title key -> songs, for queries without an artist
+    private final Map<String, List<Owned>> byTitle = new HashMap<>();
+    private final Map<Long, Owned> byId = new HashMap<>();
+    // full artist + title -> songs, for skip-before-download decisions
+    private final Map<String, List<Owned>> byExactName = new HashMap<>();
+    // word prefix -> artist keys, to narrow the fuzzy fallback
+    private final Map<String, Set<String>> artistsByGram = new HashMap<>();
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        reload();
+    }
+
+    /**
+     * Rebuild the index from a single projection query over the Song table.
+     */
+    @Transactional
+    public void reload() {
+        List<Object[]> rows = em.createQuery(
+                "SELECT s.id, s.artist, s.title, s.durationSeconds FROM Song s", Object[].class)
+                .getResultList();
+
+        lock.writeLock().lock();
+        try {
+            clearMaps();
+            for (Object[] row : rows) {
+                int duration = row[3] instanceof Number n ? n.intValue() : 0;
+                add((Long) row[0], (String) row[1], (String) row[2], duration);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Library ownership index loaded with {} songs by {} artists", rows.size(), byArtist.size());
+    }
+
+    // --- Sync ---
+
+    public void upsert(Song song) {
+        if (song == null || song.id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(song.id);
+            add(song.id, song.getArtist(), song.getTitle(), song.getDurationSeconds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long songId) {
+        if (songId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(songId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> songIds) {
+        if (songIds != null) {
+            songIds.forEach(this::remove);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearMaps();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Lookups ---
+
+    public Long find(String artist, String title) {
+        return find(artist, title, 0);
+    }
+
+    /**
+     * Owned song for an artist and title, exact on the normalized keys first and fuzzy after.
+     *
+     * @param durationSeconds when positive, songs in a neighbouring duration bucket are
+     *                        preferred over other versions with the same name
+     */
+    public Long find(String artist, String title, int durationSeconds) {
+        String titleKey = titleKey(title);
+        if (titleKey.isEmpty()) {
+            return null;
+        }
+        String artistKey = artistKey(artist);
+        int bucket = bucket(durationSeconds);
+
+        lock.readLock().lock();
+        try {
+            if (artistKey.isEmpty() || UNKNOWN_ARTIST.equals(artistKey)) {
+                Owned match = pick(byTitle.get(titleKey), bucket);
+                return match != null ? match.id() : null;
+            }
+
+            Map<String, List<Owned>> titles = byArtist.get(artistKey);
+            Owned exact = titles != null ? pick(titles.get(titleKey), bucket) : null;
+            if (exact != null) {
+                return exact.id();
+            }
+            Owned fuzzy = fuzzyMatch(artistKey, titleKey, bucket);
+            return fuzzy != null ? fuzzy.id() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Owned song for a free-text "Artist - Title" query, matched exactly (see {@link #findExact}).
+     * Bare titles without an artist never match.
+     */
+    public Long findExactByQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String trimmed = query.trim();
+        int separator = trimmed.indexOf(" - ");
+        if (separator == -1) {
+            return null;
+        }
+        return findExact(trimmed.substring(0, separator).trim(), trimmed.substring(separator + 3).trim(), 0);
+    }
+
+    /**
+     * Owned song with exactly this primary artist and title, ignoring only case, accents and
+     * punctuation, so "Song (Live)" does not match "Song".
+     *
+     * @param durationSeconds when positive, a song whose known duration falls outside the
+     *                        neighbouring buckets is treated as a different recording
+     */
+    public Long findExact(String artist, String title, int durationSeconds) {
+        String exactKey = exactKey(artist, title);
+        if (exactKey == null) {
+            return null;
+        }
+        int bucket = bucket(durationSeconds);
+
+        lock.readLock().lock();
+        try {
+            List<Owned> candidates = byExactName.get(exactKey);
+            if (candidates == null) {
+                return null;
+            }
+            for (Owned candidate : candidates) {
+                if (bucket == 0 || candidate.durationBucket() == 0 || Math.abs(candidate.durationBucket() - bucket) <= 1) {
+                    return candidate.id();
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Internals (callers hold the lock) ---
+
+    private Owned fuzzyMatch(String artistKey, String titleKey, int bucket) {
+        Owned best = null;
+        double bestScore = 0.0;
+        Set<String> candidates = new HashSet<>();
+        for (String gram : grams(artistKey)) {
+            Set<String> artists = artistsByGram.get(gram);
+            if (artists != null) {
+                candidates.addAll(artists);
+            }
+        }
+        for (String candidate : candidates) {
+            double artistSimilarity = metadataService.calculateSimilarity(artistKey, candidate);
+            if (artistSimilarity < 0.7) {
+                continue;
+            }
+            for (Map.Entry<String, List<Owned>> titleEntry : byArtist.get(candidate).entrySet()) {
+                double titleSimilarity = metadataService.calculateSimilarity(titleKey, titleEntry.getKey());
+                // Artist is 60% weight, title is 40% weight, as in MetadataService.findBestMatch
+                double score = artistSimilarity * 0.6 + titleSimilarity * 0.4;
+                if (titleSimilarity >= 0.6 && score > bestScore) {
+                    best = pick(titleEntry.getValue(), bucket);
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Owned pick(List<Owned> candidates, int bucket) {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        if (bucket > 0) {
+            for (Owned candidate : candidates) {
+                if (candidate.durationBucket() > 0 && Math.abs(candidate.durationBucket() - bucket) <= 1) {
+                    return candidate;
+                }
+            }
+        }
+        return candidates.get(0);
+    }
+
+    private void add(Long id, String artist, String title, int durationSeconds) {
+        String titleKey = titleKey(title);
+        if (id == null || titleKey.isEmpty()) {
+            return;
+        }
+        Owned owned = new Owned(id, artistKey(artist), titleKey, exactKey(artist, title), bucket(durationSeconds));
+        byId.put(id, owned);
+        Map<String, List<Owned>> titles = byArtist.get(owned.artistKey());
+        if (titles == null) {
+            titles = new HashMap<>();
+            byArtist.put(owned.artistKey(), titles);
+            for (String gram : grams(owned.artistKey())) {
+                artistsByGram.computeIfAbsent(gram, k -> new HashSet<>()).add(owned.artistKey());
+            }
+        }
+        titles.computeIfAbsent(titleKey, k -> new ArrayList<>(1)).add(owned);
+        byTitle.computeIfAbsent(titleKey, k -> new ArrayList<>(1)).add(owned);
+        if (owned.exactKey() != null) {
+            byExactName.computeIfAbsent(owned.exactKey(), k -> new ArrayList<>(1)).add(owned);
+        }
+    }
+
+    private void clearMaps() {
+        byArtist.clear();
+        byTitle.clear();
+        byId.clear();
+        byExactName.clear();
+        artistsByGram.clear();
+    }
+
+    private void removeEntry(Long id) {
+        Owned owned = byId.remove(id);
+        if (owned == null) {
+            return;
+        }
+        Map<String, List<Owned>> titles = byArtist.get(owned.artistKey());
+        if (titles != null) {
+            List<Owned> songs = titles.get(owned.titleKey());
+            if (songs != null && songs.remove(owned) && songs.isEmpty()) {
+                titles.remove(owned.titleKey());
+                if (titles.isEmpty()) {
+                    byArtist.remove(owned.artistKey());
+                    for (String gram : grams(owned.artistKey())) {
+                        Set<String> artists = artistsByGram.get(gram);
+                        if (artists != null && artists.remove(owned.artistKey()) && artists.isEmpty()) {
+                            artistsByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+        List<Owned> sameTitle = byTitle.get(owned.titleKey());
+        if (sameTitle != null && sameTitle.remove(owned) && sameTitle.isEmpty()) {
+            byTitle.remove(owned.titleKey());
+        }
+        if (owned.exactKey() != null) {
+            List<Owned> sameName = byExactName.get(owned.exactKey());
+            if (sameName != null && sameName.remove(owned) && sameName.isEmpty()) {
+                byExactName.remove(owned.exactKey());
+            }
+        }
+    }
+
+    private String artistKey(String artist) {
+        if (artist == null || artist.isBlank()) {
+            return "";
+        }
+        return key(metadataService.extractPrimaryArtist(artist));
+    }
+
+    private String titleKey(String title) {
+        return title == null || title.isBlank() ? "" : key(title);
+    }
+
+    /**
+     * Normalized form, or the lower-cased text when normalization strips everything (titles
+     * in non-Latin scripts).
+     */
+    private String key(String text) {
+        String normalized = metadataService.normalizeForMatching(text);
+        return normalized.isEmpty() ? text.trim().toLowerCase(Locale.ROOT) : normalized;
+    }
+
+    /**
+     * Primary artist and title with case, accents and punctuation folded but version info
+     * kept, or null without both parts.
+     */
+    private String exactKey(String artist, String title) {
+        String artistPart = artist == null || artist.isBlank() ? "" : fold(metadataService.extractPrimaryArtist(artist));
+        String titlePart = fold(title);
+        if (artistPart.isEmpty() || titlePart.isEmpty()) {
+            return null;
+        }
+        return artistPart + '|' + titlePart; // fold() strips '|'
+    }
+
+    private static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        return decomposed.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * Leading characters of each word. Artists the fuzzy comparison can accept share most
+     * characters in place or contain one another, so they share at least one of these.
+     */
+    private static Set<String> grams(String key) {
+        Set<String> grams = new HashSet<>();
+        for (String word : key.split(" ")) {
+            if (!word.isEmpty()) {
+                grams.add(word.length() > GRAM_LENGTH ? word.substring(0, GRAM_LENGTH) : word);
+            }
+        }
+        return grams;
+    }
+
+    private static int bucket(int durationSeconds) {
+        return durationSeconds > 0 ? durationSeconds / DURATION_BUCKET_SECONDS + 1 : 0;
+    }
+}
@@ -0,0 +1,199 @@
+package Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application metrics for the media hot paths, exported with the built-in HTTP, JVM and
+ * datasource pool metrics on {@code /q/metrics}.
+ *
+ * <ul>
+ * <li>{@code jmedia.stream.bytes}, {@code jmedia.stream.duration}, {@code jmedia.stream.ttfb}:
+ * per streamed response, tagged by route (music, video.direct, video.transcode, dj.mix)</li>
+ * <li>{@code jmedia.hls.first.segment}: HLS session creation to first segment served</li>
+ * <li>{@code jmedia.ffmpeg.active}: running ffmpeg processes by kind</li>
+ * <li>{@code jmedia.scan.files}, {@code jmedia.scan.phase.duration},
+ * {@code jmedia.scan.files.per.second}: per library and phase</li>
+ * <li>{@code jmedia.playback.tick.lag}: how late each playback timer tick ran, per profile</li>
+ * <li>{@code jmedia.websocket.queue.depth}: WebSocket messages queued or in flight across all
+ * sessions; {@code jmedia.websocket.dropped} and {@code jmedia.websocket.slow.disconnects} for
+ * what the per-session queues shed</li>
+ * <li>{@code jmedia.metadata.cache}: metadata provider lookups by provider and result (hit,
+ * negative-hit, miss, coalesced)</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class MediaMetrics {
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, AtomicInteger> activeProcesses = new ConcurrentHashMap<>();
+    /** Last completed scan phase rate, stored as files per second times 1000. */
+    private final Map<String, AtomicLong> scanRates = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedSocketMessages = new AtomicInteger();
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("jmedia.websocket.queue.depth", queuedSocketMessages, AtomicInteger::get)
+                .description("WebSocket messages queued or in flight")
+                .register(registry);
+    }
+
+    // ========== STREAMING ==========
+
+    /**
+     * Wrap a streamed response body so its size, total duration and time to first byte are
+     * recorded. {@code startedAtNanos} is when the request arrived, so time spent waiting for
+     * a transcode before the response was built counts towards the first byte.
+     */
+    public StreamingOutput meterStream(String route, long startedAtNanos, StreamingOutput body) {
+        return output -> {
+            MeteredOutputStream metered = new MeteredOutputStream(output, route, startedAtNanos);
+            try {
+                body.write(metered);
+            } finally {
+                Counter.builder("jmedia.stream.bytes").tag("route", route).baseUnit("bytes")
+                        .register(registry).increment(metered.bytes);
+                Timer.builder("jmedia.stream.duration").tag("route", route)
+                        .register(registry).record(Duration.ofNanos(System.nanoTime() - startedAtNanos));
+            }
+        };
+    }
+
+    /**
+     * Bytes of a response sent as a file entity, which is not metered by {@link #meterStream}.
+     */
+    public void recordBytes(String route, long bytes) {
+        Counter.builder("jmedia.stream.bytes").tag("route", route).baseUnit("bytes")
+                .register(registry).increment(bytes);
+    }
+
+    public void recordHlsFirstSegment(long sinceSessionStartNanos) {
+        Timer.builder("jmedia.hls.first.segment")
+                .description("HLS session creation to first segment served")
+                .register(registry).record(Duration.ofNanos(sinceSessionStartNanos));
+    }
+
+    // ========== PROCESSES ==========
+
+    /**
+     * Count a started ffmpeg process until it exits.
+     */
+    public Process trackProcess(String kind, Process process) {
+        AtomicInteger active = activeProcesses.computeIfAbsent(kind, k -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("jmedia.ffmpeg.active", counter, AtomicInteger::get).tag("kind", k)
+                    .description("Running ffmpeg processes")
+                    .register(registry);
+            return counter;
+        });
+        active.incrementAndGet();
+        process.onExit().whenComplete((p, e) -> active.decrementAndGet());
+        return process;
+    }
+
+    // ========== SCANS ==========
+
+    public void recordScanPhase(String library, String phase, int files, long nanos) {
+        Counter.builder("jmedia.scan.files").tag("library", library).tag("phase", phase)
+                .register(registry).increment(files);
+        Timer.builder("jmedia.scan.phase.duration").tag("library", library).tag("phase", phase)
+                .register(registry).record(Duration.ofNanos(nanos));
+
+        AtomicLong rate = scanRates.computeIfAbsent(library + "|" + phase, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("jmedia.scan.files.per.second", value, v -> v.get() / 1000.0)
+                    .tag("library", library).tag("phase", phase)
+                    .description("Throughput of the last completed scan phase")
+                    .register(registry);
+            return value;
+        });
+        rate.set(nanos > 0 ? Math.round(files * 1_000_000_000_000.0 / nanos) : 0);
+    }
+
+    // ========== PLAYBACK / WEBSOCKETS ==========
+
+    public void recordTickLag(Long profileId, long lagNanos) {
+        Timer.builder("jmedia.playback.tick.lag").tag("profile", String.valueOf(profileId))
+                .description("Delay of playback timer ticks past their schedule")
+                .register(registry).record(Duration.ofNanos(Math.max(0, lagNanos)));
+    }
+
+    public void socketSendQueued() {
+        queuedSocketMessages.incrementAndGet();
+    }
+
+    /**
+     * A queued message left the queue: written, dropped or discarded with its session.
+     */
+    public void socketSendCompleted() {
+        queuedSocketMessages.decrementAndGet();
+    }
+
+    public void socketMessageDropped(String reason) {
+        Counter.builder("jmedia.websocket.dropped").tag("reason", reason)
+                .register(registry).increment();
+    }
+
+    public void slowSocketDisconnected() {
+        Counter.builder("jmedia.websocket.slow.disconnects")
+                .register(registry).increment();
+    }
+
+    // ========== METADATA PROVIDERS ==========
+
+    public void recordMetadataCache(String provider, String result) {
+        Counter.builder("jmedia.metadata.cache").tag("provider", provider).tag("result", result)
+                .register(registry).increment();
+    }
+
+    private final class MeteredOutputStream extends FilterOutputStream {
+        private final String route;
+        private final long startedAtNanos;
+        private boolean firstByteRecorded;
+        long bytes;
+
+        MeteredOutputStream(OutputStream out, String route, long startedAtNanos) {
+            super(out);
+            this.route = route;
+            this.startedAtNanos = startedAtNanos;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written(len);
+        }
+
+        private void written(int len) {
+            if (len > 0 && !firstByteRecorded) {
+                firstByteRecorded = true;
+                Timer.builder("jmedia.stream.ttfb").tag("route", route)
+                        .description("Request arrival to first body byte")
+                        .register(registry).record(Duration.ofNanos(System.nanoTime() - startedAtNanos));
+            }
+            bytes += len;
+        }
+    }
+}
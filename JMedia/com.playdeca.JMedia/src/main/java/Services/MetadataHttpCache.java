@@ -0,0 +1,406 @@
+package Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Disk-backed cache of GET responses from the metadata providers, shared by all of them.
+ *
+ * Entries are stored one file per request under {@code jmedia.metadata-cache.dir}, named by the
+ * SHA-256 of provider and URI, and survive restarts. Each provider has a TTL for responses with
+ * data and a shorter one for negative answers (404, or a 200 the caller recognises as "no
+ * results"), both overridable with {@code jmedia.metadata-cache.<provider>.ttl} and
+ * {@code .negative-ttl}. Rate-limit and server errors are never stored, including those sent
+ * as a 200 with a top-level {@code error} object (Deezer reports quota errors that way).
+ *
+ * Concurrent lookups of the same request share one network call, and network calls to each host
+ * pass through a token bucket sized to that API's published limit, which replaces the fixed
+ * sleeps the providers used to do. Any URI works, so a local stub server can stand in for a
+ * provider; unknown hosts get a default rate.
+ */
+@ApplicationScoped
+public class MetadataHttpCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataHttpCache.class);
+
+    public enum Provider {
+        MUSICBRAINZ("musicbrainz", Duration.ofDays(30), Duration.ofDays(3)),
+        DEEZER("deezer", Duration.ofDays(30), Duration.ofDays(3)),
+        THEAUDIODB("theaudiodb", Duration.ofDays(30), Duration.ofDays(3)),
+        IMDB("imdb", Duration.ofDays(30), Duration.ofDays(1)),
+        INTRODB("introdb", Duration.ofDays(7), Duration.ofDays(1)),
+        OPENSUBTITLES("opensubtitles", Duration.ofDays(1), Duration.ofHours(6));
+
+        final String id;
+        final Duration ttl;
+        final Duration negativeTtl;
+
+        Provider(String id, Duration ttl, Duration negativeTtl) {
+            this.id = id;
+            this.ttl = ttl;
+            this.negativeTtl = negativeTtl;
+        }
+    }
+
+    /**
+     * Status and body of a cached or freshly fetched response.
+     */
+    public record CachedResponse(int statusCode, String body) {}
+
+    /** Requests per second and burst size per host. */
+    private record Rate(double perSecond, int burst) {}
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Rate DEFAULT_RATE = new Rate(5, 5);
+    private static final Map<String, Rate> HOST_RATES = Map.of(
+            "musicbrainz.org", new Rate(1, 1),
+            "api.deezer.com", new Rate(10, 10),
+            "www.theaudiodb.com", new Rate(2, 2),
+            "www.opensubtitles.org", new Rate(1, 2));
+
+    /** Persisted form of an entry. */
+    static final class StoredEntry {
+        public String uri;
+        public int status;
+        public boolean negative;
+        public long storedAt;
+        public String body;
+    }
+
+    @ConfigProperty(name = "jmedia.metadata-cache.dir", defaultValue = "${user.home}/.jmedia/http-cache")
+    String cacheDir;
+
+    @ConfigProperty(name = "jmedia.metadata-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Inject
+    MediaMetrics metrics;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private final Map<Provider, Duration> ttls = new EnumMap<>(Provider.class);
+    private final Map<Provider, Duration> negativeTtls = new EnumMap<>(Provider.class);
+    private final Map<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private Path root;
+
+    @PostConstruct
+    void init() {
+        var config = ConfigProvider.getConfig();
+        for (Provider provider : Provider.values()) {
+            String prefix = "jmedia.metadata-cache." + provider.id;
+            ttls.put(provider, config.getOptionalValue(prefix + ".ttl", Duration.class).orElse(provider.ttl));
+            negativeTtls.put(provider, config.getOptionalValue(prefix + ".negative-ttl", Duration.class).orElse(provider.negativeTtl));
+        }
+        root = Path.of(cacheDir);
+    }
+
+    // ========== LOOKUP ==========
+
+    public CachedResponse fetch(Provider provider, HttpRequest request) throws IOException, InterruptedException {
+        return fetch(provider, request, null);
+    }
+
+    /**
+     * Cached response for a GET request, or the network response, stored when cacheable.
+     *
+     * @param noResults recognises 200 bodies that carry no data, cached with the negative TTL;
+     *                  may be null
+     */
+    public CachedResponse fetch(Provider provider, HttpRequest request, Predicate<String> noResults)
+            throws IOException, InterruptedException {
+        if (!enabled || !"GET".equals(request.method())) {
+            return send(request);
+        }
+
+        String key = key(provider, request.uri());
+        CachedResponse cached = read(provider, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            metrics.recordMetadataCache(provider.id, "coalesced");
+            return await(existing);
+        }
+
+        try {
+            CachedResponse response = send(request);
+            metrics.recordMetadataCache(provider.id, "miss");
+            store(provider, key, request.uri(), response, noResults);
+            mine.complete(response);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private CachedResponse send(HttpRequest request) throws IOException, InterruptedException {
+        TokenBucket bucket = bucketFor(request.uri());
+        bucket.acquire();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 429) {
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(2);
+            bucket.pause(TimeUnit.SECONDS.toNanos(Math.min(60, Math.max(1, retryAfter))));
+        }
+        return new CachedResponse(response.statusCode(), response.body());
+    }
+
+    /**
+     * Recognises JSON bodies whose {@code field} is present and an empty array, the usual shape
+     * of a search without matches. A missing field is not an answer, so it does not count.
+     */
+    public static Predicate<String> emptyJsonArray(String field) {
+        return body -> {
+            try {
+                var node = JSON.readTree(body).get(field);
+                return node != null && node.isArray() && node.isEmpty();
+            } catch (IOException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Like {@link #emptyJsonArray}, but an explicit {@code null} also means no matches, which is
+     * how TheAudioDB answers an empty search. The field must still be present.
+     */
+    public static Predicate<String> nullOrEmptyJsonArray(String field) {
+        return body -> {
+            try {
+                var node = JSON.readTree(body).get(field);
+                return node != null && (node.isNull() || (node.isArray() && node.isEmpty()));
+            } catch (IOException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * A 200 whose JSON body carries a top-level {@code error} object: a temporary failure
+     * (quota, rate limit) dressed as success.
+     */
+    private static boolean isErrorBody(String body) {
+        if (body == null || !body.contains("\"error\"")) {
+            return false;
+        }
+        try {
+            var error = JSON.readTree(body).get("error");
+            return error != null && error.isObject();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static CachedResponse await(CompletableFuture<CachedResponse> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException ie) {
+                // The leader was interrupted, not us; report it as a failed request
+                throw new IOException("Coalesced request interrupted", ie);
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // ========== STORAGE ==========
+
+    private CachedResponse read(Provider provider, String key) {
+        Path file = fileFor(provider, key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            StoredEntry entry = JSON.readValue(file.toFile(), StoredEntry.class);
+            Duration ttl = entry.negative ? negativeTtls.get(provider) : ttls.get(provider);
+            if (System.currentTimeMillis() - entry.storedAt > ttl.toMillis()) {
+                return null;
+            }
+            metrics.recordMetadataCache(provider.id, entry.negative ? "negative-hit" : "hit");
+            return new CachedResponse(entry.status, entry.body);
+        } catch (IOException e) {
+            LOGGER.debug("Discarding unreadable cache entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(Provider provider, String key, URI uri, CachedResponse response, Predicate<String> noResults) {
+        boolean negative;
+        if (response.statusCode() == 200) {
+            if (isErrorBody(response.body())) {
+                return;
+            }
+            negative = noResults != null && noResults.test(response.body());
+        } else if (response.statusCode() == 404 || response.statusCode() == 410) {
+            negative = true;
+        } else {
+            return;
+        }
+
+        StoredEntry entry = new StoredEntry();
+        entry.uri = uri.toString();
+        entry.status = response.statusCode();
+        entry.negative = negative;
+        entry.storedAt = System.currentTimeMillis();
+        entry.body = response.body();
+
+        Path file = fileFor(provider, key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try {
+                JSON.writeValue(temp.toFile(), entry);
+                try {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not store {} response in cache: {}", provider.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete entries older than their provider's longest TTL.
+     */
+    @Scheduled(every = "6h", delayed = "5m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void prune() {
+        for (Provider provider : Provider.values()) {
+            Path dir = root.resolve(provider.id);
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            long maxAgeMillis = Math.max(ttls.get(provider).toMillis(), negativeTtls.get(provider).toMillis());
+            long cutoff = System.currentTimeMillis() - maxAgeMillis;
+            int removed = 0;
+            try (Stream<Path> files = Files.walk(dir, 2)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Error pruning {} cache: {}", provider.id, e.getMessage());
+            }
+            if (removed > 0) {
+                LOGGER.info("Pruned {} expired {} cache entries", removed, provider.id);
+            }
+        }
+    }
+
+    private Path fileFor(Provider provider, String key) {
+        return root.resolve(provider.id).resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private static String key(Provider provider, URI uri) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((provider.id + " " + uri).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========== RATE LIMITING ==========
+
+    private TokenBucket bucketFor(URI uri) {
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        return buckets.computeIfAbsent(host, h -> {
+            Rate rate = HOST_RATES.getOrDefault(h, DEFAULT_RATE);
+            return new TokenBucket(rate.perSecond(), rate.burst());
+        });
+    }
+
+    /**
+     * Token bucket that hands out reservations, so waiting callers are served in arrival order
+     * at the configured rate.
+     */
+    private static final class TokenBucket {
+        private final double perNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double perSecond, int burst) {
+            this.perNano = perSecond / 1_000_000_000.0;
+            this.capacity = burst;
+            this.tokens = burst;
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos = reserve();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        /**
+         * Back off after the host reported rate limiting.
+         */
+        synchronized void pause(long nanos) {
+            refill();
+            tokens = Math.min(tokens, -nanos * perNano);
+        }
+
+        private synchronized long reserve() {
+            refill();
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / perNano);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * perNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -28,6 +28,9 @@ public class MetadataQueueProcessor {
     @Inject
     VideoMetadataService videoMetadataService;
     
+    @Inject
+    BackgroundWorkGovernor governor;
+    
     private ExecutorService executorService;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     
@@ -122,7 +125,10 @@ public class MetadataQueueProcessor {
                     return;
                 }
                 
-                videoMetadataService.fetchAndEnrichMetadata(video);
+                try (BackgroundWorkGovernor.Permit permit = governor.acquire(
+                        BackgroundWorkGovernor.Resource.IO, BackgroundWorkGovernor.Priority.NORMAL)) {
+                    videoMetadataService.fetchAndEnrichMetadata(video);
+                }
                 
                 // Rate limiting after each video
                 Thread.sleep(TMDB_DELAY_MS);
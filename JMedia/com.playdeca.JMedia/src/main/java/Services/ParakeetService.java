@@ -2,28 +2,52 @@ package Services;
 
 import Models.Video;
 import Models.SubtitleTrack;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-import io.quarkus.narayana.jta.QuarkusTransaction;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * AI subtitles with NVIDIA Parakeet.
+ *
+ * Transcription runs in a long-lived python worker ({@code run_parakeet.py --serve}) that
+ * keeps the model loaded and takes one job per line on stdin, so a batch pays the model load
+ * once. ffmpeg extracts each video's audio to 16 kHz mono PCM beforehand, which lets batches
+ * extract the next video while the current one transcribes. The worker stops after ten idle
+ * minutes to free its memory.
+ */
 @ApplicationScoped
 public class ParakeetService {
 
@@ -63,26 +87,58 @@ public class ParakeetService {
     @Inject
     Services.Platform.PlatformOperationsFactory platformOperationsFactory;
 
+    @Inject
+    FFmpegDiscoveryService ffmpegDiscoveryService;
+
+    @Inject
+    MediaMetrics metrics;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /** Script under scripts/ run as the worker; parakeet_stub_worker.py runs without the model. */
+    @ConfigProperty(name = "jmedia.parakeet.worker-script", defaultValue = DEFAULT_WORKER_SCRIPT)
+    String workerScript;
+
+    private static final String DEFAULT_WORKER_SCRIPT = "run_parakeet.py";
+    private static final Path SCRIPTS_DIR = Paths.get("src", "main", "resources", "scripts");
+    private static final long WORKER_IDLE_MS = 10 * 60 * 1000L;
+    private static final long WORKER_START_TIMEOUT_MINUTES = 10;
+    private static final long JOB_TIMEOUT_MINUTES = 60;
+
     private final AtomicReference<Process> currentProcess = new AtomicReference<>(null);
     private final AtomicBoolean cancelled = new AtomicBoolean(false);
 
-    private static final Path SCRIPT_PATH = Paths.get("src", "main", "resources", "scripts", "run_parakeet.py");
+    // Warm worker: one python process with the model loaded, fed one job per line.
+    // Only one transcription runs at a time; audio extraction runs alongside it.
+    private final ReentrantLock workerLock = new ReentrantLock();
+    private volatile Process worker;
+    private BufferedWriter workerInput;
+    private BufferedReader workerOutput;
+    private volatile long workerLastUsed;
+    private final AtomicInteger jobCounter = new AtomicInteger();
+    private final Set<Process> extractions = ConcurrentHashMap.newKeySet();
 
     private static final ExecutorService PARKEET_EXECUTOR = Executors.newThreadPerTaskExecutor(
         Thread.ofVirtual().name("parakeet-").factory()
     );
 
     public boolean isParakeetAvailable() {
+        Process running = worker;
+        if (running != null && running.isAlive()) {
+            return true;
+        }
         try {
             Services.Platform.PlatformOperations platformOps = platformOperationsFactory.getPlatformOperations();
             String python = platformOps.getParakeetPythonExecutable();
 
-            ProcessBuilder pb = new ProcessBuilder(
-                python, "-c",
-                "from transformers import AutoModelForTDT, AutoProcessor; " +
-                "AutoProcessor.from_pretrained('nvidia/parakeet-tdt-0.6b-v3'); " +
-                "print('ok')"
-            );
+            // The stub worker only needs python itself
+            String check = DEFAULT_WORKER_SCRIPT.equals(workerScript)
+                ? "from transformers import AutoModelForTDT, AutoProcessor; " +
+                  "AutoProcessor.from_pretrained('nvidia/parakeet-tdt-0.6b-v3'); " +
+                  "print('ok')"
+                : "print('ok')";
+            ProcessBuilder pb = new ProcessBuilder(python, "-c", check);
             pb.redirectErrorStream(true);
             Process process = pb.start();
             boolean finished = process.waitFor(30, TimeUnit.SECONDS);
@@ -107,6 +163,7 @@ public class ParakeetService {
 
     public void cancelGeneration() {
         cancelled.set(true);
+        extractions.forEach(Process::destroyForcibly);
         Process p = currentProcess.get();
         if (p != null && p.isAlive()) {
             p.destroyForcibly();
@@ -114,149 +171,64 @@ public class ParakeetService {
         }
     }
 
+    /**
+     * Clear a previous cancellation before a new batch starts.
+     */
+    public void resetCancellation() {
+        cancelled.set(false);
+    }
+
     public CompletableFuture<String> generateSubtitle(Video video, String languageCode) {
         return generateSubtitle(video, languageCode, null);
     }
 
     public CompletableFuture<String> generateSubtitle(Video video, String languageCode, Consumer<Double> progressCallback) {
         cancelled.set(false);
+        return generateSubtitle(video, languageCode, prepareAudio(video), progressCallback);
+    }
+
+    /**
+     * Transcribe a video whose audio is being extracted by {@link #prepareAudio}, so batches
+     * can extract the next video while the worker transcribes the current one.
+     */
+    public CompletableFuture<String> generateSubtitle(Video video, String languageCode, CompletableFuture<Path> audio,
+                                                      Consumer<Double> progressCallback) {
         String languageName = getLanguageName(languageCode);
 
         return CompletableFuture.supplyAsync(() -> {
+            Path pcm = null;
             try {
                 if (cancelled.get()) {
                     throw new InterruptedException("Generation cancelled");
                 }
-
-                if (video.path == null || video.path.isBlank()) {
-                    throw new RuntimeException("Video path is null or empty for: " + video.filename);
-                }
-                Path videoPath = Paths.get(video.path);
-                if (!Files.exists(videoPath)) {
-                    throw new RuntimeException("Video file not found: " + video.path);
-                }
-                Path outputDir = videoPath.getParent();
-
-                LOG.info("Starting Parakeet transcription for: {} (language: {})", video.filename, languageName);
-
-                Services.Platform.PlatformOperations platformOps = platformOperationsFactory.getPlatformOperations();
-                String pythonExec = platformOps.getParakeetPythonExecutable();
-
-                // Resolve script path (filesystem or extract from JAR)
-                Path scriptPath;
-                if (SCRIPT_PATH.toFile().exists()) {
-                    scriptPath = SCRIPT_PATH;
-                } else if (Paths.get("resources", "scripts", "run_parakeet.py").toFile().exists()) {
-                    scriptPath = Paths.get("resources", "scripts", "run_parakeet.py");
-                } else if (Paths.get(System.getProperty("user.dir"), "src", "main", "resources", "scripts", "run_parakeet.py").toFile().exists()) {
-                    scriptPath = Paths.get(System.getProperty("user.dir"), "src", "main", "resources", "scripts", "run_parakeet.py");
-                } else {
-                    // Extract from JAR to persistent location once
-                    Path jmediaDir = Paths.get(System.getProperty("user.home"), ".jmedia", "scripts");
-                    Files.createDirectories(jmediaDir);
-                    scriptPath = jmediaDir.resolve("run_parakeet.py");
-                    if (!scriptPath.toFile().exists()) {
-                        try (InputStream is = getClass().getClassLoader().getResourceAsStream("scripts/run_parakeet.py")) {
-                            if (is == null) {
-                                throw new RuntimeException("Script 'scripts/run_parakeet.py' not found in classpath");
-                            }
-                            Files.copy(is, scriptPath);
-                            LOG.info("Extracted Parakeet script from JAR to: {}", scriptPath);
-                        }
-                    }
-                }
-
-                java.util.List<String> command = new java.util.ArrayList<>();
-                command.add(pythonExec);
-                command.add(scriptPath.toString());
-                command.add("--audio");
-                command.add(videoPath.toString());
-                command.add("--output");
-                command.add(outputDir.toString());
-                command.add("--language");
-                command.add(languageCode);
-
-                LOG.debug("Parakeet command: {}", String.join(" ", command));
-
-                ProcessBuilder pb = new ProcessBuilder(command);
-                pb.redirectErrorStream(true);
-                Process process = pb.start();
-                currentProcess.set(process);
-
-                // Capture output and parse progress
-                java.util.ArrayList<String> outputLines = new java.util.ArrayList<>();
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if (cancelled.get()) {
-                            process.destroyForcibly();
-                            throw new InterruptedException("Generation cancelled");
-                        }
-
-                        outputLines.add(line);
-                        if (outputLines.size() > 20) {
-                            outputLines.remove(0);
-                        }
-
-                        if (line.startsWith("PROGRESS:")) {
-                            try {
-                                double progress = Double.parseDouble(line.substring(9));
-                                if (progressCallback != null) {
-                                    progressCallback.accept(progress);
-                                }
-                            } catch (NumberFormatException e) {
-                                LOG.debug("Failed to parse progress from: {}", line);
-                            }
-                        } else if (line.startsWith("DEVICE:")) {
-                            LOG.info("Parakeet using device: {}", line.substring(7));
-                        } else if (line.startsWith("PARAKEET:")) {
-                            LOG.info("Parakeet: {}", line.substring(9));
-                        } else if (line.startsWith("ERROR:")) {
-                            LOG.warn("Parakeet: {}", line);
-                        } else if (line.startsWith("WARN:")) {
-                            LOG.warn("Parakeet: {}", line);
-                        } else {
-                            LOG.debug("Parakeet: {}", line);
-                        }
-                    }
-                }
-
                 try {
-                    process.onExit().get(60, TimeUnit.MINUTES);
-                } catch (TimeoutException e) {
-                    process.destroyForcibly();
-                    LOG.error("Parakeet process timed out after 60 minutes for: {}", video.filename);
-                    throw new RuntimeException("Parakeet process timed out after 60 minutes");
+                    pcm = audio.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
                 }
-                currentProcess.set(null);
                 if (cancelled.get()) {
                     throw new InterruptedException("Generation cancelled");
                 }
 
-                int exitCode = process.exitValue();
-                if (exitCode == 0) {
-                    LOG.info("Parakeet transcription completed for: {}", video.filename);
-
-                    // Refresh tracks so the new .srt file is detected
-                    subtitleDownloadService.refreshSubtitleTracks(video);
-
-                    // Mark generated tracks as AI-generated (needs transaction for background thread)
-                    QuarkusTransaction.requiringNew().run(() -> {
-                        List<SubtitleTrack> tracks = SubtitleTrack.list("video.id", video.id);
-                        for (SubtitleTrack track : tracks) {
-                            if (!track.isAiGenerated) {
-                                track.isAiGenerated = true;
-                                track.persist();
-                            }
+                LOG.info("Starting Parakeet transcription for: {} (language: {})", video.filename, languageName);
+                transcribe(video, pcm, languageCode, progressCallback);
+                LOG.info("Parakeet transcription completed for: {}", video.filename);
+
+                // Refresh tracks so the new .srt file is detected
+                subtitleDownloadService.refreshSubtitleTracks(video);
+
+                // Mark generated tracks as AI-generated (needs transaction for background thread)
+                QuarkusTransaction.requiringNew().run(() -> {
+                    List<SubtitleTrack> tracks = SubtitleTrack.list("video.id", video.id);
+                    for (SubtitleTrack track : tracks) {
+                        if (!track.isAiGenerated) {
+                            track.isAiGenerated = true;
+                            track.persist();
                         }
-                    });
+                    }
+                });
 
-                    return "Success";
-                } else {
-                    String details = String.join("\n", outputLines.subList(Math.max(0, outputLines.size() - 10), outputLines.size()));
-                    LOG.error("Parakeet failed with exit code: {}. Last output:\n{}", exitCode, details);
-                    throw new RuntimeException("Parakeet process failed (exit " + exitCode + "). Last output: " + details);
-                }
+                return "Success";
 
             } catch (InterruptedException e) {
                 LOG.info("Parakeet transcription cancelled for: {}", video.filename);
@@ -269,9 +241,347 @@ public class ParakeetService {
                 LOG.error("Error transcribing with Parakeet", e);
                 throw new RuntimeException("Error transcribing with Parakeet: " + e.getMessage());
             } catch (Exception e) {
+                if (cancelled.get()) {
+                    LOG.info("Parakeet transcription cancelled for: {}", video.filename);
+                    throw new RuntimeException("Generation cancelled");
+                }
                 LOG.error("Error transcribing with Parakeet", e);
                 throw new RuntimeException("Error transcribing with Parakeet: " + e.getMessage());
+            } finally {
+                deleteQuietly(pcm);
+            }
+        }, PARKEET_EXECUTOR);
+    }
+
+    /**
+     * Start extracting a video's audio as 16 kHz mono float PCM, the format the worker reads
+     * without decoding the container itself. The caller owns the returned file.
+     */
+    public CompletableFuture<Path> prepareAudio(Video video) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return extractAudio(video);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Generation cancelled");
             }
         }, PARKEET_EXECUTOR);
     }
+
+    /**
+     * Drop audio prepared for a video that will not be transcribed.
+     */
+    public void discardAudio(CompletableFuture<Path> audio) {
+        if (audio != null) {
+            audio.thenAccept(ParakeetService::deleteQuietly);
+        }
+    }
+
+    private Path extractAudio(Video video) throws IOException, InterruptedException {
+        if (video.path == null || video.path.isBlank()) {
+            throw new IOException("Video path is null or empty for: " + video.filename);
+        }
+        Path videoPath = Paths.get(video.path);
+        if (!Files.exists(videoPath)) {
+            throw new IOException("Video file not found: " + video.path);
+        }
+        if (cancelled.get()) {
+            throw new InterruptedException("Generation cancelled");
+        }
+
+        Path pcm = Files.createTempFile("jmedia-parakeet-", ".f32");
+        List<String> command = List.of(
+            ffmpegDiscoveryService.findFFmpegExecutable(), "-nostdin", "-v", "error", "-y",
+            "-i", videoPath.toString(),
+            "-vn", "-sn", "-dn", "-ac", "1", "-ar", "16000", "-f", "f32le",
+            pcm.toString()
+        );
+
+        long start = System.nanoTime();
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        Process process = metrics.trackProcess("audio.extract", pb.start());
+        extractions.add(process);
+        boolean extracted = false;
+        try {
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (!process.waitFor(30, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                throw new IOException("Audio extraction timed out for: " + video.filename);
+            }
+            if (cancelled.get()) {
+                throw new InterruptedException("Generation cancelled");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("Audio extraction failed (exit " + process.exitValue() + "): " + output.strip());
+            }
+            extracted = true;
+            LOG.debug("Extracted audio for {} in {} ms ({} KB)", video.filename,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Files.size(pcm) / 1024);
+            return pcm;
+        } finally {
+            extractions.remove(process);
+            if (!extracted) {
+                deleteQuietly(pcm);
+            }
+        }
+    }
+
+    private void transcribe(Video video, Path pcm, String languageCode, Consumer<Double> progressCallback)
+            throws IOException, InterruptedException {
+        Path videoPath = Paths.get(video.path);
+        String fileName = videoPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        Path srtPath = videoPath.resolveSibling((dot > 0 ? fileName.substring(0, dot) : fileName) + ".srt");
+
+        workerLock.lockInterruptibly();
+        try {
+            ensureWorker();
+            Process process = worker;
+            String jobId = String.valueOf(jobCounter.incrementAndGet());
+
+            ObjectNode job = objectMapper.createObjectNode();
+            job.put("id", jobId);
+            job.put("pcm", pcm.toAbsolutePath().toString());
+            job.put("output", srtPath.toAbsolutePath().toString());
+            job.put("language", languageCode);
+
+            AtomicBoolean timedOut = new AtomicBoolean(false);
+            CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }, CompletableFuture.delayedExecutor(JOB_TIMEOUT_MINUTES, TimeUnit.MINUTES));
+            try {
+                workerInput.write(objectMapper.writeValueAsString(job));
+                workerInput.newLine();
+                workerInput.flush();
+                awaitJob(jobId, progressCallback);
+            } catch (IOException e) {
+                stopWorker();
+                if (timedOut.get()) {
+                    LOG.error("Parakeet job timed out after {} minutes for: {}", JOB_TIMEOUT_MINUTES, video.filename);
+                    throw new IOException("Parakeet process timed out after " + JOB_TIMEOUT_MINUTES + " minutes");
+                }
+                if (cancelled.get()) {
+                    throw new InterruptedException("Generation cancelled");
+                }
+                throw e;
+            } finally {
+                watchdog.cancel(false);
+                workerLastUsed = System.currentTimeMillis();
+            }
+        } finally {
+            workerLock.unlock();
+        }
+    }
+
+    /**
+     * Read worker output until the job finishes. A FAILED job leaves the worker running.
+     */
+    private void awaitJob(String jobId, Consumer<Double> progressCallback) throws IOException {
+        List<String> recentLines = new ArrayList<>();
+        String line;
+        while ((line = workerOutput.readLine()) != null) {
+            if (line.equals("DONE:" + jobId)) {
+                return;
+            }
+            if (line.startsWith("FAILED:" + jobId + ":")) {
+                String details = line.substring(("FAILED:" + jobId + ":").length());
+                LOG.error("Parakeet job failed: {}", details);
+                throw new RuntimeException("Parakeet transcription failed: " + details);
+            }
+            if (line.startsWith("PROGRESS:")) {
+                try {
+                    double progress = Double.parseDouble(line.substring(9));
+                    if (progressCallback != null) {
+                        progressCallback.accept(progress);
+                    }
+                } catch (NumberFormatException e) {
+                    LOG.debug("Failed to parse progress from: {}", line);
+                }
+                continue;
+            }
+            recentLines.add(line);
+            if (recentLines.size() > 20) {
+                recentLines.remove(0);
+            }
+            logWorkerLine(line);
+        }
+        throw new IOException("Parakeet worker exited unexpectedly. Last output: " + String.join("\n", recentLines));
+    }
+
+    private void ensureWorker() throws IOException, InterruptedException {
+        if (worker != null && worker.isAlive()) {
+            return;
+        }
+        stopWorker();
+
+        String pythonExec;
+        try {
+            pythonExec = platformOperationsFactory.getPlatformOperations().getParakeetPythonExecutable();
+        } catch (Exception e) {
+            throw new IOException("Parakeet Python environment not available: " + e.getMessage(), e);
+        }
+        Path scriptPath = resolveScript(workerScript);
+        List<String> command = List.of(pythonExec, scriptPath.toString(), "--serve");
+        LOG.info("Starting Parakeet worker: {}", String.join(" ", command));
+
+        long start = System.nanoTime();
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        Process process = metrics.trackProcess("parakeet", pb.start());
+        currentProcess.set(process);
+        worker = process;
+        workerInput = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        workerOutput = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+        // Model load can take minutes on first download; give up if it never reports READY
+        CompletableFuture<Void> watchdog = CompletableFuture.runAsync(process::destroyForcibly,
+            CompletableFuture.delayedExecutor(WORKER_START_TIMEOUT_MINUTES, TimeUnit.MINUTES));
+        try {
+            List<String> recentLines = new ArrayList<>();
+            String line;
+            while ((line = workerOutput.readLine()) != null) {
+                if (line.equals("READY")) {
+                    LOG.info("Parakeet worker ready in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    workerLastUsed = System.currentTimeMillis();
+                    return;
+                }
+                recentLines.add(line);
+                if (recentLines.size() > 20) {
+                    recentLines.remove(0);
+                }
+                logWorkerLine(line);
+            }
+            stopWorker();
+            if (cancelled.get()) {
+                throw new InterruptedException("Generation cancelled");
+            }
+            throw new IOException("Parakeet worker exited before it was ready. Last output: " + String.join("\n", recentLines));
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private void logWorkerLine(String line) {
+        if (line.startsWith("DEVICE:")) {
+            LOG.info("Parakeet using device: {}", line.substring(7));
+        } else if (line.startsWith("PARAKEET:")) {
+            LOG.info("Parakeet: {}", line.substring(9));
+        } else if (line.startsWith("ERROR:") || line.startsWith("WARN:")) {
+            LOG.warn("Parakeet: {}", line);
+        } else {
+            LOG.debug("Parakeet: {}", line);
+        }
+    }
+
+    /**
+     * Close the worker's stdin so it exits on its own, then make sure it is gone.
+     * Callers hold the worker lock.
+     */
+    private void stopWorker() {
+        Process process = worker;
+        worker = null;
+        currentProcess.compareAndSet(process, null);
+        if (process == null) {
+            return;
+        }
+        try {
+            if (workerInput != null) {
+                workerInput.close();
+            }
+        } catch (IOException ignored) {
+            // Worker already gone
+        }
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        workerInput = null;
+        workerOutput = null;
+    }
+
+    /**
+     * Release the model's memory after a quiet period; the next job starts a new worker.
+     */
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void stopIdleWorker() {
+        if (!workerLock.tryLock()) {
+            return;
+        }
+        try {
+            if (worker != null && System.currentTimeMillis() - workerLastUsed > WORKER_IDLE_MS) {
+                LOG.info("Stopping idle Parakeet worker");
+                stopWorker();
+            }
+        } finally {
+            workerLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        extractions.forEach(Process::destroyForcibly);
+        if (workerLock.tryLock()) {
+            try {
+                stopWorker();
+            } finally {
+                workerLock.unlock();
+            }
+        } else {
+            Process p = currentProcess.get();
+            if (p != null) {
+                p.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Resolve a script from the source tree, or extract it from the JAR to ~/.jmedia/scripts.
+     * The extracted copy is refreshed when the bundled script changes.
+     */
+    private Path resolveScript(String name) throws IOException {
+        for (Path candidate : List.of(
+                SCRIPTS_DIR.resolve(name),
+                Paths.get("resources", "scripts", name),
+                Paths.get(System.getProperty("user.dir")).resolve(SCRIPTS_DIR).resolve(name))) {
+            if (candidate.toFile().exists()) {
+                return candidate;
+            }
+        }
+
+        byte[] bundled;
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream("scripts/" + name)) {
+            if (is == null) {
+                throw new IOException("Script 'scripts/" + name + "' not found in classpath");
+            }
+            bundled = is.readAllBytes();
+        }
+        Path jmediaDir = Paths.get(System.getProperty("user.home"), ".jmedia", "scripts");
+        Files.createDirectories(jmediaDir);
+        Path scriptPath = jmediaDir.resolve(name);
+        if (!Files.exists(scriptPath) || !Arrays.equals(Files.readAllBytes(scriptPath), bundled)) {
+            Files.write(scriptPath, bundled);
+            LOG.info("Extracted Parakeet script from JAR to: {}", scriptPath);
+        }
+        return scriptPath;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
 }
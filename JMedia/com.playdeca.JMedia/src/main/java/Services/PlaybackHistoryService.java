@@ -1,71 +1,78 @@
 package Services;
 
-import Models.PlaybackHistory;
 import Models.Profile;
 import Models.Song;
+import Models.Telemetry.PlaybackHistory;
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import jakarta.persistence.EntityManager;
 
+/**
+ * Song play history. Rows live in the telemetry store with plain song and profile ids; every
+ * telemetry access runs in its own requiringNew transaction, and songs are resolved from the
+ * catalog afterwards. Methods that read the catalog keep a (catalog) transaction; the
+ * telemetry work suspends it.
+ */
 @ApplicationScoped
 public class PlaybackHistoryService {
 
     @Inject
-    EntityManager em; 
-    
+    EntityManager em;
+
+    @Inject
+    @PersistenceUnit("telemetry")
+    EntityManager telemetryEm;
+
     @Inject
     ProfileService profileService;
 
 
     @Transactional
     public void add(Song song, Long profileId) {
-        if (song == null) {
-            return;
-        }
-        Profile profile = profileService.findById(profileId);
-        if (profile == null) {
-            throw new IllegalArgumentException("Profile with ID " + profileId + " not found.");
-        }
-
-        // Deduplication: check if there's a recent history record (within 5 minutes) for the same song and profile
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-        PlaybackHistory existingHistory = PlaybackHistory.find(
-            "song = ?1 AND profile = ?2 AND playedAt >= ?3",
-            song, profile, fiveMinutesAgo
-        ).firstResult();
-
-        if (existingHistory != null) {
-            // Update timestamp of existing record instead of creating new one
-            existingHistory.playedAt = LocalDateTime.now();
-            em.merge(existingHistory);
+        if (song == null || song.id == null) {
             return;
         }
-
-        Song managedSong = em.merge(song);
-        PlaybackHistory history = new PlaybackHistory();
-        history.song = managedSong;
-        history.playedAt = LocalDateTime.now();
-        history.profile = profile;
-        history.persist();
+        requireProfile(profileId);
+        Long songId = song.id;
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            // Deduplication: check if there's a recent history record (within 5 minutes) for the same song and profile
+            LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
+            PlaybackHistory existingHistory = PlaybackHistory.find(
+                "songId = ?1 AND profileId = ?2 AND playedAt >= ?3",
+                songId, profileId, fiveMinutesAgo
+            ).firstResult();
+
+            if (existingHistory != null) {
+                // Update timestamp of existing record instead of creating new one
+                existingHistory.playedAt = LocalDateTime.now();
+                return;
+            }
+
+            PlaybackHistory history = new PlaybackHistory();
+            history.songId = songId;
+            history.playedAt = LocalDateTime.now();
+            history.profileId = profileId;
+            history.persist();
+        });
     }
 
     @Transactional
     public void clearHistory(Long profileId) {
-        Profile profile = profileService.findById(profileId);
-        if (profile == null) {
-            throw new IllegalArgumentException("Profile with ID " + profileId + " not found.");
-        }
-        em.createQuery("DELETE FROM PlaybackHistory ph WHERE ph.profile = :profile")
-                .setParameter("profile", profile)
-                .executeUpdate();
+        requireProfile(profileId);
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.delete("profileId", profileId));
     }
 
-    @Transactional
     public void clearHistoryForAllProfiles() {
-        em.createQuery("DELETE FROM PlaybackHistory").executeUpdate();
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.deleteAll());
     }
 
     @Transactional
@@ -73,93 +80,123 @@ public class PlaybackHistoryService {
         if (songId == null) {
             return;
         }
-        Profile profile = profileService.findById(profileId);
-        if (profile == null) {
-            throw new IllegalArgumentException("Profile with ID " + profileId + " not found.");
-        }
-        em.createQuery("DELETE FROM PlaybackHistory ph WHERE ph.song.id = :songId AND ph.profile = :profile")
-                .setParameter("songId", songId)
-                .setParameter("profile", profile)
-                .executeUpdate();
+        requireProfile(profileId);
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.delete("songId = ?1 AND profileId = ?2", songId, profileId));
     }
 
-    @Transactional
     public void deleteBySongIdForAllProfiles(Long songId) {
         if (songId == null) {
             return;
         }
-        em.createQuery("DELETE FROM PlaybackHistory ph WHERE ph.song.id = :songId")
-                .setParameter("songId", songId)
-                .executeUpdate();
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.delete("songId", songId));
+    }
+
+    /**
+     * Moves a profile's history to another profile, e.g. when the first one is deleted.
+     */
+    public void reassignProfile(Long fromProfileId, Long toProfileId) {
+        if (fromProfileId == null || toProfileId == null) {
+            return;
+        }
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.update("profileId = ?1 WHERE profileId = ?2", toProfileId, fromProfileId));
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public List<PlaybackHistory> getHistory(int page, int pageSize, Long profileId) {
         return getHistory(page, pageSize, profileId, "");
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    /**
+     * One page of history with {@code song} resolved. Rows whose song has since been deleted
+     * are left out of the page.
+     */
+    @Transactional
     public List<PlaybackHistory> getHistory(int page, int pageSize, Long profileId, String search) {
         Profile profile = profileService.findById(profileId);
         if (profile == null) {
             return List.of();
         }
-        
-        String query = "SELECT ph FROM PlaybackHistory ph WHERE ph.profile = :profile";
+
+        List<Long> songIds = null;
         if (search != null && !search.isBlank()) {
-            query += " AND (LOWER(ph.song.title) LIKE LOWER(:search) OR LOWER(ph.song.artist) LIKE LOWER(:search))";
+            songIds = matchingSongIds(search);
+            if (songIds.isEmpty()) {
+                return List.of();
+            }
         }
-        query += " ORDER BY ph.playedAt DESC";
-        
-        var q = em.createQuery(query, PlaybackHistory.class)
-                .setParameter("profile", profile);
-        
-        if (search != null && !search.isBlank()) {
-            q.setParameter("search", "%" + search + "%");
+
+        String query = "SELECT ph FROM PlaybackHistory ph WHERE ph.profileId = :profileId";
+        if (songIds != null) {
+            query += " AND ph.songId IN :songIds";
         }
-        
-        return q.setFirstResult((page - 1) * pageSize)
-                .setMaxResults(pageSize)
-                .getResultList();
+        query += " ORDER BY ph.playedAt DESC";
+
+        String jpql = query;
+        List<Long> filter = songIds;
+        List<PlaybackHistory> history = QuarkusTransaction.requiringNew().call(() -> {
+            var q = telemetryEm.createQuery(jpql, PlaybackHistory.class)
+                    .setParameter("profileId", profileId);
+            if (filter != null) {
+                q.setParameter("songIds", filter);
+            }
+            return q.setFirstResult((page - 1) * pageSize)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        });
+
+        Map<Long, Song> songs = findSongs(history.stream().map(h -> h.songId).distinct().toList());
+        history.forEach(h -> h.song = songs.get(h.songId));
+        return history.stream().filter(h -> h.song != null).toList();
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public List<Long> getRecentlyPlayedSongIds(int count, Long profileId) {
         Profile profile = profileService.findById(profileId);
         if (profile == null) {
             return List.of();
         }
-        return em.createQuery("SELECT ph.song.id FROM PlaybackHistory ph WHERE ph.profile = :profile ORDER BY ph.playedAt DESC", Long.class)
-                .setParameter("profile", profile)
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+                        "SELECT ph.songId FROM PlaybackHistory ph WHERE ph.profileId = :profileId ORDER BY ph.playedAt DESC", Long.class)
+                .setParameter("profileId", profileId)
                 .setMaxResults(count)
-                .getResultList();
+                .getResultList());
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public long getHistoryCount(Long profileId) {
         return getHistoryCount(profileId, "");
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public long getHistoryCount(Long profileId, String search) {
         Profile profile = profileService.findById(profileId);
         if (profile == null) {
             return 0;
         }
-        
-        String query = "SELECT COUNT(ph) FROM PlaybackHistory ph WHERE ph.profile = :profile";
-        if (search != null && !search.isBlank()) {
-            query += " AND (LOWER(ph.song.title) LIKE LOWER(:search) OR LOWER(ph.song.artist) LIKE LOWER(:search))";
-        }
-        
-        var q = em.createQuery(query, Long.class)
-                .setParameter("profile", profile);
-        
+
+        List<Long> songIds = null;
         if (search != null && !search.isBlank()) {
-            q.setParameter("search", "%" + search + "%");
-        }
-        
-        return q.getSingleResult();
+            songIds = matchingSongIds(search);
+            if (songIds.isEmpty()) {
+                return 0;
+            }
+        }
+
+        String query = "SELECT COUNT(ph) FROM PlaybackHistory ph WHERE ph.profileId = :profileId";
+        if (songIds != null) {
+            query += " AND ph.songId IN :songIds";
+        }
+
+        String jpql = query;
+        List<Long> filter = songIds;
+        return QuarkusTransaction.requiringNew().call(() -> {
+            var q = telemetryEm.createQuery(jpql, Long.class)
+                    .setParameter("profileId", profileId);
+            if (filter != null) {
+                q.setParameter("songIds", filter);
+            }
+            return q.getSingleResult();
+        });
     }
 
     /**
@@ -177,14 +214,30 @@ public class PlaybackHistoryService {
             return;
         }
 
-        List<PlaybackHistory> historyEntries = em.createQuery(
-            "SELECT ph FROM PlaybackHistory ph WHERE ph.song.id = :oldSongId", PlaybackHistory.class)
-            .setParameter("oldSongId", oldSongId)
-            .getResultList();
+        QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.update("songId = ?1 WHERE songId = ?2", newSongId, oldSongId));
+    }
+
+    private void requireProfile(Long profileId) {
+        if (profileService.findById(profileId) == null) {
+            throw new IllegalArgumentException("Profile with ID " + profileId + " not found.");
+        }
+    }
+
+    // Search runs against the catalog; the history query then filters on the matching ids
+    private List<Long> matchingSongIds(String search) {
+        return em.createQuery("SELECT s.id FROM Song s WHERE LOWER(s.title) LIKE LOWER(:search) OR LOWER(s.artist) LIKE LOWER(:search)", Long.class)
+                .setParameter("search", "%" + search + "%")
+                .getResultList();
+    }
 
-        for (PlaybackHistory history : historyEntries) {
-            history.song = newSong;
-            em.merge(history);
+    private Map<Long, Song> findSongs(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
         }
+        return em.createQuery("SELECT s FROM Song s WHERE s.id IN :ids", Song.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(s -> s.id, Function.identity()));
     }
 }
@@ -22,6 +22,12 @@ public class PlaybackStateService {
     @Inject
     ProfileService profileService;
 
+    @Inject
+    FragmentCacheService fragmentCacheService;
+
+    @Inject
+    AfterCommit afterCommit;
+
     @Transactional
     public synchronized PlaybackState getOrCreateState(Long profileId) {
         Profile profile = profileService.findById(profileId);
@@ -53,6 +59,8 @@ public class PlaybackStateService {
                 }
             }
         }
+        // States saved before queue blobs existed still hold their queues in the lazy list columns
+        state.migrateLegacyQueues();
         return state;
     }
 
@@ -62,9 +70,7 @@ private PlaybackState createDefaultState(Profile profile) {
         state.setVolume(0.8f);
         state.setCue(new ArrayList<>());
         state.setLastSongs(new ArrayList<>());
-        state.setOriginalCue(new ArrayList<>());
         state.setSecondaryCue(new ArrayList<>());
-        state.setSecondaryOriginalCue(new ArrayList<>());
         state.setCueIndex(-1);
         state.setSecondaryCueIndex(-1);
         state.setUsingSecondaryQueue(false);
@@ -90,17 +96,16 @@ private PlaybackState createDefaultState(Profile profile) {
         existingState.setVolume(newState.getVolume());
         existingState.setShuffleMode(newState.getShuffleMode());
         existingState.setLastUpdateTime(newState.getLastUpdateTime());
-// Create new instances of the collections to avoid shared references
-        existingState.setCue(new ArrayList<>(newState.getCue()));
+        // Queues are shared with the in-memory state and only re-encoded when they changed
+        existingState.setCue(newState.getCue());
         existingState.setLastSongs(new ArrayList<>(newState.getLastSongs()));
-        existingState.setOriginalCue(new ArrayList<>(newState.getOriginalCue()));
-        existingState.setSecondaryCue(new ArrayList<>(newState.getSecondaryCue()));
-        existingState.setSecondaryOriginalCue(new ArrayList<>(newState.getSecondaryOriginalCue()));
+        existingState.setSecondaryCue(newState.getSecondaryCue());
         existingState.setCueIndex(newState.getCueIndex());
         existingState.setSecondaryCueIndex(newState.getSecondaryCueIndex());
         existingState.setUsingSecondaryQueue(newState.isUsingSecondaryQueue());
 existingState.setRepeatMode(newState.getRepeatMode());
         existingState.setDjModeActive(newState.getDjModeActive() != null ? newState.getDjModeActive() : false);
+        existingState.storeQueues();
 
         em.merge(existingState);
         em.flush();
@@ -126,16 +131,17 @@ existingState.setRepeatMode(newState.getRepeatMode());
 // Create new instances of the collections to avoid shared references
         state.setCue(new ArrayList<>(defaultState.getCue()));
         state.setLastSongs(new ArrayList<>(defaultState.getLastSongs()));
-        state.setOriginalCue(new ArrayList<>(defaultState.getOriginalCue()));
         state.setSecondaryCue(new ArrayList<>(defaultState.getSecondaryCue()));
-        state.setSecondaryOriginalCue(new ArrayList<>(defaultState.getSecondaryOriginalCue()));
         state.setCueIndex(defaultState.getCueIndex());
         state.setSecondaryCueIndex(defaultState.getSecondaryCueIndex());
         state.setUsingSecondaryQueue(defaultState.isUsingSecondaryQueue());
 state.setRepeatMode(defaultState.getRepeatMode());
         state.setDjModeActive(defaultState.getDjModeActive() != null ? defaultState.getDjModeActive() : false);
+        state.storeQueues();
 
         em.merge(state);
         em.flush();
+        afterCommit.runOnce(new FragmentCacheService.ProfileChange(profileId),
+                () -> fragmentCacheService.profileChanged(profileId));
     }
 }
@@ -1,20 +1,37 @@
 package Services;
 
 import Models.Playlist;
+import Models.PlaylistEntry;
 import Models.Profile;
 import Models.Song;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import jakarta.transaction.Transactional.TxType;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 @ApplicationScoped
 public class PlaylistService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlaylistService.class);
+
+    // Keeps IN lists of song IDs well below database parameter limits
+    private static final int ID_CHUNK_SIZE = 1_000;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -24,11 +41,101 @@ public class PlaylistService {
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    FragmentCacheService fragmentCacheService;
+
+    @Inject
+    AfterCommit afterCommit;
+
     private boolean isMainProfileActive() {
         Profile activeProfile = settingsService.getActiveProfile();
         return activeProfile != null && activeProfile.isMainProfile;
     }
 
+    private boolean canAccess(Playlist playlist) {
+        Profile activeProfile = settingsService.getActiveProfile();
+        return isMainProfileActive() ||
+            (playlist != null && (
+                (playlist.getProfile() != null && playlist.getProfile().equals(activeProfile)) ||
+                Boolean.TRUE.equals(playlist.getIsGlobal())
+            ));
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        // Own transaction: a failed migration rolls back on its own instead of failing startup
+        try {
+            QuarkusTransaction.requiringNew().run(this::migrateLegacyPlaylistSongs);
+        } catch (Exception e) {
+            LOGGER.warn("Could not migrate legacy playlist_song table: {}", e.getMessage());
+        }
+        // Playlists created before the aggregates existed
+        QuarkusTransaction.requiringNew().run(() ->
+                refreshAggregates("WHERE p.songCount IS NULL OR p.totalDurationSeconds IS NULL", Map.of()));
+    }
+
+    /**
+     * Copies memberships from the old unordered playlist_song join table into playlist entries,
+     * keeping the table's row order, then drops it. Rows pointing at songs or playlists that no
+     * longer exist are skipped: the old table had no foreign keys, the entry table does.
+     */
+    private void migrateLegacyPlaylistSongs() {
+        Number legacyTables = (Number) em.createNativeQuery(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'PLAYLIST_SONG'")
+                .getSingleResult();
+        if (legacyTables.intValue() == 0) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("SELECT playlist_id, song_id FROM playlist_song").getResultList();
+        Map<Long, Set<Long>> songsByPlaylist = new LinkedHashMap<>();
+        Set<Long> referencedSongs = new HashSet<>();
+        for (Object[] row : rows) {
+            long songId = ((Number) row[1]).longValue();
+            songsByPlaylist.computeIfAbsent(((Number) row[0]).longValue(), k -> new LinkedHashSet<>()).add(songId);
+            referencedSongs.add(songId);
+        }
+        Set<Long> existingSongs = existingIds("Song", referencedSongs);
+        Set<Long> existingPlaylists = existingIds("Playlist", songsByPlaylist.keySet());
+
+        int migrated = 0;
+        int skipped = 0;
+        for (Map.Entry<Long, Set<Long>> playlistSongs : songsByPlaylist.entrySet()) {
+            if (!existingPlaylists.contains(playlistSongs.getKey())) {
+                skipped += playlistSongs.getValue().size();
+                continue;
+            }
+            Playlist playlist = em.getReference(Playlist.class, playlistSongs.getKey());
+            long position = 0;
+            for (Long songId : playlistSongs.getValue()) {
+                if (!existingSongs.contains(songId)) {
+                    skipped++;
+                    continue;
+                }
+                position += PlaylistEntry.POSITION_GAP;
+                persistEntry(playlist, em.getReference(Song.class, songId), position);
+                migrated++;
+            }
+        }
+        em.flush();
+        refreshAggregates("", Map.of());
+
+        em.createNativeQuery("DROP TABLE playlist_song").executeUpdate();
+        LOGGER.info("Migrated {} playlist memberships across {} playlists to ordered entries ({} orphaned rows skipped)",
+                migrated, existingPlaylists.size(), skipped);
+    }
+
+    private Set<Long> existingIds(String entity, Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += ID_CHUNK_SIZE) {
+            existing.addAll(em.createQuery("SELECT x.id FROM " + entity + " x WHERE x.id IN :ids", Long.class)
+                    .setParameter("ids", all.subList(from, Math.min(all.size(), from + ID_CHUNK_SIZE)))
+                    .getResultList());
+        }
+        return existing;
+    }
+
     @Transactional
     public void save(Playlist playlist) {
         if (playlist.id == null) { // New playlist
@@ -59,10 +166,9 @@ public class PlaylistService {
                  !Boolean.TRUE.equals(playlist.getIsGlobal()))) {
                 Playlist managed = em.contains(playlist) ? playlist : em.merge(playlist);
 
-                for (Song song : managed.getSongs()) {
-                    em.merge(song);
-                }
-                managed.getSongs().clear();
+                em.createQuery("DELETE FROM PlaylistEntry e WHERE e.playlist.id = :playlistId")
+                        .setParameter("playlistId", managed.id)
+                        .executeUpdate();
 
                 em.remove(managed);
             }
@@ -133,17 +239,10 @@ public class PlaylistService {
 
     @Transactional
     public void toggleSongInPlaylist(Long playlistId, Long songId) {
-        Playlist playlist = find(playlistId); // find is access-aware
-        Song song = songService.find(songId);
-
-        if (playlist != null && song != null) {
-            if (playlist.getSongs().contains(song)) {
-                playlist.getSongs().remove(song);
-            } else {
-                playlist.getSongs().add(song);
-            }
-            em.merge(playlist);
-            em.flush();
+        if (containsSong(playlistId, songId)) {
+            removeSong(playlistId, songId);
+        } else {
+            addSong(playlistId, songId);
         }
     }
 
@@ -151,8 +250,137 @@ public class PlaylistService {
     public void clearAllPlaylistSongs() {
         // Only main profile can do this.
         if (isMainProfileActive()) {
-            em.createNativeQuery("DELETE FROM playlist_song").executeUpdate();
+            em.createQuery("DELETE FROM PlaylistEntry").executeUpdate();
+            em.createQuery("UPDATE Playlist p SET p.songCount = 0, p.totalDurationSeconds = 0").executeUpdate();
+            afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
+        }
+    }
+
+    // ── Entries ──
+
+    /**
+     * Appends a song unless the playlist already holds it.
+     *
+     * @return true when an entry was added
+     */
+    @Transactional
+    public boolean addSong(Long playlistId, Long songId) {
+        Playlist playlist = find(playlistId); // find is access-aware
+        Song song = songId != null ? songService.find(songId) : null;
+        if (playlist == null || song == null || containsSong(playlistId, songId)) {
+            return false;
+        }
+        persistEntry(em.getReference(Playlist.class, playlistId), song, lastPosition(playlistId) + PlaylistEntry.POSITION_GAP);
+        adjustAggregates(playlistId, 1, song.getDurationSeconds());
+        // Membership changes do not fire Playlist entity callbacks; bump once the entry commits
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
+        return true;
+    }
+
+    /**
+     * @return true when the playlist held the song
+     */
+    @Transactional
+    public boolean removeSong(Long playlistId, Long songId) {
+        if (find(playlistId) == null) { // find is access-aware
+            return false;
+        }
+        List<Integer> durations = em.createQuery(
+                "SELECT s.durationSeconds FROM PlaylistEntry e JOIN e.song s WHERE e.playlist.id = :playlistId AND s.id = :songId", Integer.class)
+                .setParameter("playlistId", playlistId)
+                .setParameter("songId", songId)
+                .getResultList();
+        if (durations.isEmpty()) {
+            return false;
+        }
+        em.createQuery("DELETE FROM PlaylistEntry e WHERE e.playlist.id = :playlistId AND e.song.id = :songId")
+                .setParameter("playlistId", playlistId)
+                .setParameter("songId", songId)
+                .executeUpdate();
+        adjustAggregates(playlistId, -1, -durations.get(0));
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
+        return true;
+    }
+
+    public boolean containsSong(Long playlistId, Long songId) {
+        if (playlistId == null || songId == null) {
+            return false;
         }
+        return !em.createQuery(
+                "SELECT e.id FROM PlaylistEntry e WHERE e.playlist.id = :playlistId AND e.song.id = :songId", Long.class)
+                .setParameter("playlistId", playlistId)
+                .setParameter("songId", songId)
+                .setMaxResults(1)
+                .getResultList().isEmpty();
+    }
+
+    /**
+     * IDs of the playlists holding a song, from the song index of the entry table.
+     */
+    public List<Long> findPlaylistIdsContaining(Long songId) {
+        if (songId == null) {
+            return List.of();
+        }
+        return em.createQuery("SELECT e.playlist.id FROM PlaylistEntry e WHERE e.song.id = :songId", Long.class)
+                .setParameter("songId", songId)
+                .getResultList();
+    }
+
+    /**
+     * Song IDs of a playlist in playlist order, or null when the playlist does not exist or is
+     * not accessible to the active profile.
+     */
+    public List<Long> findSongIds(Long playlistId) {
+        Playlist playlist = playlistId != null ? em.find(Playlist.class, playlistId) : null;
+        if (playlist == null || !canAccess(playlist)) {
+            return null;
+        }
+        return em.createQuery(
+                "SELECT e.song.id FROM PlaylistEntry e WHERE e.playlist.id = :playlistId ORDER BY e.position", Long.class)
+                .setParameter("playlistId", playlistId)
+                .getResultList();
+    }
+
+    private void persistEntry(Playlist playlist, Song song, long position) {
+        PlaylistEntry entry = new PlaylistEntry();
+        entry.playlist = playlist;
+        entry.song = song;
+        entry.position = position;
+        em.persist(entry);
+    }
+
+    private long lastPosition(Long playlistId) {
+        Long last = em.createQuery("SELECT MAX(e.position) FROM PlaylistEntry e WHERE e.playlist.id = :playlistId", Long.class)
+                .setParameter("playlistId", playlistId)
+                .getSingleResult();
+        return last != null ? last : 0L;
+    }
+
+    private void adjustAggregates(Long playlistId, long songs, long durationSeconds) {
+        em.createQuery("UPDATE Playlist p SET p.songCount = COALESCE(p.songCount, 0) + :songs, "
+                + "p.totalDurationSeconds = COALESCE(p.totalDurationSeconds, 0) + :duration WHERE p.id = :playlistId")
+                .setParameter("songs", songs)
+                .setParameter("duration", durationSeconds)
+                .setParameter("playlistId", playlistId)
+                .executeUpdate();
+    }
+
+    private void refreshAggregates(Collection<Long> playlistIds) {
+        if (!playlistIds.isEmpty()) {
+            refreshAggregates("WHERE p.id IN :playlistIds", Map.of("playlistIds", new HashSet<>(playlistIds)));
+        }
+    }
+
+    /**
+     * Recounts songs and duration from the entries, for changes that touch many playlists.
+     */
+    private void refreshAggregates(String where, Map<String, Object> parameters) {
+        var update = em.createQuery("UPDATE Playlist p SET "
+                + "p.songCount = (SELECT COUNT(e) FROM PlaylistEntry e WHERE e.playlist.id = p.id), "
+                + "p.totalDurationSeconds = (SELECT COALESCE(SUM(s.durationSeconds), 0) FROM PlaylistEntry e JOIN e.song s WHERE e.playlist.id = p.id) "
+                + where);
+        parameters.forEach(update::setParameter);
+        update.executeUpdate();
     }
     
     public record PaginatedPlaylistSongs(List<Song> songs, long totalCount) {
@@ -168,7 +396,7 @@ public class PlaylistService {
         System.err.println("DEBUG: findSongsByPlaylist called with playlistId=" + playlistId + ", playlist found=" + (playlist != null) + ", name=" + (playlist != null ? playlist.getName() : "null"));
         
         // The rest of the logic remains the same as the playlist is already verified.
-        StringBuilder baseQuery = new StringBuilder("SELECT s FROM Playlist p JOIN p.songs s WHERE p.id = :playlistId");
+        StringBuilder baseQuery = new StringBuilder("SELECT s FROM PlaylistEntry e JOIN e.song s WHERE e.playlist.id = :playlistId");
 
         if (search != null && !search.isBlank()) {
             baseQuery.append(" AND (LOWER(s.title) LIKE :search OR LOWER(s.artist) LIKE :search OR LOWER(s.album) LIKE :search OR LOWER(s.albumArtist) LIKE :search OR LOWER(s.genre) LIKE :search)");
@@ -179,7 +407,9 @@ public class PlaylistService {
             case "title": baseQuery.append("s.title"); break;
             case "artist": baseQuery.append("s.artist"); break;
             case "duration": baseQuery.append("s.durationSeconds"); break;
-            case "dateAdded": default: baseQuery.append("s.dateAdded"); break;
+            case "dateAdded": baseQuery.append("s.dateAdded"); break;
+            // Playlist order, as played
+            case "position": default: baseQuery.append("e.position"); break;
         }
 
         if ("desc".equalsIgnoreCase(sortDirection)) {
@@ -208,7 +438,11 @@ public class PlaylistService {
             return 0;
         }
         
-        StringBuilder countQuery = new StringBuilder("SELECT COUNT(s) FROM Playlist p JOIN p.songs s WHERE p.id = :playlistId");
+        if (search == null || search.isBlank()) {
+            return playlist.getSongCount();
+        }
+
+        StringBuilder countQuery = new StringBuilder("SELECT COUNT(s) FROM PlaylistEntry e JOIN e.song s WHERE e.playlist.id = :playlistId");
 
         if (search != null && !search.isBlank()) {
             countQuery.append(" AND (LOWER(s.title) LIKE :search OR LOWER(s.artist) LIKE :search OR LOWER(s.album) LIKE :search OR LOWER(s.albumArtist) LIKE :search OR LOWER(s.genre) LIKE :search)");
@@ -223,37 +457,13 @@ public class PlaylistService {
         return query.getSingleResult();
     }
 
-    public Playlist findWithSongs(Long id) {
-        try {
-            Playlist playlist = em.createQuery("SELECT p FROM Playlist p LEFT JOIN FETCH p.songs WHERE p.id = :id", Playlist.class)
-                    .setParameter("id", id)
-                    .getSingleResult();
-            
-            // Check access permissions
-            Profile activeProfile = settingsService.getActiveProfile();
-            if (isMainProfileActive() || 
-                (playlist != null && (
-                    (playlist.getProfile() != null && playlist.getProfile().equals(activeProfile)) || 
-                    Boolean.TRUE.equals(playlist.getIsGlobal())
-                ))) {
-                return playlist;
-            }
-            return null;
-        } catch (jakarta.persistence.NoResultException e) {
-            return null;
-        }
-    }
-
     public List<Playlist> findAllWithSongStatus(Long songId) {
         List<Playlist> playlists = findAll(); // findAll is now access-aware
         if (songId == null) {
             return playlists;
         }
         
-        List<Long> playlistIdsWithSong = em.createQuery(
-                "SELECT p.id FROM Playlist p JOIN p.songs s WHERE s.id = :songId", Long.class)
-                .setParameter("songId", songId)
-                .getResultList();
+        Set<Long> playlistIdsWithSong = new HashSet<>(findPlaylistIdsContaining(songId));
 
         for (Playlist p : playlists) {
             if (playlistIdsWithSong.contains(p.id)) {
@@ -302,53 +512,73 @@ public class PlaylistService {
         return findOrCreatePlaylist(name);
     }
 
+    /**
+     * Appends songs in the given order, skipping those the playlist already holds. Membership
+     * is checked with one indexed query per chunk of IDs; existing entries are not loaded.
+     */
     @Transactional
     public void addSongsToPlaylist(Playlist playlist, List<Song> songs) {
         if (playlist != null && songs != null && !songs.isEmpty()) {
             Playlist managedPlaylist = find(playlist.id); // find is access-aware
-            if(managedPlaylist != null) {
-                 int initialSize = managedPlaylist.getSongs().size();
-            int addedCount =0;
-            
+            if (managedPlaylist != null) {
+                Set<Long> present = new HashSet<>();
+                List<Long> requestedIds = songs.stream().map(song -> song.id).filter(id -> id != null).distinct().toList();
+                for (int from = 0; from < requestedIds.size(); from += ID_CHUNK_SIZE) {
+                    present.addAll(em.createQuery(
+                            "SELECT e.song.id FROM PlaylistEntry e WHERE e.playlist.id = :playlistId AND e.song.id IN :songIds", Long.class)
+                            .setParameter("playlistId", playlist.id)
+                            .setParameter("songIds", requestedIds.subList(from, Math.min(from + ID_CHUNK_SIZE, requestedIds.size())))
+                            .getResultList());
+                }
+
+                Playlist reference = em.getReference(Playlist.class, playlist.id);
+                long position = lastPosition(playlist.id);
+                int addedCount = 0;
+                long addedDuration = 0;
                 for (Song song : songs) {
-                    if (!managedPlaylist.getSongs().contains(song)) {
-                        managedPlaylist.getSongs().add(song);
-                        addedCount++;
+                    if (song.id == null || !present.add(song.id)) {
+                        continue;
                     }
+                    position += PlaylistEntry.POSITION_GAP;
+                    persistEntry(reference, em.getReference(Song.class, song.id), position);
+                    addedCount++;
+                    addedDuration += song.getDurationSeconds();
                 }
-                em.merge(managedPlaylist);
-                em.flush(); // Force write to database
-            
-            // Verify the final size
-            Playlist verifyPlaylist = find(playlist.id);
-            int finalSize = verifyPlaylist.getSongs().size();
-            
-            System.err.println("DEBUG: Playlist '" + playlist.getName() + "' - Initial: " + initialSize + 
-                ", Added: " + addedCount + ", Expected: " + (initialSize + addedCount) + ", Actual: " + finalSize);
+
+                if (addedCount > 0) {
+                    adjustAggregates(playlist.id, addedCount, addedDuration);
+                    afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
+                }
+                LOGGER.debug("Playlist '{}': added {} of {} songs", managedPlaylist.getName(), addedCount, songs.size());
             }
         }
-    } 
- 
+    }
+
     @Transactional
     public void removeSongFromAllPlaylists(Long songId) {
         if (songId == null) {
             return;
         }
         
+        List<Long> affectedPlaylistIds = findPlaylistIdsContaining(songId);
+        if (affectedPlaylistIds.isEmpty()) {
+            return;
+        }
+
         if (isMainProfileActive()) {
-            em.createNativeQuery("DELETE FROM playlist_song WHERE song_id = :songId")
+            em.createQuery("DELETE FROM PlaylistEntry e WHERE e.song.id = :songId")
                 .setParameter("songId", songId)
                 .executeUpdate();
         } else {
-            List<Playlist> playlists = findAll(); // This gets user's playlists + global playlists
-            for (Playlist playlist : playlists) {
-                // Only remove from user's own playlists, not global ones
-                if (playlist.getProfile() != null && playlist.getProfile().equals(settingsService.getActiveProfile())) {
-                    playlist.getSongs().removeIf(song -> song.id.equals(songId));
-                    em.merge(playlist);
-                }
-            }
+            // Only remove from user's own playlists, not global ones
+            em.createQuery("DELETE FROM PlaylistEntry e WHERE e.song.id = :songId "
+                    + "AND e.playlist.id IN (SELECT p.id FROM Playlist p WHERE p.profile = :profile)")
+                .setParameter("songId", songId)
+                .setParameter("profile", settingsService.getActiveProfile())
+                .executeUpdate();
         }
+        refreshAggregates(affectedPlaylistIds);
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
     }
 
     /**
@@ -366,20 +596,25 @@ public class PlaylistService {
             return;
         }
 
-        List<Playlist> affectedPlaylists = em.createQuery(
-            "SELECT p FROM Playlist p JOIN p.songs s WHERE s.id = :songId", Playlist.class)
-            .setParameter("songId", oldSongId)
-            .getResultList();
-
-        for (Playlist playlist : affectedPlaylists) {
-            // Remove the old song
-            playlist.getSongs().removeIf(s -> s.id.equals(oldSongId));
-            // Add the new song if it's not already there
-            if (!playlist.getSongs().contains(newSong)) {
-                playlist.getSongs().add(newSong);
-            }
-            em.merge(playlist);
+        List<Long> affectedPlaylistIds = findPlaylistIdsContaining(oldSongId);
+        if (affectedPlaylistIds.isEmpty()) {
+            return;
         }
+
+        // Playlists already holding the new song just lose the old one
+        em.createQuery("DELETE FROM PlaylistEntry e WHERE e.song.id = :oldSongId "
+                + "AND e.playlist.id IN (SELECT x.playlist.id FROM PlaylistEntry x WHERE x.song.id = :newSongId)")
+            .setParameter("oldSongId", oldSongId)
+            .setParameter("newSongId", newSongId)
+            .executeUpdate();
+        // The rest keep the entry, and its position, pointing at the new song
+        em.createQuery("UPDATE PlaylistEntry e SET e.song = :newSong WHERE e.song.id = :oldSongId")
+            .setParameter("newSong", newSong)
+            .setParameter("oldSongId", oldSongId)
+            .executeUpdate();
+
+        refreshAggregates(affectedPlaylistIds);
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
     }
 
     // ── Playlist browsing ──
@@ -406,7 +641,7 @@ public class PlaylistService {
             long total = countQuery.getSingleResult();
 
             // Fetch page
-            String dataQ = "SELECT p.id, p.name, SIZE(p.songs) FROM Playlist p " + where + " ORDER BY LOWER(p.name)";
+            String dataQ = "SELECT p.id, p.name, p.songCount FROM Playlist p " + where + " ORDER BY LOWER(p.name)";
             var dataQuery = em.createQuery(dataQ, Object[].class)
                     .setParameter("profile", activeProfile)
                     .setFirstResult((page - 1) * limit)
@@ -437,7 +672,7 @@ public class PlaylistService {
     public Long findFirstSongId(Long playlistId) {
         try {
             List<Long> ids = em.createQuery(
-                "SELECT s.id FROM Playlist p JOIN p.songs s WHERE p.id = :playlistId ORDER BY s.id", Long.class)
+                "SELECT e.song.id FROM PlaylistEntry e WHERE e.playlist.id = :playlistId ORDER BY e.position", Long.class)
                 .setParameter("playlistId", playlistId)
                 .setMaxResults(1)
                 .getResultList();
@@ -450,11 +685,82 @@ public class PlaylistService {
     // ── Queue reorder ──
 
     /**
-     * Moves a song within a playlist (drag-and-drop style reordering).
-     * Not yet implemented - the Playlist entity uses Set<Song> so order isn't preserved.
-     * For now, this is a placeholder.
+     * Moves a song within a playlist (drag-and-drop style reordering). Only the moved entry is
+     * written: it takes a position halfway between its new neighbours, and the playlist is
+     * renumbered first in the rare case they are adjacent.
+     *
+     * @return false when the playlist is not accessible or an index is out of range
      */
-    public void moveInPlaylist(Long playlistId, int fromIndex, int toIndex) {
-        // Playlist songs are Sets, so ordered reordering isn't directly supported yet.
+    @Transactional
+    public boolean moveInPlaylist(Long playlistId, int fromIndex, int toIndex) {
+        if (find(playlistId) == null || fromIndex < 0 || toIndex < 0) { // find is access-aware
+            return false;
+        }
+        List<PlaylistEntry> moving = entriesFrom(playlistId, fromIndex, 1);
+        if (moving.isEmpty()) {
+            return false;
+        }
+        if (fromIndex == toIndex) {
+            return true;
+        }
+
+        Long newPosition = positionForMove(playlistId, fromIndex, toIndex);
+        if (newPosition == null) {
+            renumber(playlistId);
+            newPosition = positionForMove(playlistId, fromIndex, toIndex);
+        }
+        if (newPosition == null) {
+            return false;
+        }
+        moving.get(0).position = newPosition;
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
+        return true;
+    }
+
+    /**
+     * Position between the entries that will surround the moved one, or null without a gap.
+     */
+    private Long positionForMove(Long playlistId, int fromIndex, int toIndex) {
+        // Indexes of the new neighbours, counted with the moved entry still in place
+        int before = toIndex > fromIndex ? toIndex : toIndex - 1;
+        List<PlaylistEntry> window = entriesFrom(playlistId, Math.max(before, 0), before < 0 ? 1 : 2);
+        Long previous = before >= 0 && !window.isEmpty() ? window.get(0).position : null;
+        Long next = before < 0 ? (window.isEmpty() ? null : window.get(0).position)
+                : (window.size() > 1 ? window.get(1).position : null);
+
+        if (previous == null && next == null) {
+            return null;
+        }
+        if (previous == null) {
+            return next - PlaylistEntry.POSITION_GAP;
+        }
+        if (next == null) {
+            return previous + PlaylistEntry.POSITION_GAP;
+        }
+        return next - previous > 1 ? previous + (next - previous) / 2 : null;
+    }
+
+    private List<PlaylistEntry> entriesFrom(Long playlistId, int index, int count) {
+        return em.createQuery("SELECT e FROM PlaylistEntry e WHERE e.playlist.id = :playlistId ORDER BY e.position, e.id", PlaylistEntry.class)
+                .setParameter("playlistId", playlistId)
+                .setFirstResult(index)
+                .setMaxResults(count)
+                .getResultList();
+    }
+
+    /**
+     * Spreads a playlist's positions back out to {@link PlaylistEntry#POSITION_GAP} apart.
+     */
+    private void renumber(Long playlistId) {
+        List<PlaylistEntry> entries = em.createQuery(
+                "SELECT e FROM PlaylistEntry e WHERE e.playlist.id = :playlistId ORDER BY e.position, e.id", PlaylistEntry.class)
+                .setParameter("playlistId", playlistId)
+                .getResultList();
+        long position = 0;
+        for (PlaylistEntry entry : entries) {
+            position += PlaylistEntry.POSITION_GAP;
+            entry.position = position;
+        }
+        em.flush();
     }
 }
@@ -0,0 +1,36 @@
+package Services;
+
+import Models.Video;
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that mirrors episode inserts, edits (series renames, season moves,
+ * activation) and deletes into the {@link SeriesIndexService} once the transaction commits,
+ * so rolled-back writes never reach the index. Bulk JPQL deletes bypass entity callbacks, so
+ * those reload the index directly (see VideoImportService).
+ */
+public class SeriesIndexListener {
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Video video) {
+        afterCommit().run(() -> index().upsert(video));
+    }
+
+    @PostRemove
+    void onRemoved(Video video) {
+        Long videoId = video.id;
+        afterCommit().run(() -> index().remove(videoId));
+    }
+
+    private AfterCommit afterCommit() {
+        return Arc.container().instance(AfterCommit.class).get();
+    }
+
+    private SeriesIndexService index() {
+        return Arc.container().instance(SeriesIndexService.class).get();
+    }
+}
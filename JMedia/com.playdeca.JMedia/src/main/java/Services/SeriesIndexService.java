@@ -0,0 +1,533 @@
+package Services;
+
+import Models.Video;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory read model of TV series for the shows and seasons pages.
+ *
+ * Active episodes are kept as small rows grouped by lower-cased series title. Each series keeps
+ * its aggregates (poster sample, newest episode, last played episode), and the shows grid
+ * groups series by cleaned show name into lists kept sorted by title, date added and last
+ * watched, so a page of show cards is a slice instead of a pass over every episode.
+ * Per-profile watched episode ids are loaded on first use. {@link SeriesIndexListener} and
+ * {@link VideoStateIndexListener} keep both in sync; bulk deletes call {@link #reload}
+ * or {@link #dropProfile} directly.
+ */
+@Startup
+@ApplicationScoped
+public class SeriesIndexService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SeriesIndexService.class);
+
+    @PersistenceContext
+    EntityManager em;
+
+    public record SeriesCard(String title, long sampleVideoId, int episodeCount, int watchedCount) {}
+
+    public record SeasonSummary(int seasonNumber, long sampleVideoId, String seasonName,
+                                int episodeCount, int watchedCount) {}
+
+    private record EpisodeRow(long id, String seriesTitle, int season, int episode, String seasonName,
+                              LocalDateTime dateAdded, LocalDateTime lastWatched) {}
+
+    private static final Comparator<EpisodeRow> EPISODE_ORDER = Comparator
+            .comparingInt(EpisodeRow::season)
+            .thenComparingInt(EpisodeRow::episode)
+            .thenComparingLong(EpisodeRow::id);
+
+    /**
+     * One card of the shows grid: the series titles sharing a cleaned show name, with their
+     * combined aggregates.
+     */
+    private record Show(String name, String title, int episodeCount, LocalDateTime lastAdded,
+                        LocalDateTime lastWatched) {}
+
+    // The show name breaks ties, so every order is total and binary search finds the exact entry
+    private static final Comparator<Show> SHOW_TITLE_ORDER = Comparator
+            .comparing(Show::title, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Show::name);
+    private static final Comparator<Show> SHOW_ADDED_ORDER = Comparator
+            .comparing(Show::lastAdded, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Show::name);
+    private static final Comparator<Show> SHOW_WATCHED_ORDER = Comparator
+            .comparing(Show::lastWatched, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Show::name);
+
+    /**
+     * Episodes of one series title and the aggregates its cards read.
+     */
+    private static final class Series {
+        final Map<Long, EpisodeRow> rows = new HashMap<>();
+        EpisodeRow first;      // Lowest season and episode; the poster sample
+        EpisodeRow newest;     // Latest dateAdded
+        EpisodeRow lastPlayed; // Latest lastWatched, null while none was watched
+
+        void add(EpisodeRow row) {
+            rows.put(row.id(), row);
+            track(row);
+        }
+
+        void remove(EpisodeRow row) {
+            rows.remove(row.id());
+            if (row == first || row == newest || row == lastPlayed) {
+                first = newest = lastPlayed = null;
+                rows.values().forEach(this::track);
+            }
+        }
+
+        private void track(EpisodeRow row) {
+            if (first == null || EPISODE_ORDER.compare(row, first) < 0) {
+                first = row;
+            }
+            if (newest == null || isAfter(row.dateAdded(), newest.dateAdded())) {
+                newest = row;
+            }
+            if (row.lastWatched() != null && (lastPlayed == null || row.lastWatched().isAfter(lastPlayed.lastWatched()))) {
+                lastPlayed = row;
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Active episodes with a series title, by id and by lower-cased series title
+    private final Map<Long, EpisodeRow> episodes = new HashMap<>();
+    private final Map<String, Series> seriesByKey = new HashMap<>();
+
+    // Series keys by cleaned show name, the resulting shows, and those shows in each page order
+    private final Map<String, Set<String>> keysByShow = new HashMap<>();
+    private final Map<String, Show> shows = new HashMap<>();
+    private final List<Show> showsByTitle = new ArrayList<>();
+    private final List<Show> showsByDateAdded = new ArrayList<>();
+    private final List<Show> showsByLastWatched = new ArrayList<>();
+
+    // Cleaned show name per series key, used to group spelling variants on the shows page
+    private final Map<String, String> normalizedNames = new ConcurrentHashMap<>();
+
+    // Watched episode ids per profile; absent until first requested
+    private final Map<Long, Set<Long>> watchedByProfile = new ConcurrentHashMap<>();
+
+    // Bumped on every watched change of a profile, and for all profiles by reload, so a set
+    // loaded while a change was committing is used once but not kept
+    private final Map<Long, AtomicLong> watchedVersions = new ConcurrentHashMap<>();
+    private final AtomicLong watchedEpoch = new AtomicLong();
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        reload();
+    }
+
+    /**
+     * Rebuild from one projection query over active episodes. Watched sets are dropped and
+     * reloaded on demand.
+     */
+    @Transactional
+    public void reload() {
+        List<Object[]> rows = em.createQuery(
+                "SELECT v.id, v.seriesTitle, v.seasonNumber, v.episodeNumber, v.seasonName, v.dateAdded, v.lastWatched "
+                        + "FROM Video v WHERE v.type = 'episode' AND v.seriesTitle IS NOT NULL AND v.isActive = true",
+                Object[].class).getResultList();
+
+        lock.writeLock().lock();
+        try {
+            episodes.clear();
+            seriesByKey.clear();
+            keysByShow.clear();
+            for (Object[] r : rows) {
+                add(new EpisodeRow((Long) r[0], (String) r[1], orOne((Integer) r[2]), orZero((Integer) r[3]),
+                        (String) r[4], (LocalDateTime) r[5], (LocalDateTime) r[6]));
+            }
+            rebuildShows();
+            watchedEpoch.incrementAndGet();
+            watchedByProfile.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Series index loaded: {} episodes in {} series", episodes.size(), seriesByKey.size());
+    }
+
+    // ========== WRITES ==========
+
+    public void upsert(Video video) {
+        if (video == null || video.id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            EpisodeRow old = removeRow(video.id);
+            EpisodeRow row = null;
+            if ("episode".equals(video.type) && video.seriesTitle != null && video.isActive) {
+                row = new EpisodeRow(video.id, video.seriesTitle, orOne(video.seasonNumber), orZero(video.episodeNumber),
+                        video.seasonName, video.dateAdded, video.lastWatched);
+                add(row);
+            }
+            String oldShow = old != null ? showName(key(old.seriesTitle())) : null;
+            String newShow = row != null ? showName(key(row.seriesTitle())) : null;
+            if (oldShow != null) {
+                refreshShow(oldShow);
+            }
+            if (newShow != null && !newShow.equals(oldShow)) {
+                refreshShow(newShow);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long videoId) {
+        if (videoId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            EpisodeRow old = removeRow(videoId);
+            if (old != null) {
+                refreshShow(showName(key(old.seriesTitle())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record a watched flag change. Profiles whose watched set is not loaded yet pick the
+     * change up when it is.
+     */
+    public void setWatched(Long profileId, Long videoId, boolean watched) {
+        if (profileId == null || videoId == null) {
+            return;
+        }
+        // Bump first: a load racing with this change then sees the version move and is not cached
+        watchedVersions.computeIfAbsent(profileId, id -> new AtomicLong()).incrementAndGet();
+        Set<Long> set = watchedByProfile.get(profileId);
+        if (set != null) {
+            if (watched) {
+                set.add(videoId);
+            } else {
+                set.remove(videoId);
+            }
+        }
+    }
+
+    public void dropProfile(Long profileId) {
+        if (profileId != null) {
+            watchedVersions.computeIfAbsent(profileId, id -> new AtomicLong()).incrementAndGet();
+            watchedByProfile.remove(profileId);
+        }
+    }
+
+    // Callers refresh the affected show afterwards (or rebuild all shows after a reload)
+    private void add(EpisodeRow row) {
+        episodes.put(row.id(), row);
+        String key = key(row.seriesTitle());
+        seriesByKey.computeIfAbsent(key, k -> {
+            keysByShow.computeIfAbsent(showName(k), n -> new TreeSet<>()).add(k);
+            return new Series();
+        }).add(row);
+    }
+
+    private EpisodeRow removeRow(long videoId) {
+        EpisodeRow old = episodes.remove(videoId);
+        if (old != null) {
+            String key = key(old.seriesTitle());
+            Series series = seriesByKey.get(key);
+            if (series != null) {
+                series.remove(old);
+                if (series.rows.isEmpty()) {
+                    seriesByKey.remove(key);
+                    Set<String> keys = keysByShow.get(showName(key));
+                    if (keys != null) {
+                        keys.remove(key);
+                    }
+                }
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Recompute one show from its series and move it to its new place in the sorted lists.
+     */
+    private void refreshShow(String name) {
+        Show old = shows.remove(name);
+        if (old != null) {
+            unsort(showsByTitle, old, SHOW_TITLE_ORDER);
+            unsort(showsByDateAdded, old, SHOW_ADDED_ORDER);
+            unsort(showsByLastWatched, old, SHOW_WATCHED_ORDER);
+        }
+        Show show = buildShow(name);
+        if (show != null) {
+            shows.put(name, show);
+            sort(showsByTitle, show, SHOW_TITLE_ORDER);
+            sort(showsByDateAdded, show, SHOW_ADDED_ORDER);
+            sort(showsByLastWatched, show, SHOW_WATCHED_ORDER);
+        }
+    }
+
+    private void rebuildShows() {
+        shows.clear();
+        for (String name : List.copyOf(keysByShow.keySet())) {
+            Show show = buildShow(name);
+            if (show != null) {
+                shows.put(name, show);
+            }
+        }
+        resort(showsByTitle, SHOW_TITLE_ORDER);
+        resort(showsByDateAdded, SHOW_ADDED_ORDER);
+        resort(showsByLastWatched, SHOW_WATCHED_ORDER);
+    }
+
+    private void resort(List<Show> list, Comparator<Show> order) {
+        list.clear();
+        list.addAll(shows.values());
+        list.sort(order);
+    }
+
+    /**
+     * The show's card title is that of its series with the most episodes; dates are the latest
+     * over all its series. Null once no series is left under the name.
+     */
+    private Show buildShow(String name) {
+        Set<String> keys = keysByShow.get(name);
+        if (keys == null || keys.isEmpty()) {
+            keysByShow.remove(name);
+            return null;
+        }
+        Series main = null;
+        int episodeCount = 0;
+        LocalDateTime lastAdded = null;
+        LocalDateTime lastWatched = null;
+        for (String key : keys) {
+            Series series = seriesByKey.get(key);
+            episodeCount += series.rows.size();
+            if (main == null || series.rows.size() > main.rows.size()) {
+                main = series;
+            }
+            if (isAfter(series.newest.dateAdded(), lastAdded)) {
+                lastAdded = series.newest.dateAdded();
+            }
+            if (series.lastPlayed != null && isAfter(series.lastPlayed.lastWatched(), lastWatched)) {
+                lastWatched = series.lastPlayed.lastWatched();
+            }
+        }
+        return new Show(name, main.first.seriesTitle(), episodeCount, lastAdded, lastWatched);
+    }
+
+    private static void sort(List<Show> list, Show show, Comparator<Show> order) {
+        int index = Collections.binarySearch(list, show, order);
+        list.add(index < 0 ? -index - 1 : index, show);
+    }
+
+    private static void unsort(List<Show> list, Show show, Comparator<Show> order) {
+        int index = Collections.binarySearch(list, show, order);
+        if (index >= 0) {
+            list.remove(index);
+        }
+    }
+
+    private String showName(String key) {
+        return normalizedNames.computeIfAbsent(key, k -> {
+            String cleaned = SmartNamingService.cleanShowName(k).toLowerCase().trim();
+            return cleaned.isEmpty() ? k.trim() : cleaned;
+        });
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Show card for a series title (case-insensitive), or null if it has no active episodes.
+     */
+    public SeriesCard card(String seriesTitle, Long profileId) {
+        if (seriesTitle == null) {
+            return null;
+        }
+        Set<Long> watched = watchedIds(profileId);
+        lock.readLock().lock();
+        try {
+            Series series = seriesByKey.get(key(seriesTitle));
+            if (series == null) {
+                return null;
+            }
+            return new SeriesCard(seriesTitle, series.first.id(), series.rows.size(), countWatched(series.rows.keySet(), watched));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Seasons of a series in ascending order with their sample episode and counts.
+     */
+    public List<SeasonSummary> seasons(String seriesTitle, Long profileId) {
+        if (seriesTitle == null) {
+            return List.of();
+        }
+        Set<Long> watched = watchedIds(profileId);
+        lock.readLock().lock();
+        try {
+            Series series = seriesByKey.get(key(seriesTitle));
+            if (series == null) {
+                return List.of();
+            }
+            Map<Integer, List<EpisodeRow>> bySeason = new TreeMap<>();
+            for (EpisodeRow row : series.rows.values()) {
+                bySeason.computeIfAbsent(row.season(), s -> new ArrayList<>()).add(row);
+            }
+            List<SeasonSummary> result = new ArrayList<>(bySeason.size());
+            for (Map.Entry<Integer, List<EpisodeRow>> entry : bySeason.entrySet()) {
+                List<EpisodeRow> rows = entry.getValue();
+                EpisodeRow sample = Collections.min(rows, EPISODE_ORDER);
+                int watchedCount = 0;
+                for (EpisodeRow row : rows) {
+                    if (watched.contains(row.id())) {
+                        watchedCount++;
+                    }
+                }
+                result.add(new SeasonSummary(entry.getKey(), sample.id(), sample.seasonName(), rows.size(), watchedCount));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * First episode of the series and the most recently watched one (or the first when none
+     * was watched), as ids; empty when the series is unknown.
+     */
+    public List<Long> sampleAndLastPlayed(String seriesTitle) {
+        lock.readLock().lock();
+        try {
+            Series series = seriesTitle != null ? seriesByKey.get(key(seriesTitle)) : null;
+            if (series == null) {
+                return List.of();
+            }
+            EpisodeRow lastPlayed = series.lastPlayed != null ? series.lastPlayed : series.first;
+            return List.of(series.first.id(), lastPlayed.id());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stored spelling of a series title matched case-insensitively, or null.
+     */
+    public String resolveTitle(String seriesTitle) {
+        lock.readLock().lock();
+        try {
+            Series series = seriesTitle != null ? seriesByKey.get(key(seriesTitle)) : null;
+            return series == null ? null : series.first.seriesTitle();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Series titles for one page of the shows grid, sliced from the list kept in that order.
+     * Titles are grouped by their cleaned show name like
+     * {@link VideoService#findPaginatedSeriesTitles}; only the search-free case is served from
+     * the index.
+     */
+    public VideoService.PaginatedSeries page(int page, int limit, String sortBy, String sortDirection) {
+        lock.readLock().lock();
+        try {
+            List<Show> sorted;
+            if ("dateAdded".equals(sortBy)) {
+                sorted = showsByDateAdded;
+            } else if ("lastWatched".equals(sortBy)) {
+                sorted = showsByLastWatched;
+            } else {
+                sorted = showsByTitle;
+            }
+            boolean descending = "desc".equalsIgnoreCase(sortDirection);
+            int total = sorted.size();
+            int from = (int) Math.min(total, Math.max(0, (long) (page - 1) * limit));
+            int to = (int) Math.min(total, (long) from + Math.max(0, limit));
+            List<String> titles = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                titles.add(sorted.get(descending ? total - 1 - i : i).title());
+            }
+            return new VideoService.PaginatedSeries(titles, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> watchedIds(Long profileId) {
+        if (profileId == null) {
+            return Set.of();
+        }
+        Set<Long> cached = watchedByProfile.get(profileId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Query outside the map's lock; only keep the result if no change landed meanwhile
+        long version = watchedVersion(profileId);
+        Set<Long> loaded = ConcurrentHashMap.newKeySet();
+        loaded.addAll(em.createQuery(
+                "SELECT vs.video.id FROM VideoState vs WHERE vs.profile.id = :profileId AND vs.watched = true", Long.class)
+                .setParameter("profileId", profileId)
+                .getResultList());
+        Set<Long> installed = watchedByProfile.compute(profileId, (id, existing) ->
+                existing != null ? existing : (watchedVersion(id) == version ? loaded : null));
+        return installed != null ? installed : loaded;
+    }
+
+    private long watchedVersion(Long profileId) {
+        AtomicLong version = watchedVersions.get(profileId);
+        // Both counters only grow, so the sum moves whenever either does
+        return watchedEpoch.get() + (version != null ? version.get() : 0);
+    }
+
+    private static int countWatched(Collection<Long> episodeIds, Set<Long> watched) {
+        if (watched.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (Long id : episodeIds) {
+            if (watched.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isAfter(LocalDateTime candidate, LocalDateTime current) {
+        return candidate != null && (current == null || candidate.isAfter(current));
+    }
+
+    private static String key(String seriesTitle) {
+        return seriesTitle.toLowerCase();
+    }
+
+    private static int orOne(Integer season) {
+        return season != null ? season : 1;
+    }
+
+    private static int orZero(Integer episode) {
+        return episode != null ? episode : 0;
+    }
+}
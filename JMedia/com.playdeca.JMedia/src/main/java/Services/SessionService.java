@@ -1,23 +1,68 @@
 package Services;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.transaction.Transactional;
+import jakarta.enterprise.event.Observes;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-import Models.Session;
+import Models.Telemetry.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Session lifecycle and validation.
+ *
+ * Validated sessions are cached in memory for {@link #CACHE_TTL_SECONDS} so authenticated
+ * requests don't query the session table. lastActivity is tracked in the cache and written
+ * back in one batch per minute. Logout and revocation replace the cache entry with a revoked
+ * marker, so they take effect on the next request rather than after the TTL.
+ *
+ * Session rows live in the telemetry store, so every read and write here runs in its own
+ * requiringNew transaction and never joins a catalog transaction the caller may be in.
+ */
 @ApplicationScoped
 public class SessionService {
     
     private static final Logger LOG = LoggerFactory.getLogger(SessionService.class);
     private static final long SESSION_TIMEOUT_MINUTES = 30 * 24 * 60;
+    private static final long CACHE_TTL_SECONDS = 60;
+    private static final int MAX_CACHED_SESSIONS = 10_000;
+
+    private final Map<String, CachedSession> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Detached copy of a session row plus the in-memory lastActivity not yet written back.
+     * A null session marks a revoked or deleted id.
+     */
+    private static final class CachedSession {
+        final Session session;
+        final long loadedAtNanos = System.nanoTime();
+        volatile Instant lastActivity;
+        volatile boolean dirty;
+
+        CachedSession(Session session) {
+            this.session = session;
+            this.lastActivity = session != null ? session.lastActivity : null;
+        }
+
+        boolean isFresh() {
+            return System.nanoTime() - loadedAtNanos < TimeUnit.SECONDS.toNanos(CACHE_TTL_SECONDS);
+        }
+
+        boolean isActive() {
+            return session != null && session.active;
+        }
+    }
     
-    @Transactional
     public Session createSession(String userId, String username, String ipAddress) {
         String sessionId = UUID.randomUUID().toString();
         Session session = new Session();
@@ -29,16 +74,15 @@ public class SessionService {
         session.lastActivity = Instant.now();
         session.active = true;
         
-        session.persist();
+        QuarkusTransaction.requiringNew().run(session::persist);
         
         LOG.info("Created session {} for user {} from IP {}", sessionId, username, ipAddress);
         
         return session;
     }
 
-    @Transactional
     public Session findBySessionId(String sessionId) {
-        return Session.findBySessionId(sessionId);
+        return QuarkusTransaction.requiringNew().call(() -> Session.findBySessionId(sessionId));
     }
     
     public boolean validateSession(String sessionId, String ipAddress) {
@@ -49,74 +93,199 @@ public class SessionService {
             return false;
         }
         
-        Session session = Session.findBySessionId(sessionId);
+        CachedSession cached = lookup(sessionId);
         
-        if (session == null) {
+        if (cached == null) {
             LOG.warn("Session {} not found", sessionId);
             return false;
         }
         
-        if (!session.active) {
-            LOG.warn("Session {} is inactive for user {}", sessionId, session.username);
+        if (!cached.isActive()) {
+            LOG.warn("Session {} is inactive{}", sessionId, cached.session != null ? " for user " + cached.session.username : "");
             return false;
         }
         
-        if (session.lastActivity != null && 
-                   session.lastActivity.plusSeconds(SESSION_TIMEOUT_MINUTES * 60).isBefore(Instant.now())) {
-            LOG.info("Session {} expired for user {} (last activity: {})", sessionId, session.username, session.lastActivity);
+        Instant lastActivity = cached.lastActivity;
+        if (lastActivity != null && 
+                   lastActivity.plusSeconds(SESSION_TIMEOUT_MINUTES * 60).isBefore(Instant.now())) {
+            LOG.info("Session {} expired for user {} (last activity: {})", sessionId, cached.session.username, lastActivity);
             invalidateSession(sessionId);
             return false;
         }
         
-        LOG.debug("Session {} IP check: expected {}, got {}", sessionId, session.ipAddress, ipAddress);
+        LOG.debug("Session {} IP check: expected {}, got {}", sessionId, cached.session.ipAddress, ipAddress);
         
-        session.lastActivity = Instant.now();
-        session.active = true;
+        // Written back by flushLastActivity
+        cached.lastActivity = Instant.now();
+        cached.dirty = true;
         
-        LOG.debug("Session {} validated successfully for user {} from IP {}", sessionId, session.username, ipAddress);
+        LOG.debug("Session {} validated successfully for user {} from IP {}", sessionId, cached.session.username, ipAddress);
         return true;
     }
+
+    /**
+     * Active session for the id, served from the cache. Returns a detached copy; changes to it
+     * are not persisted.
+     */
+    public Session findActiveSession(String sessionId) {
+        if (sessionId == null || sessionId.isBlank()) {
+            return null;
+        }
+        CachedSession cached = lookup(sessionId);
+        if (cached == null || !cached.isActive()) {
+            return null;
+        }
+        Session copy = copyOf(cached.session);
+        copy.lastActivity = cached.lastActivity;
+        return copy;
+    }
+
+    /**
+     * Write cached lastActivity values back to the session table in one transaction.
+     */
+    @Scheduled(every = "60s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void flushLastActivity() {
+        int flushed = QuarkusTransaction.requiringNew().call(() -> {
+            int updated = 0;
+            for (Map.Entry<String, CachedSession> entry : cache.entrySet()) {
+                CachedSession cached = entry.getValue();
+                if (!cached.dirty || cached.session == null) {
+                    continue;
+                }
+                cached.dirty = false;
+                Session.update("lastActivity = ?1 where sessionId = ?2 and active = true", cached.lastActivity, entry.getKey());
+                updated++;
+            }
+            return updated;
+        });
+        if (flushed > 0) {
+            LOG.debug("Flushed lastActivity for {} sessions", flushed);
+        }
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        try {
+            flushLastActivity();
+        } catch (Exception e) {
+            LOG.warn("Could not flush session activity on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private CachedSession lookup(String sessionId) {
+        CachedSession cached = cache.get(sessionId);
+        if (cached != null && cached.isFresh()) {
+            return cached.session != null ? cached : null;
+        }
+
+        Session loaded = findBySessionId(sessionId);
+        if (loaded == null) {
+            // Deleted ids are dropped and unknown ids are never cached, so garbage cookies cannot fill the cache
+            if (cached != null) {
+                cache.remove(sessionId, cached);
+            }
+            return null;
+        }
+        CachedSession fresh = new CachedSession(copyOf(loaded));
+        if (cached != null && cached.dirty && cached.lastActivity != null
+                && (fresh.lastActivity == null || cached.lastActivity.isAfter(fresh.lastActivity))) {
+            // Keep activity that has not been written back yet
+            fresh.lastActivity = cached.lastActivity;
+            fresh.dirty = true;
+        }
+
+        if (cached == null) {
+            evictIfFull();
+            CachedSession raced = cache.putIfAbsent(sessionId, fresh);
+            if (raced != null) {
+                fresh = raced;
+            }
+        } else if (!cache.replace(sessionId, cached, fresh)) {
+            // A revocation or another reload won the race; trust the newer entry
+            CachedSession current = cache.get(sessionId);
+            fresh = current != null ? current : fresh;
+        }
+        return fresh.session != null ? fresh : null;
+    }
+
+    /**
+     * Replace the entry with a revoked marker so concurrent reloads cannot resurrect it.
+     */
+    private void markRevoked(String sessionId) {
+        cache.put(sessionId, new CachedSession(null));
+    }
+
+    private void evictIfFull() {
+        if (cache.size() < MAX_CACHED_SESSIONS) {
+            return;
+        }
+        // Stale entries first, then anything; unflushed activity of evicted entries is dropped
+        cache.values().removeIf(c -> !c.isFresh());
+        Iterator<CachedSession> it = cache.values().iterator();
+        while (cache.size() >= MAX_CACHED_SESSIONS && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static Session copyOf(Session source) {
+        Session copy = new Session();
+        copy.id = source.id;
+        copy.sessionId = source.sessionId;
+        copy.userId = source.userId;
+        copy.username = source.username;
+        copy.ipAddress = source.ipAddress;
+        copy.createdAt = source.createdAt;
+        copy.lastActivity = source.lastActivity;
+        copy.active = source.active;
+        return copy;
+    }
     
-    @Transactional
     public void invalidateSession(String sessionId) {
-        Session session = Session.findBySessionId(sessionId);
-        
-        if (session != null) {
-            LOG.info("Invalidated session {} for user {}", sessionId, session.username);
-            session.active = false;
-            session.delete();
-        } else {
-            LOG.debug("Session {} not found for invalidation", sessionId);
-        }
+        markRevoked(sessionId);
+        QuarkusTransaction.requiringNew().run(() -> {
+            Session session = Session.findBySessionId(sessionId);
+
+            if (session != null) {
+                LOG.info("Invalidated session {} for user {}", sessionId, session.username);
+                session.active = false;
+                session.delete();
+            } else {
+                LOG.debug("Session {} not found for invalidation", sessionId);
+            }
+        });
     }
     
-    @Transactional
     public void cleanupExpiredSessions() {
+        // Recent activity may still be in memory only
+        flushLastActivity();
         Instant cutoff = Instant.now().minusSeconds(SESSION_TIMEOUT_MINUTES * 60);
         
-        long deleted = Session.delete("lastActivity < ?1 and active = true", cutoff);
+        long deleted = QuarkusTransaction.requiringNew().call(() -> Session.delete("lastActivity < ?1 and active = true", cutoff));
         if (deleted > 0) {
             LOG.info("Cleaned up {} expired sessions", deleted);
+            cache.clear();
         }
     }
     
-    @Transactional
     public List<Session> getAllActiveSessions() {
-        return Session.list("active", true);
+        flushLastActivity();
+        return QuarkusTransaction.requiringNew().call(() -> Session.list("active", true));
     }
     
-    @Transactional
     public List<Session> getSessionsByUserId(String userId) {
-        return Session.list("userId = ?1 and active = true", userId);
+        flushLastActivity();
+        return QuarkusTransaction.requiringNew().call(() -> Session.list("userId = ?1 and active = true", userId));
     }
     
-    @Transactional
     public void revokeSession(String sessionId) {
-        Session session = Session.findBySessionId(sessionId);
-        if (session != null) {
-            LOG.info("Admin revoked session {} for user {}", sessionId, session.username);
-            session.active = false;
-            session.persist();
-        }
+        markRevoked(sessionId);
+        QuarkusTransaction.requiringNew().run(() -> {
+            Session session = Session.findBySessionId(sessionId);
+            if (session != null) {
+                LOG.info("Admin revoked session {} for user {}", sessionId, session.username);
+                session.active = false;
+                session.persist();
+            }
+        });
     }
 }
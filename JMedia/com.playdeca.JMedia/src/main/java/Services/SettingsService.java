@@ -2,22 +2,23 @@ package Services;
 
 import Models.Profile;
 import Models.Settings;
-import Models.SettingsLog;
+import Models.Telemetry.SettingsLog;
+import Models.SettingsSnapshot;
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.io.File;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import jakarta.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class SettingsService {
@@ -29,23 +30,33 @@ public class SettingsService {
     @PersistenceContext
     private EntityManager em;
 
+    // SettingsLog rows live in the separate telemetry store and are only touched in
+    // requiringNew transactions, never in a catalog transaction
+    @Inject
+    @PersistenceUnit("telemetry")
+    EntityManager telemetryEm;
+
     private static final int LOG_FLUSH_THRESHOLD = 20;
     private static final long LOG_FLUSH_INTERVAL_MS = 5000;
-    private static final long LOG_CLEAR_INTERVAL_HOURS = 48;
 
     private final List<String> logBuffer = new ArrayList<>();
     private long lastFlushTime = System.currentTimeMillis();
-    private ScheduledExecutorService scheduler;
     
     // Cache the settings ID to avoid repeated findAll queries
     private Long cachedSettingsId = null;
 
-    @PostConstruct
-    public void init() {
-        scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(this::clearOldLogs, LOG_CLEAR_INTERVAL_HOURS, LOG_CLEAR_INTERVAL_HOURS, TimeUnit.HOURS);
-        LOGGER.info("Log cleanup scheduled to run every " + LOG_CLEAR_INTERVAL_HOURS + " hours");
-    }
+    // Read-path view of the settings row, replaced as a whole on every write
+    private final AtomicReference<SettingsSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong snapshotVersion = new AtomicLong();
+
+    @Inject
+    Event<SettingsSnapshot> settingsChanged;
+
+    @Inject
+    SessionService sessionService;
+
+    @Inject
+    AfterCommit afterCommit;
 
     @Transactional
     public void save(Settings settings) {
@@ -55,6 +66,7 @@ public class SettingsService {
         } else {
             em.merge(settings);
         }
+        afterCommit.run(() -> publishSnapshot(settings));
     }
 
     @Transactional
@@ -63,11 +75,47 @@ public class SettingsService {
             Settings managed = em.contains(settings) ? settings : em.merge(settings);
             em.remove(managed);
             if (managed.id.equals(cachedSettingsId)) {
-                cachedSettingsId = null;
+                afterCommit.run(() -> {
+                    cachedSettingsId = null;
+                    snapshot.set(null);
+                });
             }
         }
     }
 
+    // ---------------- SNAPSHOT ----------------
+
+    /**
+     * Current settings for read-only use. Served from memory; only the first call after
+     * startup (or after the settings row was deleted) loads from the database.
+     */
+    public SettingsSnapshot getSnapshot() {
+        SettingsSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        return publishSnapshot(getOrCreateSettings());
+    }
+
+    /**
+     * Build a snapshot from the given state, swap it in and notify observers of
+     * {@code @ObservesAsync SettingsSnapshot}. Writers call this through {@link AfterCommit}, so
+     * readers never see values that were rolled back.
+     */
+    private SettingsSnapshot publishSnapshot(Settings settings) {
+        SettingsSnapshot next = SettingsSnapshot.of(initializeDefaultFields(settings), snapshotVersion.incrementAndGet());
+        SettingsSnapshot previous;
+        do {
+            previous = snapshot.get();
+            // A concurrent publish may already have installed a newer version
+            if (previous != null && previous.version() > next.version()) {
+                return previous;
+            }
+        } while (!snapshot.compareAndSet(previous, next));
+        settingsChanged.fireAsync(next);
+        return next;
+    }
+
     @Transactional
     public Settings find(Long id) {
         return em.find(Settings.class, id);
@@ -96,7 +144,10 @@ public class SettingsService {
         }
     }
 
-    @Transactional
+    /**
+     * Write buffered log lines to the telemetry store. Runs in its own transaction, so it never
+     * joins a catalog transaction the caller of addLog may be in.
+     */
     public void flushLogs(Long settingsId) {
         synchronized (logBuffer) {
             if (logBuffer.isEmpty()) {
@@ -115,44 +166,26 @@ public class SettingsService {
                 return;
             }
 
-            for (String msg : logBuffer) {
-                SettingsLog log = new SettingsLog();
-                log.setMessage(msg);
-                log.settingsId = settingsId;
-                em.persist(log);
-            }
+            Long sid = settingsId;
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (String msg : logBuffer) {
+                    SettingsLog log = new SettingsLog();
+                    log.setMessage(msg);
+                    log.settingsId = sid;
+                    telemetryEm.persist(log);
+                }
+            });
 
             logBuffer.clear();
         }
     }
 
-    @Transactional
     public void clearLogs(Settings settings) {
         Long settingsId = settings != null ? settings.id : cachedSettingsId;
         if (settingsId != null) {
-            em.createQuery("DELETE FROM SettingsLog l WHERE l.settingsId = :sid")
-              .setParameter("sid", settingsId)
-              .executeUpdate();
-        }
-    }
-
-    @Transactional
-    public void clearOldLogs() {
-        try {
-            Long settingsId = cachedSettingsId;
-            if (settingsId == null) {
-                Settings s = getSettingsOrNull();
-                if (s != null) settingsId = s.id;
-            }
-            
-            if (settingsId != null) {
-                int deleted = em.createQuery("DELETE FROM SettingsLog l WHERE l.settingsId = :sid")
-                  .setParameter("sid", settingsId)
-                  .executeUpdate();
-                LOGGER.info("Cleared " + deleted + " old log entries");
-            }
-        } catch (Exception e) {
-            LOGGER.warning("Failed to clear old logs: " + e.getMessage());
+            QuarkusTransaction.requiringNew().run(() -> telemetryEm.createQuery("DELETE FROM SettingsLog l WHERE l.settingsId = :sid")
+                    .setParameter("sid", settingsId)
+                    .executeUpdate());
         }
     }
 
@@ -163,6 +196,7 @@ public class SettingsService {
             if (managed != null) {
                 managed.setLibraryPath(path);
                 em.merge(managed);
+                afterCommit.run(() -> publishSnapshot(managed));
             }
         }
     }
@@ -221,24 +255,21 @@ public class SettingsService {
     }
 
     // ------------------- GET ALL LOGS -------------------
-    @Transactional
     public List<SettingsLog> getAllLogs() {
-        return em.createQuery("SELECT l FROM SettingsLog l ORDER BY l.timestamp ASC, l.id ASC", SettingsLog.class)
-                .getResultList();
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery("SELECT l FROM SettingsLog l ORDER BY l.timestamp ASC, l.id ASC", SettingsLog.class)
+                .getResultList());
     }
 
-    @Transactional
     public List<SettingsLog> getLogs(Settings settings) {
         Long settingsId = settings != null ? settings.id : cachedSettingsId;
         if (settingsId != null) {
-            return em.createQuery("SELECT l FROM SettingsLog l WHERE l.settingsId = :sid ORDER BY l.timestamp ASC, l.id ASC", SettingsLog.class)
+            return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery("SELECT l FROM SettingsLog l WHERE l.settingsId = :sid ORDER BY l.timestamp ASC, l.id ASC", SettingsLog.class)
                     .setParameter("sid", settingsId)
-                    .getResultList();
+                    .getResultList());
         }
         return List.of();
     }
     
-    @Transactional
     public List<String> getRecentLogMessages(int limit) {
         Long settingsId = cachedSettingsId;
         if (settingsId == null) {
@@ -247,15 +278,14 @@ public class SettingsService {
         }
         
         if (settingsId != null) {
-            return em.createQuery("SELECT l.message FROM SettingsLog l WHERE l.settingsId = :sid ORDER BY l.timestamp DESC, l.id DESC", String.class)
-                    .setParameter("sid", settingsId)
+            Long sid = settingsId;
+            List<String> newestFirst = QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery("SELECT l.message FROM SettingsLog l WHERE l.settingsId = :sid ORDER BY l.timestamp DESC, l.id DESC", String.class)
+                    .setParameter("sid", sid)
                     .setMaxResults(limit)
-                    .getResultList()
-                    .stream()
-                    .collect(Collectors.collectingAndThen(Collectors.toList(), list -> {
-                        java.util.Collections.reverse(list);
-                        return list;
-                    }));
+                    .getResultList());
+            List<String> messages = new ArrayList<>(newestFirst);
+            java.util.Collections.reverse(messages);
+            return messages;
         }
         return List.of();
     }
@@ -292,8 +322,7 @@ return getActiveProfile(userId);
             return null;
         }
 
-        Settings settings = getOrCreateSettings();
-        Long activeProfileId = getActiveProfileIdForUser(settings, userId);
+        Long activeProfileId = getSnapshot().activeProfileIds().get(userId);
 
         if (activeProfileId == null) {
             return userMainProfile;
@@ -308,25 +337,6 @@ return getActiveProfile(userId);
         return userMainProfile;
     }
 
-    private Long getActiveProfileIdForUser(Settings settings, Long userId) {
-        if (settings == null || userId == null) {
-            return null;
-        }
-        String json = settings.getActiveProfileIdsJson();
-        if (json == null || json.isEmpty() || json.equals("{}")) {
-            return null;
-        }
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            java.util.Map<String, Long> profileMap = mapper.readValue(json,
-                new com.fasterxml.jackson.core.type.TypeReference<java.util.Map<String, Long>>() {});
-            return profileMap.get(userId.toString());
-        } catch (Exception e) {
-            LOGGER.warning("Error parsing activeProfileIdsJson: " + e.getMessage());
-            return null;
-        }
-    }
-
     @Transactional
     public Profile getActiveProfileFromHeaders(jakarta.ws.rs.core.HttpHeaders headers) {
         if (headers == null) {
@@ -338,8 +348,8 @@ return getActiveProfile(userId);
             return getActiveProfile();
         }
         
-        Models.Session session = Models.Session.findBySessionId(sessionId);
-        if (session == null || !session.active) {
+        Models.Telemetry.Session session = sessionService.findActiveSession(sessionId);
+        if (session == null) {
             return getActiveProfile();
         }
         
@@ -373,6 +383,7 @@ return getActiveProfile(userId);
         Settings settings = getOrCreateSettings();
         setActiveProfileIdForUser(settings, userId, profile.id);
         em.merge(settings);
+        afterCommit.run(() -> publishSnapshot(settings));
     }
 
     private void setActiveProfileIdForUser(Settings settings, Long userId, Long profileId) {
@@ -401,36 +412,4 @@ return getActiveProfile(userId);
             LOGGER.warning("Error serializing activeProfileIdsJson: " + e.getMessage());
         }
     }
-
-    public void shutdown() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-    
-    @PreDestroy
-    public void shutdownScheduler() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            LOGGER.info("Shutting down SettingsService scheduler");
-            scheduler.shutdown();
-            try {
-                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                     System.err.println("SettingsService scheduler did not terminate gracefully, forcing shutdown");
-                    scheduler.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                LOGGER.warning("Interrupted while waiting for SettingsService scheduler to terminate");
-                scheduler.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-}
\ No newline at end of file
+}
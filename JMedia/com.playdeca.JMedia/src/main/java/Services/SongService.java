@@ -22,6 +22,7 @@ import java.util.logging.Logger;
 public class SongService {
 
     private static final Logger LOGGER = Logger.getLogger(SongService.class.getName());
+    private static final int ID_BATCH_SIZE = 1000;
 
     @PersistenceContext
     private EntityManager em;
@@ -41,6 +42,21 @@ public class SongService {
     @Inject
     SettingsService settingsService; // Inject SettingsService
 
+    @Inject
+    TrackCatalogService trackCatalogService;
+
+    @Inject
+    FingerprintService fingerprintService;
+
+    @Inject
+    FragmentCacheService fragmentCacheService;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    @Inject
+    LibraryOwnershipIndex ownershipIndex;
+
     @Transactional
     public void save(Song song) {
         if (song.id == null || em.find(Song.class, song.id) == null) {
@@ -72,15 +88,29 @@ public class SongService {
         
         // Delete SongAnalysis first (due to foreign key constraint)
         em.createQuery("DELETE FROM SongAnalysis").executeUpdate();
+        afterCommit.run(fingerprintService::clear);
         
+        // Bulk deletes skip entity callbacks, so keep the in-memory indexes in sync by hand
         if (dirPath != null && !dirPath.isBlank()) {
             // Delete only songs from specific directory
+            List<Long> deletedIds = em.createQuery("SELECT s.id FROM Song s WHERE s.path LIKE :dirPath", Long.class)
+                .setParameter("dirPath", dirPath + "%")
+                .getResultList();
             em.createQuery("DELETE FROM Song WHERE path LIKE :dirPath")
                 .setParameter("dirPath", dirPath + "%")
                 .executeUpdate();
+            afterCommit.run(() -> {
+                trackCatalogService.removeAll(deletedIds);
+                ownershipIndex.removeAll(deletedIds);
+            });
         } else {
             em.createQuery("DELETE FROM Song").executeUpdate();
+            afterCommit.run(() -> {
+                trackCatalogService.clear();
+                ownershipIndex.clear();
+            });
         }
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
     }
 
     @Transactional
@@ -248,14 +278,30 @@ public class SongService {
         if (ids == null || ids.isEmpty()) {
             return new java.util.ArrayList<>();
         }
-        List<Song> unorderedSongs = em.createQuery("SELECT s FROM Song s WHERE s.id IN :ids", Song.class)
-                .setParameter("ids", ids)
-                .getResultList();
+        // Query in batches so very long queues don't produce one huge IN list
+        java.util.Map<Long, Song> songMap = new java.util.HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            for (Song song : em.createQuery("SELECT s FROM Song s WHERE s.id IN :ids", Song.class)
+                    .setParameter("ids", batch)
+                    .getResultList()) {
+                songMap.put(song.id, song);
+            }
+        }
         // Re-order based on the original ID list
-        java.util.Map<Long, Song> songMap = unorderedSongs.stream().collect(java.util.stream.Collectors.toMap(s -> s.id, s -> s));
         return ids.stream().map(songMap::get).filter(java.util.Objects::nonNull).collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * IDs of songs whose title or artist contains the search text (case-insensitive).
+     */
+    public java.util.Set<Long> findIdsByTitleOrArtist(String search) {
+        List<Long> ids = em.createQuery("SELECT s.id FROM Song s WHERE LOWER(s.title) LIKE :search OR LOWER(s.artist) LIKE :search", Long.class)
+                .setParameter("search", "%" + search.toLowerCase() + "%")
+                .getResultList();
+        return new java.util.HashSet<>(ids);
+    }
+
     @Transactional
     public Song findByTitleAndArtist(String title, String artist) {
         try {
@@ -332,80 +378,6 @@ public class SongService {
                 .getResultList();
     }
 
-    @Transactional
-    public Song findRandomSongByGenre(String genre, Long excludeSongId, List<Long> songPoolIds) {
-
-        if (genre == null || genre.isBlank() || songPoolIds == null || songPoolIds.isEmpty()) {
-            return null;
-        }
-        List<Long> matchingIds = em.createQuery(
-                "SELECT s.id FROM Song s WHERE s.id IN :songPoolIds AND LOWER(s.genre) = :genre AND s.id != :excludeSongId", Long.class)
-                .setParameter("songPoolIds", songPoolIds)
-                .setParameter("genre", genre.toLowerCase())
-                .setParameter("excludeSongId", excludeSongId)
-                .getResultList();
-        if (matchingIds.isEmpty()) {
-            return null;
-        }
-        java.util.Collections.shuffle(matchingIds);
-        Long randomId = matchingIds.get(0);
-        return find(randomId); // This fetches the single, full Song object
-    }
-
-    @Transactional
-    public Song findRandomSongByGenreAndBpm(String genre, int currentBpm, int bpmTolerance, Long excludeSongId, List<Long> songPoolIds) {
-        if (genre == null || genre.isBlank() || songPoolIds == null || songPoolIds.isEmpty()) {
-            return null;
-        }
-
-        int minBpm = currentBpm - bpmTolerance;
-        int maxBpm = currentBpm + bpmTolerance;
-
-        List<Long> matchingIds = em.createQuery(
-                "SELECT s.id FROM Song s WHERE s.id IN :songPoolIds AND LOWER(s.genre) = :genre AND s.id != :excludeSongId AND s.bpm >= :minBpm AND s.bpm <= :maxBpm", Long.class)
-                .setParameter("songPoolIds", songPoolIds)
-                .setParameter("genre", genre.toLowerCase())
-                .setParameter("excludeSongId", excludeSongId)
-                .setParameter("minBpm", minBpm)
-                .setParameter("maxBpm", maxBpm)
-                .getResultList();
-
-        if (matchingIds.isEmpty()) {
-            return null;
-        }
-
-        java.util.Collections.shuffle(matchingIds);
-        Long randomId = matchingIds.get(0);
-        return find(randomId);
-    }
-
-    public List<Song> findSongsByGenreWithBpmSorting(String genre, int currentBpm, List<Long> songPoolIds) {
-        if (genre == null || genre.isBlank() || songPoolIds == null || songPoolIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<Song> songs = em.createQuery(
-                "SELECT s FROM Song s WHERE s.id IN :songPoolIds AND LOWER(s.genre) = :genre", Song.class)
-                .setParameter("songPoolIds", songPoolIds)
-                .setParameter("genre", genre.toLowerCase())
-                .getResultList();
-
-        if (songs.isEmpty()) {
-            return songs;
-        }
-
-        final int targetBpm = currentBpm;
-        songs.sort((a, b) -> {
-            int aBpm = a.getBpm() > 0 ? a.getBpm() : targetBpm;
-            int bBpm = b.getBpm() > 0 ? b.getBpm() : targetBpm;
-            int diffA = Math.abs(aBpm - targetBpm);
-            int diffB = Math.abs(bBpm - targetBpm);
-            return Integer.compare(diffA, diffB);
-        });
-
-        return songs;
-    }
-
     @Transactional
     public List<Song> findSongsAddedAfter(java.time.LocalDateTime dateTime) {
         return em.createQuery("SELECT s FROM Song s WHERE s.dateAdded > :dateTime", Song.class)
@@ -421,7 +393,7 @@ public class SongService {
         }
 
         // Get the absolute path to the song file
-        String libraryPath = settingsService.getOrCreateSettings().getLibraryPath();
+        String libraryPath = settingsService.getSnapshot().libraryPath();
         if (libraryPath == null || libraryPath.isBlank()) {
             LOGGER.log(Level.WARNING, "Music library path is not configured. Cannot rescan song: {0}", song.getPath());
             throw new IllegalStateException("Music library path is not configured.");
@@ -462,7 +434,7 @@ public class SongService {
         delete(song);
 
         // Delete physical file from disk
-        String libraryPath = settingsService.getOrCreateSettings().getLibraryPath();
+        String libraryPath = settingsService.getSnapshot().libraryPath();
         if (libraryPath == null || libraryPath.isBlank()) {
             LOGGER.log(Level.WARNING, "Music library path is not configured. Cannot delete physical file for song: {0}", song.getPath());
             // We might still want to proceed with DB deletion if file path is missing,
@@ -485,7 +457,8 @@ public class SongService {
     }
 
     /**
-     * Finds all duplicates of a specific song based on metadata matching
+     * Finds all duplicates of a specific song: exact title/artist/duration matches plus
+     * acoustic fingerprint matches, which also catch re-encodes with different tags
      */
     @Transactional
     public List<Song> findDuplicates(Long songId) {
@@ -494,7 +467,7 @@ public class SongService {
             return new ArrayList<>();
         }
 
-        return em.createQuery(
+        List<Song> duplicates = em.createQuery(
             "SELECT s FROM Song s WHERE " +
             "s.id != :songId AND " +
             "LOWER(s.title) = LOWER(:title) AND " +
@@ -505,6 +478,36 @@ public class SongService {
             .setParameter("artist", originalSong.getArtist())
             .setParameter("duration", originalSong.getDurationSeconds())
             .getResultList();
+
+        java.util.Set<Long> known = new java.util.HashSet<>();
+        duplicates.forEach(s -> known.add(s.id));
+        List<Long> acoustic = new ArrayList<>();
+        for (FingerprintService.Match match : fingerprintService.findMatches(songId, FingerprintService.DUPLICATE_CONFIDENCE)) {
+            if (known.add(match.songId())) {
+                acoustic.add(match.songId());
+            }
+        }
+        if (!acoustic.isEmpty()) {
+            duplicates.addAll(findByIds(acoustic));
+        }
+        return duplicates;
+    }
+
+    /**
+     * Deletes a song known to duplicate the keeper: playlists and history are pointed at the
+     * keeper before the row is removed. The physical file is left to the caller.
+     */
+    @Transactional
+    public void deleteAsDuplicateOf(Long duplicateId, Long keeperId) {
+        Song duplicate = find(duplicateId);
+        if (duplicate == null) {
+            return;
+        }
+        playlistService.replaceSongInAllPlaylists(duplicateId, keeperId);
+        playbackHistoryService.replaceSongInHistory(duplicateId, keeperId);
+        em.remove(duplicate);
+        LOGGER.log(Level.INFO, "Deleted duplicate song ID {0}, playlists now point to song ID {1}",
+            new Object[]{duplicateId, keeperId});
     }
 
     /**
@@ -575,79 +578,6 @@ public class SongService {
                 .getResultList();
     }
 
-    /**
-     * Find multiple candidate songs by genre and BPM tolerance for enhanced smart shuffle.
-     * Returns up to maxCandidates songs matching the criteria, excluding specified songs.
-     */
-    @Transactional
-    public List<Song> findCandidatesByGenreAndBpm(String genre, int currentBpm, int bpmTolerance, 
-                                                   List<Long> excludeSongIds, List<Long> songPoolIds, int maxCandidates) {
-        if (genre == null || genre.isBlank() || songPoolIds == null || songPoolIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        int minBpm = currentBpm - bpmTolerance;
-        int maxBpm = currentBpm + bpmTolerance;
-
-        // Build query dynamically based on whether we have exclusions
-        StringBuilder queryStr = new StringBuilder(
-            "SELECT s FROM Song s WHERE s.id IN :songPoolIds " +
-            "AND LOWER(s.genre) = :genre " +
-            "AND s.bpm >= :minBpm AND s.bpm <= :maxBpm"
-        );
-
-        if (excludeSongIds != null && !excludeSongIds.isEmpty()) {
-            queryStr.append(" AND s.id NOT IN :excludeSongIds");
-        }
-
-        queryStr.append(" ORDER BY FUNCTION('RAND')"); // Random ordering
-
-        var query = em.createQuery(queryStr.toString(), Song.class)
-                .setParameter("songPoolIds", songPoolIds)
-                .setParameter("genre", genre.toLowerCase())
-                .setParameter("minBpm", minBpm)
-                .setParameter("maxBpm", maxBpm);
-
-        if (excludeSongIds != null && !excludeSongIds.isEmpty()) {
-            query.setParameter("excludeSongIds", excludeSongIds);
-        }
-
-        return query.setMaxResults(maxCandidates).getResultList();
-    }
-
-    /**
-     * Find candidate songs by genre only (fallback when no BPM match).
-     * Returns up to maxCandidates songs matching the genre, excluding specified songs.
-     */
-    @Transactional
-    public List<Song> findCandidatesByGenre(String genre, List<Long> excludeSongIds, 
-                                            List<Long> songPoolIds, int maxCandidates) {
-        if (genre == null || genre.isBlank() || songPoolIds == null || songPoolIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        StringBuilder queryStr = new StringBuilder(
-            "SELECT s FROM Song s WHERE s.id IN :songPoolIds " +
-            "AND LOWER(s.genre) = :genre"
-        );
-
-        if (excludeSongIds != null && !excludeSongIds.isEmpty()) {
-            queryStr.append(" AND s.id NOT IN :excludeSongIds");
-        }
-
-        queryStr.append(" ORDER BY FUNCTION('RAND')");
-
-        var query = em.createQuery(queryStr.toString(), Song.class)
-                .setParameter("songPoolIds", songPoolIds)
-                .setParameter("genre", genre.toLowerCase());
-
-        if (excludeSongIds != null && !excludeSongIds.isEmpty()) {
-            query.setParameter("excludeSongIds", excludeSongIds);
-        }
-
-        return query.setMaxResults(maxCandidates).getResultList();
-    }
-
     // ── Album browsing ──
 
     public record PaginatedAlbums(List<Object[]> albums, long totalCount) {}
@@ -0,0 +1,156 @@
+package Services;
+
+import Utils.StaticAssetBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-hashed static assets produced by {@link StaticAssetBuilder}.
+ *
+ * Maps logical paths ({@code /css/player.css}) to their hashed URLs under {@code /assets/},
+ * rewrites script and stylesheet references in served pages, and picks the precompressed
+ * variant for a request. Without a manifest (dev mode, IDE runs) every path maps to itself
+ * and assets keep being served from {@code META-INF/resources}. Templates use it as
+ * {@code {inject:assets.url('/css/player.css')}}.
+ */
+@ApplicationScoped
+@Named("assets")
+public class StaticAssetService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticAssetService.class);
+
+    static final String ASSET_ROOT = "jmedia-assets/";
+    private static final Pattern ASSET_REFERENCE =
+            Pattern.compile("((?:src|href)=\")(/(?:css|js|lib)/[^\"?#]+)(?:\\?[^\"]*)?\"");
+
+    /**
+     * A hashed asset and the precompressed variants written next to it, best first.
+     */
+    public record Asset(String logicalPath, String hashedPath, List<String> encodings) {}
+
+    /**
+     * Classpath resource to send for a request, and its Content-Encoding (null for identity).
+     */
+    public record Variant(String resource, String contentEncoding) {}
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private Map<String, Asset> byLogicalPath = Map.of();
+    private Map<String, Asset> byHashedPath = Map.of();
+
+    @PostConstruct
+    void loadManifest() {
+        try (InputStream in = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream(ASSET_ROOT + StaticAssetBuilder.MANIFEST_NAME)) {
+            if (in == null) {
+                LOG.info("No static asset manifest on the classpath, serving unhashed assets");
+                return;
+            }
+            Map<String, Asset> logical = new HashMap<>();
+            Map<String, Asset> hashed = new HashMap<>();
+            JsonNode entries = objectMapper.readTree(in).path("assets");
+            entries.fields().forEachRemaining(field -> {
+                List<String> encodings = new ArrayList<>();
+                field.getValue().path("encodings").forEach(e -> encodings.add(e.asText()));
+                Asset asset = new Asset(field.getKey(), field.getValue().path("path").asText(), List.copyOf(encodings));
+                logical.put(asset.logicalPath(), asset);
+                hashed.put(asset.hashedPath(), asset);
+            });
+            byLogicalPath = logical;
+            byHashedPath = hashed;
+            LOG.info("Loaded static asset manifest with {} entries", logical.size());
+        } catch (Exception e) {
+            LOG.warn("Could not read static asset manifest, serving unhashed assets: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return !byLogicalPath.isEmpty();
+    }
+
+    /**
+     * Hashed URL for a logical asset path, or the path itself when it has no hashed copy.
+     */
+    public String url(String logicalPath) {
+        Asset asset = byLogicalPath.get(logicalPath);
+        return asset != null ? asset.hashedPath() : logicalPath;
+    }
+
+    /**
+     * Point {@code src}/{@code href} attributes at hashed URLs. Cache-busting query strings
+     * such as {@code ?v=2} are dropped for assets that have a hashed copy.
+     */
+    public String rewriteHtml(String html) {
+        if (!isEnabled() || html == null) {
+            return html;
+        }
+        Matcher matcher = ASSET_REFERENCE.matcher(html);
+        StringBuilder out = new StringBuilder(html.length());
+        while (matcher.find()) {
+            Asset asset = byLogicalPath.get(matcher.group(2));
+            String replacement = asset != null ? matcher.group(1) + asset.hashedPath() + "\"" : matcher.group();
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * Hashed asset for a request path under {@code /assets/}, or null when the path is not hashed.
+     */
+    public Asset findHashed(String requestPath) {
+        return byHashedPath.get(requestPath);
+    }
+
+    /**
+     * Best precompressed variant the client accepts, falling back to the uncompressed file.
+     */
+    public Variant variantFor(Asset asset, String acceptEncoding) {
+        String resource = ASSET_ROOT + asset.hashedPath().substring("/assets/".length());
+        for (String encoding : asset.encodings()) {
+            if (accepts(acceptEncoding, encoding)) {
+                return new Variant(resource + ("br".equals(encoding) ? ".br" : ".gz"), encoding);
+            }
+        }
+        return new Variant(resource, null);
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equals(encoding)) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -11,7 +11,10 @@ import Models.Video;
 import Models.SubtitleTrack;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -25,7 +28,6 @@ public class SubtitleDiscoveryQueueProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(SubtitleDiscoveryQueueProcessor.class);
     
     private static final int PROCESSING_THREADS = 2;
-    private static final int DELAY_MS = 500;
     private static final int MAX_RETRIES = 2;
     
     @Inject
@@ -34,7 +36,11 @@ public class SubtitleDiscoveryQueueProcessor {
     @Inject
     VideoService videoService;
     
-    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    @Inject
+    BackgroundWorkGovernor governor;
+    
+    /** Batches of video ids that share a directory, so its subtitle files are listed once. */
+    private final BlockingQueue<List<Long>> queue = new LinkedBlockingQueue<>();
     private ExecutorService executorService;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
     
@@ -80,20 +86,24 @@ public class SubtitleDiscoveryQueueProcessor {
     }
     
     public void queueVideo(Long videoId) {
-        queue.offer(videoId);
+        queue.offer(List.of(videoId));
     }
     
     public void queueAllVideos() {
         LOGGER.info("Queueing all videos for subtitle discovery...");
-        List<Video> videos = Video.list("isActive = true and type = 'episode'");
-        int queued = 0;
-        for (Video video : videos) {
-            if (video.subtitleTracks == null || video.subtitleTracks.isEmpty()) {
-                queue.offer(video.id);
-                queued++;
-            }
+        // Only ids and paths, without loading entities or their track collections
+        List<Object[]> rows = Video.getEntityManager()
+                .createQuery("select v.id, v.path from Video v where v.isActive = true and v.type = 'episode'"
+                        + " and v.subtitleTracks is empty and v.path is not null", Object[].class)
+                .getResultList();
+        
+        Map<Path, List<Long>> byDirectory = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Path directory = Path.of((String) row[1]).getParent();
+            byDirectory.computeIfAbsent(directory, dir -> new ArrayList<>()).add((Long) row[0]);
         }
-        LOGGER.info("Queued {} videos for subtitle discovery", queued);
+        byDirectory.values().forEach(queue::offer);
+        LOGGER.info("Queued {} videos in {} directories for subtitle discovery", rows.size(), byDirectory.size());
     }
     
     private void processQueue() {
@@ -101,13 +111,13 @@ public class SubtitleDiscoveryQueueProcessor {
         
         while (isRunning.get()) {
             try {
-                Long videoId = queue.poll(5, TimeUnit.SECONDS);
+                List<Long> videoIds = queue.poll(5, TimeUnit.SECONDS);
                 
-                if (videoId == null) {
+                if (videoIds == null) {
                     continue;
                 }
                 
-                processVideo(videoId);
+                processVideos(videoIds);
                 
             } catch (InterruptedException e) {
                 LOGGER.info("SubtitleDiscoveryQueueProcessor interrupted, shutting down");
@@ -121,37 +131,45 @@ public class SubtitleDiscoveryQueueProcessor {
         LOGGER.info("Subtitle discovery worker stopped");
     }
     
-    private void processVideo(Long videoId) {
+    private void processVideos(List<Long> videoIds) {
         for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
             try {
-                Video video = Video.findById(videoId);
-                if (video == null) {
-                    LOGGER.debug("Video {} not found, skipping", videoId);
-                    return;
+                List<Video> candidates = Video.list("id in ?1", videoIds);
+                List<Video> videos = new ArrayList<>();
+                for (Video video : candidates) {
+                    if (video.path == null) {
+                        LOGGER.debug("Video {} has no path, skipping", video.id);
+                    } else if (video.subtitleTracks != null && !video.subtitleTracks.isEmpty()) {
+                        LOGGER.debug("Video {} already has subtitle tracks, skipping", video.id);
+                    } else {
+                        videos.add(video);
+                    }
                 }
-                
-                if (video.subtitleTracks != null && !video.subtitleTracks.isEmpty()) {
-                    LOGGER.debug("Video {} already has subtitle tracks, skipping", videoId);
+                if (videos.isEmpty()) {
                     return;
                 }
                 
-                List<SubtitleTrack> subtitleTracks = subtitleMatcher.discoverSubtitleTracks(
-                        Path.of(video.path), video);
-                
-                if (!subtitleTracks.isEmpty()) {
-                    videoService.updateSubtitleTracks(videoId, subtitleTracks);
-                    LOGGER.debug("Found {} subtitle tracks for video: {}", subtitleTracks.size(), video.title);
+                // Directory listings are catch-up work; they wait while anything is playing
+                try (BackgroundWorkGovernor.Permit permit = governor.acquire(
+                        BackgroundWorkGovernor.Resource.IO, BackgroundWorkGovernor.Priority.BULK)) {
+                    Map<Long, List<SubtitleTrack>> discovered = subtitleMatcher.discoverSubtitleTracks(videos);
+                    
+                    for (Video video : videos) {
+                        List<SubtitleTrack> subtitleTracks = discovered.getOrDefault(video.id, List.of());
+                        if (!subtitleTracks.isEmpty()) {
+                            videoService.updateSubtitleTracks(video.id, subtitleTracks);
+                            LOGGER.debug("Found {} subtitle tracks for video: {}", subtitleTracks.size(), video.title);
+                        }
+                    }
                 }
-                
-                Thread.sleep(DELAY_MS);
                 return;
                 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return;
             } catch (Exception e) {
-                LOGGER.warn("Attempt {}/{} failed for video {}: {}", 
-                    attempt + 1, MAX_RETRIES + 1, videoId, e.getMessage());
+                LOGGER.warn("Attempt {}/{} failed for videos {}: {}", 
+                    attempt + 1, MAX_RETRIES + 1, videoIds, e.getMessage());
                 
                 if (attempt < MAX_RETRIES) {
                     try {
@@ -164,11 +182,11 @@ public class SubtitleDiscoveryQueueProcessor {
             }
         }
         
-        LOGGER.error("Failed to discover subtitles for video {} after {} attempts", videoId, MAX_RETRIES + 1);
+        LOGGER.error("Failed to discover subtitles for videos {} after {} attempts", videoIds, MAX_RETRIES + 1);
     }
     
     public int getQueueSize() {
-        return queue.size();
+        return queue.stream().mapToInt(List::size).sum();
     }
     
     public boolean isRunning() {
@@ -37,6 +37,12 @@ public class SubtitleDownloadService {
     
     @Inject
     EnhancedSubtitleMatcher subtitleMatcher;
+
+    @Inject
+    SubtitleSidecarIndex sidecarIndex;
+
+    @Inject
+    MetadataHttpCache httpCache;
     
     @Inject
     VideoService videoService;
@@ -83,7 +89,7 @@ public class SubtitleDownloadService {
                 .GET()
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        MetadataHttpCache.CachedResponse response = httpCache.fetch(MetadataHttpCache.Provider.OPENSUBTITLES, request);
         
         if (response.statusCode() != 200) {
             LOG.error("OpenSubtitles search failed with status " + response.statusCode());
@@ -286,6 +292,11 @@ public class SubtitleDownloadService {
         Video managedVideo = Video.findById(video.id);
         if (managedVideo == null) return;
         
+        // An explicit refresh re-lists the folder even if its mtime looks unchanged
+        Path videoDir = Paths.get(managedVideo.path).getParent();
+        if (videoDir != null) {
+            sidecarIndex.invalidate(videoDir);
+        }
         List<SubtitleTrack> tracks = subtitleMatcher.discoverSubtitleTracks(Paths.get(managedVideo.path), managedVideo);
         videoService.updateSubtitleTracks(managedVideo.id, tracks);
         LOG.info("Refreshed subtitle tracks for video: " + managedVideo.title);
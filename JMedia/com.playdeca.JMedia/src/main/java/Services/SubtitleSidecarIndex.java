@@ -0,0 +1,143 @@
+package Services;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subtitle files found next to videos, listed once per video directory.
+ *
+ * A listing covers the directory and its subfolders to depth 3 (the usual {@code Subs/} and
+ * {@code Subs/<episode>/} layouts) and remembers the modification time of every directory it
+ * walked. It is reused until one of those times changes, which happens whenever a file or folder
+ * is added, removed or renamed inside it, so all episodes of a season share one walk. The cache
+ * is LRU-bounded by directory count.
+ */
+@ApplicationScoped
+public class SubtitleSidecarIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubtitleSidecarIndex.class);
+
+    private static final int MAX_DEPTH = 3;
+    private static final int MAX_DIRECTORIES = 1_024;
+    private static final Set<String> SUPPORTED_FORMATS = Set.of("srt", "vtt", "ass", "ssa");
+
+    /**
+     * A subtitle file; {@code size} is as of the listing.
+     */
+    public record Sidecar(Path path, String filename, long size) {}
+
+    private record Listing(List<Sidecar> sidecars, Map<Path, FileTime> directories) {}
+
+    private final LinkedHashMap<Path, Listing> listings = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Listing> eldest) {
+            return size() > MAX_DIRECTORIES;
+        }
+    };
+
+    /**
+     * Subtitle files under {@code directory}, from the cache while none of its directories
+     * changed. Empty when the directory does not exist.
+     */
+    public List<Sidecar> list(Path directory) {
+        Path key = directory.toAbsolutePath().normalize();
+        Listing cached;
+        synchronized (listings) {
+            cached = listings.get(key);
+        }
+        if (cached != null && isCurrent(cached)) {
+            return cached.sidecars();
+        }
+
+        Listing fresh = walk(key);
+        synchronized (listings) {
+            if (fresh.directories().isEmpty()) {
+                listings.remove(key);
+            } else {
+                listings.put(key, fresh);
+            }
+        }
+        return fresh.sidecars();
+    }
+
+    /**
+     * Forget a directory, e.g. after writing a subtitle file into it whose mtime change may fall
+     * within the file system's timestamp granularity.
+     */
+    public void invalidate(Path directory) {
+        synchronized (listings) {
+            listings.remove(directory.toAbsolutePath().normalize());
+        }
+    }
+
+    private boolean isCurrent(Listing listing) {
+        for (Map.Entry<Path, FileTime> entry : listing.directories().entrySet()) {
+            try {
+                if (!Files.getLastModifiedTime(entry.getKey()).equals(entry.getValue())) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Listing walk(Path directory) {
+        List<Sidecar> sidecars = new ArrayList<>();
+        Map<Path, FileTime> directories = new LinkedHashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return new Listing(List.of(), Map.of());
+        }
+
+        try {
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), MAX_DEPTH, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    directories.put(dir, attrs.lastModifiedTime());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String filename = file.getFileName().toString();
+                    if (attrs.isRegularFile() && isSubtitleFile(filename)) {
+                        sidecars.add(new Sidecar(file, filename, attrs.size()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.warn("Error listing subtitle files in {}: {}", directory, e.getMessage());
+        }
+
+        LOGGER.debug("Indexed {} subtitle files across {} directories under {}", sidecars.size(), directories.size(), directory);
+        return new Listing(List.copyOf(sidecars), directories);
+    }
+
+    private static boolean isSubtitleFile(String filename) {
+        int lastDot = filename.lastIndexOf('.');
+        return lastDot > 0 && SUPPORTED_FORMATS.contains(filename.substring(lastDot + 1).toLowerCase(Locale.ROOT));
+    }
+}
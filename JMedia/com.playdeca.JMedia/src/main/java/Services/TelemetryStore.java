@@ -0,0 +1,278 @@
+package Services;
+
+import Models.Telemetry.PlaybackHistory;
+import Models.Telemetry.ScanState;
+import Models.Telemetry.Session;
+import Models.Telemetry.VideoHistory;
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retention for the telemetry store (see {@link Models.Telemetry}).
+ *
+ * Log rows are pruned by age and by count, login sessions once they have been idle well past
+ * the session timeout, and finished scan checkpoints beyond the most recent few. On the first
+ * start after the split, active sessions are copied over from the catalog database and the
+ * old tables are dropped there. Song and video play history moved later; their rows are copied
+ * over in full before the catalog tables are dropped.
+ */
+@ApplicationScoped
+public class TelemetryStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TelemetryStore.class);
+
+    // Tables that lived in the catalog database before the split, children first
+    private static final List<String> LEGACY_TABLES = List.of("SCANSTATE_PROCESSEDPATHS", "SCANSTATE", "SETTINGSLOG", "SESSION");
+    private static final List<String> LEGACY_SEQUENCES = List.of("SCANSTATE_SEQ", "SETTINGSLOG_SEQ", "SESSION_SEQ");
+    private static final int HISTORY_COPY_CHUNK = 1000;
+
+    @Inject
+    EntityManager catalogEm;
+
+    @Inject
+    @PersistenceUnit("telemetry")
+    EntityManager telemetryEm;
+
+    @ConfigProperty(name = "jmedia.telemetry.log-retention", defaultValue = "14d")
+    Duration logRetention;
+
+    @ConfigProperty(name = "jmedia.telemetry.log-max-rows", defaultValue = "50000")
+    int logMaxRows;
+
+    @ConfigProperty(name = "jmedia.telemetry.session-retention", defaultValue = "60d")
+    Duration sessionRetention;
+
+    @ConfigProperty(name = "jmedia.telemetry.scan-history", defaultValue = "20")
+    int scanHistory;
+
+    void onStart(@Observes StartupEvent ev) {
+        try {
+            migrateLegacyTables();
+        } catch (Exception e) {
+            LOGGER.warn("Could not move legacy telemetry tables out of the catalog database: {}", e.getMessage());
+        }
+        try {
+            migrateLegacyHistory();
+        } catch (Exception e) {
+            LOGGER.warn("Could not move play history out of the catalog database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(every = "1h", delayed = "2m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void prune() {
+        try {
+            int logs = QuarkusTransaction.requiringNew().call(this::pruneLogs);
+            int sessions = QuarkusTransaction.requiringNew().call(this::pruneSessions);
+            int scans = QuarkusTransaction.requiringNew().call(this::pruneScans);
+            if (logs + sessions + scans > 0) {
+                LOGGER.info("Pruned {} log rows, {} sessions and {} scan checkpoints", logs, sessions, scans);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Telemetry pruning failed: {}", e.getMessage());
+        }
+    }
+
+    private int pruneLogs() {
+        int deleted = telemetryEm.createQuery("DELETE FROM SettingsLog l WHERE l.timestamp < :cutoff")
+                .setParameter("cutoff", LocalDateTime.now().minus(logRetention))
+                .executeUpdate();
+
+        // Cap the row count too, so a burst of scan logging cannot outgrow the retention window
+        List<Long> boundary = telemetryEm.createQuery("SELECT l.id FROM SettingsLog l ORDER BY l.id DESC", Long.class)
+                .setFirstResult(logMaxRows)
+                .setMaxResults(1)
+                .getResultList();
+        if (!boundary.isEmpty()) {
+            deleted += telemetryEm.createQuery("DELETE FROM SettingsLog l WHERE l.id <= :id")
+                    .setParameter("id", boundary.get(0))
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    private int pruneSessions() {
+        Instant cutoff = Instant.now().minus(sessionRetention);
+        return telemetryEm.createQuery("DELETE FROM Session s WHERE s.lastActivity < :cutoff "
+                        + "OR (s.lastActivity IS NULL AND s.createdAt < :cutoff)")
+                .setParameter("cutoff", cutoff)
+                .executeUpdate();
+    }
+
+    private int pruneScans() {
+        // Removed one by one so the processedPaths collection rows go with them
+        List<ScanState> finished = telemetryEm.createQuery(
+                        "SELECT s FROM ScanState s WHERE s.status <> 'running' ORDER BY s.startTime DESC", ScanState.class)
+                .setFirstResult(scanHistory)
+                .getResultList();
+        finished.forEach(telemetryEm::remove);
+        return finished.size();
+    }
+
+    /**
+     * Copies active login sessions from the catalog database so nobody is signed out by the
+     * upgrade, then drops the old tables. Log rows and scan checkpoints are not carried over.
+     */
+    private void migrateLegacyTables() {
+        List<?> present = QuarkusTransaction.requiringNew().call(() -> catalogEm.createNativeQuery(
+                        "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME IN (:names)")
+                .setParameter("names", LEGACY_TABLES)
+                .getResultList());
+        if (present.isEmpty()) {
+            return;
+        }
+
+        if (present.contains("SESSION")) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = QuarkusTransaction.requiringNew().call(() -> catalogEm.createNativeQuery(
+                            "SELECT sessionId, userId, username, ipAddress, createdAt, lastActivity FROM SESSION WHERE active = TRUE")
+                    .getResultList());
+            int copied = QuarkusTransaction.requiringNew().call(() -> copySessions(rows));
+            LOGGER.info("Moved {} active sessions to the telemetry store", copied);
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (String table : LEGACY_TABLES) {
+                catalogEm.createNativeQuery("DROP TABLE IF EXISTS " + table).executeUpdate();
+            }
+            for (String sequence : LEGACY_SEQUENCES) {
+                catalogEm.createNativeQuery("DROP SEQUENCE IF EXISTS " + sequence).executeUpdate();
+            }
+        });
+        LOGGER.info("Dropped legacy telemetry tables {} from the catalog database", present);
+    }
+
+    /**
+     * Copies song and video play history from the catalog database in id order, then drops the
+     * old tables. A copy cut short by a crash starts over on the next start.
+     */
+    private void migrateLegacyHistory() {
+        List<?> present = QuarkusTransaction.requiringNew().call(() -> catalogEm.createNativeQuery(
+                        "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME IN ('PLAYBACKHISTORY', 'VIDEOHISTORY')")
+                .getResultList());
+
+        if (present.contains("PLAYBACKHISTORY")) {
+            QuarkusTransaction.requiringNew().run(() -> PlaybackHistory.deleteAll());
+            int copied = copyHistory("PLAYBACKHISTORY", "song_id", (refId, profileId, playedAt) -> {
+                PlaybackHistory history = new PlaybackHistory();
+                history.songId = refId;
+                history.profileId = profileId;
+                history.playedAt = playedAt;
+                history.persist();
+            });
+            dropLegacyTable("PLAYBACKHISTORY");
+            LOGGER.info("Moved {} song history rows to the telemetry store", copied);
+        }
+
+        if (present.contains("VIDEOHISTORY")) {
+            QuarkusTransaction.requiringNew().run(() -> VideoHistory.deleteAll());
+            int copied = copyHistory("VIDEOHISTORY", "mediaFile_id", (refId, profileId, playedAt) -> {
+                VideoHistory history = new VideoHistory();
+                history.mediaFileId = refId;
+                history.profileId = profileId;
+                history.playedAt = playedAt;
+                history.persist();
+            });
+            dropLegacyTable("VIDEOHISTORY");
+            LOGGER.info("Moved {} video history rows to the telemetry store", copied);
+        }
+    }
+
+    @FunctionalInterface
+    private interface HistoryRowWriter {
+        void write(Long refId, Long profileId, LocalDateTime playedAt);
+    }
+
+    private int copyHistory(String table, String refColumn, HistoryRowWriter writer) {
+        int copied = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            long after = afterId;
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = QuarkusTransaction.requiringNew().call(() -> catalogEm.createNativeQuery(
+                            "SELECT id, " + refColumn + ", profile_id, playedAt FROM " + table + " WHERE id > :after ORDER BY id")
+                    .setParameter("after", after)
+                    .setMaxResults(HISTORY_COPY_CHUNK)
+                    .getResultList());
+            if (rows.isEmpty()) {
+                return copied;
+            }
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (Object[] row : rows) {
+                    writer.write(toLong(row[1]), toLong(row[2]), toLocalDateTime(row[3]));
+                }
+            });
+            copied += rows.size();
+            afterId = toLong(rows.get(rows.size() - 1)[0]);
+        }
+    }
+
+    private void dropLegacyTable(String table) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            catalogEm.createNativeQuery("DROP TABLE IF EXISTS " + table).executeUpdate();
+            catalogEm.createNativeQuery("DROP SEQUENCE IF EXISTS " + table + "_SEQ").executeUpdate();
+        });
+    }
+
+    private int copySessions(List<Object[]> rows) {
+        int copied = 0;
+        for (Object[] row : rows) {
+            String sessionId = (String) row[0];
+            if (sessionId == null || Session.findBySessionId(sessionId) != null) {
+                continue;
+            }
+            Session session = new Session();
+            session.sessionId = sessionId;
+            session.userId = (String) row[1];
+            session.username = (String) row[2];
+            session.ipAddress = (String) row[3];
+            session.createdAt = toInstant(row[4]);
+            session.lastActivity = toInstant(row[5]);
+            session.active = true;
+            session.persist();
+            copied++;
+        }
+        return copied;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return null;
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        return null;
+    }
+}
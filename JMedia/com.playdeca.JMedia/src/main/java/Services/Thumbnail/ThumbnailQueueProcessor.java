@@ -1,15 +1,17 @@
 package Services.Thumbnail;
 
+import Services.BackgroundWorkGovernor;
 import Services.SettingsService;
 import Services.ThumbnailService;
 import Controllers.SettingsController;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.ObservesAsync;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import Models.Settings;
+import Models.SettingsSnapshot;
 
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -34,6 +36,9 @@ public class ThumbnailQueueProcessor {
     @Inject
     SettingsController settingsController;
     
+    @Inject
+    BackgroundWorkGovernor governor;
+    
     // Queue management
     private final PriorityBlockingQueue<ThumbnailJob> highPriorityQueue = 
         new PriorityBlockingQueue<>(100, this::compareJobs);
@@ -46,6 +51,7 @@ public class ThumbnailQueueProcessor {
     // Thread management
     private ExecutorService executorService;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private volatile int runningThreads;
     
     // Configuration defaults
     private static final int DEFAULT_API_DELAY_MS = 1000;
@@ -85,6 +91,7 @@ public class ThumbnailQueueProcessor {
     public void start() {
         if (isRunning.compareAndSet(false, true)) {
             int processingThreads = getProcessingThreads();
+            runningThreads = processingThreads;
             executorService = Executors.newFixedThreadPool(processingThreads);
             
             // Start processing threads
@@ -96,6 +103,21 @@ public class ThumbnailQueueProcessor {
         }
     }
     
+    /**
+     * Resize the worker pool when the configured thread count changes. Queued jobs stay queued;
+     * in-flight jobs finish on the old workers.
+     */
+    void onSettingsChanged(@ObservesAsync SettingsSnapshot settings) {
+        if (isRunning.get() && settings.thumbnailProcessingThreads() != runningThreads) {
+            LOGGER.info("Thumbnail processing threads changed from {} to {}, restarting workers",
+                    runningThreads, settings.thumbnailProcessingThreads());
+            synchronized (this) {
+                stop();
+                start();
+            }
+        }
+    }
+
     /**
      * Stop the thumbnail processing threads
      */
@@ -136,7 +158,13 @@ public class ThumbnailQueueProcessor {
             try {
                 ThumbnailJob job = getNextJob();
                 if (job != null) {
-                    processJob(job);
+                    // Requested thumbnails keep going during playback; bulk backfill waits
+                    BackgroundWorkGovernor.Priority priority = job.priority
+                            ? BackgroundWorkGovernor.Priority.HIGH : BackgroundWorkGovernor.Priority.BULK;
+                    try (BackgroundWorkGovernor.Permit permit =
+                            governor.acquire(BackgroundWorkGovernor.Resource.CPU, priority)) {
+                        processJob(job);
+                    }
                     updateStatus();
                 } else {
                     Thread.sleep(1000); // Wait for jobs
@@ -403,8 +431,7 @@ public class ThumbnailQueueProcessor {
     private long getApiDelay() {
         try {
             if (settingsService != null) {
-                Settings settings = settingsService.getOrCreateSettings();
-                return settings.getThumbnailApiDelayMs() != null ? settings.getThumbnailApiDelayMs() : DEFAULT_API_DELAY_MS;
+                return settingsService.getSnapshot().thumbnailApiDelayMs();
             }
         } catch (Exception e) {
             LOGGER.warn("Failed to get thumbnail API delay from settings, using default", e);
@@ -415,8 +442,7 @@ public class ThumbnailQueueProcessor {
     private int getMaxRetries() {
         try {
             if (settingsService != null) {
-                Settings settings = settingsService.getOrCreateSettings();
-                return settings.getThumbnailMaxRetries() != null ? settings.getThumbnailMaxRetries() : DEFAULT_MAX_RETRIES;
+                return settingsService.getSnapshot().thumbnailMaxRetries();
             }
         } catch (Exception e) {
             LOGGER.warn("Failed to get thumbnail max retries from settings, using default", e);
@@ -427,8 +453,7 @@ public class ThumbnailQueueProcessor {
     private int getProcessingThreads() {
         try {
             if (settingsService != null) {
-                Settings settings = settingsService.getOrCreateSettings();
-                return settings.getThumbnailProcessingThreads() != null ? settings.getThumbnailProcessingThreads() : DEFAULT_PROCESSING_THREADS;
+                return settingsService.getSnapshot().thumbnailProcessingThreads();
             }
         } catch (Exception e) {
             LOGGER.warn("Failed to get thumbnail processing threads from settings, using default", e);
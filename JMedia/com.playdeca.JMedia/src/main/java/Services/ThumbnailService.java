@@ -124,7 +124,7 @@ public class ThumbnailService {
 
             // 2. STRATEGY B: Try to fetch from online API (TMDb)
             Video video = entityManager.find(Video.class, videoId);
-            if (video != null && settingsService.getOrCreateSettings().getThumbnailPreferApi()) {
+            if (video != null && settingsService.getSnapshot().thumbnailPreferApi()) {
                 String type = video.type != null ? video.type : "movie";
                 
                 // For episodes, we want to fetch the show's poster, not the episode's title
@@ -324,6 +324,9 @@ public class ThumbnailService {
     @Inject
     FFmpegDiscoveryService discoveryService;
 
+    @Inject
+    MediaMetrics metrics;
+
     private boolean extractVideoFrame(String videoPath, String outputPath) {
         try {
             // Seek to 10% of the video or 120 seconds, whichever is less, to get a "meaningful" shot
@@ -369,7 +372,7 @@ public class ThumbnailService {
 
             ProcessBuilder pb = new ProcessBuilder(command);
             
-            Process process = pb.start();
+            Process process = metrics.trackProcess("thumbnail", pb.start());
             boolean finished = process.waitFor(20, TimeUnit.SECONDS);
             
             if (finished && process.exitValue() == 0) {
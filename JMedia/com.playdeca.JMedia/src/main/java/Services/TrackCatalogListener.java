@@ -0,0 +1,48 @@
+package Services;
+
+import Models.Song;
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that mirrors Song inserts, updates and deletes into the
+ * in-memory {@link TrackCatalogService} and {@link LibraryOwnershipIndex}, and drops
+ * deleted songs from the {@link FingerprintService} index, once the transaction commits so
+ * a rollback leaves no phantom tracks behind. Bulk JPQL deletes bypass entity callbacks, so
+ * those defer the same updates themselves (see SongService.clearSongsByDirectory).
+ */
+public class TrackCatalogListener {
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Song song) {
+        afterCommit().run(() -> {
+            catalog().upsert(song);
+            ownership().upsert(song);
+        });
+    }
+
+    @PostRemove
+    void onRemoved(Song song) {
+        Long songId = song.id;
+        afterCommit().run(() -> {
+            catalog().remove(songId);
+            ownership().remove(songId);
+            Arc.container().instance(FingerprintService.class).get().remove(songId);
+        });
+    }
+
+    private AfterCommit afterCommit() {
+        return Arc.container().instance(AfterCommit.class).get();
+    }
+
+    private TrackCatalogService catalog() {
+        return Arc.container().instance(TrackCatalogService.class).get();
+    }
+
+    private LibraryOwnershipIndex ownership() {
+        return Arc.container().instance(LibraryOwnershipIndex.class).get();
+    }
+}
@@ -0,0 +1,558 @@
+package Services;
+
+import Models.PlayQueue;
+import Models.Song;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-optimized, in-memory catalog of the music library used on the playback path.
+ *
+ * Songs are stored as parallel primitive columns (id, genre, bpm, duration, artist, album)
+ * with genre/artist/album interned to small int ids. A per-genre index of rows sorted by
+ * BPM answers "songs of genre G within ±T BPM" with two binary searches. The catalog is
+ * loaded once at startup and kept in sync through {@link TrackCatalogListener}, so shuffle,
+ * smart shuffle and DJ candidate selection never touch the database.
+ */
+@Startup
+@ApplicationScoped
+public class TrackCatalogService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackCatalogService.class);
+
+    /** Interned id used for songs without a genre/artist/album */
+    public static final int UNKNOWN = 0;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @PersistenceContext
+    EntityManager em;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columnar storage, rows [0, size) are live
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] genreIds = new int[INITIAL_CAPACITY];
+    private int[] bpms = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] artistIds = new int[INITIAL_CAPACITY];
+    private int[] albumIds = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    private final Dictionary genres = new Dictionary();
+    private final Dictionary artists = new Dictionary();
+    private final Dictionary albums = new Dictionary();
+
+    // genreBpmIndex[genreId] = rows of that genre sorted by bpm; rebuilt lazily after writes
+    private int[][] genreBpmIndex = new int[0][];
+    private volatile boolean indexDirty = true;
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        reload();
+    }
+
+    /**
+     * Rebuild the catalog from a single projection query over the Song table.
+     */
+    @Transactional
+    public void reload() {
+        List<Object[]> rows = em.createQuery(
+                "SELECT s.id, s.genre, s.bpm, s.durationSeconds, s.artist, s.album FROM Song s", Object[].class)
+                .getResultList();
+
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            ensureCapacity(rows.size());
+            for (Object[] row : rows) {
+                upsertRow((Long) row[0], (String) row[1], toInt(row[2]), toInt(row[3]), (String) row[4], (String) row[5]);
+            }
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Track catalog loaded with {} songs and {} genres", rows.size(), genres.size() - 1);
+    }
+
+    // --- Sync ---
+
+    public void upsert(Song song) {
+        if (song == null || song.id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            upsertRow(song.id, song.getGenre(), song.getBpm(), song.getDurationSeconds(), song.getArtist(), song.getAlbum());
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long songId) {
+        if (songId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(songId);
+            if (row == null) {
+                return;
+            }
+            // Swap the last row into the hole to keep the columns dense
+            int last = size - 1;
+            if (row != last) {
+                ids[row] = ids[last];
+                genreIds[row] = genreIds[last];
+                bpms[row] = bpms[last];
+                durations[row] = durations[last];
+                artistIds[row] = artistIds[last];
+                albumIds[row] = albumIds[last];
+                rowById.put(ids[row], row);
+            }
+            size--;
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> songIds) {
+        if (songIds != null) {
+            songIds.forEach(this::remove);
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            rowById.clear();
+            indexDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Lookups ---
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Long songId) {
+        lock.readLock().lock();
+        try {
+            return songId != null && rowById.containsKey(songId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> allIds() {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(ids[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getBpm(Long songId) {
+        lock.readLock().lock();
+        try {
+            Integer row = songId != null ? rowById.get(songId) : null;
+            return row != null ? bpms[row] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getGenreId(Long songId) {
+        lock.readLock().lock();
+        try {
+            Integer row = songId != null ? rowById.get(songId) : null;
+            return row != null ? genreIds[row] : UNKNOWN;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Interned id of a genre name (case-insensitive), or -1 when no song has that genre.
+     */
+    public int lookupGenreId(String genre) {
+        lock.readLock().lock();
+        try {
+            return genres.lookup(genre);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDuration(Long songId) {
+        lock.readLock().lock();
+        try {
+            Integer row = songId != null ? rowById.get(songId) : null;
+            return row != null ? durations[row] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getGenre(Long songId) {
+        return genreName(getGenreId(songId));
+    }
+
+    public String genreName(int genreId) {
+        lock.readLock().lock();
+        try {
+            return genreId == UNKNOWN ? null : genres.name(genreId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getArtist(Long songId) {
+        lock.readLock().lock();
+        try {
+            Integer row = songId != null ? rowById.get(songId) : null;
+            return row != null && artistIds[row] != UNKNOWN ? artists.name(artistIds[row]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getAlbum(Long songId) {
+        lock.readLock().lock();
+        try {
+            Integer row = songId != null ? rowById.get(songId) : null;
+            return row != null && albumIds[row] != UNKNOWN ? albums.name(albumIds[row]) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Playback queries ---
+
+    /**
+     * Smart shuffle order for a pool: genres in random order, songs within each genre sorted
+     * by distance to the target BPM (random among ties), or fully shuffled without a target.
+     * Ids that are not in the catalog are dropped, as the previous findByIds-based version did.
+     */
+    public List<Long> smartShuffleOrder(Collection<Long> pool, int targetBpm) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Integer, List<long[]>> byGenre = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long id : pool) {
+                Integer row = id != null ? rowById.get(id) : null;
+                if (row == null) continue;
+                int bpm = bpms[row] > 0 ? bpms[row] : targetBpm;
+                // {distance, random tie-breaker, id}
+                long[] entry = {targetBpm > 0 ? Math.abs(bpm - targetBpm) : 0, random.nextLong(), id};
+                byGenre.computeIfAbsent(genreIds[row], g -> new ArrayList<>()).add(entry);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Integer> genreOrder = new ArrayList<>(byGenre.keySet());
+        java.util.Collections.shuffle(genreOrder, random);
+
+        List<Long> result = new ArrayList<>(pool.size());
+        for (Integer genreId : genreOrder) {
+            List<long[]> songs = byGenre.get(genreId);
+            songs.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            for (long[] entry : songs) {
+                result.add(entry[2]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pick a random genre present in the pool other than the given one, or the given genre
+     * itself when the pool has no other genre.
+     */
+    public int pickOtherGenre(Collection<Long> pool, int excludeGenreId) {
+        BitSet present = new BitSet();
+        lock.readLock().lock();
+        try {
+            for (Long id : pool) {
+                Integer row = id != null ? rowById.get(id) : null;
+                if (row != null && genreIds[row] != excludeGenreId) {
+                    present.set(genreIds[row]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int count = present.cardinality();
+        if (count == 0) {
+            return excludeGenreId;
+        }
+        int pick = ThreadLocalRandom.current().nextInt(count);
+        int genreId = present.nextSetBit(0);
+        for (int i = 0; i < pick; i++) {
+            genreId = present.nextSetBit(genreId + 1);
+        }
+        return genreId;
+    }
+
+    /**
+     * Random sample of up to maxCandidates songs of a genre from the pool, optionally limited
+     * to ±bpmTolerance around targetBpm (pass targetBpm <= 0 to ignore BPM).
+     */
+    public List<Long> findCandidates(int genreId, int targetBpm, int bpmTolerance,
+                                     Collection<Long> excludeSongIds, Collection<Long> pool, int maxCandidates) {
+        if (genreId <= UNKNOWN || pool == null || pool.isEmpty() || maxCandidates <= 0) {
+            return new ArrayList<>();
+        }
+        // Sets and play queues already have constant-time contains
+        Collection<Long> poolSet = pool instanceof Set<Long> || pool instanceof PlayQueue ? pool : new HashSet<>(pool);
+        Set<Long> excluded = excludeSongIds == null ? Set.of() : new HashSet<>(excludeSongIds);
+
+        long[] reservoir = new long[maxCandidates];
+        int seen = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        lock.readLock().lock();
+        try {
+            int[] rows = genreRows(genreId);
+            int from = 0;
+            int to = rows.length;
+            if (targetBpm > 0) {
+                from = lowerBoundBpm(rows, targetBpm - bpmTolerance);
+                to = lowerBoundBpm(rows, targetBpm + bpmTolerance + 1);
+            }
+            for (int i = from; i < to; i++) {
+                long id = ids[rows[i]];
+                if (!poolSet.contains(id) || excluded.contains(id)) continue;
+                // Reservoir sampling keeps a uniform random subset without sorting by RAND()
+                if (seen < maxCandidates) {
+                    reservoir[seen] = id;
+                } else {
+                    int slot = random.nextInt(seen + 1);
+                    if (slot < maxCandidates) {
+                        reservoir[slot] = id;
+                    }
+                }
+                seen++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int count = Math.min(seen, maxCandidates);
+        long[] picked = Arrays.copyOf(reservoir, count);
+        // Shuffle so callers see random order like the old ORDER BY RAND()
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = picked[i];
+            picked[i] = picked[j];
+            picked[j] = tmp;
+        }
+        List<Long> result = new ArrayList<>(count);
+        for (long id : picked) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Random song from the pool within ±bpmTolerance of targetBpm regardless of genre,
+     * excluding one song. Used as the DJ Mode fallback when no genre match exists.
+     */
+    public Long findRandomByBpm(int targetBpm, int bpmTolerance, Long excludeSongId, Collection<Long> pool) {
+        if (pool == null || pool.isEmpty() || targetBpm <= 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long chosen = null;
+        int seen = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Long id : pool) {
+                if (id == null || id.equals(excludeSongId)) continue;
+                Integer row = rowById.get(id);
+                if (row == null || bpms[row] <= 0 || Math.abs(bpms[row] - targetBpm) > bpmTolerance) continue;
+                seen++;
+                if (random.nextInt(seen) == 0) {
+                    chosen = id;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return chosen;
+    }
+
+    // --- Internals (callers hold the write lock) ---
+
+    private void upsertRow(Long id, String genre, int bpm, int duration, String artist, String album) {
+        Integer row = rowById.get(id);
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(id, row);
+        }
+        ids[row] = id;
+        genreIds[row] = genres.intern(genre);
+        bpms[row] = bpm;
+        durations[row] = duration;
+        artistIds[row] = artists.intern(artist);
+        albumIds[row] = albums.intern(album);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        genreIds = Arrays.copyOf(genreIds, newCapacity);
+        bpms = Arrays.copyOf(bpms, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+        artistIds = Arrays.copyOf(artistIds, newCapacity);
+        albumIds = Arrays.copyOf(albumIds, newCapacity);
+    }
+
+    /**
+     * Rows of a genre sorted by BPM. Must be called with the read lock held; rebuilds the
+     * index under the write lock when catalog writes have made it stale.
+     */
+    private int[] genreRows(int genreId) {
+        if (indexDirty) {
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (indexDirty) {
+                    rebuildGenreIndex();
+                }
+                lock.readLock().lock(); // Downgrade before releasing the write lock
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return genreId < genreBpmIndex.length && genreBpmIndex[genreId] != null ? genreBpmIndex[genreId] : new int[0];
+    }
+
+    private void rebuildGenreIndex() {
+        int genreCount = genres.size();
+        int[] counts = new int[genreCount];
+        for (int i = 0; i < size; i++) {
+            counts[genreIds[i]]++;
+        }
+        long[][] packed = new long[genreCount][];
+        for (int g = 0; g < genreCount; g++) {
+            packed[g] = new long[counts[g]];
+        }
+        int[] fill = new int[genreCount];
+        for (int i = 0; i < size; i++) {
+            int g = genreIds[i];
+            // bpm in the high bits, row in the low bits, so one primitive sort orders by bpm
+            packed[g][fill[g]++] = ((long) bpms[i] << 32) | i;
+        }
+        int[][] index = new int[genreCount][];
+        for (int g = 0; g < genreCount; g++) {
+            Arrays.sort(packed[g]);
+            index[g] = new int[packed[g].length];
+            for (int k = 0; k < packed[g].length; k++) {
+                index[g][k] = (int) packed[g][k];
+            }
+        }
+        genreBpmIndex = index;
+        indexDirty = false;
+    }
+
+    private int lowerBoundBpm(int[] rows, int bpm) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bpms[rows[mid]] < bpm) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Number n ? n.intValue() : 0;
+    }
+
+    /**
+     * Case-insensitive string interning; id 0 is reserved for null/blank values.
+     * Keeps the first spelling seen as the display name.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> idByKey = new HashMap<>();
+        private final List<String> names = new ArrayList<>(List.of(""));
+
+        int intern(String value) {
+            if (value == null || value.isBlank()) {
+                return UNKNOWN;
+            }
+            String key = value.trim().toLowerCase();
+            Integer id = idByKey.get(key);
+            if (id == null) {
+                id = names.size();
+                names.add(value.trim());
+                idByKey.put(key, id);
+            }
+            return id;
+        }
+
+        int lookup(String value) {
+            if (value == null || value.isBlank()) {
+                return UNKNOWN;
+            }
+            return idByKey.getOrDefault(value.trim().toLowerCase(), -1);
+        }
+
+        String name(int id) {
+            return id >= 0 && id < names.size() ? names.get(id) : null;
+        }
+
+        int size() {
+            return names.size();
+        }
+    }
+}
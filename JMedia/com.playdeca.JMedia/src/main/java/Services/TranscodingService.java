@@ -1,6 +1,7 @@
 package Services;
 
 import Models.Video;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -41,6 +42,9 @@ public class TranscodingService {
     @Inject
     FFmpegDiscoveryService discoveryService;
 
+    @Inject
+    MediaMetrics metrics;
+
     private final Map<String, Process> activeProcesses = new ConcurrentHashMap<>();
 
     private static final long TRANSCODE_IDLE_TTL_MS = 48 * 60 * 60 * 1000L;
@@ -199,7 +203,7 @@ public class TranscodingService {
 
         ProcessBuilder pb = new ProcessBuilder(command);
         pb.redirectErrorStream(true);
-        Process process = pb.start();
+        Process process = metrics.trackProcess("mkvmerge", pb.start());
         
         String processKey = videoFile.getName() + "-mkvmerge-" + System.currentTimeMillis();
         activeProcesses.put(processKey, process);
@@ -422,7 +426,7 @@ public class TranscodingService {
         LOG.info("FFmpeg command for {} (AppleHvc1Tag={}): {}", videoFile.getName(), needsAppleHvc1Tag, String.join(" ", command));
 
         ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+        Process process = metrics.trackProcess("transcode.pipe", pb.start());
         
         String processKey = video.id + "-" + System.currentTimeMillis();
         activeProcesses.put(processKey, process);
@@ -505,6 +509,7 @@ public class TranscodingService {
      * Returns a temp file path where ffmpeg is writing the transcode.
      * Starts a new ffmpeg process if one isn't already running for this key.
      */
+    @WithSpan("transcode.getOrCreate")
     public Path getOrCreateTranscode(Video video, File videoFile, double startSeconds, String userAgent,
                                       int audioTrackIndex, int qualityHeight) throws IOException {
         String key = buildTranscodeKey(video.id, startSeconds, audioTrackIndex, qualityHeight);
@@ -660,7 +665,7 @@ public class TranscodingService {
         LOG.info("FFmpeg transcode command: {}", String.join(" ", command));
 
         ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+        Process process = metrics.trackProcess("transcode", pb.start());
 
         String processKey = key + "-" + System.currentTimeMillis();
         activeProcesses.put(processKey, process);
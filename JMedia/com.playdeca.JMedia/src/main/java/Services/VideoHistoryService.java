@@ -2,7 +2,9 @@ package Services;
 
 import Models.MediaFile;
 import Models.Profile;
-import Models.VideoHistory;
+import Models.Telemetry.VideoHistory;
+import io.quarkus.hibernate.orm.PersistenceUnit;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -13,13 +15,19 @@ import java.util.Map;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+/**
+ * Video play history. Rows live in the telemetry store with plain media file and profile ids;
+ * every telemetry access runs in its own requiringNew transaction, so it never joins the
+ * catalog transaction the caller may be in.
+ */
 @ApplicationScoped
 public class VideoHistoryService {
 
     private static final Logger LOGGER = Logger.getLogger(VideoHistoryService.class.getName());
 
     @Inject
-    EntityManager em;
+    @PersistenceUnit("telemetry")
+    EntityManager telemetryEm;
     
     @Inject
     SettingsService settingsService;
@@ -43,26 +51,28 @@ public class VideoHistoryService {
         if (activeProfile == null) {
             return;
         }
-
-        // Deduplication: check if there's a recent history record (within 5 minutes) for the same mediaFile and profile
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-        VideoHistory existingHistory = VideoHistory.find(
-            "mediaFile = ?1 AND profile = ?2 AND playedAt >= ?3",
-            mediaFile, activeProfile, fiveMinutesAgo
-        ).firstResult();
-
-        if (existingHistory != null) {
-            // Update timestamp of existing record instead of creating new one
-            existingHistory.playedAt = LocalDateTime.now();
-            em.merge(existingHistory);
-            return;
-        }
-
-        VideoHistory history = new VideoHistory();
-        history.mediaFile = mediaFile;
-        history.playedAt = LocalDateTime.now();
-        history.profile = activeProfile;
-        history.persist();
+        Long profileId = activeProfile.id;
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            // Deduplication: check if there's a recent history record (within 5 minutes) for the same mediaFile and profile
+            LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
+            VideoHistory existingHistory = VideoHistory.find(
+                "mediaFileId = ?1 AND profileId = ?2 AND playedAt >= ?3",
+                mediaFileId, profileId, fiveMinutesAgo
+            ).firstResult();
+
+            if (existingHistory != null) {
+                // Update timestamp of existing record instead of creating new one
+                existingHistory.playedAt = LocalDateTime.now();
+                return;
+            }
+
+            VideoHistory history = new VideoHistory();
+            history.mediaFileId = mediaFileId;
+            history.playedAt = LocalDateTime.now();
+            history.profileId = profileId;
+            history.persist();
+        });
     }
 
     /**
@@ -93,77 +103,94 @@ public class VideoHistoryService {
     @Transactional
     public void clearHistory() {
         if (isMainProfileActive()) {
-            em.createQuery("DELETE FROM VideoHistory").executeUpdate();
+            deleteAll();
         } else {
             Profile activeProfile = settingsService.getActiveProfile();
             if (activeProfile == null) return;
-            em.createQuery("DELETE FROM VideoHistory vh WHERE vh.profile = :profile")
-                    .setParameter("profile", activeProfile)
-                    .executeUpdate();
+            QuarkusTransaction.requiringNew().run(() -> VideoHistory.delete("profileId", activeProfile.id));
         }
     }
 
+    public void deleteAll() {
+        QuarkusTransaction.requiringNew().run(() -> VideoHistory.deleteAll());
+    }
+
     @Transactional
     public void deleteByMediaFileId(Long mediaFileId) {
         if (mediaFileId == null) {
             return;
         }
         if (isMainProfileActive()) {
-            em.createQuery("DELETE FROM VideoHistory vh WHERE vh.mediaFile.id = :mediaFileId")
-                    .setParameter("mediaFileId", mediaFileId)
-                    .executeUpdate();
+            deleteByMediaFileIdForAllProfiles(mediaFileId);
         } else {
             Profile activeProfile = settingsService.getActiveProfile();
             if (activeProfile == null) return;
-            em.createQuery("DELETE FROM VideoHistory vh WHERE vh.mediaFile.id = :mediaFileId AND vh.profile = :profile")
-                    .setParameter("mediaFileId", mediaFileId)
-                    .setParameter("profile", activeProfile)
-                    .executeUpdate();
+            QuarkusTransaction.requiringNew().run(() -> VideoHistory.delete("mediaFileId = ?1 AND profileId = ?2", mediaFileId, activeProfile.id));
         }
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void deleteByMediaFileIdForAllProfiles(Long mediaFileId) {
+        if (mediaFileId == null) {
+            return;
+        }
+        QuarkusTransaction.requiringNew().run(() -> VideoHistory.delete("mediaFileId", mediaFileId));
+    }
+
+    @Transactional
     public List<VideoHistory> getHistory(int page, int pageSize) {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null) return List.of();
-        return em.createQuery("SELECT vh FROM VideoHistory vh WHERE vh.profile = :profile ORDER BY vh.playedAt DESC", VideoHistory.class)
-                .setParameter("profile", activeProfile)
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+                        "SELECT vh FROM VideoHistory vh WHERE vh.profileId = :profileId ORDER BY vh.playedAt DESC", VideoHistory.class)
+                .setParameter("profileId", activeProfile.id)
                 .setFirstResult((page - 1) * pageSize)
                 .setMaxResults(pageSize)
-                .getResultList();
+                .getResultList());
+    }
+
+    /**
+     * Media file ids the profile played, most recent first, one entry per play.
+     */
+    @Transactional
+    public List<Long> getPlayedMediaFileIds(Long profileId) {
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+                        "SELECT vh.mediaFileId FROM VideoHistory vh WHERE vh.profileId = :profileId ORDER BY vh.playedAt DESC", Long.class)
+                .setParameter("profileId", profileId)
+                .getResultList());
     }
 
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public List<Long> getRecentlyPlayedVideoIds(int count) {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null) return List.of();
-        return em.createQuery("SELECT vh.mediaFile.id FROM VideoHistory vh WHERE vh.profile = :profile ORDER BY vh.playedAt DESC", Long.class)
-                .setParameter("profile", activeProfile)
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+                        "SELECT vh.mediaFileId FROM VideoHistory vh WHERE vh.profileId = :profileId ORDER BY vh.playedAt DESC", Long.class)
+                .setParameter("profileId", activeProfile.id)
                 .setMaxResults(count)
-                .getResultList();
+                .getResultList());
     }
 
     // ==================== TRENDING ALGORITHM METHODS ====================
     
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public List<Long> getTrendingVideoIds(int daysBack, int count) {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null) return List.of();
         
         LocalDateTime cutoff = LocalDateTime.now().minusDays(daysBack);
-        return em.createQuery(
-            "SELECT vh.mediaFile.id " +
+        return QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+            "SELECT vh.mediaFileId " +
             "FROM VideoHistory vh " +
-            "WHERE vh.profile = :profile AND vh.playedAt >= :cutoff " +
-            "GROUP BY vh.mediaFile.id " +
+            "WHERE vh.profileId = :profileId AND vh.playedAt >= :cutoff " +
+            "GROUP BY vh.mediaFileId " +
             "ORDER BY COUNT(vh) DESC", Long.class)
-                .setParameter("profile", activeProfile)
+                .setParameter("profileId", activeProfile.id)
                 .setParameter("cutoff", cutoff)
                 .setMaxResults(count)
-                .getResultList();
+                .getResultList());
     }
     
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Transactional
     public Map<Long, Integer> getPlayCountsForVideos(List<Long> videoIds, int daysBack) {
         if (videoIds == null || videoIds.isEmpty()) {
             return Map.of();
@@ -173,15 +200,15 @@ public class VideoHistoryService {
         if (activeProfile == null) return Map.of();
         
         LocalDateTime cutoff = LocalDateTime.now().minusDays(daysBack);
-        List<Object[]> results = em.createQuery(
-            "SELECT vh.mediaFile.id, COUNT(vh) as playCount " +
+        List<Object[]> results = QuarkusTransaction.requiringNew().call(() -> telemetryEm.createQuery(
+            "SELECT vh.mediaFileId, COUNT(vh) as playCount " +
             "FROM VideoHistory vh " +
-            "WHERE vh.profile = :profile AND vh.playedAt >= :cutoff AND vh.mediaFile.id IN :videoIds " +
-            "GROUP BY vh.mediaFile.id", Object[].class)
-                .setParameter("profile", activeProfile)
+            "WHERE vh.profileId = :profileId AND vh.playedAt >= :cutoff AND vh.mediaFileId IN :videoIds " +
+            "GROUP BY vh.mediaFileId", Object[].class)
+                .setParameter("profileId", activeProfile.id)
                 .setParameter("cutoff", cutoff)
                 .setParameter("videoIds", videoIds)
-                .getResultList();
+                .getResultList());
         
         return results.stream()
                 .collect(Collectors.toMap(
@@ -190,11 +217,31 @@ public class VideoHistoryService {
                 ));
     }
     
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
-    public List<VideoHistory> getAllHistory(int page, int pageSize) {
-        return em.createQuery("SELECT vh FROM VideoHistory vh ORDER BY vh.playedAt DESC", VideoHistory.class)
-                .setFirstResult((page - 1) * pageSize)
-                .setMaxResults(pageSize)
-                .getResultList();
+    /**
+     * History rows of every profile, most recent first. With mediaFileIds set, only rows for
+     * those media files are counted and returned.
+     */
+    public long countAllHistory(List<Long> mediaFileIds) {
+        String jpql = "SELECT COUNT(vh) FROM VideoHistory vh" + (mediaFileIds != null ? " WHERE vh.mediaFileId IN :ids" : "");
+        return QuarkusTransaction.requiringNew().call(() -> {
+            var q = telemetryEm.createQuery(jpql, Long.class);
+            if (mediaFileIds != null) {
+                q.setParameter("ids", mediaFileIds);
+            }
+            return q.getSingleResult();
+        });
+    }
+
+    public List<VideoHistory> getAllHistory(List<Long> mediaFileIds, int page, int pageSize) {
+        String jpql = "SELECT vh FROM VideoHistory vh" + (mediaFileIds != null ? " WHERE vh.mediaFileId IN :ids" : "") + " ORDER BY vh.playedAt DESC";
+        return QuarkusTransaction.requiringNew().call(() -> {
+            var q = telemetryEm.createQuery(jpql, VideoHistory.class);
+            if (mediaFileIds != null) {
+                q.setParameter("ids", mediaFileIds);
+            }
+            return q.setFirstResult((page - 1) * pageSize)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        });
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,9 @@ package Services;
 
 import Models.MediaFile;
 import Models.Video;
-import Models.VideoHistory;
-import Models.ScanState;
+import Models.Telemetry.ScanState;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.runtime.Startup;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -63,12 +64,33 @@ public class VideoImportService {
     @Inject
     VideoStateService videoStateService;
 
+    @Inject
+    XtreamCatalogService xtreamCatalogService;
+
+    @Inject
+    SeriesIndexService seriesIndexService;
+
+    @Inject
+    HomeCarouselService homeCarouselService;
+
+    @Inject
+    FragmentCacheService fragmentCacheService;
+
+    @Inject
+    AfterCommit afterCommit;
+
     @Inject
     ThumbnailService thumbnailService;
 
+    @Inject
+    VideoHistoryService videoHistoryService;
+
     @Inject
     VideoStoryboardService videoStoryboardService;
 
+    @Inject
+    MediaMetrics metrics;
+
     // TODO: Remove this method once stale column migration is complete
     private static final String[] STALE_COLUMNS = {"WATCHED", "WATCHPROGRESSDOUBLE"};
     private volatile boolean staleColumnsCleaned = false;
@@ -170,6 +192,7 @@ public class VideoImportService {
     }
 
     @ActivateRequestContext
+    @WithSpan("video.scan")
     public List<Video> scan(Path directory, boolean metadataOnly, ScanProgressCallback callback, boolean forceFullScan) {
         String scanType = forceFullScan ? "full" : "incremental";
         
@@ -197,22 +220,24 @@ public class VideoImportService {
             loggingService.addLog("Loaded " + ctx.mediaFileByPath.size() + " existing media records, " 
                 + ctx.videoByPath.size() + " videos");
             
-            String libPathStr = settingsService.getOrCreateSettings().getVideoLibraryPath();
+            String libPathStr = settingsService.getSnapshot().videoLibraryPath();
             Path rootPath = libPathStr != null ? Paths.get(libPathStr) : directory;
             
             isScanRunning = true;
             currentScanProgress.set(0);
             
-            ExecutorCompletionService<Video> completion = new ExecutorCompletionService<>(videoScanExecutor.getExecutor());
+            ExecutorCompletionService<Video> completion = new ExecutorCompletionService<>(videoScanExecutor.getGovernedExecutor());
             AtomicInteger submittedTasks = new AtomicInteger();
             AtomicInteger skippedFiles = new AtomicInteger();
             AtomicInteger processedCount = new AtomicInteger();
             
             loggingService.addLog("Scanning filesystem...");
+            long walkStart = System.nanoTime();
             try (Stream<Path> paths = Files.walk(directory)) {
                 List<Path> videoFiles = paths.filter(Files::isRegularFile)
                         .filter(this::isVideoFile)
                         .toList();
+                metrics.recordScanPhase("video", "walk", videoFiles.size(), System.nanoTime() - walkStart);
                 
                 currentScanTotal.set(videoFiles.size());
                 scanState = startScanState(directory.toString(), scanType, videoFiles.size(), 10);
@@ -243,6 +268,7 @@ public class VideoImportService {
                 loggingService.addLog("Skipped " + skipped + " unchanged files (incremental scan)");
             }
             
+            long processStart = System.nanoTime();
             try {
                 for (int i = 0; i < totalFiles; i++) {
                     try {
@@ -278,6 +304,7 @@ public class VideoImportService {
                 }
             } finally {
                 isScanRunning = false;
+                metrics.recordScanPhase("video", "process", totalFiles, System.nanoTime() - processStart);
                 if (scanState != null) {
                     completeScanState(scanState, "COMPLETED", null, processedCount.get());
                 }
@@ -318,7 +345,7 @@ public class VideoImportService {
         if (!Files.exists(filePath)) return null;
         if (!isVideoFile(filePath)) return null;
         
-        String libPathStr = settingsService.getOrCreateSettings().getVideoLibraryPath();
+        String libPathStr = settingsService.getSnapshot().videoLibraryPath();
         Path rootPath = libPathStr != null ? Paths.get(libPathStr) : filePath.getParent();
         ScanContext ctx = loadScanContext();
         return processVideoFile(filePath, rootPath, true, ctx);
@@ -364,7 +391,7 @@ public class VideoImportService {
         } catch (Exception e) {
             loggingService.addLog("Warning: Could not reset session states: " + e.getMessage());
         }
-        VideoHistory.deleteAll();
+        videoHistoryService.deleteAll();
         try {
             Models.VideoGenre.deleteAll();
         } catch (Exception e) {
@@ -377,8 +404,12 @@ public class VideoImportService {
             Models.AudioTrack.deleteAll();
         } catch (Exception ignored) {}
         Video.deleteAll();
+        xtreamCatalogService.invalidateAll();
+        seriesIndexService.reload();
+        afterCommit.runOnce(HomeCarouselService.LIBRARY_CHANGE, homeCarouselService::libraryChanged);
+        afterCommit.runOnce(FragmentCacheService.LIBRARY_CHANGE, fragmentCacheService::libraryChanged);
         MediaFile.deleteAll();
-        ScanState.deleteAll();
+        QuarkusTransaction.requiringNew().run(() -> ScanState.deleteAll());
 
         for (String column : STALE_COLUMNS) {
             try {
@@ -528,7 +559,8 @@ public class VideoImportService {
         return null;
     }
 
-    @Transactional
+    // Scan checkpoints live in the telemetry store; each write commits on its own, outside
+    // whatever catalog transaction the scan is in
     public ScanState startScanState(String libraryPath, String scanType, int totalFiles, int batchSize) {
         ScanState state = new ScanState();
         state.libraryPath = libraryPath;
@@ -539,44 +571,53 @@ public class VideoImportService {
         state.processedFiles = 0;
         state.batchSize = batchSize;
         state.processedPaths = new ArrayList<>();
-        state.persist();
+        QuarkusTransaction.requiringNew().run(state::persist);
         return state;
     }
     
-    @Transactional(TxType.REQUIRES_NEW)
     public void updateScanState(ScanState state, int processedFiles, String processedPath) {
         if (state == null) return;
-        ScanState managed = ScanState.findById(state.id);
-        if (managed != null) {
-            managed.processedFiles = processedFiles;
-            if (processedPath != null && !processedPath.isEmpty()) {
-                managed.processedPaths.add(processedPath);
+        QuarkusTransaction.requiringNew().run(() -> {
+            ScanState managed = ScanState.findById(state.id);
+            if (managed != null) {
+                managed.processedFiles = processedFiles;
+                if (processedPath != null && !processedPath.isEmpty()) {
+                    managed.processedPaths.add(processedPath);
+                }
+                managed.persist();
             }
-            managed.persist();
-        }
+        });
     }
     
-    @Transactional(TxType.REQUIRES_NEW)
     public void completeScanState(ScanState state, String status, String errorMessage, int processedFiles) {
         if (state == null) return;
-        ScanState managed = ScanState.findById(state.id);
-        if (managed != null) {
-            managed.status = status;
-            managed.endTime = LocalDateTime.now();
-            managed.errorMessage = errorMessage;
-            if (processedFiles > 0) {
-                managed.processedFiles = processedFiles;
+        QuarkusTransaction.requiringNew().run(() -> {
+            ScanState managed = ScanState.findById(state.id);
+            if (managed != null) {
+                managed.status = status;
+                managed.endTime = LocalDateTime.now();
+                managed.errorMessage = errorMessage;
+                if (processedFiles > 0) {
+                    managed.processedFiles = processedFiles;
+                }
+                managed.persist();
             }
-            managed.persist();
-        }
+        });
     }
     
     public ScanState getLastScanState() {
-        return ScanState.findLatest();
+        return QuarkusTransaction.requiringNew().call(ScanState::findLatest);
     }
     
     public ScanState getInterruptedScan() {
-        return ScanState.find("status", "running").firstResult();
+        return QuarkusTransaction.requiringNew().call(() -> {
+            ScanState state = ScanState.findRunning();
+            if (state != null) {
+                // Callers read the paths after this transaction has ended
+                state.processedPaths.size();
+            }
+            return state;
+        });
     }
     
     public boolean isPathProcessed(String path) {
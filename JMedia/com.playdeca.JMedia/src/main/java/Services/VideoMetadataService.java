@@ -232,7 +232,7 @@ public class VideoMetadataService {
     }
 
     private String getApiKey() {
-        String key = settingsService.getOrCreateSettings().getTmdbApiKey();
+        String key = settingsService.getSnapshot().tmdbApiKey();
         if (key == null || key.isBlank()) {
             key = System.getenv("TMDB_API_KEY");
         }
@@ -240,7 +240,7 @@ public class VideoMetadataService {
     }
 
     private String getOmdbApiKey() {
-        String key = settingsService.getOrCreateSettings().getOmdbApiKey();
+        String key = settingsService.getSnapshot().omdbApiKey();
         if (key == null || key.isBlank()) {
             key = System.getenv("OMDB_API_KEY");
         }
@@ -293,7 +293,7 @@ public class VideoMetadataService {
                     if (vPath.isAbsolute()) {
                         fullPath = video.path;
                     } else {
-                        String videoLibraryPath = settingsService.getOrCreateSettings().getVideoLibraryPath();
+                        String videoLibraryPath = settingsService.getSnapshot().videoLibraryPath();
                         fullPath = java.nio.file.Paths.get(videoLibraryPath, video.path).toString();
                     }
 
@@ -2,6 +2,8 @@ package Services;
 
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -18,10 +20,20 @@ public class VideoScanExecutor {
         return t;
     });
 
+    @Inject
+    BackgroundWorkGovernor governor;
+
     public ExecutorService getExecutor() {
         return executor;
     }
 
+    /**
+     * The scan pool, with each task waiting for an I/O permit so scans back off during playback.
+     */
+    public Executor getGovernedExecutor() {
+        return governor.governed(executor, BackgroundWorkGovernor.Resource.IO, BackgroundWorkGovernor.Priority.NORMAL);
+    }
+
     public void submit(Runnable task) {
         executor.submit(task);
     }
@@ -8,6 +8,7 @@ import Models.VideoGenre;
 import Models.SubtitleTrack;
 import Models.Profile;
 import Models.UserSubtitlePreferences;
+import Models.Telemetry.VideoHistory;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -36,6 +37,9 @@ public class VideoService {
     @Inject
     UserInteractionService userInteractionService;
 
+    @Inject
+    SeriesIndexService seriesIndexService;
+
     @Inject
     EnhancedSubtitleMatcher subtitleMatcher;
 
@@ -45,6 +49,9 @@ public class VideoService {
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    VideoHistoryService videoHistoryService;
+
     // ========== CORE VIDEO OPERATIONS ==========
     
     @Transactional
@@ -581,10 +588,43 @@ public class VideoService {
     public Map<String, List<Video>> getAllGenreCarousels(Long userId, int itemsPerGenre) {
         Map<String, List<Video>> carousels = new HashMap<>();
         List<Genre> activeGenres = Genre.list("isActive = ?1", Sort.by("sortOrder", Sort.Direction.Ascending), true);
+        if (activeGenres.isEmpty()) {
+            return carousels;
+        }
+
+        // Top N per genre in one ranked query instead of one query per genre
+        List<Object[]> ranked = em.createQuery(
+                "SELECT r.genreId, r.videoId FROM ("
+                        + "SELECT vg.genre.id AS genreId, vg.video.id AS videoId, "
+                        + "row_number() OVER (PARTITION BY vg.genre.id ORDER BY vg.relevance DESC, v.popularityScore DESC) AS rn "
+                        + "FROM VideoGenre vg JOIN vg.video v WHERE v.isActive = true AND vg.genre.id IN :genreIds"
+                        + ") r WHERE r.rn <= :limit ORDER BY r.genreId, r.rn", Object[].class)
+                .setParameter("genreIds", activeGenres.stream().map(g -> g.id).collect(Collectors.toList()))
+                .setParameter("limit", (long) itemsPerGenre)
+                .getResultList();
+        if (ranked.isEmpty()) {
+            return carousels;
+        }
 
+        Set<Long> videoIds = new HashSet<>();
+        for (Object[] row : ranked) {
+            videoIds.add((Long) row[1]);
+        }
+        Map<Long, Video> videosById = new HashMap<>();
+        for (Video v : Video.<Video>list("id IN ?1", videoIds)) {
+            videosById.put(v.id, v);
+        }
+
+        Map<Long, List<Video>> byGenre = new HashMap<>();
+        for (Object[] row : ranked) {
+            Video v = videosById.get((Long) row[1]);
+            if (v != null) {
+                byGenre.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(v);
+            }
+        }
         for (Genre genre : activeGenres) {
-            List<Video> genreVideos = findByGenre(genre.slug, 1, itemsPerGenre);
-            if (!genreVideos.isEmpty()) {
+            List<Video> genreVideos = byGenre.get(genre.id);
+            if (genreVideos != null && !genreVideos.isEmpty()) {
                 carousels.put(genre.name, genreVideos);
             }
         }
@@ -596,27 +636,24 @@ public class VideoService {
 
     @Transactional
     public List<Video> findTrending(int limit) {
-        return Video.<Video>list("isActive = ?1", Sort.by("popularityScore", Sort.Direction.Descending), true)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return Video.<Video>find("isActive = ?1", Sort.by("popularityScore", Sort.Direction.Descending), true)
+                .page(0, limit)
+                .list();
     }
 
     @Transactional
     public List<Video> findNewlyAdded(int days, int limit) {
         LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
-        return Video.<Video>list("dateAdded >= ?1 AND isActive = ?2", Sort.by("dateAdded", Sort.Direction.Descending), cutoff, true)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return Video.<Video>find("dateAdded >= ?1 AND isActive = ?2", Sort.by("dateAdded", Sort.Direction.Descending), cutoff, true)
+                .page(0, limit)
+                .list();
     }
 
     @Transactional
     public List<Video> findHighlyRated(double minRating, int limit) {
-        return Video.<Video>list("isActive = ?1 AND imdbRating >= ?2", Sort.by("imdbRating", Sort.Direction.Descending), true, minRating)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return Video.<Video>find("isActive = ?1 AND imdbRating >= ?2", Sort.by("imdbRating", Sort.Direction.Descending), true, minRating)
+                .page(0, limit)
+                .list();
     }
 
     @Transactional
@@ -662,10 +699,9 @@ public class VideoService {
     }
     @Transactional
     public List<Video> findPopular(int limit) {
-        return Video.<Video>list("isActive = ?1 AND popularityScore > ?2", Sort.by("popularityScore", Sort.Direction.Descending), true, 0.0)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return Video.<Video>find("isActive = ?1 AND popularityScore > ?2", Sort.by("popularityScore", Sort.Direction.Descending), true, 0.0)
+                .page(0, limit)
+                .list();
     }
 
     @Transactional
@@ -949,9 +985,9 @@ public class VideoService {
         List<Video> episodes = findEpisodesForSeries(seriesTitle);
         for (Video v : episodes) {
             // Delete dependent records before deleting video to avoid FK violations
-            Models.VideoHistory.delete("mediaFile.path = ?1", v.path);
             MediaFile mf = MediaFile.find("path", v.path).firstResult();
             if (mf != null) {
+                videoHistoryService.deleteByMediaFileIdForAllProfiles(mf.id);
                 mf.delete();
             }
             Models.CollectionEntry.delete("video.id = ?1", v.id);
@@ -1152,6 +1188,11 @@ public class VideoService {
 
     @Transactional
     public PaginatedSeries findPaginatedSeriesTitles(int page, int limit, String sortBy, String sortDirection, String search) {
+        if (search == null || search.trim().isEmpty()) {
+            // Plain browsing is served from the in-memory series index
+            return seriesIndexService.page(page, limit, sortBy, sortDirection);
+        }
+
         String baseHql = "SELECT v.seriesTitle, v.dateAdded, v.lastWatched FROM Video v WHERE v.type = 'episode' AND v.seriesTitle IS NOT NULL AND v.isActive = true";
         TypedQuery<Object[]> query;
         
@@ -1226,38 +1267,6 @@ public class VideoService {
         return new PaginatedSeries(pagedTitles, totalCount);
     }
 
-    @Transactional
-    public List<Video> findHistory(String search, int limit) {
-        Profile activeProfile = settingsService.getActiveProfile();
-        if (activeProfile == null) return List.of();
-
-        String hql = "SELECT h FROM VideoHistory h JOIN h.mediaFile mf JOIN Video v ON v.path = mf.path WHERE v.isActive = true AND h.profile = :profile";
-        if (search != null && !search.trim().isEmpty()) {
-            hql += " AND (LOWER(v.title) LIKE :s OR LOWER(v.seriesTitle) LIKE :s OR LOWER(v.episodeTitle) LIKE :s OR LOWER(v.description) LIKE :s)";
-        }
-        hql += " ORDER BY h.playedAt DESC";
-
-        TypedQuery<Models.VideoHistory> query = em.createQuery(hql, Models.VideoHistory.class);
-        query.setParameter("profile", activeProfile);
-        if (search != null && !search.trim().isEmpty()) {
-            query.setParameter("s", "%" + search.toLowerCase() + "%");
-        }
-
-        List<Models.VideoHistory> history = query.getResultList();
-
-        java.util.Set<String> seenPaths = new java.util.HashSet<>();
-        List<Models.Video> videos = new ArrayList<>();
-
-        for (Models.VideoHistory h : history) {
-            if (h.mediaFile != null && seenPaths.add(h.mediaFile.path)) {
-                Models.Video v = Video.find("path", h.mediaFile.path).firstResult();
-                if (v != null) videos.add(v);
-            }
-            if (videos.size() >= limit) break;
-        }
-        return videos;
-    }
-
     @Transactional
     public List<Video> findWatchlist(String search) {
         if (search == null || search.trim().isEmpty()) {
@@ -1273,34 +1282,36 @@ public class VideoService {
         }
     }
     
-    public record VideoHistoryEntry(Video video, Models.VideoHistory history, Models.Profile profile) {}
-    
-    @Transactional
-    public List<VideoHistoryEntry> findAllHistory(String search, int limit) {
-        String hql = "SELECT vh FROM VideoHistory vh JOIN Video v ON v.path = vh.mediaFile.path WHERE v.isActive = true";
-        if (search != null && !search.trim().isEmpty()) {
-            hql += " AND (LOWER(v.title) LIKE :s OR LOWER(v.seriesTitle) LIKE :s OR LOWER(v.episodeTitle) LIKE :s OR LOWER(v.description) LIKE :s)";
-        }
-        hql += " ORDER BY vh.playedAt DESC";
-        
-        TypedQuery<Models.VideoHistory> query = em.createQuery(hql, Models.VideoHistory.class);
-        if (search != null && !search.trim().isEmpty()) {
-            query.setParameter("s", "%" + search.toLowerCase() + "%");
-        }
-        query.setMaxResults(limit);
-        
-        List<Models.VideoHistory> historyList = query.getResultList();
-        List<VideoHistoryEntry> entries = new ArrayList<>();
-        
-        for (Models.VideoHistory vh : historyList) {
-            if (vh.mediaFile != null) {
-                Video video = Video.find("path", vh.mediaFile.path).firstResult();
-                if (video != null) {
-                    entries.add(new VideoHistoryEntry(video, vh, vh.profile));
-                }
+    public record VideoHistoryEntry(Video video, VideoHistory history, Models.Profile profile) {}
+
+    private static final String HISTORY_SEARCH_CLAUSE = " AND (LOWER(v.title) LIKE :s OR LOWER(v.seriesTitle) LIKE :s OR LOWER(v.episodeTitle) LIKE :s OR LOWER(v.description) LIKE :s)";
+    private static final int HISTORY_ID_CHUNK = 500;
+
+    /**
+     * Active videos for the given media file ids, keyed by media file id and optionally
+     * filtered by a search term. History rows live in the telemetry store and only carry media
+     * file ids, so this is the catalog half of what used to be a join.
+     */
+    private Map<Long, Video> activeVideosByMediaFile(Collection<Long> mediaFileIds, String search) {
+        boolean searching = search != null && !search.trim().isEmpty();
+        String hql = "SELECT mf.id, v FROM MediaFile mf JOIN Video v ON v.path = mf.path WHERE mf.id IN :ids AND v.isActive = true";
+        if (searching) {
+            hql += HISTORY_SEARCH_CLAUSE;
+        }
+
+        List<Long> ids = new ArrayList<>(mediaFileIds);
+        Map<Long, Video> videos = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += HISTORY_ID_CHUNK) {
+            TypedQuery<Object[]> query = em.createQuery(hql, Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(from + HISTORY_ID_CHUNK, ids.size())));
+            if (searching) {
+                query.setParameter("s", "%" + search.toLowerCase() + "%");
+            }
+            for (Object[] row : query.getResultList()) {
+                videos.putIfAbsent((Long) row[0], (Video) row[1]);
             }
         }
-        return entries;
+        return videos;
     }
 
     @Transactional
@@ -1308,26 +1319,15 @@ public class VideoService {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null) return new PaginatedVideos(List.of(), 0);
 
-        String hql = "SELECT h FROM VideoHistory h JOIN h.mediaFile mf JOIN Video v ON v.path = mf.path WHERE v.isActive = true AND h.profile = :profile";
-        if (search != null && !search.trim().isEmpty()) {
-            hql += " AND (LOWER(v.title) LIKE :s OR LOWER(v.seriesTitle) LIKE :s OR LOWER(v.episodeTitle) LIKE :s OR LOWER(v.description) LIKE :s)";
-        }
-        hql += " ORDER BY h.playedAt DESC";
-
-        TypedQuery<Models.VideoHistory> query = em.createQuery(hql, Models.VideoHistory.class);
-        query.setParameter("profile", activeProfile);
-        if (search != null && !search.trim().isEmpty()) {
-            query.setParameter("s", "%" + search.toLowerCase() + "%");
-        }
-
-        List<Models.VideoHistory> allHistory = query.getResultList();
+        List<Long> played = videoHistoryService.getPlayedMediaFileIds(activeProfile.id);
+        Map<Long, Video> videos = activeVideosByMediaFile(new LinkedHashSet<>(played), search);
 
         java.util.Set<String> seenPaths = new java.util.HashSet<>();
         List<Video> allVideos = new ArrayList<>();
-        for (Models.VideoHistory h : allHistory) {
-            if (h.mediaFile != null && seenPaths.add(h.mediaFile.path)) {
-                Video v = Video.find("path", h.mediaFile.path).firstResult();
-                if (v != null) allVideos.add(v);
+        for (Long mediaFileId : played) {
+            Video v = videos.get(mediaFileId);
+            if (v != null && seenPaths.add(v.path)) {
+                allVideos.add(v);
             }
         }
 
@@ -1369,38 +1369,33 @@ public class VideoService {
         }
     }
 
+    /**
+     * History of every profile. Without a search the total also counts rows whose video has
+     * since been deactivated; those rows are left out of the page.
+     */
     @Transactional
     public PaginatedHistoryEntries findAllHistoryPaginated(String search, int page, int limit) {
-        String countHql = "SELECT COUNT(vh) FROM VideoHistory vh JOIN Video v ON v.path = vh.mediaFile.path WHERE v.isActive = true";
-        String hql = "SELECT vh FROM VideoHistory vh JOIN Video v ON v.path = vh.mediaFile.path WHERE v.isActive = true";
-        if (search != null && !search.trim().isEmpty()) {
-            String searchClause = " AND (LOWER(v.title) LIKE :s OR LOWER(v.seriesTitle) LIKE :s OR LOWER(v.episodeTitle) LIKE :s OR LOWER(v.description) LIKE :s)";
-            countHql += searchClause;
-            hql += searchClause;
-        }
-        hql += " ORDER BY vh.playedAt DESC";
-
-        TypedQuery<Long> countQ = em.createQuery(countHql, Long.class);
+        List<Long> mediaFileIds = null;
         if (search != null && !search.trim().isEmpty()) {
-            countQ.setParameter("s", "%" + search.toLowerCase() + "%");
+            mediaFileIds = em.createQuery("SELECT mf.id FROM MediaFile mf JOIN Video v ON v.path = mf.path WHERE v.isActive = true" + HISTORY_SEARCH_CLAUSE, Long.class)
+                    .setParameter("s", "%" + search.toLowerCase() + "%")
+                    .getResultList();
+            if (mediaFileIds.isEmpty()) {
+                return new PaginatedHistoryEntries(List.of(), 0);
+            }
         }
-        long totalCount = countQ.getSingleResult();
 
-        TypedQuery<Models.VideoHistory> query = em.createQuery(hql, Models.VideoHistory.class);
-        if (search != null && !search.trim().isEmpty()) {
-            query.setParameter("s", "%" + search.toLowerCase() + "%");
-        }
-        query.setFirstResult((page - 1) * limit);
-        query.setMaxResults(limit);
+        long totalCount = videoHistoryService.countAllHistory(mediaFileIds);
+        List<VideoHistory> historyList = videoHistoryService.getAllHistory(mediaFileIds, page, limit);
 
-        List<Models.VideoHistory> historyList = query.getResultList();
+        Map<Long, Video> videos = activeVideosByMediaFile(historyList.stream().map(vh -> vh.mediaFileId).collect(Collectors.toSet()), null);
+        Map<Long, Profile> profiles = new HashMap<>();
         List<VideoHistoryEntry> entries = new ArrayList<>();
-        for (Models.VideoHistory vh : historyList) {
-            if (vh.mediaFile != null) {
-                Video video = Video.find("path", vh.mediaFile.path).firstResult();
-                if (video != null) {
-                    entries.add(new VideoHistoryEntry(video, vh, vh.profile));
-                }
+        for (VideoHistory vh : historyList) {
+            Video video = videos.get(vh.mediaFileId);
+            Profile profile = vh.profileId != null ? profiles.computeIfAbsent(vh.profileId, Profile::findById) : null;
+            if (video != null && profile != null) {
+                entries.add(new VideoHistoryEntry(video, vh, profile));
             }
         }
         return new PaginatedHistoryEntries(entries, totalCount);
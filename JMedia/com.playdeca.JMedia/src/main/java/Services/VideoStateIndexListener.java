@@ -0,0 +1,51 @@
+package Services;
+
+import Models.VideoState;
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that keeps the per-profile watched sets of the
+ * {@link SeriesIndexService} in sync with progress flushes and watched toggles, and
+ * invalidates that profile's cached home carousels and UI fragments. All of it happens once
+ * the transaction commits, so a rolled-back flush leaves the index untouched.
+ */
+public class VideoStateIndexListener {
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(VideoState state) {
+        if (state.profile != null && state.video != null) {
+            changed(state.profile.id, state.video.id, Boolean.TRUE.equals(state.watched));
+        }
+    }
+
+    @PostRemove
+    void onRemoved(VideoState state) {
+        if (state.profile != null && state.video != null) {
+            changed(state.profile.id, state.video.id, false);
+        }
+    }
+
+    private void changed(Long profileId, Long videoId, boolean watched) {
+        Arc.container().instance(AfterCommit.class).get().run(() -> {
+            index().setWatched(profileId, videoId, watched);
+            carousels().progressChanged(profileId);
+            fragments().profileChanged(profileId);
+        });
+    }
+
+    private SeriesIndexService index() {
+        return Arc.container().instance(SeriesIndexService.class).get();
+    }
+
+    private HomeCarouselService carousels() {
+        return Arc.container().instance(HomeCarouselService.class).get();
+    }
+
+    private FragmentCacheService fragments() {
+        return Arc.container().instance(FragmentCacheService.class).get();
+    }
+}
@@ -2,19 +2,56 @@ package Services;
 
 import Models.Profile;
 import Models.Video;
+import Models.DTOs.VideoWatchStatus;
 import Models.VideoState;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Per-profile video progress.
+ *
+ * Progress heartbeats are buffered in memory, last write wins per (profile, video), and
+ * written in one transaction every few seconds, when playback pauses or stops, and on
+ * shutdown. Reads overlay buffered values, so callers always see the latest position.
+ */
 @ApplicationScoped
 public class VideoStateService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(VideoStateService.class);
+    private static final int STATUS_BATCH_SIZE = 1000;
+
     @Inject
     SettingsService settingsService;
 
+    @Inject
+    EntityManager em;
+
+    @Inject
+    SeriesIndexService seriesIndexService;
+
+    @Inject
+    HomeCarouselService homeCarouselService;
+
+    @Inject
+    AfterCommit afterCommit;
+
+    private record ProgressKey(Long profileId, Long videoId) {}
+
+    private record PendingProgress(double currentTime, Double watchProgress, Boolean watched,
+                                   LocalDateTime lastUpdated, Long durationMs) {}
+
+    private final Map<ProgressKey, PendingProgress> pendingProgress = new ConcurrentHashMap<>();
+
     @Transactional
     public VideoState getOrCreate(Video video) {
         Profile activeProfile = settingsService.getActiveProfile();
@@ -29,68 +66,211 @@ public class VideoStateService {
             state.video = video;
             state.persist();
         }
+        applyPending(activeProfile.id, video.id, state);
         return state;
     }
 
-    @Transactional
-    public Map<Long, VideoState> getOrCreateBatch(List<Video> videos) {
+    /**
+     * Watch state of one video for the active profile, without creating a row.
+     */
+    public VideoWatchStatus getStatus(Video video) {
+        if (video == null) {
+            return null;
+        }
+        return getStatusBatch(List.of(video)).get(video.id);
+    }
+
+    /**
+     * Watch state for each video for the active profile, read as a projection. Videos the
+     * profile has never played map to {@link VideoWatchStatus#unwatched} and nothing is
+     * written; rows are created by the first progress report or watched toggle.
+     */
+    public Map<Long, VideoWatchStatus> getStatusBatch(Collection<Video> videos) {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null || videos == null || videos.isEmpty()) {
             return Collections.emptyMap();
         }
 
-        List<VideoState> existing = VideoState.list("profile = ?1 AND video IN ?2", activeProfile, videos);
-        Map<Long, VideoState> result = new HashMap<>();
-        for (VideoState vs : existing) {
-            result.put(vs.video.id, vs);
+        List<Long> videoIds = new ArrayList<>(videos.size());
+        for (Video video : videos) {
+            videoIds.add(video.id);
         }
 
-        for (Video video : videos) {
-            if (!result.containsKey(video.id)) {
-                VideoState newState = new VideoState();
-                newState.profile = activeProfile;
-                newState.video = video;
-                newState.persist();
-                result.put(video.id, newState);
+        Map<Long, VideoWatchStatus> result = new HashMap<>();
+        for (int from = 0; from < videoIds.size(); from += STATUS_BATCH_SIZE) {
+            List<Long> chunk = videoIds.subList(from, Math.min(videoIds.size(), from + STATUS_BATCH_SIZE));
+            List<Object[]> rows = em.createQuery(
+                    "SELECT vs.video.id, vs.watched, vs.watchProgress, vs.currentTime FROM VideoState vs "
+                            + "WHERE vs.profile.id = :profileId AND vs.video.id IN :videoIds", Object[].class)
+                    .setParameter("profileId", activeProfile.id)
+                    .setParameter("videoIds", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                Long videoId = (Long) row[0];
+                result.put(videoId, new VideoWatchStatus(videoId, (Boolean) row[1], (Double) row[2], (Double) row[3]));
             }
         }
 
+        for (Long videoId : videoIds) {
+            PendingProgress pending = pendingProgress.get(new ProgressKey(activeProfile.id, videoId));
+            VideoWatchStatus stored = result.getOrDefault(videoId, VideoWatchStatus.unwatched(videoId));
+            if (pending != null) {
+                stored = new VideoWatchStatus(videoId,
+                        pending.watched() != null ? pending.watched() : stored.watched(),
+                        pending.watchProgress() != null ? pending.watchProgress() : stored.watchProgress(),
+                        pending.currentTime());
+            }
+            result.put(videoId, stored);
+        }
         return result;
     }
 
-    @Transactional
     public void updateProgress(Video video, double currentTimeSeconds) {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null || video == null) {
             return;
         }
+        bufferProgress(activeProfile.id, video.id, video.duration, currentTimeSeconds);
+    }
 
-        VideoState state = getOrCreate(video);
-        state.currentTime = currentTimeSeconds;
-        state.lastUpdated = LocalDateTime.now();
+    /**
+     * Buffer a progress heartbeat for the active profile without loading the Video entity.
+     * Returns false when there is no active profile or the video does not exist.
+     */
+    public boolean recordProgress(Long videoId, double currentTimeSeconds) {
+        Profile activeProfile = settingsService.getActiveProfile();
+        if (activeProfile == null || videoId == null) {
+            return false;
+        }
+
+        PendingProgress previous = pendingProgress.get(new ProgressKey(activeProfile.id, videoId));
+        Long durationMs;
+        if (previous != null) {
+            durationMs = previous.durationMs();
+        } else {
+            List<Long> durations = em.createQuery("SELECT v.duration FROM Video v WHERE v.id = :id", Long.class)
+                    .setParameter("id", videoId)
+                    .getResultList();
+            if (durations.isEmpty()) {
+                return false;
+            }
+            durationMs = durations.get(0);
+        }
+        bufferProgress(activeProfile.id, videoId, durationMs, currentTimeSeconds);
+        return true;
+    }
 
-        // Calculate watch progress
-        double durationSeconds = video.duration != null ? video.duration / 1000.0 : 0;
+    private void bufferProgress(Long profileId, Long videoId, Long durationMs, double currentTimeSeconds) {
+        // Calculate watch progress; left unset when the duration is unknown
+        Double watchProgress = null;
+        Boolean watched = null;
+        double durationSeconds = durationMs != null ? durationMs / 1000.0 : 0;
         if (durationSeconds > 0) {
-            state.watchProgress = Math.min(1.0, currentTimeSeconds / durationSeconds);
-            state.watched = state.watchProgress >= 0.95;
+            watchProgress = Math.min(1.0, currentTimeSeconds / durationSeconds);
+            watched = watchProgress >= 0.95;
+        }
+        pendingProgress.put(new ProgressKey(profileId, videoId),
+                new PendingProgress(currentTimeSeconds, watchProgress, watched, LocalDateTime.now(), durationMs));
+    }
+
+    private void applyPending(Long profileId, Long videoId, VideoState state) {
+        PendingProgress pending = pendingProgress.get(new ProgressKey(profileId, videoId));
+        if (pending != null && state != null) {
+            copyInto(pending, state);
         }
-        state.persist();
     }
 
+    private static void copyInto(PendingProgress pending, VideoState state) {
+        state.currentTime = pending.currentTime();
+        state.lastUpdated = pending.lastUpdated();
+        if (pending.watchProgress() != null) {
+            state.watchProgress = pending.watchProgress();
+            state.watched = pending.watched();
+        }
+    }
+
+    /**
+     * Write buffered progress in one transaction: one query loads the affected rows, and
+     * the resulting updates go out as a JDBC batch. Entries taken for the batch go back into
+     * the buffer if the transaction rolls back, unless a newer heartbeat arrived meanwhile.
+     */
+    @Scheduled(every = "5s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    public void flushProgress() {
+        if (pendingProgress.isEmpty()) {
+            return;
+        }
+
+        Map<ProgressKey, PendingProgress> batch = new HashMap<>();
+        for (Map.Entry<ProgressKey, PendingProgress> entry : pendingProgress.entrySet()) {
+            // Only drop the entry if no newer heartbeat replaced it meanwhile
+            if (pendingProgress.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        afterCommit.run(() -> { }, () -> batch.forEach(pendingProgress::putIfAbsent));
+
+        Set<Long> profileIds = new HashSet<>();
+        Set<Long> videoIds = new HashSet<>();
+        for (ProgressKey key : batch.keySet()) {
+            profileIds.add(key.profileId());
+            videoIds.add(key.videoId());
+        }
+
+        List<VideoState> existing = VideoState.list("profile.id IN ?1 AND video.id IN ?2", profileIds, videoIds);
+        Map<ProgressKey, VideoState> states = new HashMap<>();
+        for (VideoState vs : existing) {
+            states.put(new ProgressKey(vs.profile.id, vs.video.id), vs);
+        }
+
+        for (Map.Entry<ProgressKey, PendingProgress> entry : batch.entrySet()) {
+            ProgressKey key = entry.getKey();
+            VideoState state = states.get(key);
+            if (state == null) {
+                Video video = Video.findById(key.videoId());
+                if (video == null) {
+                    continue;
+                }
+                state = new VideoState();
+                state.profile = em.getReference(Profile.class, key.profileId());
+                state.video = video;
+                state.persist();
+            }
+            copyInto(entry.getValue(), state);
+        }
+        LOG.debug("Flushed {} buffered video progress updates", batch.size());
+    }
+
+    void onShutdown(@Observes ShutdownEvent ev) {
+        try {
+            flushProgress();
+        } catch (Exception e) {
+            LOG.warn("Could not flush video progress on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Transactional
     public List<VideoState> getInProgressVideos() {
         Profile activeProfile = settingsService.getActiveProfile();
         if (activeProfile == null) {
             return List.of();
         }
 
+        // Buffered heartbeats may reorder Continue Watching
+        flushProgress();
         return VideoState.list("profile = ?1 AND watchProgress > 0 AND watchProgress < 0.95 ORDER BY lastUpdated DESC", activeProfile);
     }
 
     @Transactional
     public void deleteForProfile(Profile profile) {
         if (profile != null) {
+            pendingProgress.keySet().removeIf(key -> key.profileId().equals(profile.id));
             VideoState.delete("profile = ?1", profile);
+            seriesIndexService.dropProfile(profile.id);
+            homeCarouselService.progressChanged(profile.id);
         }
     }
 }
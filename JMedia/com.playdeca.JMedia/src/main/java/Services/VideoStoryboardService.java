@@ -34,6 +34,9 @@ public class VideoStoryboardService {
     @Inject
     VideoService videoService;
 
+    @Inject
+    MediaMetrics metrics;
+
     @Inject
     org.eclipse.microprofile.context.ManagedExecutor executor;
 
@@ -168,7 +171,7 @@ public class VideoStoryboardService {
             );
 
             pb.redirectErrorStream(true);
-            Process process = pb.start();
+            Process process = metrics.trackProcess("storyboard", pb.start());
             
             StringBuilder output = new StringBuilder();
             try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(process.getInputStream()))) {
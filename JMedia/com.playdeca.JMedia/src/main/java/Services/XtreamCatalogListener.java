@@ -0,0 +1,23 @@
+package Services;
+
+import Models.Video;
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that records changed Video ids in the {@link XtreamCatalogService}.
+ * Only the id is touched here; lazy collections must not be initialized during flush.
+ * Bulk JPQL deletes bypass entity callbacks, so those call invalidateAll directly
+ * (see VideoImportService).
+ */
+public class XtreamCatalogListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChanged(Video video) {
+        Arc.container().instance(XtreamCatalogService.class).get().markChanged(video.id);
+    }
+}
@@ -0,0 +1,410 @@
+package Services;
+
+import Models.Genre;
+import Models.Video;
+import Models.Xtream.XtreamCategory;
+import Models.Xtream.XtreamSeries;
+import Models.Xtream.XtreamVodStream;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Materialized Xtream Codes catalog.
+ *
+ * Movies and episodes are held as flat rows loaded with projection queries, and every
+ * player_api.php list response is serialized once and served as bytes until something it
+ * depends on changes. {@link XtreamCatalogListener} records changed video ids; they are
+ * re-read on the next request, so a scan that touches a handful of videos only drops the
+ * affected series and the VOD lists. Large batches and bulk deletes fall back to a full reload.
+ */
+@ApplicationScoped
+public class XtreamCatalogService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XtreamCatalogService.class);
+
+    /** Above this many pending ids a full reload is cheaper than an IN query. */
+    private static final int INCREMENTAL_LIMIT = 500;
+    /** Safety net for changes that bypass entity callbacks (bulk JPQL updates). */
+    private static final long MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final String ALL_CATEGORIES = "0";
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    VideoService videoService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private record MovieRow(long id, String title, Double rating, LocalDateTime added,
+                            String container, String firstGenre) {}
+
+    private record EpisodeRow(long id, String seriesTitle, Integer season, Integer episode,
+                              String title, String container, String overview, Double rating,
+                              String releaseDate) {}
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, MovieRow> movies = new TreeMap<>();
+    private final Map<Long, EpisodeRow> episodes = new HashMap<>();
+    private final Map<String, String> genreIdsByName = new HashMap<>();
+    private final Map<Long, String> genreNamesById = new HashMap<>();
+    private final List<XtreamCategory> categories = new ArrayList<>();
+
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloadRequired = true;
+    private volatile long loadedAtNanos;
+
+    private volatile byte[] categoriesJson;
+    private volatile byte[] seriesJson;
+    private final Map<String, byte[]> vodStreamsJson = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> seriesInfoJson = new ConcurrentHashMap<>();
+
+    // ========== CHANGE TRACKING ==========
+
+    /**
+     * Record that a video was inserted, updated or deleted. Cheap enough to call from
+     * entity callbacks; the row is re-read on the next catalog request.
+     */
+    public void markChanged(Long videoId) {
+        if (videoId != null) {
+            changedIds.add(videoId);
+        }
+    }
+
+    /**
+     * Drop everything; used after bulk deletes that bypass entity callbacks.
+     */
+    public void invalidateAll() {
+        reloadRequired = true;
+        changedIds.clear();
+    }
+
+    // ========== SERVED VIEWS ==========
+
+    public byte[] getVodCategories() {
+        byte[] cached = categoriesJson;
+        return cached != null && isCurrent() ? cached : load(View.CATEGORIES, null);
+    }
+
+    public byte[] getVodStreams(String categoryId) {
+        String key = categoryId == null || categoryId.isBlank() ? ALL_CATEGORIES : categoryId;
+        byte[] cached = vodStreamsJson.get(key);
+        return cached != null && isCurrent() ? cached : load(View.VOD_STREAMS, key);
+    }
+
+    public byte[] getSeries() {
+        byte[] cached = seriesJson;
+        return cached != null && isCurrent() ? cached : load(View.SERIES, null);
+    }
+
+    /**
+     * Series info with seasons and episodes, or null when no episode belongs to the series.
+     */
+    public byte[] getSeriesInfo(String seriesId) {
+        byte[] cached = seriesInfoJson.get(seriesId);
+        return cached != null && isCurrent() ? cached : load(View.SERIES_INFO, seriesId);
+    }
+
+    private enum View { CATEGORIES, VOD_STREAMS, SERIES, SERIES_INFO }
+
+    private boolean isCurrent() {
+        return !reloadRequired && changedIds.isEmpty()
+                && System.nanoTime() - loadedAtNanos < MAX_AGE_NANOS;
+    }
+
+    @Transactional
+    byte[] load(View view, String key) {
+        lock.lock();
+        try {
+            if (reloadRequired || changedIds.size() > INCREMENTAL_LIMIT
+                    || System.nanoTime() - loadedAtNanos >= MAX_AGE_NANOS) {
+                reloadAll();
+            } else if (!changedIds.isEmpty()) {
+                applyChanges();
+            }
+
+            return switch (view) {
+                case CATEGORIES -> {
+                    if (categoriesJson == null) {
+                        categoriesJson = serialize(categories);
+                    }
+                    yield categoriesJson;
+                }
+                case VOD_STREAMS -> vodStreamsJson.computeIfAbsent(key, this::buildVodStreams);
+                case SERIES -> {
+                    if (seriesJson == null) {
+                        seriesJson = buildSeries();
+                    }
+                    yield seriesJson;
+                }
+                case SERIES_INFO -> {
+                    byte[] built = seriesInfoJson.get(key);
+                    if (built == null) {
+                        built = buildSeriesInfo(key);
+                        if (built != null) {
+                            seriesInfoJson.put(key, built);
+                        }
+                    }
+                    yield built;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== LOADING ==========
+
+    private void reloadAll() {
+        long start = System.nanoTime();
+        // Clear first so changes recorded while loading are picked up next time
+        reloadRequired = false;
+        changedIds.clear();
+
+        movies.clear();
+        episodes.clear();
+        loadRows(null);
+
+        genreIdsByName.clear();
+        genreNamesById.clear();
+        categories.clear();
+        List<Genre> genres = Genre.list("isActive = true");
+        for (Genre g : genres) {
+            categories.add(new XtreamCategory(g.id.toString(), g.name));
+            genreNamesById.put(g.id, g.name);
+            if (g.name != null) {
+                genreIdsByName.putIfAbsent(g.name.toLowerCase(), g.id.toString());
+            }
+        }
+
+        categoriesJson = null;
+        seriesJson = null;
+        vodStreamsJson.clear();
+        seriesInfoJson.clear();
+        loadedAtNanos = System.nanoTime();
+        LOG.info("Xtream catalog loaded: {} movies, {} episodes, {} categories in {} ms",
+                movies.size(), episodes.size(), categories.size(),
+                TimeUnit.NANOSECONDS.toMillis(loadedAtNanos - start));
+    }
+
+    private void applyChanges() {
+        Set<Long> ids = new HashSet<>(changedIds);
+        changedIds.removeAll(ids);
+
+        boolean moviesTouched = false;
+        Set<String> seriesTouched = new HashSet<>();
+        for (Long id : ids) {
+            moviesTouched |= movies.remove(id) != null;
+            EpisodeRow old = episodes.remove(id);
+            if (old != null) {
+                seriesTouched.add(old.seriesTitle());
+            }
+        }
+
+        for (Object row : loadRows(ids)) {
+            if (row instanceof MovieRow) {
+                moviesTouched = true;
+            } else if (row instanceof EpisodeRow e) {
+                seriesTouched.add(e.seriesTitle());
+            }
+        }
+
+        if (moviesTouched) {
+            vodStreamsJson.clear();
+        }
+        if (!seriesTouched.isEmpty()) {
+            seriesJson = null;
+            for (String title : seriesTouched) {
+                if (title != null) {
+                    seriesInfoJson.remove(seriesId(title));
+                }
+            }
+        }
+        LOG.debug("Xtream catalog applied {} changed videos", ids.size());
+    }
+
+    /**
+     * Read movie and episode rows for the given ids (all when null) into the maps and
+     * return the rows that were loaded.
+     */
+    private List<Object> loadRows(Collection<Long> ids) {
+        String filter = ids == null ? "" : " AND v.id IN :ids";
+
+        TypedQuery<Object[]> rowQuery = em.createQuery(
+                "SELECT v.id, v.type, v.title, v.seriesTitle, v.seasonNumber, v.episodeNumber, "
+                        + "v.container, v.overview, v.imdbRating, v.releaseDate, v.dateAdded "
+                        + "FROM Video v WHERE v.type IN ('movie', 'episode')" + filter, Object[].class);
+        TypedQuery<Object[]> genreQuery = em.createQuery(
+                "SELECT v.id, g FROM Video v JOIN v.genres g WHERE v.type = 'movie'" + filter, Object[].class);
+        if (ids != null) {
+            rowQuery.setParameter("ids", ids);
+            genreQuery.setParameter("ids", ids);
+        }
+
+        Map<Long, String> firstGenres = new HashMap<>();
+        for (Object[] r : genreQuery.getResultList()) {
+            firstGenres.putIfAbsent((Long) r[0], (String) r[1]);
+        }
+
+        List<Object> loaded = new ArrayList<>();
+        for (Object[] r : rowQuery.getResultList()) {
+            long id = (Long) r[0];
+            if ("movie".equals(r[1])) {
+                MovieRow row = new MovieRow(id, (String) r[2], (Double) r[8], (LocalDateTime) r[10],
+                        (String) r[6], firstGenres.get(id));
+                movies.put(id, row);
+                loaded.add(row);
+            } else if (r[3] != null) {
+                EpisodeRow row = new EpisodeRow(id, (String) r[3], (Integer) r[4], (Integer) r[5],
+                        (String) r[2], (String) r[6], (String) r[7], (Double) r[8], (String) r[9]);
+                episodes.put(id, row);
+                loaded.add(row);
+            }
+        }
+        return loaded;
+    }
+
+    // ========== SERIALIZATION ==========
+
+    private byte[] buildVodStreams(String categoryId) {
+        Collection<MovieRow> rows = movies.values();
+        if (!ALL_CATEGORIES.equals(categoryId)) {
+            String genreName = null;
+            try {
+                genreName = genreNamesById.get(Long.parseLong(categoryId));
+            } catch (NumberFormatException ignored) {
+            }
+            if (genreName != null) {
+                List<MovieRow> inGenre = new ArrayList<>();
+                for (Video v : videoService.findByGenre(genreName.toLowerCase(), 1, 1000)) {
+                    MovieRow row = movies.get(v.id);
+                    inGenre.add(row != null ? row : new MovieRow(v.id, v.title, v.imdbRating, v.dateAdded,
+                            v.container, v.genres != null && !v.genres.isEmpty() ? v.genres.get(0) : null));
+                }
+                rows = inGenre;
+            }
+        }
+
+        List<XtreamVodStream> streams = new ArrayList<>(rows.size());
+        int num = 1;
+        for (MovieRow v : rows) {
+            XtreamVodStream s = new XtreamVodStream();
+            s.num = num++;
+            s.name = v.title();
+            s.streamId = v.id();
+            s.streamIcon = "/api/video/thumbnail/" + v.id();
+            s.rating = v.rating() != null ? v.rating().toString() : "0";
+            s.added = v.added() != null ? String.valueOf(v.added().toEpochSecond(ZoneOffset.UTC)) : "0";
+            s.containerExtension = v.container() != null ? v.container() : "mp4";
+            s.categoryId = v.firstGenre() != null
+                    ? genreIdsByName.getOrDefault(v.firstGenre().toLowerCase(), "0")
+                    : "0";
+            streams.add(s);
+        }
+        return serialize(streams);
+    }
+
+    private byte[] buildSeries() {
+        Map<String, EpisodeRow> firstBySeries = new LinkedHashMap<>();
+        episodes.values().stream()
+                .sorted(Comparator.comparingLong(EpisodeRow::id))
+                .forEach(e -> firstBySeries.putIfAbsent(e.seriesTitle(), e));
+
+        String lastModified = String.valueOf(System.currentTimeMillis() / 1000);
+        List<XtreamSeries> seriesList = new ArrayList<>(firstBySeries.size());
+        int num = 1;
+        for (Map.Entry<String, EpisodeRow> entry : firstBySeries.entrySet()) {
+            EpisodeRow first = entry.getValue();
+            XtreamSeries s = new XtreamSeries();
+            s.num = num++;
+            s.name = entry.getKey();
+            s.seriesId = seriesId(entry.getKey());
+            s.cover = "/api/video/thumbnail/" + first.id();
+            s.plot = first.overview();
+            s.rating = first.rating() != null ? first.rating().toString() : "0";
+            s.releaseDate = first.releaseDate();
+            s.lastModified = lastModified;
+            s.categoryId = "0";
+            seriesList.add(s);
+        }
+        return serialize(seriesList);
+    }
+
+    private byte[] buildSeriesInfo(String seriesId) {
+        List<EpisodeRow> seriesEpisodes = episodes.values().stream()
+                .filter(e -> seriesId(e.seriesTitle()).equals(seriesId))
+                .sorted(Comparator.comparing((EpisodeRow e) -> e.season() != null ? e.season() : 0)
+                        .thenComparing(e -> e.episode() != null ? e.episode() : 0))
+                .toList();
+        if (seriesEpisodes.isEmpty()) {
+            return null;
+        }
+
+        EpisodeRow first = seriesEpisodes.get(0);
+        // Cast, directors and genres are element collections; read them for the one episode shown
+        Video firstVideo = Video.findById(first.id());
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("name", first.seriesTitle());
+        info.put("cover", "/api/video/thumbnail/" + first.id());
+        info.put("plot", first.overview());
+        info.put("cast", firstVideo != null && firstVideo.cast != null ? String.join(", ", firstVideo.cast) : "");
+        info.put("director", firstVideo != null && firstVideo.directors != null ? String.join(", ", firstVideo.directors) : "");
+        info.put("genre", firstVideo != null && firstVideo.genres != null ? String.join(", ", firstVideo.genres) : "");
+        info.put("releaseDate", first.releaseDate());
+        info.put("rating", first.rating());
+
+        Map<String, List<Map<String, Object>>> seasons = new LinkedHashMap<>();
+        for (EpisodeRow e : seriesEpisodes) {
+            String seasonNum = String.valueOf(e.season() != null ? e.season() : 1);
+            Map<String, Object> ep = new HashMap<>();
+            ep.put("id", e.id());
+            ep.put("title", e.title() != null ? e.title() : "Episode " + e.episode());
+            ep.put("container_extension", e.container() != null ? e.container() : "mp4");
+            ep.put("season", e.season());
+            ep.put("episode_num", e.episode());
+            seasons.computeIfAbsent(seasonNum, k -> new ArrayList<>()).add(ep);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("info", info);
+        response.put("episodes", seasons);
+        return serialize(response);
+    }
+
+    /** Stable id Xtream clients already know series by. */
+    public static String seriesId(String seriesTitle) {
+        return String.valueOf(seriesTitle.hashCode());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Xtream catalog", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package Utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build-time asset stage, run by the exec-maven-plugin in the {@code process-classes} phase.
+ *
+ * Copies every file under {@code css/}, {@code js/} and {@code lib/} of the static resources
+ * to a content-hashed name ({@code css/player.css} becomes {@code css/player.3f2a9c1d07.css}),
+ * writes gzip and, when the {@code brotli} command is installed, Brotli variants of
+ * compressible files, and records everything in {@code asset-manifest.json}. The output goes
+ * to {@code jmedia-assets/} on the classpath and is served by {@code AssetController}.
+ *
+ * Usage: {@code StaticAssetBuilder <static resources dir> <output dir>}
+ */
+public class StaticAssetBuilder {
+
+    public static final String MANIFEST_NAME = "asset-manifest.json";
+
+    private static final List<String> ASSET_DIRS = List.of("css", "js", "lib");
+    private static final Set<String> COMPRESSIBLE = Set.of(
+            "css", "js", "mjs", "json", "map", "svg", "html", "txt", "wasm", "ttf", "otf", "eot", "vtt");
+    /** Below this, compression overhead outweighs the saving. */
+    private static final int MIN_COMPRESS_BYTES = 1024;
+    private static final int HASH_HEX_CHARS = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: StaticAssetBuilder <static resources dir> <output dir>");
+            System.exit(1);
+        }
+        Path sourceRoot = Path.of(args[0]);
+        Path outputRoot = Path.of(args[1]);
+
+        long start = System.nanoTime();
+        boolean brotli = brotliAvailable();
+        if (!brotli) {
+            System.out.println("[StaticAssetBuilder] 'brotli' not found on PATH, emitting gzip variants only");
+        }
+
+        // Drop hashed files of earlier builds
+        if (Files.isDirectory(outputRoot)) {
+            try (Stream<Path> walk = Files.walk(outputRoot)) {
+                for (Path stale : walk.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(stale);
+                }
+            }
+        }
+
+        Map<String, Map<String, Object>> assets = new TreeMap<>();
+        long originalBytes = 0;
+        long gzipBytes = 0;
+        for (String dir : ASSET_DIRS) {
+            Path base = sourceRoot.resolve(dir);
+            if (!Files.isDirectory(base)) {
+                continue;
+            }
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(base)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                String relative = sourceRoot.relativize(file).toString().replace('\\', '/');
+                byte[] content = Files.readAllBytes(file);
+                String hashedRelative = hashedName(relative, content);
+
+                Path target = outputRoot.resolve(hashedRelative);
+                Files.createDirectories(target.getParent());
+                Files.write(target, content);
+                originalBytes += content.length;
+
+                List<String> encodings = new ArrayList<>();
+                if (COMPRESSIBLE.contains(extension(relative)) && content.length >= MIN_COMPRESS_BYTES) {
+                    byte[] gzipped = gzip(content);
+                    if (gzipped.length < content.length * 0.9) {
+                        Files.write(Path.of(target + ".gz"), gzipped);
+                        encodings.add("gzip");
+                        gzipBytes += gzipped.length;
+                        if (brotli && brotli(target, Path.of(target + ".br"))) {
+                            encodings.add(0, "br");
+                        }
+                    }
+                }
+
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("path", "/assets/" + hashedRelative);
+                entry.put("encodings", encodings);
+                assets.put("/" + relative, entry);
+            }
+        }
+
+        Files.createDirectories(outputRoot);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(outputRoot.resolve(MANIFEST_NAME).toFile(), Map.of("assets", assets));
+        System.out.printf("[StaticAssetBuilder] %d assets, %d KB raw, gzip variants %d KB, in %d ms%n",
+                assets.size(), originalBytes / 1024, gzipBytes / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * {@code dir/name.ext} becomes {@code dir/name.<hash>.ext}; only the last extension is kept
+     * after the hash, so {@code bulma.min.css} becomes {@code bulma.min.<hash>.css}.
+     */
+    static String hashedName(String relative, byte[] content) {
+        String hash = sha256Hex(content).substring(0, HASH_HEX_CHARS);
+        int slash = relative.lastIndexOf('/');
+        int dot = relative.lastIndexOf('.');
+        if (dot <= slash + 1) {
+            return relative + "." + hash;
+        }
+        return relative.substring(0, dot) + "." + hash + relative.substring(dot);
+    }
+
+    private static String extension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String sha256Hex(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 3);
+        try (OutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version").redirectErrorStream(true).start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean brotli(Path input, Path output) throws IOException, InterruptedException {
+        try {
+            Process process = new ProcessBuilder("brotli", "-q", "11", "-f", "-o", output.toString(), input.toString())
+                    .redirectErrorStream(true)
+                    .start();
+            process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            if (process.waitFor(60, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                return true;
+            }
+            process.destroyForcibly();
+        } catch (IOException e) {
+            System.err.println("[StaticAssetBuilder] brotli failed for " + input + ": " + e.getMessage());
+        }
+        Files.deleteIfExists(output);
+        return false;
+    }
+}
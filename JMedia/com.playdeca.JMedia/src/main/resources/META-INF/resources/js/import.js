@@ -52,6 +52,15 @@ const connectWebSocket = () => {
         if (event.data.startsWith('{') && event.data.endsWith('}')) {
             try {
                 const status = JSON.parse(event.data);
+                if (status.type === 'import-progress') {
+                    // Per-item progress of a pipelined import; queued items are not listed
+                    if (status.state !== 'queued' && spotdlOutputTextarea) {
+                        const songs = status.state === 'done' ? ` (${status.songs} songs)` : '';
+                        spotdlOutputTextarea.value += `[${status.item}/${status.total}] ${status.state}: ${status.query}${songs}\n`;
+                        spotdlOutputTextarea.scrollTop = spotdlOutputTextarea.scrollHeight;
+                    }
+                    return;
+                }
                 window.parakeetInstalled = status.parakeetInstalled;
                 if (!status.allInstalled) {
                     let warningText = "External tools not fully installed: ";
@@ -0,0 +1,98 @@
+#!/usr/bin/env python3
+"""
+Stand-in for run_parakeet.py --serve that needs neither torch nor the model.
+Speaks the same worker protocol (READY, PROGRESS:, SRT:, DONE:/FAILED:) and writes one
+placeholder cue per non-silent 10-second chunk, so AI subtitle batches can be exercised
+offline. Select it with jmedia.parakeet.worker-script=parakeet_stub_worker.py.
+
+--delay adds a pause per chunk to imitate model speed.
+"""
+
+import argparse
+import array
+import json
+import math
+import sys
+import time
+from pathlib import Path
+
+SAMPLE_RATE = 16000
+CHUNK_SECONDS = 10
+
+
+def log(line):
+    print(line, file=sys.stderr, flush=True)
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Offline stub of the Parakeet transcription worker")
+    parser.add_argument("--serve", action="store_true", help="Accepted for compatibility; always serves")
+    parser.add_argument("--delay", type=float, default=0.0, help="Seconds to sleep per 10-second chunk")
+    parser.add_argument("--startup", type=float, default=0.0, help="Seconds to sleep before READY")
+    args = parser.parse_args()
+
+    log("DEVICE:stub")
+    time.sleep(args.startup)
+    log("READY")
+
+    for raw in sys.stdin:
+        raw = raw.strip()
+        if not raw:
+            continue
+        try:
+            job = json.loads(raw)
+        except ValueError as e:
+            log(f"FAILED:?:Invalid job line: {e}")
+            continue
+        if job.get("cmd") == "shutdown":
+            break
+
+        job_id = job.get("id", "?")
+        try:
+            if not job.get("pcm"):
+                raise RuntimeError("The stub worker only accepts PCM input")
+            samples = array.array("f")
+            samples.frombytes(Path(job["pcm"]).read_bytes())
+            if sys.byteorder != "little":
+                samples.byteswap()
+            srt_path = Path(job["output"])
+            srt_path.parent.mkdir(parents=True, exist_ok=True)
+            count = write_placeholder_srt(samples, srt_path, args.delay)
+            log(f"SRT:{srt_path}")
+            log(f"PARAKEET:Done — {count} subtitles written")
+            log(f"DONE:{job_id}")
+        except Exception as e:
+            log(f"FAILED:{job_id}:{str(e).replace(chr(10), ' ')}")
+
+
+def write_placeholder_srt(samples, srt_path, delay):
+    chunk_len = CHUNK_SECONDS * SAMPLE_RATE
+    total = len(samples)
+    lines = []
+    index = 1
+    for start in range(0, total, chunk_len):
+        end = min(start + chunk_len, total)
+        chunk = samples[start:end]
+        rms = math.sqrt(sum(s * s for s in chunk) / len(chunk)) if len(chunk) else 0.0
+        if rms >= 0.015:
+            lines.append(str(index))
+            lines.append(format_srt_time(start / SAMPLE_RATE) + " --> " + format_srt_time(end / SAMPLE_RATE))
+            lines.append(f"[stub transcript {index}]")
+            lines.append("")
+            index += 1
+        if delay > 0:
+            time.sleep(delay)
+        log(f"PROGRESS:{end / total * 100.0:.1f}")
+    srt_path.write_text("\n".join(lines), encoding="utf-8")
+    return index - 1
+
+
+def format_srt_time(seconds):
+    hours = int(seconds // 3600)
+    minutes = int((seconds % 3600) // 60)
+    secs = seconds % 60
+    return f"{hours:02d}:{minutes:02d}:{secs:06.3f}".replace(".", ",")
+
+
+if __name__ == "__main__":
+    main()
@@ -2,11 +2,20 @@
 """
 Parakeet TDT v3 transcription wrapper for JMedia.
 Transcribes audio/video files using NVIDIA Parakeet TDT 0.6B v3.
+
+One-shot mode (--audio): transcribes a single file and exits.
+Worker mode (--serve): loads the model once, prints READY, then reads one JSON job per
+line on stdin until EOF or {"cmd": "shutdown"}:
+    {"id": "...", "pcm": "/tmp/x.f32", "output": "/videos/x.srt", "language": "en"}
+"pcm" is raw 16 kHz mono float32 little-endian audio; "audio" (any container) may be
+given instead. Each job ends with DONE:<id> or FAILED:<id>:<message>.
+
 Reports progress to stderr in format: PROGRESS:<percent>
 Reports output path to stderr in format: SRT:<path>
 """
 
 import argparse
+import json
 import os
 import sys
 import time
@@ -15,46 +24,107 @@ from pathlib import Path
 
 warnings.filterwarnings("ignore")
 
+SAMPLE_RATE = 16000
+
+
+def log(line):
+    print(line, file=sys.stderr, flush=True)
+
+
 def main():
     parser = argparse.ArgumentParser(description="Transcribe audio with Parakeet TDT v3")
-    parser.add_argument("--audio", required=True, help="Path to audio/video file")
-    parser.add_argument("--output", required=True, help="Output directory for SRT file")
+    parser.add_argument("--audio", help="Path to audio/video file")
+    parser.add_argument("--output", help="Output directory for SRT file")
     parser.add_argument("--language", default=None, help="Language code (optional, model auto-detects)")
+    parser.add_argument("--serve", action="store_true", help="Keep the model loaded and read jobs from stdin")
     args = parser.parse_args()
 
+    if args.serve:
+        serve()
+        return
+
+    if not args.audio or not args.output:
+        parser.error("--audio and --output are required unless --serve is given")
+
     audio_path = Path(args.audio)
     if not audio_path.exists():
-        print(f"ERROR: Audio file not found: {args.audio}", file=sys.stderr)
+        log(f"ERROR: Audio file not found: {args.audio}")
         sys.exit(1)
 
     output_dir = Path(args.output)
     output_dir.mkdir(parents=True, exist_ok=True)
 
+    try:
+        engine = load_model()
+        audio = load_audio_file(audio_path)
+    except RuntimeError as e:
+        log(f"ERROR:{e}")
+        sys.exit(1)
+
+    srt_path = output_dir / f"{audio_path.stem}.srt"
+    count = transcribe_to_srt(engine, audio, srt_path)
+    log(f"SRT:{srt_path}")
+    log(f"PARAKEET:Done — {count} subtitles written")
+
+
+def serve():
+    try:
+        engine = load_model()
+    except RuntimeError as e:
+        log(f"ERROR:{e}")
+        sys.exit(1)
+
+    log("READY")
+    for raw in sys.stdin:
+        raw = raw.strip()
+        if not raw:
+            continue
+        try:
+            job = json.loads(raw)
+        except ValueError as e:
+            log(f"FAILED:?:Invalid job line: {e}")
+            continue
+        if job.get("cmd") == "shutdown":
+            break
+
+        job_id = job.get("id", "?")
+        try:
+            if job.get("pcm"):
+                audio = load_pcm(Path(job["pcm"]))
+            else:
+                audio = load_audio_file(Path(job["audio"]))
+            srt_path = Path(job["output"])
+            srt_path.parent.mkdir(parents=True, exist_ok=True)
+            started = time.time()
+            count = transcribe_to_srt(engine, audio, srt_path)
+            log(f"SRT:{srt_path}")
+            log(f"PARAKEET:Done — {count} subtitles written in {time.time() - started:.1f}s")
+            log(f"DONE:{job_id}")
+        except Exception as e:
+            log(f"FAILED:{job_id}:{str(e).replace(chr(10), ' ')}")
+
+
+def load_model():
     try:
         import torch
-        import numpy as np
         from transformers import AutoModelForTDT, AutoProcessor
     except ImportError as e:
-        print(f"ERROR: Missing dependency: {e}", file=sys.stderr)
-        print("Run: pip install transformers torch librosa", file=sys.stderr)
-        sys.exit(1)
+        log("Run: pip install transformers torch librosa")
+        raise RuntimeError(f"Missing dependency: {e}")
 
     # Device detection
     if torch.cuda.is_available():
         device = "cuda"
         dtype = torch.float16
-        print(f"DEVICE:cuda", file=sys.stderr)
     elif torch.backends.mps.is_available() and torch.backends.mps.is_built():
         device = "mps"
         dtype = torch.float32
-        print(f"DEVICE:mps", file=sys.stderr)
     else:
         device = "cpu"
         dtype = torch.float32
-        print(f"DEVICE:cpu", file=sys.stderr)
-
-    print(f"PARAKEET:Loading model nvidia/parakeet-tdt-0.6b-v3...", file=sys.stderr)
+    log(f"DEVICE:{device}")
 
+    log("PARAKEET:Loading model nvidia/parakeet-tdt-0.6b-v3...")
     try:
         processor = AutoProcessor.from_pretrained("nvidia/parakeet-tdt-0.6b-v3")
         model = AutoModelForTDT.from_pretrained(
@@ -64,46 +134,62 @@ def main():
         )
         model = model.to(device)
     except Exception as e:
-        print(f"ERROR:Failed to load Parakeet model: {e}", file=sys.stderr)
-        sys.exit(1)
+        raise RuntimeError(f"Failed to load Parakeet model: {e}")
+
+    log("PARAKEET:Model loaded successfully")
+    return {"processor": processor, "model": model, "device": device, "local_attn": False}
 
-    print(f"PARAKEET:Model loaded successfully", file=sys.stderr)
 
-    # Load audio with librosa
+def load_audio_file(audio_path):
+    """Decode any container with librosa (slow path; the worker normally receives PCM)."""
     try:
         import librosa
     except ImportError:
-        print(f"ERROR: librosa not installed. Run: pip install librosa", file=sys.stderr)
-        sys.exit(1)
+        raise RuntimeError("librosa not installed. Run: pip install librosa")
 
-    print(f"PARAKEET:Loading audio from {audio_path.name}...", file=sys.stderr)
+    log(f"PARAKEET:Loading audio from {audio_path.name}...")
     try:
-        audio, sr = librosa.load(str(audio_path), sr=16000, mono=True)
+        audio, _ = librosa.load(str(audio_path), sr=SAMPLE_RATE, mono=True)
     except Exception as e:
-        print(f"ERROR:Failed to load audio: {e}", file=sys.stderr)
-        sys.exit(1)
+        raise RuntimeError(f"Failed to load audio: {e}")
+    return audio
+
+
+def load_pcm(pcm_path):
+    import numpy as np
+    return np.fromfile(str(pcm_path), dtype="<f4")
+
+
+def transcribe_to_srt(engine, audio, srt_path):
+    import torch
+    import numpy as np
+
+    processor = engine["processor"]
+    model = engine["model"]
+    device = engine["device"]
+    sr = SAMPLE_RATE
 
     duration_sec = len(audio) / sr
-    print(f"PARAKEET:Audio loaded: {duration_sec:.1f}s at {sr}Hz", file=sys.stderr)
+    log(f"PARAKEET:Audio loaded: {duration_sec:.1f}s at {sr}Hz")
 
-    # For long audio, use local attention mode
-    use_local_attn = duration_sec > 1200  # >20 minutes
-    if use_local_attn:
+    # For long audio, use local attention mode (kept for the rest of a worker's life)
+    if duration_sec > 1200 and not engine["local_attn"]:  # >20 minutes
         try:
             model.change_attention_model(
                 self_attention_model="rel_pos_local_attn",
                 att_context_size=[256, 256]
             )
-            print(f"PARAKEET:Using local attention for long audio", file=sys.stderr)
+            engine["local_attn"] = True
+            log("PARAKEET:Using local attention for long audio")
         except Exception:
             pass  # Not supported by all model versions
 
     # Process in chunks and transcribe
-    chunk_len = min(10 * sr, len(audio))  # 10-second chunks
+    chunk_len = max(1, min(10 * sr, len(audio)))  # 10-second chunks
     all_segments = []
     total_samples = len(audio)
 
-    print(f"PARAKEET:Transcribing...", file=sys.stderr)
+    log("PARAKEET:Transcribing...")
 
     for start in range(0, total_samples, chunk_len):
         end = min(start + chunk_len, total_samples)
@@ -123,7 +209,7 @@ def main():
                 "chunk_end": end / sr,
             })
             progress = (end / total_samples) * 100.0
-            print(f"PROGRESS:{progress:.1f}", file=sys.stderr)
+            log(f"PROGRESS:{progress:.1f}")
             continue
 
         inputs = processor([chunk], sampling_rate=16000, return_tensors="pt")
@@ -157,9 +243,14 @@ def main():
         })
 
         progress = (end / total_samples) * 100.0
-        print(f"PROGRESS:{progress:.1f}", file=sys.stderr)
+        log(f"PROGRESS:{progress:.1f}")
 
-    # Build SRT content
+    srt_lines, count = build_srt(all_segments)
+    srt_path.write_text("\n".join(srt_lines), encoding="utf-8")
+    return count
+
+
+def build_srt(all_segments):
     srt_lines = []
     subtitle_index = 1
     for seg in all_segments:
@@ -201,13 +292,7 @@ def main():
             srt_lines.append("")
             subtitle_index += 1
 
-    # Write SRT file
-    base_name = audio_path.stem
-    srt_path = output_dir / f"{base_name}.srt"
-    srt_path.write_text("\n".join(srt_lines), encoding="utf-8")
-
-    print(f"SRT:{srt_path}", file=sys.stderr)
-    print(f"PARAKEET:Done — {subtitle_index - 1} subtitles written", file=sys.stderr)
+    return srt_lines, subtitle_index - 1
 
 
 def group_words_into_subtitles(words, max_chars=42, max_duration=4.0):